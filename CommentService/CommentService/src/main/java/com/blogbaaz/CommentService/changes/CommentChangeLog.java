@@ -0,0 +1,153 @@
+package com.blogbaaz.CommentService.changes;
+
+import com.blogbaaz.CommentService.config.ChangeFeedConfig;
+import com.blogbaaz.CommentService.entities.CommentChange;
+import com.blogbaaz.CommentService.entities.CommentChangeHead;
+import com.blogbaaz.CommentService.repositories.CommentChangeHeadRepository;
+import com.blogbaaz.CommentService.repositories.CommentChangeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Transactional outbox of comment changes. Every change is stored in the
+ * transaction that makes it, so the log holds exactly the committed changes.
+ * <p>
+ * Sequence numbers are handed out as the transaction commits, under a lock on
+ * the single {@link CommentChangeHead} row that is held until the commit, so
+ * they follow commit order: once a change is visible, every change numbered
+ * before it is too, and readers never have to wait out or skip a gap.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CommentChangeLog {
+
+    private final CommentChangeRepository changeRepository;
+    private final CommentChangeHeadRepository headRepository;
+    private final ChangeFeedConfig config;
+
+    // Notified after each local commit that recorded a change
+    private final Object commits = new Object();
+    private long commitCount;
+
+    // Joins the caller's transaction; the row is written when it commits
+    public void record(String commentId, CommentChange.ChangeType type) {
+        pendingChanges().add(CommentChange.builder().commentId(commentId).type(type).build());
+    }
+
+    // Committed changes after the given sequence number, oldest first
+    public List<CommentChange> read(long after, int limit) {
+        return changeRepository.findBySeqGreaterThanOrderBySeqAsc(after, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Blocks until a change after the given sequence number can be read or
+     * waitMs passes. Local commits wake waiters at once; changes made through
+     * other instances are seen at the next poll.
+     */
+    public void await(long after, long waitMs) throws InterruptedException {
+        long deadline = System.nanoTime() + Math.min(waitMs, config.getMaxWaitMs()) * 1_000_000;
+        while (true) {
+            long seen;
+            synchronized (commits) {
+                seen = commitCount;
+            }
+            if (!read(after, 1).isEmpty()) {
+                return;
+            }
+            long remainingMs = (deadline - System.nanoTime()) / 1_000_000;
+            if (remainingMs <= 0) {
+                return;
+            }
+            synchronized (commits) {
+                if (commitCount == seen) {
+                    commits.wait(Math.min(remainingMs, config.getPollIntervalMs()));
+                }
+            }
+        }
+    }
+
+    // Latest sequence number a new consumer can start reading after
+    public long head() {
+        Long head = changeRepository.findMaxSeq();
+        return head != null ? head : 0;
+    }
+
+    // True when changes after the given sequence number have already been pruned
+    public boolean isPruned(long after) {
+        Long oldest = changeRepository.findMinSeq();
+        return oldest != null && after + 1 < oldest;
+    }
+
+    @Scheduled(fixedDelayString = "${change-feed.prune-interval-ms:3600000}")
+    @Transactional
+    public void prune() {
+        int pruned = changeRepository.deleteChangesBefore(LocalDateTime.now().minusDays(config.getRetentionDays()));
+        if (pruned > 0) {
+            log.info("Pruned {} comment changes older than {} days", pruned, config.getRetentionDays());
+        }
+    }
+
+    // Changes recorded in the current transaction, numbered and saved just before it commits
+    @SuppressWarnings("unchecked")
+    private List<CommentChange> pendingChanges() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Comment changes can only be recorded in a transaction");
+        }
+        List<CommentChange> pending = (List<CommentChange>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<CommentChange> changes = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    append(changes);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CommentChangeLog.this);
+                    if (status == STATUS_COMMITTED) {
+                        signalCommit();
+                    }
+                }
+            });
+            pending = changes;
+        }
+        return pending;
+    }
+
+    private void append(List<CommentChange> changes) {
+        // Write everything else first: the head lock has to be the last lock the transaction waits for,
+        // or a transaction holding it could wait on a row locked by one queued behind it
+        changeRepository.flush();
+        CommentChangeHead head = headRepository.lockById(CommentChangeHead.ID).orElse(null);
+        if (head == null) {
+            headRepository.createIfMissing(CommentChangeHead.ID);
+            head = headRepository.lockById(CommentChangeHead.ID).orElseThrow();
+        }
+        long seq = head.getLastSeq();
+        for (CommentChange change : changes) {
+            change.setSeq(++seq);
+        }
+        head.setLastSeq(seq);
+        changeRepository.saveAll(changes);
+    }
+
+    private void signalCommit() {
+        synchronized (commits) {
+            commitCount++;
+            commits.notifyAll();
+        }
+    }
+}
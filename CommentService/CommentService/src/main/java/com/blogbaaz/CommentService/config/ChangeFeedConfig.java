@@ -0,0 +1,17 @@
+package com.blogbaaz.CommentService.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "change-feed")
+public class ChangeFeedConfig {
+    // Long polls re-check the table this often, to see changes committed by other instances
+    private long pollIntervalMs = 1000;
+    private long maxWaitMs = 25000;
+    private int maxBatchSize = 1000;
+    private int retentionDays = 7;
+    private long pruneIntervalMs = 3600000;
+}
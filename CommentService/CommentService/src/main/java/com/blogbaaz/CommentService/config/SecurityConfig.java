@@ -26,6 +26,7 @@ public class SecurityConfig {
                         // Public endpoints (no authentication required)
                         .requestMatchers("/api/comments/post/**").permitAll()
                         .requestMatchers("/api/comments/search").permitAll()
+                        .requestMatchers("/api/comments/all", "/api/comments/changes", "/api/comments/changes/head").permitAll()
                         .requestMatchers("/api/comments/{commentId}").permitAll() // GET by ID
                         .requestMatchers("/api/comments/{commentId}/replies").permitAll() // GET replies
                         .requestMatchers("/api/comments/post/{postId}/count").permitAll() // GET count
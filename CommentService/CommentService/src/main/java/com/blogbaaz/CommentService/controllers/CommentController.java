@@ -1,5 +1,6 @@
 package com.blogbaaz.CommentService.controllers;
 
+import com.blogbaaz.CommentService.config.ChangeFeedConfig;
 import com.blogbaaz.CommentService.dtos.*;
 import com.blogbaaz.CommentService.services.CommentService;
 import jakarta.servlet.http.HttpServletRequest;
@@ -21,6 +22,7 @@ import java.util.List;
 public class CommentController {
 
     private final CommentService commentService;
+    private final ChangeFeedConfig changeFeedConfig;
 
     @PostMapping
     public ResponseEntity<CommentDto> createComment(
@@ -141,4 +143,36 @@ public class CommentController {
         List<CommentDto> comments = commentService.searchComments(keyword);
         return ResponseEntity.ok(comments);
     }
+
+    // Every visible comment, a page at a time: pass the last commentId seen as after
+    @GetMapping("/all")
+    public ResponseEntity<List<CommentDto>> getAllComments(
+            @RequestParam(defaultValue = "") String after,
+            @RequestParam(defaultValue = "500") int limit) {
+
+        int pageSize = Math.max(1, Math.min(limit, changeFeedConfig.getMaxBatchSize()));
+        return ResponseEntity.ok(commentService.getAllComments(after, pageSize));
+    }
+
+    // Change feed: every committed change after the given sequence number, with the
+    // current state of the changed comments. With waitMs, an empty answer is held back
+    // until a change arrives or the wait runs out (long poll).
+    @GetMapping("/changes")
+    public ResponseEntity<CommentChangeFeed> getChanges(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "500") int limit,
+            @RequestParam(defaultValue = "0") long waitMs) {
+
+        if (waitMs > 0) {
+            commentService.awaitChanges(after, waitMs);
+        }
+        int batchSize = Math.max(1, Math.min(limit, changeFeedConfig.getMaxBatchSize()));
+        return ResponseEntity.ok(commentService.getChanges(after, batchSize));
+    }
+
+    // Where a new consumer starts: read everything, then follow the feed from here
+    @GetMapping("/changes/head")
+    public ResponseEntity<Long> getChangeHead() {
+        return ResponseEntity.ok(commentService.getChangeHead());
+    }
 }
@@ -0,0 +1,16 @@
+package com.blogbaaz.CommentService.dtos;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CommentChangeDto {
+    private long seq;
+    private String commentId;
+    private String type;
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,23 @@
+package com.blogbaaz.CommentService.dtos;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * A batch of the comment change feed. comments holds the current state of
+ * every changed comment that is still visible; a changed comment missing from
+ * it was deleted. Consumers ask for the next batch after lastSeq. When
+ * resyncRequired is set the changes they asked for were already pruned, and
+ * they must reload everything and continue from the feed head.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CommentChangeFeed {
+    private long lastSeq;
+    private boolean resyncRequired;
+    private List<CommentChangeDto> changes;
+    private List<CommentDto> comments;
+}
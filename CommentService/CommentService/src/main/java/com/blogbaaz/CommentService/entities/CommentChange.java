@@ -0,0 +1,58 @@
+package com.blogbaaz.CommentService.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+// One row of the comment change feed, written in the same transaction as the change itself.
+// Sequence numbers are assigned by CommentChangeLog as the transaction commits, so rows are always inserted.
+@Entity
+@Table(name = "comment_changes")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CommentChange implements Persistable<Long> {
+
+    @Id
+    private Long seq;
+
+    @Column(nullable = false)
+    private String commentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ChangeType type;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime changedAt;
+
+    @Transient
+    @Builder.Default
+    private boolean stored = false;
+
+    @Override
+    public Long getId() {
+        return seq;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !stored;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        stored = true;
+    }
+
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+}
@@ -0,0 +1,22 @@
+package com.blogbaaz.CommentService.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Single row holding the last sequence number handed to a comment change; locked while a transaction commits its changes
+@Entity
+@Table(name = "comment_change_head")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentChangeHead {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private long lastSeq;
+}
@@ -0,0 +1,26 @@
+package com.blogbaaz.CommentService.repositories;
+
+import com.blogbaaz.CommentService.entities.CommentChangeHead;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CommentChangeHeadRepository extends JpaRepository<CommentChangeHead, Integer> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM CommentChangeHead h WHERE h.id = :id")
+    Optional<CommentChangeHead> lockById(@Param("id") int id);
+
+    // Starts numbering after the changes already in the log; a no-op once the row exists
+    @Modifying
+    @Query(value = "INSERT INTO comment_change_head (id, last_seq) " +
+            "SELECT :id, COALESCE(MAX(seq), 0) FROM comment_changes ON CONFLICT (id) DO NOTHING", nativeQuery = true)
+    void createIfMissing(@Param("id") int id);
+}
@@ -0,0 +1,30 @@
+package com.blogbaaz.CommentService.repositories;
+
+import com.blogbaaz.CommentService.entities.CommentChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CommentChangeRepository extends JpaRepository<CommentChange, Long> {
+
+    List<CommentChange> findBySeqGreaterThanOrderBySeqAsc(long seq, Pageable pageable);
+
+    @Query("SELECT MIN(c.seq) FROM CommentChange c")
+    Long findMinSeq();
+
+    @Query("SELECT MAX(c.seq) FROM CommentChange c")
+    Long findMaxSeq();
+
+    // The newest row always survives, so readers can tell how far the log was pruned
+    @Modifying
+    @Query("DELETE FROM CommentChange c WHERE c.changedAt < :before " +
+            "AND c.seq < (SELECT MAX(n.seq) FROM CommentChange n)")
+    int deleteChangesBefore(@Param("before") LocalDateTime before);
+}
@@ -49,6 +49,9 @@ public interface CommentRepository extends JpaRepository<Comment, String> {
     @Query("SELECT c FROM Comment c WHERE c.postId = :postId AND c.isDeleted = false ORDER BY c.path ASC, c.createdAt ASC")
     List<Comment> findCommentTreeByPostId(@Param("postId") String postId);
     
+    // Every visible comment, in commentId order so a full scan can page by the last id seen
+    List<Comment> findByIsDeletedFalseAndCommentIdGreaterThanOrderByCommentIdAsc(String commentId, Pageable pageable);
+    
     // Search comments by content
     @Query("SELECT c FROM Comment c WHERE c.content LIKE %:keyword% AND c.isDeleted = false ORDER BY c.createdAt DESC")
     List<Comment> searchCommentsByContent(@Param("keyword") String keyword);
@@ -39,5 +39,14 @@ public interface CommentService {
     List<CommentDto> searchComments(String keyword);
     
     boolean isCommentOwner(String commentId, String authorId);
+    
+    // Full scan and change feed (for SearchService and other consumers keeping a copy in sync)
+    List<CommentDto> getAllComments(String after, int limit);
+    
+    void awaitChanges(long after, long waitMs);
+    
+    CommentChangeFeed getChanges(long after, int limit);
+    
+    long getChangeHead();
 }
 
@@ -1,18 +1,24 @@
 package com.blogbaaz.CommentService.services.impl;
 
+import com.blogbaaz.CommentService.changes.CommentChangeLog;
 import com.blogbaaz.CommentService.dtos.*;
 import com.blogbaaz.CommentService.entities.Comment;
+import com.blogbaaz.CommentService.entities.CommentChange;
 import com.blogbaaz.CommentService.exceptions.CommentNotFoundException;
 import com.blogbaaz.CommentService.exceptions.UnauthorizedException;
 import com.blogbaaz.CommentService.repositories.CommentRepository;
 import com.blogbaaz.CommentService.services.CommentService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,6 +27,7 @@ import java.util.stream.Collectors;
 public class CommentServiceImpl implements CommentService {
 
     private final CommentRepository commentRepository;
+    private final CommentChangeLog changeLog;
 
     @Override
     public CommentDto createComment(CreateCommentRequest request, String authorId, String authorName) {
@@ -55,6 +62,7 @@ public class CommentServiceImpl implements CommentService {
 
         // Save the comment again with the updated path
         Comment finalSavedComment = commentRepository.save(savedComment);
+        changeLog.record(finalSavedComment.getCommentId(), CommentChange.ChangeType.CREATED);
         return entityToDto(finalSavedComment);
     }
 
@@ -77,6 +85,7 @@ public class CommentServiceImpl implements CommentService {
 
         comment.setContent(request.getContent());
         Comment updatedComment = commentRepository.save(comment);
+        changeLog.record(commentId, CommentChange.ChangeType.UPDATED);
         return entityToDto(updatedComment);
     }
 
@@ -93,6 +102,7 @@ public class CommentServiceImpl implements CommentService {
         // Soft delete
         comment.setDeleted(true);
         commentRepository.save(comment);
+        changeLog.record(commentId, CommentChange.ChangeType.DELETED);
 
         // Update parent's reply count if this is a reply
         if (comment.getParentCommentId() != null && !comment.getParentCommentId().isEmpty()) {
@@ -188,6 +198,61 @@ public class CommentServiceImpl implements CommentService {
         return comment.getAuthorId().equals(authorId);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<CommentDto> getAllComments(String after, int limit) {
+        return commentRepository.findByIsDeletedFalseAndCommentIdGreaterThanOrderByCommentIdAsc(after, PageRequest.of(0, limit))
+                .stream()
+                .map(this::entityToDto)
+                .collect(Collectors.toList());
+    }
+
+    // Waits outside any transaction, so an idle long poll holds no connection
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void awaitChanges(long after, long waitMs) {
+        try {
+            changeLog.await(after, waitMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CommentChangeFeed getChanges(long after, int limit) {
+        if (changeLog.isPruned(after)) {
+            return CommentChangeFeed.builder()
+                    .lastSeq(after)
+                    .resyncRequired(true)
+                    .changes(List.of())
+                    .comments(List.of())
+                    .build();
+        }
+        List<CommentChange> changes = changeLog.read(after, limit);
+        // Current state once per comment, however many of its changes are in the batch
+        Set<String> commentIds = changes.stream()
+                .map(CommentChange::getCommentId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        // Soft-deleted comments are left out, which tells consumers to drop them
+        List<CommentDto> comments = commentIds.isEmpty() ? List.of() : commentRepository.findAllById(commentIds)
+                .stream()
+                .filter(comment -> !comment.isDeleted())
+                .map(this::entityToDto)
+                .collect(Collectors.toList());
+        return CommentChangeFeed.builder()
+                .lastSeq(changes.isEmpty() ? after : changes.get(changes.size() - 1).getSeq())
+                .changes(changes.stream().map(this::changeToDto).collect(Collectors.toList()))
+                .comments(comments)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long getChangeHead() {
+        return changeLog.head();
+    }
+
     // Helper methods
     private CommentDto entityToDto(Comment comment) {
         return CommentDto.builder()
@@ -207,6 +272,15 @@ public class CommentServiceImpl implements CommentService {
                 .build();
     }
 
+    private CommentChangeDto changeToDto(CommentChange change) {
+        return CommentChangeDto.builder()
+                .seq(change.getSeq())
+                .commentId(change.getCommentId())
+                .type(change.getType().name())
+                .changedAt(change.getChangedAt())
+                .build();
+    }
+
     private CommentTreeResponse entityToTreeResponse(Comment comment) {
         return CommentTreeResponse.builder()
                 .commentId(comment.getCommentId())
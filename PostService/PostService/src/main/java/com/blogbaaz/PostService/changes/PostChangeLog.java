@@ -0,0 +1,216 @@
+package com.blogbaaz.PostService.changes;
+
+import com.blogbaaz.PostService.config.ChangeFeedConfig;
+import com.blogbaaz.PostService.entities.CountedPost;
+import com.blogbaaz.PostService.entities.PostChange;
+import com.blogbaaz.PostService.entities.PostChangeHead;
+import com.blogbaaz.PostService.repositories.CountedPostRepository;
+import com.blogbaaz.PostService.repositories.PostChangeHeadRepository;
+import com.blogbaaz.PostService.repositories.PostChangeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Transactional outbox of post changes. Every change is stored in the
+ * transaction that makes it, so the log holds exactly the committed changes.
+ * <p>
+ * Sequence numbers are handed out as the transaction commits, under a lock on
+ * the single {@link PostChangeHead} row that is held until the commit, so they
+ * follow commit order: once a change is visible, every change numbered before
+ * it is too, and readers never have to wait out or skip a gap.
+ * <p>
+ * View, like and comment counts change on every read of a post, so those
+ * changes are not written one by one: the caller's transaction marks the post
+ * in the counter change table, and each counter flush turns the marked posts
+ * into one COUNTED row each. The marks are committed with the counts
+ * themselves, so a restart only delays them to the next flush on any instance.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PostChangeLog {
+
+    private final PostChangeRepository changeRepository;
+    private final PostChangeHeadRepository headRepository;
+    private final CountedPostRepository countedRepository;
+    private final ChangeFeedConfig config;
+
+    // Notified after each local commit that recorded a change
+    private final Object commits = new Object();
+    private long commitCount;
+
+    // Joins the caller's transaction; the row is written when it commits
+    public void record(String postId, PostChange.ChangeType type) {
+        pendingChanges().add(PostChange.builder().postId(postId).type(type).build());
+    }
+
+    // Marks the post for the next counter flush, in the caller's transaction
+    public void recordCounters(String postId) {
+        countedRepository.markCounted(postId);
+    }
+
+    // Committed changes after the given sequence number, oldest first
+    public List<PostChange> read(long after, int limit) {
+        return changeRepository.findBySeqGreaterThanOrderBySeqAsc(after, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Blocks until a change after the given sequence number can be read or
+     * waitMs passes. Local commits wake waiters at once; changes made through
+     * other instances are seen at the next poll.
+     */
+    public void await(long after, long waitMs) throws InterruptedException {
+        long deadline = System.nanoTime() + Math.min(waitMs, config.getMaxWaitMs()) * 1_000_000;
+        while (true) {
+            long seen;
+            synchronized (commits) {
+                seen = commitCount;
+            }
+            if (!read(after, 1).isEmpty()) {
+                return;
+            }
+            long remainingMs = (deadline - System.nanoTime()) / 1_000_000;
+            if (remainingMs <= 0) {
+                return;
+            }
+            synchronized (commits) {
+                if (commitCount == seen) {
+                    commits.wait(Math.min(remainingMs, config.getPollIntervalMs()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Posts changed after the given sequence number other than by their
+     * counters, for in-memory copies kept on each instance to catch up with
+     * writes made through any instance. Null when those changes have been
+     * pruned and the copy has to be compared with the database as a whole.
+     */
+    public ChangedPosts changedPosts(long after) {
+        if (isPruned(after)) {
+            return null;
+        }
+        Set<String> postIds = new LinkedHashSet<>();
+        long lastSeq = after;
+        for (List<PostChange> batch = read(lastSeq, config.getMaxBatchSize()); !batch.isEmpty();
+             batch = read(lastSeq, config.getMaxBatchSize())) {
+            for (PostChange change : batch) {
+                if (!change.getType().isCounters()) {
+                    postIds.add(change.getPostId());
+                }
+            }
+            lastSeq = batch.get(batch.size() - 1).getSeq();
+        }
+        return new ChangedPosts(lastSeq, postIds);
+    }
+
+    // Latest sequence number a new consumer can start reading after
+    public long head() {
+        Long head = changeRepository.findMaxSeq();
+        return head != null ? head : 0;
+    }
+
+    // True when changes after the given sequence number have already been pruned
+    public boolean isPruned(long after) {
+        Long oldest = changeRepository.findMinSeq();
+        return oldest != null && after + 1 < oldest;
+    }
+
+    @Scheduled(fixedDelayString = "${change-feed.prune-interval-ms:3600000}")
+    @Transactional
+    public void prune() {
+        int pruned = changeRepository.deleteChangesBefore(LocalDateTime.now().minusDays(config.getRetentionDays()));
+        if (pruned > 0) {
+            log.info("Pruned {} post changes older than {} days", pruned, config.getRetentionDays());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${change-feed.counter-flush-interval-ms:60000}",
+            fixedDelayString = "${change-feed.counter-flush-interval-ms:60000}")
+    @Transactional
+    public void flushCounters() {
+        String after = "";
+        for (List<CountedPost> batch = countedBatch(after); !batch.isEmpty(); batch = countedBatch(after)) {
+            for (CountedPost counted : batch) {
+                // Nothing deleted: another instance flushed it, or it was counted again and stays for the next flush
+                if (countedRepository.deleteFlushed(counted.getPostId(), counted.getVersion()) > 0) {
+                    record(counted.getPostId(), PostChange.ChangeType.COUNTED);
+                }
+            }
+            after = batch.get(batch.size() - 1).getPostId();
+        }
+    }
+
+    public record ChangedPosts(long lastSeq, Set<String> postIds) {
+    }
+
+    private List<CountedPost> countedBatch(String after) {
+        return countedRepository.findByPostIdGreaterThanOrderByPostIdAsc(after, PageRequest.of(0, config.getMaxBatchSize()));
+    }
+
+    // Changes recorded in the current transaction, numbered and saved just before it commits
+    @SuppressWarnings("unchecked")
+    private List<PostChange> pendingChanges() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Post changes can only be recorded in a transaction");
+        }
+        List<PostChange> pending = (List<PostChange>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<PostChange> changes = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    append(changes);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PostChangeLog.this);
+                    if (status == STATUS_COMMITTED) {
+                        signalCommit();
+                    }
+                }
+            });
+            pending = changes;
+        }
+        return pending;
+    }
+
+    private void append(List<PostChange> changes) {
+        // Write everything else first: the head lock has to be the last lock the transaction waits for,
+        // or a transaction holding it could wait on a row locked by one queued behind it
+        changeRepository.flush();
+        PostChangeHead head = headRepository.lockById(PostChangeHead.ID).orElse(null);
+        if (head == null) {
+            headRepository.createIfMissing(PostChangeHead.ID);
+            head = headRepository.lockById(PostChangeHead.ID).orElseThrow();
+        }
+        long seq = head.getLastSeq();
+        for (PostChange change : changes) {
+            change.setSeq(++seq);
+        }
+        head.setLastSeq(seq);
+        changeRepository.saveAll(changes);
+    }
+
+    private void signalCommit() {
+        synchronized (commits) {
+            commitCount++;
+            commits.notifyAll();
+        }
+    }
+}
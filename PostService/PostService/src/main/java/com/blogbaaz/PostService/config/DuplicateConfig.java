@@ -0,0 +1,23 @@
+package com.blogbaaz.PostService.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "duplicates")
+public class DuplicateConfig {
+
+    public enum Mode {
+        // Saved with duplicateOf pointing at the post it copies
+        FLAG,
+        // Refused with 409 Conflict
+        REJECT,
+        OFF
+    }
+
+    private Mode mode = Mode.FLAG;
+    // Differing SimHash bits still counted as the same content; the index is fastest for small values
+    private int maxDistance = 3;
+}
@@ -29,6 +29,9 @@ public class SecurityConfig {
                         .requestMatchers("/api/posts/category/**").permitAll()
                         .requestMatchers("/api/posts/paginated/category/**").permitAll()
                         .requestMatchers("/api/posts/tags").permitAll()
+                        .requestMatchers("/api/posts/tags/counts").permitAll()
+                        .requestMatchers("/api/posts/summaries/**").permitAll()
+                        .requestMatchers("/api/posts/changes", "/api/posts/changes/head").permitAll()
                         .requestMatchers("/api/posts/author/**").permitAll() // Make author endpoints public
                         .requestMatchers("/api/posts/paginated/author/**").permitAll() // Make paginated author endpoints public
                         .requestMatchers("/api/posts/{postId}").permitAll()
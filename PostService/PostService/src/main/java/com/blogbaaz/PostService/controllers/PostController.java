@@ -1,10 +1,15 @@
 package com.blogbaaz.PostService.controllers;
 
+import com.blogbaaz.PostService.config.ChangeFeedConfig;
 import com.blogbaaz.PostService.dtos.CreatePostRequest;
+import com.blogbaaz.PostService.dtos.PostChangeFeed;
 import com.blogbaaz.PostService.dtos.PostDto;
+import com.blogbaaz.PostService.dtos.PostSummaryDto;
 import com.blogbaaz.PostService.dtos.UpdatePostRequest;
+import com.blogbaaz.PostService.index.TagIndex;
 import com.blogbaaz.PostService.services.PostService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Pattern;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -15,13 +20,17 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/posts")
 @RequiredArgsConstructor
 public class PostController {
 
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
     private final PostService postService;
+    private final ChangeFeedConfig changeFeedConfig;
 
     @PostMapping
     public ResponseEntity<PostDto> createPost(@Valid @RequestBody CreatePostRequest request) {
@@ -91,15 +100,22 @@ public class PostController {
     }
 
     // List endpoints (for SearchService)
+    // When a limit is given only that many rows are loaded, and the total match
+    // count is returned in the X-Total-Count header
     @GetMapping("/search")
     public ResponseEntity<List<PostDto>> searchPosts(
             @RequestParam String keyword,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "0") long offset,
+            @RequestParam(required = false) Integer limit) {
 
         Sort sort = sortDir.equalsIgnoreCase("desc") 
             ? Sort.by(sortBy).descending() 
             : Sort.by(sortBy).ascending();
+        if (limit != null) {
+            return withTotalCount(postService.searchPosts(keyword, sort, offset, limit));
+        }
         List<PostDto> posts = postService.searchPosts(keyword, sort);
         return ResponseEntity.ok(posts);
     }
@@ -108,11 +124,16 @@ public class PostController {
     public ResponseEntity<List<PostDto>> getPostsByAuthor(
             @PathVariable String authorId,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "0") long offset,
+            @RequestParam(required = false) Integer limit) {
 
         Sort sort = sortDir.equalsIgnoreCase("desc") 
             ? Sort.by(sortBy).descending() 
             : Sort.by(sortBy).ascending();
+        if (limit != null) {
+            return withTotalCount(postService.getPostsByAuthor(authorId, sort, offset, limit));
+        }
         List<PostDto> posts = postService.getPostsByAuthor(authorId, sort);
         return ResponseEntity.ok(posts);
     }
@@ -121,11 +142,16 @@ public class PostController {
     public ResponseEntity<List<PostDto>> getPostsByCategory(
             @PathVariable String category,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "0") long offset,
+            @RequestParam(required = false) Integer limit) {
 
         Sort sort = sortDir.equalsIgnoreCase("desc") 
             ? Sort.by(sortBy).descending() 
             : Sort.by(sortBy).ascending();
+        if (limit != null) {
+            return withTotalCount(postService.getPostsByCategory(category, sort, offset, limit));
+        }
         List<PostDto> posts = postService.getPostsByCategory(category, sort);
         return ResponseEntity.ok(posts);
     }
@@ -133,28 +159,141 @@ public class PostController {
     @GetMapping("/tags")
     public ResponseEntity<List<PostDto>> getPostsByTags(
             @RequestParam String[] tags,
+            @RequestParam(defaultValue = "any") @Pattern(regexp = TagIndex.Mode.PATTERN, message = "Tag mode must be any or all") String mode,
+            @RequestParam(required = false) String[] exclude,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "0") long offset,
+            @RequestParam(required = false) Integer limit) {
 
         Sort sort = sortDir.equalsIgnoreCase("desc") 
             ? Sort.by(sortBy).descending() 
             : Sort.by(sortBy).ascending();
-        List<PostDto> posts = postService.getPostsByTags(tags, sort);
+        if (limit != null) {
+            return withTotalCount(postService.getPostsByTags(tags, TagIndex.Mode.from(mode), exclude, sort, offset, limit));
+        }
+        List<PostDto> posts = postService.getPostsByTags(tags, TagIndex.Mode.from(mode), exclude, sort);
         return ResponseEntity.ok(posts);
     }
 
+    // Number of posts per tag; all tags when none are given
+    @GetMapping("/tags/counts")
+    public ResponseEntity<Map<String, Integer>> getTagCounts(@RequestParam(required = false) String[] tags) {
+        return ResponseEntity.ok(postService.getTagCounts(tags));
+    }
+
     @GetMapping("/published")
     public ResponseEntity<List<PostDto>> getPublishedPosts(
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "0") long offset,
+            @RequestParam(required = false) Integer limit) {
 
         Sort sort = sortDir.equalsIgnoreCase("desc") 
             ? Sort.by(sortBy).descending() 
             : Sort.by(sortBy).ascending();
+        if (limit != null) {
+            return withTotalCount(postService.getPublishedPosts(sort, offset, limit));
+        }
         List<PostDto> posts = postService.getPublishedPosts(sort);
         return ResponseEntity.ok(posts);
     }
 
+    // Summary endpoints (for SearchService result lists): same filters as the
+    // list endpoints, but hits never carry post content
+    @GetMapping("/summaries/search")
+    public ResponseEntity<List<PostSummaryDto>> searchPostSummaries(
+            @RequestParam String keyword,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "0") long offset,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        Sort sort = sortDir.equalsIgnoreCase("desc") 
+            ? Sort.by(sortBy).descending() 
+            : Sort.by(sortBy).ascending();
+        return withTotalCount(postService.searchPostSummaries(keyword, sort, offset, limit));
+    }
+
+    @GetMapping("/summaries/author/{authorId}")
+    public ResponseEntity<List<PostSummaryDto>> getPostSummariesByAuthor(
+            @PathVariable String authorId,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "0") long offset,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        Sort sort = sortDir.equalsIgnoreCase("desc") 
+            ? Sort.by(sortBy).descending() 
+            : Sort.by(sortBy).ascending();
+        return withTotalCount(postService.getPostSummariesByAuthor(authorId, sort, offset, limit));
+    }
+
+    @GetMapping("/summaries/category/{category}")
+    public ResponseEntity<List<PostSummaryDto>> getPostSummariesByCategory(
+            @PathVariable String category,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "0") long offset,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        Sort sort = sortDir.equalsIgnoreCase("desc") 
+            ? Sort.by(sortBy).descending() 
+            : Sort.by(sortBy).ascending();
+        return withTotalCount(postService.getPostSummariesByCategory(category, sort, offset, limit));
+    }
+
+    @GetMapping("/summaries/tags")
+    public ResponseEntity<List<PostSummaryDto>> getPostSummariesByTags(
+            @RequestParam String[] tags,
+            @RequestParam(defaultValue = "any") @Pattern(regexp = TagIndex.Mode.PATTERN, message = "Tag mode must be any or all") String mode,
+            @RequestParam(required = false) String[] exclude,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "0") long offset,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        Sort sort = sortDir.equalsIgnoreCase("desc") 
+            ? Sort.by(sortBy).descending() 
+            : Sort.by(sortBy).ascending();
+        return withTotalCount(postService.getPostSummariesByTags(tags, TagIndex.Mode.from(mode), exclude, sort, offset, limit));
+    }
+
+    @GetMapping("/summaries/published")
+    public ResponseEntity<List<PostSummaryDto>> getPublishedPostSummaries(
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "0") long offset,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        Sort sort = sortDir.equalsIgnoreCase("desc") 
+            ? Sort.by(sortBy).descending() 
+            : Sort.by(sortBy).ascending();
+        return withTotalCount(postService.getPublishedPostSummaries(sort, offset, limit));
+    }
+
+    // Change feed: every committed change after the given sequence number, with the
+    // current state of the changed posts. With waitMs, an empty answer is held back
+    // until a change arrives or the wait runs out (long poll).
+    @GetMapping("/changes")
+    public ResponseEntity<PostChangeFeed> getChanges(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "500") int limit,
+            @RequestParam(defaultValue = "0") long waitMs) {
+
+        if (waitMs > 0) {
+            postService.awaitChanges(after, waitMs);
+        }
+        int batchSize = Math.max(1, Math.min(limit, changeFeedConfig.getMaxBatchSize()));
+        return ResponseEntity.ok(postService.getChanges(after, batchSize));
+    }
+
+    // Where a new consumer starts: read everything, then follow the feed from here
+    @GetMapping("/changes/head")
+    public ResponseEntity<Long> getChangeHead() {
+        return ResponseEntity.ok(postService.getChangeHead());
+    }
+
     // Update operations
     @PutMapping("/{postId}")
     public ResponseEntity<PostDto> updatePost(
@@ -188,4 +327,10 @@ public class PostController {
         postService.incrementLikeCount(postId);
         return ResponseEntity.ok().build();
     }
+
+    private <T> ResponseEntity<List<T>> withTotalCount(Page<T> page) {
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(page.getTotalElements()))
+                .body(page.getContent());
+    }
 }
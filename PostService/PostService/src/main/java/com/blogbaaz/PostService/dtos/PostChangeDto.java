@@ -0,0 +1,16 @@
+package com.blogbaaz.PostService.dtos;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PostChangeDto {
+    private long seq;
+    private String postId;
+    private String type;
+    private LocalDateTime changedAt;
+}
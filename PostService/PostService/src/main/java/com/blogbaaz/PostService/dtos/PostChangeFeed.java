@@ -0,0 +1,23 @@
+package com.blogbaaz.PostService.dtos;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * A batch of the post change feed. posts holds the current state of every
+ * changed post that still exists; a changed post missing from it was deleted.
+ * Consumers ask for the next batch after lastSeq. When resyncRequired is set
+ * the changes they asked for were already pruned, and they must reload
+ * everything and continue from the feed head.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PostChangeFeed {
+    private long lastSeq;
+    private boolean resyncRequired;
+    private List<PostChangeDto> changes;
+    private List<PostDto> posts;
+}
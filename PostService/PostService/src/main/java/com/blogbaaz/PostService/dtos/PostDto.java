@@ -28,4 +28,6 @@ public class PostDto {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private LocalDateTime publishedAt;
+    // Set when the content nearly duplicates another post's
+    private String duplicateOf;
 }
@@ -0,0 +1,31 @@
+package com.blogbaaz.PostService.dtos;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+// PostDto without content, for search result lists
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PostSummaryDto {
+    private String postId;
+    private String title;
+    private String excerpt;
+    private String authorId;
+    private String authorName;
+    private String status;
+    private Set<String> tags;
+    private String category;
+    private String slug;
+    private String featuredImage;
+    private boolean isPublished;
+    private int viewCount;
+    private int likeCount;
+    private int commentCount;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime publishedAt;
+}
@@ -0,0 +1,21 @@
+package com.blogbaaz.PostService.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// A post whose view, like or comment count changed since the last counter flush
+@Entity
+@Table(name = "post_counter_changes")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CountedPost {
+
+    @Id
+    private String postId;
+
+    // Bumped on every count change, so a flush only clears the changes it has seen
+    @Column(nullable = false)
+    private long version;
+}
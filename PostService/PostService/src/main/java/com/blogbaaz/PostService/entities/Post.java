@@ -78,6 +78,18 @@ public class Post {
     @Column
     private LocalDateTime publishedAt;
 
+    // SimHash of the content for near-duplicate checks; 0 when too short, null until first computed
+    @Column
+    private Long contentFingerprint;
+
+    // SimHash.VERSION the fingerprint was computed with; null for fingerprints stored before versions were
+    @Column
+    private Integer contentFingerprintVersion;
+
+    // The post this one nearly duplicates, as found when its content was last saved
+    @Column
+    private String duplicateOf;
+
     public enum PostStatus {
         DRAFT, PUBLISHED, ARCHIVED, DELETED
     }
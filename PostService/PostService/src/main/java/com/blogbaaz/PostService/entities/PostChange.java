@@ -0,0 +1,64 @@
+package com.blogbaaz.PostService.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+// One row of the post change feed, written in the same transaction as the change itself.
+// Sequence numbers are assigned by PostChangeLog as the transaction commits, so rows are always inserted.
+@Entity
+@Table(name = "post_changes")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PostChange implements Persistable<Long> {
+
+    @Id
+    private Long seq;
+
+    @Column(nullable = false)
+    private String postId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ChangeType type;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime changedAt;
+
+    @Transient
+    @Builder.Default
+    private boolean stored = false;
+
+    @Override
+    public Long getId() {
+        return seq;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !stored;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        stored = true;
+    }
+
+    // COUNTED stands for any number of view, like and comment count changes since the last counter flush;
+    // VIEWED, LIKED and COMMENTED are only read back from rows written before counters were batched
+    public enum ChangeType {
+        CREATED, UPDATED, PUBLISHED, ARCHIVED, DELETED, COUNTED, VIEWED, LIKED, COMMENTED;
+
+        public boolean isCounters() {
+            return this == COUNTED || this == VIEWED || this == LIKED || this == COMMENTED;
+        }
+    }
+}
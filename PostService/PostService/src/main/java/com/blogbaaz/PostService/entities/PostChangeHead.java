@@ -0,0 +1,22 @@
+package com.blogbaaz.PostService.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Single row holding the last sequence number handed to a post change; locked while a transaction commits its changes
+@Entity
+@Table(name = "post_change_head")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostChangeHead {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private long lastSeq;
+}
@@ -0,0 +1,11 @@
+package com.blogbaaz.PostService.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class DuplicatePostException extends RuntimeException {
+    public DuplicatePostException(String message) {
+        super(message);
+    }
+}
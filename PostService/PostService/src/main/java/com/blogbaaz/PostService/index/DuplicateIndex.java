@@ -0,0 +1,258 @@
+package com.blogbaaz.PostService.index;
+
+import com.blogbaaz.PostService.changes.PostChangeLog;
+import com.blogbaaz.PostService.config.DuplicateConfig;
+import com.blogbaaz.PostService.repositories.PostRepository;
+import com.blogbaaz.PostService.repositories.PostSummary;
+import com.blogbaaz.PostService.utils.SimHash;
+import com.blogbaaz.PostService.utils.Transactions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Content fingerprints of all posts, for finding near-duplicates without
+ * reading any content. Two fingerprints at most maxDistance bits apart agree
+ * exactly on at least one of maxDistance + 1 blocks of their bits, so each
+ * block has a table from its value to the posts having it, and a lookup only
+ * compares the posts sharing a block with the new content. Loaded at startup,
+ * fingerprinting posts stored without one from the current SimHash version,
+ * then kept current as posts are saved or deleted here and, from the post
+ * change feed, through other instances. Until it has loaded nothing counts
+ * as a duplicate, so a slow or failed load never holds up a save. Bucket
+ * arrays are replaced rather than modified, so readers never need a lock.
+ */
+@Component
+@Slf4j
+public class DuplicateIndex {
+
+    private static final int[] EMPTY = new int[0];
+    private static final int BACKFILL_BATCH = 500;
+
+    private final PostRepository postRepository;
+    private final PostChangeLog changeLog;
+    private final int maxDistance;
+    // Bit offsets where each block starts, plus 64 at the end
+    private final int[] blockStarts;
+    private final List<Map<Long, int[]>> tables = new ArrayList<>();
+
+    // docId -> postId and fingerprint; only written under the lock, slots are never reused
+    private volatile String[] postIds = new String[1024];
+    private volatile long[] fingerprints = new long[1024];
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private volatile boolean loaded;
+    // Change feed position the index reflects; guarded by the lock
+    private long changeSeq;
+
+    public DuplicateIndex(PostRepository postRepository, PostChangeLog changeLog, DuplicateConfig config) {
+        this.postRepository = postRepository;
+        this.changeLog = changeLog;
+        this.maxDistance = Math.max(0, Math.min(63, config.getMaxDistance()));
+        int blocks = maxDistance + 1;
+        this.blockStarts = new int[blocks + 1];
+        for (int block = 0; block <= blocks; block++) {
+            blockStarts[block] = block * 64 / blocks;
+        }
+        for (int block = 0; block < blocks; block++) {
+            tables.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            loadAll();
+        } catch (RuntimeException e) {
+            log.warn("Duplicate index not loaded at startup, retrying in the background: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Applies posts changed through any instance since the last refresh, as
+     * they are now in the database, or retries a load that has not succeeded
+     * yet. Local saves are already applied on commit.
+     */
+    @Scheduled(initialDelayString = "${change-feed.poll-interval-ms:1000}",
+            fixedDelayString = "${change-feed.poll-interval-ms:1000}")
+    public synchronized void refresh() {
+        try {
+            if (!loaded) {
+                loadAll();
+                return;
+            }
+            PostChangeLog.ChangedPosts changed = changeLog.changedPosts(changeSeq);
+            if (changed == null) {
+                log.warn("Post changes after {} were pruned, comparing the duplicate index with every post", changeSeq);
+                resync();
+                return;
+            }
+            if (!changed.postIds().isEmpty()) {
+                Map<String, Long> current = byPostId(postRepository.findFingerprintsByPostIds(changed.postIds()));
+                for (String postId : changed.postIds()) {
+                    apply(postId, current.getOrDefault(postId, SimHash.NONE));
+                }
+            }
+            changeSeq = changed.lastSeq();
+        } catch (RuntimeException e) {
+            log.warn("Duplicate index refresh failed, retrying: {}", e.getMessage());
+        }
+    }
+
+    // The post whose fingerprint is closest to this one within maxDistance, other than excludePostId, or null
+    public String findDuplicate(long fingerprint, String excludePostId) {
+        if (fingerprint == SimHash.NONE || !loaded) {
+            return null;
+        }
+        String closest = null;
+        int closestDistance = maxDistance + 1;
+        for (int block = 0; block < tables.size(); block++) {
+            int[] docs = tables.get(block).getOrDefault(blockValue(fingerprint, block), EMPTY);
+            // Read after the bucket, so they cover every doc in it
+            long[] byDoc = fingerprints;
+            String[] ids = postIds;
+            for (int docId : docs) {
+                int distance = SimHash.distance(fingerprint, byDoc[docId]);
+                if (distance < closestDistance && !ids[docId].equals(excludePostId)) {
+                    closest = ids[docId];
+                    closestDistance = distance;
+                }
+            }
+        }
+        return closest;
+    }
+
+    // Applied once the surrounding transaction commits, so rolled-back saves never show up
+    public void update(String postId, long fingerprint) {
+        Transactions.afterCommit(() -> apply(postId, fingerprint));
+    }
+
+    public void remove(String postId) {
+        Transactions.afterCommit(() -> apply(postId, SimHash.NONE));
+    }
+
+    private synchronized void apply(String postId, long fingerprint) {
+        if (!loaded) {
+            // The first load reads the committed state anyway
+            return;
+        }
+        if (fingerprint == SimHash.NONE && !docIds.containsKey(postId)) {
+            return;
+        }
+        int docId = docId(postId);
+        long previous = fingerprints[docId];
+        if (previous == fingerprint) {
+            return;
+        }
+        if (previous != SimHash.NONE) {
+            for (int block = 0; block < tables.size(); block++) {
+                long value = blockValue(previous, block);
+                int[] docs = TagIndex.without(tables.get(block).getOrDefault(value, EMPTY), docId);
+                if (docs.length == 0) {
+                    tables.get(block).remove(value);
+                } else {
+                    tables.get(block).put(value, docs);
+                }
+            }
+        }
+        fingerprints[docId] = fingerprint;
+        if (fingerprint != SimHash.NONE) {
+            for (int block = 0; block < tables.size(); block++) {
+                long value = blockValue(fingerprint, block);
+                tables.get(block).put(value, TagIndex.with(tables.get(block).getOrDefault(value, EMPTY), docId));
+            }
+        }
+    }
+
+    private synchronized void loadAll() {
+        if (loaded) {
+            return;
+        }
+        backfill();
+        // Taken before the scan, so changes made during it are applied again by the next refresh
+        changeSeq = changeLog.head();
+        List<Map<Long, List<Integer>>> docs = new ArrayList<>();
+        for (int block = 0; block < tables.size(); block++) {
+            docs.add(new HashMap<>());
+        }
+        List<PostSummary.Fingerprint> rows = postRepository.findAllFingerprints();
+        for (PostSummary.Fingerprint row : rows) {
+            int docId = docId(row.getPostId());
+            fingerprints[docId] = row.getContentFingerprint();
+            for (int block = 0; block < tables.size(); block++) {
+                docs.get(block).computeIfAbsent(blockValue(row.getContentFingerprint(), block), v -> new ArrayList<>())
+                        .add(docId);
+            }
+        }
+        for (int block = 0; block < tables.size(); block++) {
+            Map<Long, int[]> table = tables.get(block);
+            docs.get(block).forEach((value, ids) ->
+                    table.put(value, ids.stream().mapToInt(Integer::intValue).sorted().toArray()));
+        }
+        loaded = true;
+        log.info("Duplicate index loaded: {} fingerprinted posts", rows.size());
+    }
+
+    // Every post as the database has it now, including those the index has but the database no longer does
+    private void resync() {
+        long head = changeLog.head();
+        Map<String, Long> current = byPostId(postRepository.findAllFingerprints());
+        Set<String> postIds = new HashSet<>(docIds.keySet());
+        postIds.addAll(current.keySet());
+        for (String postId : postIds) {
+            apply(postId, current.getOrDefault(postId, SimHash.NONE));
+        }
+        changeSeq = head;
+    }
+
+    private static Map<String, Long> byPostId(List<PostSummary.Fingerprint> rows) {
+        Map<String, Long> fingerprints = new HashMap<>();
+        for (PostSummary.Fingerprint row : rows) {
+            fingerprints.put(row.getPostId(), row.getContentFingerprint());
+        }
+        return fingerprints;
+    }
+
+    // Fingerprints posts saved before fingerprints were stored or with an older SimHash; each batch drops out of the next query
+    private void backfill() {
+        int filled = 0;
+        List<PostSummary.Content> batch;
+        do {
+            batch = postRepository.findUnfingerprinted(SimHash.VERSION, PageRequest.of(0, BACKFILL_BATCH));
+            for (PostSummary.Content row : batch) {
+                postRepository.setContentFingerprint(row.getPostId(), SimHash.fingerprint(row.getContent()), SimHash.VERSION);
+            }
+            filled += batch.size();
+        } while (batch.size() == BACKFILL_BATCH);
+        if (filled > 0) {
+            log.info("Fingerprinted {} posts stored without a current fingerprint", filled);
+        }
+    }
+
+    private long blockValue(long fingerprint, int block) {
+        int width = blockStarts[block + 1] - blockStarts[block];
+        long mask = width == 64 ? -1L : (1L << width) - 1;
+        return fingerprint >>> blockStarts[block] & mask;
+    }
+
+    // Caller holds the lock
+    private int docId(String postId) {
+        Integer existing = docIds.get(postId);
+        if (existing != null) {
+            return existing;
+        }
+        int docId = docIds.size();
+        if (docId == postIds.length) {
+            fingerprints = Arrays.copyOf(fingerprints, docId * 2);
+            postIds = Arrays.copyOf(postIds, docId * 2);
+        }
+        postIds[docId] = postId;
+        docIds.put(postId, docId);
+        return docId;
+    }
+}
@@ -0,0 +1,326 @@
+package com.blogbaaz.PostService.index;
+
+import com.blogbaaz.PostService.changes.PostChangeLog;
+import com.blogbaaz.PostService.repositories.PostRepository;
+import com.blogbaaz.PostService.repositories.PostSummary;
+import com.blogbaaz.PostService.utils.Transactions;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory tag postings: for each tag, the sorted internal ids of the posts
+ * carrying it. Post ids are mapped to dense ints so set operations are plain
+ * array merges. Loaded from the database on first use, then kept current as
+ * posts are saved or deleted here and, from the post change feed, through
+ * other instances. Posting arrays are replaced rather than modified, so
+ * readers never need a lock.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TagIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    public enum Mode {
+        ANY, ALL;
+
+        // For validating request parameters, so other values are a 400 rather than a failed lookup
+        public static final String PATTERN = "(?i)any|all";
+
+        public static Mode from(String mode) {
+            if (mode == null || mode.isEmpty()) {
+                return ANY;
+            }
+            try {
+                return valueOf(mode.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported tag mode: " + mode);
+            }
+        }
+    }
+
+    private final PostRepository postRepository;
+    private final PostChangeLog changeLog;
+
+    private final Map<String, int[]> docsByTag = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> tagsByPostId = new ConcurrentHashMap<>();
+    // docId -> postId; only written under the lock, slots are never reused
+    private volatile String[] postIds = new String[1024];
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private volatile boolean loaded;
+    // Change feed position the index reflects; guarded by the lock
+    private long changeSeq;
+
+    // Ids of posts matching any/all of tags and none of excludeTags
+    public String[] match(String[] tags, Mode mode, String[] excludeTags) {
+        ensureLoaded();
+        int[] docs = mode == Mode.ALL ? matchAll(tags) : matchAny(tags);
+        if (excludeTags != null && excludeTags.length > 0 && docs.length > 0) {
+            docs = difference(docs, matchAny(excludeTags));
+        }
+        String[] byDoc = postIds;
+        String[] result = new String[docs.length];
+        for (int i = 0; i < docs.length; i++) {
+            result[i] = byDoc[docs[i]];
+        }
+        return result;
+    }
+
+    // Posts per tag, for the given tags or for every tag when none are given
+    public Map<String, Integer> counts(String[] tags) {
+        ensureLoaded();
+        Map<String, Integer> counts = new TreeMap<>();
+        if (tags == null || tags.length == 0) {
+            docsByTag.forEach((tag, docs) -> counts.put(tag, docs.length));
+        } else {
+            for (String tag : tags) {
+                counts.put(tag, postings(tag).length);
+            }
+        }
+        return counts;
+    }
+
+    // Applied once the surrounding transaction commits, so rolled-back saves never show up
+    public void update(String postId, Set<String> tags) {
+        Set<String> newTags = tags == null ? Set.of() : Set.copyOf(tags);
+        Transactions.afterCommit(() -> apply(postId, newTags));
+    }
+
+    public void remove(String postId) {
+        Transactions.afterCommit(() -> apply(postId, Set.of()));
+    }
+
+    /**
+     * Applies posts changed through any instance since the last refresh, as
+     * they are now in the database. Local saves are already applied on commit,
+     * so this mainly matters with more than one instance.
+     */
+    @Scheduled(initialDelayString = "${change-feed.poll-interval-ms:1000}",
+            fixedDelayString = "${change-feed.poll-interval-ms:1000}")
+    public synchronized void refresh() {
+        if (!loaded) {
+            return;
+        }
+        try {
+            PostChangeLog.ChangedPosts changed = changeLog.changedPosts(changeSeq);
+            if (changed == null) {
+                log.warn("Post changes after {} were pruned, comparing the tag index with every post", changeSeq);
+                resync();
+                return;
+            }
+            if (!changed.postIds().isEmpty()) {
+                Map<String, Set<String>> tags = byPostId(postRepository.findTagsByPostIds(changed.postIds()));
+                for (String postId : changed.postIds()) {
+                    apply(postId, tags.getOrDefault(postId, Set.of()));
+                }
+            }
+            changeSeq = changed.lastSeq();
+        } catch (RuntimeException e) {
+            log.warn("Tag index refresh failed, retrying: {}", e.getMessage());
+        }
+    }
+
+    // Every post as the database has it now, including those the index has but the database no longer does
+    private void resync() {
+        long head = changeLog.head();
+        Map<String, Set<String>> tags = byPostId(postRepository.findAllTags());
+        Set<String> postIds = new HashSet<>(tagsByPostId.keySet());
+        postIds.addAll(tags.keySet());
+        for (String postId : postIds) {
+            apply(postId, tags.getOrDefault(postId, Set.of()));
+        }
+        changeSeq = head;
+    }
+
+    private static Map<String, Set<String>> byPostId(List<PostSummary.Tag> rows) {
+        Map<String, Set<String>> tags = new HashMap<>();
+        for (PostSummary.Tag row : rows) {
+            tags.computeIfAbsent(row.getPostId(), id -> new HashSet<>()).add(row.getTag());
+        }
+        return tags;
+    }
+
+    private synchronized void apply(String postId, Set<String> newTags) {
+        if (!loaded) {
+            // The first load reads the committed state anyway
+            return;
+        }
+        if (newTags.isEmpty() && !tagsByPostId.containsKey(postId)) {
+            return;
+        }
+        int docId = docId(postId);
+        Set<String> oldTags = tagsByPostId.getOrDefault(postId, Set.of());
+        for (String tag : oldTags) {
+            if (!newTags.contains(tag)) {
+                int[] docs = without(postings(tag), docId);
+                if (docs.length == 0) {
+                    docsByTag.remove(tag);
+                } else {
+                    docsByTag.put(tag, docs);
+                }
+            }
+        }
+        for (String tag : newTags) {
+            if (!oldTags.contains(tag)) {
+                docsByTag.put(tag, with(postings(tag), docId));
+            }
+        }
+        if (newTags.isEmpty()) {
+            tagsByPostId.remove(postId);
+        } else {
+            tagsByPostId.put(postId, newTags);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            // Taken before the scan, so changes made during it are applied again by the next refresh
+            changeSeq = changeLog.head();
+            Map<String, List<Integer>> docs = new HashMap<>();
+            Map<String, Set<String>> tags = new HashMap<>();
+            for (PostSummary.Tag row : postRepository.findAllTags()) {
+                docs.computeIfAbsent(row.getTag(), t -> new ArrayList<>()).add(docId(row.getPostId()));
+                tags.computeIfAbsent(row.getPostId(), id -> new HashSet<>()).add(row.getTag());
+            }
+            docs.forEach((tag, ids) ->
+                    docsByTag.put(tag, ids.stream().mapToInt(Integer::intValue).sorted().distinct().toArray()));
+            tagsByPostId.putAll(tags);
+            loaded = true;
+            log.info("Tag index loaded: {} tags over {} posts", docsByTag.size(), tagsByPostId.size());
+        }
+    }
+
+    // Caller holds the lock
+    private int docId(String postId) {
+        Integer existing = docIds.get(postId);
+        if (existing != null) {
+            return existing;
+        }
+        int docId = docIds.size();
+        String[] byDoc = postIds;
+        if (docId == byDoc.length) {
+            byDoc = Arrays.copyOf(byDoc, byDoc.length * 2);
+        }
+        byDoc[docId] = postId;
+        postIds = byDoc;
+        docIds.put(postId, docId);
+        return docId;
+    }
+
+    private int[] postings(String tag) {
+        return docsByTag.getOrDefault(tag, EMPTY);
+    }
+
+    private int[] matchAny(String[] tags) {
+        int[] result = EMPTY;
+        for (String tag : tags) {
+            result = union(result, postings(tag));
+        }
+        return result;
+    }
+
+    private int[] matchAll(String[] tags) {
+        // Intersect the shortest lists first so the candidate set shrinks fastest
+        int[][] lists = Arrays.stream(tags).map(this::postings).sorted(Comparator.comparingInt(l -> l.length))
+                .toArray(int[][]::new);
+        if (lists.length == 0) {
+            return EMPTY;
+        }
+        int[] result = lists[0];
+        for (int i = 1; i < lists.length && result.length > 0; i++) {
+            result = intersect(result, lists[i]);
+        }
+        return result;
+    }
+
+    // Set operations over sorted doc id arrays
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        if (a.length == 0) {
+            return b;
+        }
+        int[] out = new int[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length || j < b.length) {
+            if (j >= b.length || (i < a.length && a[i] < b[j])) {
+                out[n++] = a[i++];
+            } else if (i >= a.length || b[j] < a[i]) {
+                out[n++] = b[j++];
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static int[] difference(int[] a, int[] b) {
+        int[] out = new int[a.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length) {
+            if (j >= b.length || a[i] < b[j]) {
+                out[n++] = a[i++];
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    static int[] with(int[] docs, int docId) {
+        int pos = Arrays.binarySearch(docs, docId);
+        if (pos >= 0) {
+            return docs;
+        }
+        int insertAt = -pos - 1;
+        int[] out = new int[docs.length + 1];
+        System.arraycopy(docs, 0, out, 0, insertAt);
+        out[insertAt] = docId;
+        System.arraycopy(docs, insertAt, out, insertAt + 1, docs.length - insertAt);
+        return out;
+    }
+
+    static int[] without(int[] docs, int docId) {
+        int pos = Arrays.binarySearch(docs, docId);
+        if (pos < 0) {
+            return docs;
+        }
+        int[] out = new int[docs.length - 1];
+        System.arraycopy(docs, 0, out, 0, pos);
+        System.arraycopy(docs, pos + 1, out, pos, docs.length - pos - 1);
+        return out;
+    }
+}
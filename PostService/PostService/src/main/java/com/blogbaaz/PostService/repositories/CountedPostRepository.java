@@ -0,0 +1,28 @@
+package com.blogbaaz.PostService.repositories;
+
+import com.blogbaaz.PostService.entities.CountedPost;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CountedPostRepository extends JpaRepository<CountedPost, String> {
+
+    // One row per post however often its counters change; the update also locks the row until the caller commits
+    @Modifying
+    @Query(value = "INSERT INTO post_counter_changes (post_id, version) VALUES (:postId, 1) " +
+            "ON CONFLICT (post_id) DO UPDATE SET version = post_counter_changes.version + 1", nativeQuery = true)
+    void markCounted(@Param("postId") String postId);
+
+    List<CountedPost> findByPostIdGreaterThanOrderByPostIdAsc(String postId, Pageable pageable);
+
+    // Leaves the row when its counters changed again after it was read
+    @Modifying
+    @Query("DELETE FROM CountedPost c WHERE c.postId = :postId AND c.version = :version")
+    int deleteFlushed(@Param("postId") String postId, @Param("version") long version);
+}
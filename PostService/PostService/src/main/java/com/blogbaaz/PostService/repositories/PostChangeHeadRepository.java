@@ -0,0 +1,26 @@
+package com.blogbaaz.PostService.repositories;
+
+import com.blogbaaz.PostService.entities.PostChangeHead;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface PostChangeHeadRepository extends JpaRepository<PostChangeHead, Integer> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM PostChangeHead h WHERE h.id = :id")
+    Optional<PostChangeHead> lockById(@Param("id") int id);
+
+    // Starts numbering after the changes already in the log; a no-op once the row exists
+    @Modifying
+    @Query(value = "INSERT INTO post_change_head (id, last_seq) " +
+            "SELECT :id, COALESCE(MAX(seq), 0) FROM post_changes ON CONFLICT (id) DO NOTHING", nativeQuery = true)
+    void createIfMissing(@Param("id") int id);
+}
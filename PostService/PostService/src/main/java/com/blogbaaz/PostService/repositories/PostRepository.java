@@ -4,10 +4,13 @@ import com.blogbaaz.PostService.entities.Post;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Sort;
@@ -15,6 +18,17 @@ import org.springframework.data.domain.Sort;
 @Repository
 public interface PostRepository extends JpaRepository<Post, String> {
 
+    String SUMMARY_SELECT = "SELECT p.postId AS postId, p.title AS title, p.excerpt AS excerpt, " +
+            "p.authorId AS authorId, p.authorName AS authorName, p.status AS status, " +
+            "p.category AS category, p.slug AS slug, p.featuredImage AS featuredImage, " +
+            "p.isPublished AS published, p.viewCount AS viewCount, p.likeCount AS likeCount, " +
+            "p.commentCount AS commentCount, p.createdAt AS createdAt, p.updatedAt AS updatedAt, " +
+            "p.publishedAt AS publishedAt FROM Post p ";
+
+    String KEYWORD_MATCH = "LOWER(p.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+            "LOWER(p.content) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+            "LOWER(p.excerpt) LIKE LOWER(CONCAT('%', :keyword, '%'))";
+
     Optional<Post> findBySlug(String slug);
 
     // Paginated methods
@@ -55,4 +69,79 @@ public interface PostRepository extends JpaRepository<Post, String> {
 
     @Query("SELECT p FROM Post p WHERE p.isPublished = true AND p.status = 'PUBLISHED'")
     List<Post> findPublishedPostsList(Sort sort);
+
+    // Bounded variants of the list methods: the database returns only the requested
+    // rows, and the total comes from a count query instead of loading every match
+    @Query("SELECT p FROM Post p WHERE " +
+            "LOWER(p.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+            "LOWER(p.content) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+            "LOWER(p.excerpt) LIKE LOWER(CONCAT('%', :keyword, '%'))")
+    Page<Post> searchPostsList(@Param("keyword") String keyword, Pageable pageable);
+
+    @Query("SELECT p FROM Post p WHERE p.category = :category")
+    Page<Post> findByCategoryList(@Param("category") String category, Pageable pageable);
+
+    @Query("SELECT p FROM Post p WHERE p.authorId = :authorId")
+    Page<Post> findByAuthorIdList(@Param("authorId") String authorId, Pageable pageable);
+
+    @Query("SELECT p FROM Post p WHERE p.isPublished = true AND p.status = 'PUBLISHED'")
+    Page<Post> findPublishedPostsList(Pageable pageable);
+
+    // Summary projections: same filters as the bounded list methods, but the
+    // content column is never selected. Tags are loaded per page with findTagsByPostIds.
+    @Query(value = SUMMARY_SELECT + "WHERE " + KEYWORD_MATCH,
+            countQuery = "SELECT COUNT(p) FROM Post p WHERE " + KEYWORD_MATCH)
+    Page<PostSummary> searchPostSummaries(@Param("keyword") String keyword, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE p.category = :category",
+            countQuery = "SELECT COUNT(p) FROM Post p WHERE p.category = :category")
+    Page<PostSummary> findSummariesByCategory(@Param("category") String category, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE p.authorId = :authorId",
+            countQuery = "SELECT COUNT(p) FROM Post p WHERE p.authorId = :authorId")
+    Page<PostSummary> findSummariesByAuthorId(@Param("authorId") String authorId, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE p.isPublished = true AND p.status = 'PUBLISHED'",
+            countQuery = "SELECT COUNT(p) FROM Post p WHERE p.isPublished = true AND p.status = 'PUBLISHED'")
+    Page<PostSummary> findPublishedSummaries(Pageable pageable);
+
+    @Query("SELECT p.postId AS postId, t AS tag FROM Post p JOIN p.tags t WHERE p.postId IN :postIds")
+    List<PostSummary.Tag> findTagsByPostIds(@Param("postIds") Collection<String> postIds);
+
+    // Posts by id, for id sets resolved in memory (see TagIndex). The ids are bound
+    // as a single array parameter, so large sets don't run into bind-variable limits.
+    @Query("SELECT p FROM Post p WHERE array_contains(:postIds, p.postId)")
+    List<Post> findByPostIds(@Param("postIds") String[] postIds, Sort sort);
+
+    @Query("SELECT p FROM Post p WHERE array_contains(:postIds, p.postId)")
+    List<Post> findByPostIds(@Param("postIds") String[] postIds, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE array_contains(:postIds, p.postId)")
+    List<PostSummary> findSummariesByPostIds(@Param("postIds") String[] postIds, Pageable pageable);
+
+    @Query("SELECT p.postId AS postId, t AS tag FROM Post p JOIN p.tags t")
+    List<PostSummary.Tag> findAllTags();
+
+    // Content fingerprints for DuplicateIndex; 0 marks content too short to fingerprint
+    @Query("SELECT p.postId AS postId, p.contentFingerprint AS contentFingerprint FROM Post p " +
+            "WHERE p.contentFingerprint IS NOT NULL AND p.contentFingerprint <> 0")
+    List<PostSummary.Fingerprint> findAllFingerprints();
+
+    // As above for the given posts; those without a usable fingerprint are left out
+    @Query("SELECT p.postId AS postId, p.contentFingerprint AS contentFingerprint FROM Post p " +
+            "WHERE p.postId IN :postIds AND p.contentFingerprint IS NOT NULL AND p.contentFingerprint <> 0")
+    List<PostSummary.Fingerprint> findFingerprintsByPostIds(@Param("postIds") Collection<String> postIds);
+
+    // Posts stored before fingerprints were, or fingerprinted by another SimHash version
+    @Query("SELECT p.postId AS postId, p.content AS content FROM Post p WHERE p.contentFingerprint IS NULL " +
+            "OR p.contentFingerprintVersion IS NULL OR p.contentFingerprintVersion <> :version")
+    List<PostSummary.Content> findUnfingerprinted(@Param("version") int version, Pageable pageable);
+
+    // A bulk update, so neither updatedAt nor the change feed sees it
+    @Modifying
+    @Transactional
+    @Query("UPDATE Post p SET p.contentFingerprint = :fingerprint, p.contentFingerprintVersion = :version " +
+            "WHERE p.postId = :postId")
+    int setContentFingerprint(@Param("postId") String postId, @Param("fingerprint") long fingerprint,
+                              @Param("version") int version);
 }
@@ -0,0 +1,63 @@
+package com.blogbaaz.PostService.repositories;
+
+import com.blogbaaz.PostService.entities.Post;
+
+import java.time.LocalDateTime;
+
+// Interface projection of a post without its content column, used for search hits
+public interface PostSummary {
+
+    String getPostId();
+
+    String getTitle();
+
+    String getExcerpt();
+
+    String getAuthorId();
+
+    String getAuthorName();
+
+    Post.PostStatus getStatus();
+
+    String getCategory();
+
+    String getSlug();
+
+    String getFeaturedImage();
+
+    boolean isPublished();
+
+    int getViewCount();
+
+    int getLikeCount();
+
+    int getCommentCount();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    LocalDateTime getPublishedAt();
+
+    // One row per (post, tag) pair, loaded separately for a page of summaries
+    interface Tag {
+
+        String getPostId();
+
+        String getTag();
+    }
+
+    interface Fingerprint {
+
+        String getPostId();
+
+        long getContentFingerprint();
+    }
+
+    interface Content {
+
+        String getPostId();
+
+        String getContent();
+    }
+}
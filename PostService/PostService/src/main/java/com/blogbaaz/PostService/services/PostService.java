@@ -1,13 +1,17 @@
 package com.blogbaaz.PostService.services;
 
 import com.blogbaaz.PostService.dtos.CreatePostRequest;
+import com.blogbaaz.PostService.dtos.PostChangeFeed;
 import com.blogbaaz.PostService.dtos.PostDto;
+import com.blogbaaz.PostService.dtos.PostSummaryDto;
 import com.blogbaaz.PostService.dtos.UpdatePostRequest;
+import com.blogbaaz.PostService.index.TagIndex;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
 import java.util.List;
+import java.util.Map;
 
 public interface PostService {
 
@@ -33,10 +37,34 @@ public interface PostService {
 
     List<PostDto> getPostsByCategory(String category, Sort sort);
 
-    List<PostDto> getPostsByTags(String[] tags, Sort sort);
+    List<PostDto> getPostsByTags(String[] tags, TagIndex.Mode mode, String[] excludeTags, Sort sort);
 
     List<PostDto> getPublishedPosts(Sort sort);
 
+    // Bounded list methods (for SearchService)
+    Page<PostDto> searchPosts(String keyword, Sort sort, long offset, int limit);
+
+    Page<PostDto> getPostsByAuthor(String authorId, Sort sort, long offset, int limit);
+
+    Page<PostDto> getPostsByCategory(String category, Sort sort, long offset, int limit);
+
+    Page<PostDto> getPostsByTags(String[] tags, TagIndex.Mode mode, String[] excludeTags, Sort sort, long offset, int limit);
+
+    Page<PostDto> getPublishedPosts(Sort sort, long offset, int limit);
+
+    // Content-free summaries (for SearchService result lists)
+    Page<PostSummaryDto> searchPostSummaries(String keyword, Sort sort, long offset, int limit);
+
+    Page<PostSummaryDto> getPostSummariesByAuthor(String authorId, Sort sort, long offset, int limit);
+
+    Page<PostSummaryDto> getPostSummariesByCategory(String category, Sort sort, long offset, int limit);
+
+    Page<PostSummaryDto> getPostSummariesByTags(String[] tags, TagIndex.Mode mode, String[] excludeTags, Sort sort, long offset, int limit);
+
+    Map<String, Integer> getTagCounts(String[] tags);
+
+    Page<PostSummaryDto> getPublishedPostSummaries(Sort sort, long offset, int limit);
+
     PostDto updatePost(String postId, UpdatePostRequest request);
 
     PostDto publishPost(String postId);
@@ -50,4 +78,11 @@ public interface PostService {
     void incrementLikeCount(String postId);
 
     void incrementCommentCount(String postId);
+
+    // Change feed
+    void awaitChanges(long after, long waitMs);
+
+    PostChangeFeed getChanges(long after, int limit);
+
+    long getChangeHead();
 }
@@ -1,22 +1,42 @@
 package com.blogbaaz.PostService.services.impl;
 
 
+import com.blogbaaz.PostService.changes.PostChangeLog;
+import com.blogbaaz.PostService.config.DuplicateConfig;
 import com.blogbaaz.PostService.dtos.CreatePostRequest;
+import com.blogbaaz.PostService.dtos.PostChangeDto;
+import com.blogbaaz.PostService.dtos.PostChangeFeed;
 import com.blogbaaz.PostService.dtos.PostDto;
+import com.blogbaaz.PostService.dtos.PostSummaryDto;
 import com.blogbaaz.PostService.dtos.UpdatePostRequest;
 import com.blogbaaz.PostService.entities.Post;
+import com.blogbaaz.PostService.entities.PostChange;
+import com.blogbaaz.PostService.exceptions.DuplicatePostException;
 import com.blogbaaz.PostService.exceptions.PostNotFoundException;
+import com.blogbaaz.PostService.index.DuplicateIndex;
+import com.blogbaaz.PostService.index.TagIndex;
 import com.blogbaaz.PostService.repositories.PostRepository;
+import com.blogbaaz.PostService.repositories.PostSummary;
 import com.blogbaaz.PostService.services.PostService;
+import com.blogbaaz.PostService.utils.OffsetLimitRequest;
+import com.blogbaaz.PostService.utils.SimHash;
+import com.blogbaaz.PostService.utils.Slugs;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,11 +45,16 @@ import java.util.stream.Collectors;
 public class PostServiceImpl implements PostService {
 
     private final PostRepository postRepository;
+    private final TagIndex tagIndex;
+    private final PostChangeLog changeLog;
+    private final DuplicateIndex duplicateIndex;
+    private final DuplicateConfig duplicateConfig;
 
     @Override
     public PostDto createPost(CreatePostRequest request) {
         // Generate slug from title
-        String slug = generateSlug(request.getTitle());
+        String slug = Slugs.fromTitle(request.getTitle());
+        long fingerprint = SimHash.fingerprint(request.getContent());
 
         Post post = Post.builder()
                 .title(request.getTitle())
@@ -42,9 +67,15 @@ public class PostServiceImpl implements PostService {
                 .slug(slug)
                 .featuredImage(request.getFeaturedImage())
                 .status(Post.PostStatus.DRAFT)
+                .contentFingerprint(fingerprint)
+                .contentFingerprintVersion(SimHash.VERSION)
+                .duplicateOf(checkDuplicate(fingerprint, null))
                 .build();
 
         Post savedPost = postRepository.save(post);
+        tagIndex.update(savedPost.getPostId(), savedPost.getTags());
+        duplicateIndex.update(savedPost.getPostId(), fingerprint);
+        changeLog.record(savedPost.getPostId(), PostChange.ChangeType.CREATED);
         return entityToDto(savedPost);
     }
 
@@ -113,8 +144,12 @@ public class PostServiceImpl implements PostService {
     }
 
     @Override
-    public List<PostDto> getPostsByTags(String[] tags, Sort sort) {
-        return postRepository.findByTagsContainingList(tags[0], sort)
+    public List<PostDto> getPostsByTags(String[] tags, TagIndex.Mode mode, String[] excludeTags, Sort sort) {
+        String[] postIds = tagIndex.match(tags, mode, excludeTags);
+        if (postIds.length == 0) {
+            return List.of();
+        }
+        return postRepository.findByPostIds(postIds, sort)
                 .stream()
                 .map(this::entityToDto)
                 .collect(Collectors.toList());
@@ -128,6 +163,79 @@ public class PostServiceImpl implements PostService {
                 .collect(Collectors.toList());
     }
 
+    // Bounded list methods (for SearchService)
+    @Override
+    public Page<PostDto> searchPosts(String keyword, Sort sort, long offset, int limit) {
+        return postRepository.searchPostsList(keyword, OffsetLimitRequest.of(offset, limit, sort))
+                .map(this::entityToDto);
+    }
+
+    @Override
+    public Page<PostDto> getPostsByAuthor(String authorId, Sort sort, long offset, int limit) {
+        return postRepository.findByAuthorIdList(authorId, OffsetLimitRequest.of(offset, limit, sort))
+                .map(this::entityToDto);
+    }
+
+    @Override
+    public Page<PostDto> getPostsByCategory(String category, Sort sort, long offset, int limit) {
+        return postRepository.findByCategoryList(category, OffsetLimitRequest.of(offset, limit, sort))
+                .map(this::entityToDto);
+    }
+
+    @Override
+    public Page<PostDto> getPostsByTags(String[] tags, TagIndex.Mode mode, String[] excludeTags,
+                                        Sort sort, long offset, int limit) {
+        // Tag matching and the total come from the in-memory index; the database only sorts one page
+        String[] postIds = tagIndex.match(tags, mode, excludeTags);
+        Pageable pageable = OffsetLimitRequest.of(offset, limit, sort);
+        List<PostDto> posts = postIds.length == 0 ? List.of() : postRepository.findByPostIds(postIds, pageable)
+                .stream()
+                .map(this::entityToDto)
+                .collect(Collectors.toList());
+        return new PageImpl<>(posts, pageable, postIds.length);
+    }
+
+    @Override
+    public Page<PostDto> getPublishedPosts(Sort sort, long offset, int limit) {
+        return postRepository.findPublishedPostsList(OffsetLimitRequest.of(offset, limit, sort))
+                .map(this::entityToDto);
+    }
+
+    // Content-free summaries (for SearchService result lists)
+    @Override
+    public Page<PostSummaryDto> searchPostSummaries(String keyword, Sort sort, long offset, int limit) {
+        return withTags(postRepository.searchPostSummaries(keyword, OffsetLimitRequest.of(offset, limit, sort)));
+    }
+
+    @Override
+    public Page<PostSummaryDto> getPostSummariesByAuthor(String authorId, Sort sort, long offset, int limit) {
+        return withTags(postRepository.findSummariesByAuthorId(authorId, OffsetLimitRequest.of(offset, limit, sort)));
+    }
+
+    @Override
+    public Page<PostSummaryDto> getPostSummariesByCategory(String category, Sort sort, long offset, int limit) {
+        return withTags(postRepository.findSummariesByCategory(category, OffsetLimitRequest.of(offset, limit, sort)));
+    }
+
+    @Override
+    public Page<PostSummaryDto> getPostSummariesByTags(String[] tags, TagIndex.Mode mode, String[] excludeTags,
+                                                       Sort sort, long offset, int limit) {
+        String[] postIds = tagIndex.match(tags, mode, excludeTags);
+        Pageable pageable = OffsetLimitRequest.of(offset, limit, sort);
+        List<PostSummary> summaries = postIds.length == 0 ? List.of() : postRepository.findSummariesByPostIds(postIds, pageable);
+        return withTags(new PageImpl<>(summaries, pageable, postIds.length));
+    }
+
+    @Override
+    public Map<String, Integer> getTagCounts(String[] tags) {
+        return tagIndex.counts(tags);
+    }
+
+    @Override
+    public Page<PostSummaryDto> getPublishedPostSummaries(Sort sort, long offset, int limit) {
+        return withTags(postRepository.findPublishedSummaries(OffsetLimitRequest.of(offset, limit, sort)));
+    }
+
     @Override
     public PostDto updatePost(String postId, UpdatePostRequest request) {
         Post post = postRepository.findById(postId)
@@ -136,10 +244,14 @@ public class PostServiceImpl implements PostService {
         // Update fields if provided
         if (request.getTitle() != null) {
             post.setTitle(request.getTitle());
-            post.setSlug(generateSlug(request.getTitle()));
+            post.setSlug(Slugs.fromTitle(request.getTitle()));
         }
         if (request.getContent() != null) {
+            long fingerprint = SimHash.fingerprint(request.getContent());
             post.setContent(request.getContent());
+            post.setContentFingerprint(fingerprint);
+            post.setContentFingerprintVersion(SimHash.VERSION);
+            post.setDuplicateOf(checkDuplicate(fingerprint, postId));
         }
         if (request.getExcerpt() != null) {
             post.setExcerpt(request.getExcerpt());
@@ -159,6 +271,13 @@ public class PostServiceImpl implements PostService {
         }
 
         Post updatedPost = postRepository.save(post);
+        if (request.getTags() != null) {
+            tagIndex.update(postId, updatedPost.getTags());
+        }
+        if (request.getContent() != null) {
+            duplicateIndex.update(postId, updatedPost.getContentFingerprint());
+        }
+        changeLog.record(postId, PostChange.ChangeType.UPDATED);
         return entityToDto(updatedPost);
     }
 
@@ -172,6 +291,7 @@ public class PostServiceImpl implements PostService {
         post.setPublishedAt(LocalDateTime.now());
 
         Post publishedPost = postRepository.save(post);
+        changeLog.record(postId, PostChange.ChangeType.PUBLISHED);
         return entityToDto(publishedPost);
     }
 
@@ -184,6 +304,7 @@ public class PostServiceImpl implements PostService {
         post.setPublished(false);
 
         Post archivedPost = postRepository.save(post);
+        changeLog.record(postId, PostChange.ChangeType.ARCHIVED);
         return entityToDto(archivedPost);
     }
 
@@ -193,6 +314,9 @@ public class PostServiceImpl implements PostService {
             throw new PostNotFoundException("Post not found with id: " + postId);
         }
         postRepository.deleteById(postId);
+        tagIndex.remove(postId);
+        duplicateIndex.remove(postId);
+        changeLog.record(postId, PostChange.ChangeType.DELETED);
     }
 
     @Override
@@ -201,6 +325,7 @@ public class PostServiceImpl implements PostService {
                 .orElseThrow(() -> new PostNotFoundException("Post not found with id: " + postId));
         post.setViewCount(post.getViewCount() + 1);
         postRepository.save(post);
+        changeLog.recordCounters(postId);
     }
 
     @Override
@@ -209,6 +334,7 @@ public class PostServiceImpl implements PostService {
                 .orElseThrow(() -> new PostNotFoundException("Post not found with id: " + postId));
         post.setLikeCount(post.getLikeCount() + 1);
         postRepository.save(post);
+        changeLog.recordCounters(postId);
     }
 
     @Override
@@ -217,6 +343,52 @@ public class PostServiceImpl implements PostService {
                 .orElseThrow(() -> new PostNotFoundException("Post not found with id: " + postId));
         post.setCommentCount(post.getCommentCount() + 1);
         postRepository.save(post);
+        changeLog.recordCounters(postId);
+    }
+
+    // Change feed (for SearchService and other consumers keeping a copy in sync)
+    // Waits outside any transaction, so an idle long poll holds no connection
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void awaitChanges(long after, long waitMs) {
+        try {
+            changeLog.await(after, waitMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PostChangeFeed getChanges(long after, int limit) {
+        if (changeLog.isPruned(after)) {
+            return PostChangeFeed.builder()
+                    .lastSeq(after)
+                    .resyncRequired(true)
+                    .changes(List.of())
+                    .posts(List.of())
+                    .build();
+        }
+        List<PostChange> changes = changeLog.read(after, limit);
+        // Current state once per post, however many of its changes are in the batch
+        Set<String> postIds = changes.stream()
+                .map(PostChange::getPostId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        List<PostDto> posts = postIds.isEmpty() ? List.of() : postRepository.findAllById(postIds)
+                .stream()
+                .map(this::entityToDto)
+                .collect(Collectors.toList());
+        return PostChangeFeed.builder()
+                .lastSeq(changes.isEmpty() ? after : changes.get(changes.size() - 1).getSeq())
+                .changes(changes.stream().map(this::changeToDto).collect(Collectors.toList()))
+                .posts(posts)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long getChangeHead() {
+        return changeLog.head();
     }
 
     private PostDto entityToDto(Post post) {
@@ -239,13 +411,64 @@ public class PostServiceImpl implements PostService {
                 .createdAt(post.getCreatedAt())
                 .updatedAt(post.getUpdatedAt())
                 .publishedAt(post.getPublishedAt())
+                .duplicateOf(post.getDuplicateOf())
                 .build();
     }
 
-    private String generateSlug(String title) {
-        return title.toLowerCase()
-                .replaceAll("[^a-z0-9\\s]", "")
-                .replaceAll("\\s+", "-")
-                .trim();
+    // The post this content nearly duplicates, or null; in REJECT mode a match fails the save instead
+    private String checkDuplicate(long fingerprint, String postId) {
+        if (duplicateConfig.getMode() == DuplicateConfig.Mode.OFF) {
+            return null;
+        }
+        String original = duplicateIndex.findDuplicate(fingerprint, postId);
+        if (original != null && duplicateConfig.getMode() == DuplicateConfig.Mode.REJECT) {
+            throw new DuplicatePostException("Post content nearly duplicates post " + original);
+        }
+        return original;
+    }
+
+    // Tags are an element collection, so they come from one extra query per page
+    // rather than a join that would multiply the summary rows
+    private Page<PostSummaryDto> withTags(Page<PostSummary> summaries) {
+        Map<String, Set<String>> tagsByPostId = new HashMap<>();
+        if (summaries.hasContent()) {
+            List<String> postIds = summaries.map(PostSummary::getPostId).getContent();
+            for (PostSummary.Tag row : postRepository.findTagsByPostIds(postIds)) {
+                tagsByPostId.computeIfAbsent(row.getPostId(), id -> new HashSet<>()).add(row.getTag());
+            }
+        }
+        return summaries.map(summary ->
+                summaryToDto(summary, tagsByPostId.getOrDefault(summary.getPostId(), new HashSet<>())));
+    }
+
+    private PostSummaryDto summaryToDto(PostSummary summary, Set<String> tags) {
+        return PostSummaryDto.builder()
+                .postId(summary.getPostId())
+                .title(summary.getTitle())
+                .excerpt(summary.getExcerpt())
+                .authorId(summary.getAuthorId())
+                .authorName(summary.getAuthorName())
+                .status(summary.getStatus().name())
+                .tags(tags)
+                .category(summary.getCategory())
+                .slug(summary.getSlug())
+                .featuredImage(summary.getFeaturedImage())
+                .isPublished(summary.isPublished())
+                .viewCount(summary.getViewCount())
+                .likeCount(summary.getLikeCount())
+                .commentCount(summary.getCommentCount())
+                .createdAt(summary.getCreatedAt())
+                .updatedAt(summary.getUpdatedAt())
+                .publishedAt(summary.getPublishedAt())
+                .build();
+    }
+
+    private PostChangeDto changeToDto(PostChange change) {
+        return PostChangeDto.builder()
+                .seq(change.getSeq())
+                .postId(change.getPostId())
+                .type(change.getType().name())
+                .changedAt(change.getChangedAt())
+                .build();
     }
 }
@@ -0,0 +1,95 @@
+package com.blogbaaz.PostService.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 64-bit SimHash of post content. The content is normalized to lower-case
+ * words, and every run of three consecutive words votes on each bit with its
+ * own hash. Small edits change few runs and so flip few bits: near-duplicate
+ * posts end up a small Hamming distance apart.
+ */
+public final class SimHash {
+
+    // Too short to tell a copy from two posts saying the same few words
+    public static final long NONE = 0;
+    // Raised whenever the same content would fingerprint differently, so stored fingerprints are recomputed
+    public static final int VERSION = 2;
+    private static final int MIN_WORDS = 20;
+    private static final int SHINGLE_WORDS = 3;
+
+    private SimHash() {
+    }
+
+    // NONE when the content has fewer than MIN_WORDS words
+    public static long fingerprint(String content) {
+        List<String> words = words(content);
+        if (words.size() < MIN_WORDS) {
+            return NONE;
+        }
+        int[] votes = new int[64];
+        for (int i = 0; i + SHINGLE_WORDS <= words.size(); i++) {
+            long hash = 0xcbf29ce484222325L;
+            for (int j = i; j < i + SHINGLE_WORDS; j++) {
+                hash = hash(hash, words.get(j));
+            }
+            for (int bit = 0; bit < 64; bit++) {
+                votes[bit] += (hash >>> bit & 1) == 1 ? 1 : -1;
+            }
+        }
+        long fingerprint = 0;
+        for (int bit = 0; bit < 64; bit++) {
+            if (votes[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        // Keeps NONE free to mean no fingerprint
+        return fingerprint == NONE ? 1 : fingerprint;
+    }
+
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    // Lower-cased runs of word characters; markup and punctuation only separate words
+    private static List<String> words(String content) {
+        List<String> words = new ArrayList<>();
+        if (content == null) {
+            return words;
+        }
+        int start = -1;
+        for (int i = 0; i <= content.length(); ) {
+            int codePoint = i < content.length() ? content.codePointAt(i) : -1;
+            boolean wordChar = codePoint >= 0 && isWordChar(codePoint);
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(content.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+            i += codePoint >= 0 ? Character.charCount(codePoint) : 1;
+        }
+        return words;
+    }
+
+    // As SearchService tokenizes: vowel signs, viramas and joiners keep Bangla and other Indic words whole
+    private static boolean isWordChar(int codePoint) {
+        if (Character.isLetterOrDigit(codePoint) || codePoint == '\u200C' || codePoint == '\u200D') {
+            return true;
+        }
+        int type = Character.getType(codePoint);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+    }
+
+    // FNV-1a over the word and a separator, finished with a mix so every bit depends on the whole run
+    private static long hash(long hash, String word) {
+        for (int i = 0; i < word.length(); i++) {
+            hash = (hash ^ word.charAt(i)) * 0x100000001b3L;
+        }
+        hash = (hash ^ ' ') * 0x100000001b3L;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        return hash ^ hash >>> 33;
+    }
+}
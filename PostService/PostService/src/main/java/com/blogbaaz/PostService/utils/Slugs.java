@@ -0,0 +1,66 @@
+package com.blogbaaz.PostService.utils;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * URL slugs from post titles. Words are folded the way SearchService's
+ * analyzer folds them before stopwords and stemming: NFKC, lower case,
+ * Bangla joiners dropped and Bangla digits made ASCII. Letters of any
+ * script are kept, so Bangla titles get Bangla slugs rather than empty ones.
+ */
+public final class Slugs {
+
+    // For titles with nothing to keep, such as only punctuation or emoji
+    private static final String FALLBACK = "post";
+
+    private static final char TA = 'ত';
+    private static final char HASANTA = '্';
+    private static final char KHANDA_TA = 'ৎ';
+    private static final char ZERO = '০';
+    private static final char NINE = '৯';
+    private static final int ZWNJ = '\u200C';
+    private static final int ZWJ = '\u200D';
+
+    private Slugs() {
+    }
+
+    // Words joined by hyphens; punctuation inside a word is dropped, so "don't" stays "dont"
+    public static String fromTitle(String title) {
+        if (title == null) {
+            return FALLBACK;
+        }
+        String text = Normalizer.normalize(title, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        StringBuilder slug = new StringBuilder(text.length());
+        boolean separated = false;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isWhitespace(codePoint)) {
+                separated = !slug.isEmpty();
+            } else if (codePoint == ZWJ) {
+                int length = slug.length();
+                if (length >= 2 && slug.charAt(length - 1) == HASANTA && slug.charAt(length - 2) == TA) {
+                    slug.setLength(length - 2);
+                    slug.append(KHANDA_TA);
+                }
+            } else if (codePoint != ZWNJ && isWordChar(codePoint)) {
+                if (separated) {
+                    slug.append('-');
+                    separated = false;
+                }
+                slug.appendCodePoint(codePoint >= ZERO && codePoint <= NINE ? '0' + (codePoint - ZERO) : codePoint);
+            }
+        }
+        return slug.isEmpty() ? FALLBACK : slug.toString();
+    }
+
+    // Combining marks are kept so that scripts like Bangla keep their vowel signs
+    private static boolean isWordChar(int codePoint) {
+        if (Character.isLetterOrDigit(codePoint)) {
+            return true;
+        }
+        int type = Character.getType(codePoint);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+    }
+}
@@ -0,0 +1,210 @@
+package com.blogbaaz.PostService.changes;
+
+import com.blogbaaz.PostService.config.ChangeFeedConfig;
+import com.blogbaaz.PostService.entities.CountedPost;
+import com.blogbaaz.PostService.entities.PostChange;
+import com.blogbaaz.PostService.entities.PostChangeHead;
+import com.blogbaaz.PostService.repositories.CountedPostRepository;
+import com.blogbaaz.PostService.repositories.PostChangeHeadRepository;
+import com.blogbaaz.PostService.repositories.PostChangeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PostChangeLogTest {
+
+    private PostChangeRepository changeRepository;
+    private PostChangeHeadRepository headRepository;
+    private CountedPostRepository countedRepository;
+    private PostChangeHead head;
+    private PostChangeLog changeLog;
+
+    @BeforeEach
+    void setUp() {
+        changeRepository = mock(PostChangeRepository.class);
+        headRepository = mock(PostChangeHeadRepository.class);
+        countedRepository = mock(CountedPostRepository.class);
+        head = new PostChangeHead(PostChangeHead.ID, 41);
+        when(headRepository.lockById(PostChangeHead.ID)).thenReturn(Optional.of(head));
+        changeLog = new PostChangeLog(changeRepository, headRepository, countedRepository, new ChangeFeedConfig());
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        TransactionSynchronizationManager.unbindResourceIfPossible(changeLog);
+    }
+
+    @Test
+    void changesAreNumberedInOrderWhenTheTransactionCommits() {
+        changeLog.record("p1", PostChange.ChangeType.CREATED);
+        changeLog.record("p2", PostChange.ChangeType.UPDATED);
+        verify(changeRepository, never()).saveAll(any());
+
+        commit();
+
+        List<PostChange> saved = savedChanges();
+        assertThat(saved).extracting(PostChange::getSeq).containsExactly(42L, 43L);
+        assertThat(saved).extracting(PostChange::getPostId).containsExactly("p1", "p2");
+        assertThat(head.getLastSeq()).isEqualTo(43);
+    }
+
+    @Test
+    void headIsLockedAfterTheTransactionsOtherWritesAreFlushed() {
+        changeLog.record("p1", PostChange.ChangeType.PUBLISHED);
+
+        commit();
+
+        InOrder order = inOrder(changeRepository, headRepository);
+        order.verify(changeRepository).flush();
+        order.verify(headRepository).lockById(PostChangeHead.ID);
+        order.verify(changeRepository).saveAll(any());
+    }
+
+    @Test
+    void missingHeadIsCreatedBeforeTheFirstChange() {
+        when(headRepository.lockById(PostChangeHead.ID)).thenReturn(Optional.empty(), Optional.of(head));
+        changeLog.record("p1", PostChange.ChangeType.CREATED);
+
+        commit();
+
+        verify(headRepository).createIfMissing(PostChangeHead.ID);
+        assertThat(savedChanges()).extracting(PostChange::getSeq).containsExactly(42L);
+    }
+
+    @Test
+    void rolledBackChangesAreNeverNumbered() {
+        changeLog.record("p1", PostChange.ChangeType.DELETED);
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        verify(headRepository, never()).lockById(PostChangeHead.ID);
+        verify(changeRepository, never()).saveAll(any());
+        assertThat(TransactionSynchronizationManager.hasResource(changeLog)).isFalse();
+    }
+
+    @Test
+    void changesOutsideATransactionAreRejected() {
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThatThrownBy(() -> changeLog.record("p1", PostChange.ChangeType.CREATED))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void readReturnsEveryRowAfterTheSequenceNumber() {
+        List<PostChange> rows = List.of(change(7, "p1", PostChange.ChangeType.CREATED),
+                change(8, "p2", PostChange.ChangeType.COUNTED));
+        when(changeRepository.findBySeqGreaterThanOrderBySeqAsc(eq(6L), any(Pageable.class))).thenReturn(rows);
+
+        assertThat(changeLog.read(6, 10)).isEqualTo(rows);
+    }
+
+    @Test
+    void headIsTheNewestSequenceNumber() {
+        when(changeRepository.findMaxSeq()).thenReturn(null, 12L);
+
+        assertThat(changeLog.head()).isZero();
+        assertThat(changeLog.head()).isEqualTo(12);
+    }
+
+    @Test
+    void changedPostsSkipCounterChangesAndReportPruning() {
+        when(changeRepository.findMinSeq()).thenReturn(5L);
+        when(changeRepository.findBySeqGreaterThanOrderBySeqAsc(eq(4L), any(Pageable.class))).thenReturn(List.of(
+                change(5, "p1", PostChange.ChangeType.UPDATED),
+                change(6, "p2", PostChange.ChangeType.COUNTED),
+                change(7, "p3", PostChange.ChangeType.DELETED)));
+        when(changeRepository.findBySeqGreaterThanOrderBySeqAsc(eq(7L), any(Pageable.class))).thenReturn(List.of());
+
+        PostChangeLog.ChangedPosts changed = changeLog.changedPosts(4);
+
+        assertThat(changed.lastSeq()).isEqualTo(7);
+        assertThat(changed.postIds()).containsExactly("p1", "p3");
+        assertThat(changeLog.changedPosts(2)).isNull();
+    }
+
+    @Test
+    void countersAreMarkedInTheCallersTransaction() {
+        changeLog.recordCounters("p1");
+
+        verify(countedRepository).markCounted("p1");
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).isEmpty();
+    }
+
+    @Test
+    void flushWritesOneCountedRowPerPostItClears() {
+        when(countedRepository.findByPostIdGreaterThanOrderByPostIdAsc(eq(""), any(Pageable.class)))
+                .thenReturn(List.of(new CountedPost("p1", 3), new CountedPost("p2", 1)));
+        when(countedRepository.findByPostIdGreaterThanOrderByPostIdAsc(eq("p2"), any(Pageable.class)))
+                .thenReturn(List.of());
+        when(countedRepository.deleteFlushed("p1", 3)).thenReturn(1);
+        // Counted again after the flush read it: stays marked for the next flush
+        when(countedRepository.deleteFlushed("p2", 1)).thenReturn(0);
+
+        changeLog.flushCounters();
+        commit();
+
+        List<PostChange> saved = savedChanges();
+        assertThat(saved).extracting(PostChange::getPostId).containsExactly("p1");
+        assertThat(saved).extracting(PostChange::getType).containsExactly(PostChange.ChangeType.COUNTED);
+    }
+
+    @Test
+    void emptyFlushWritesNothing() {
+        when(countedRepository.findByPostIdGreaterThanOrderByPostIdAsc(anyString(), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        changeLog.flushCounters();
+
+        verify(countedRepository, never()).deleteFlushed(anyString(), anyLong());
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).isEmpty();
+    }
+
+    private void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        for (TransactionSynchronization synchronization : synchronizations) {
+            synchronization.beforeCommit(false);
+        }
+        for (TransactionSynchronization synchronization : synchronizations) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<PostChange> savedChanges() {
+        ArgumentCaptor<Iterable<PostChange>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(changeRepository).saveAll(captor.capture());
+        List<PostChange> saved = new ArrayList<>();
+        captor.getValue().forEach(saved::add);
+        return saved;
+    }
+
+    private static PostChange change(long seq, String postId, PostChange.ChangeType type) {
+        return PostChange.builder().seq(seq).postId(postId).type(type).build();
+    }
+}
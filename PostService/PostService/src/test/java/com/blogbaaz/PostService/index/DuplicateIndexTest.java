@@ -0,0 +1,179 @@
+package com.blogbaaz.PostService.index;
+
+import com.blogbaaz.PostService.changes.PostChangeLog;
+import com.blogbaaz.PostService.config.DuplicateConfig;
+import com.blogbaaz.PostService.repositories.PostRepository;
+import com.blogbaaz.PostService.repositories.PostSummary;
+import com.blogbaaz.PostService.utils.SimHash;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DuplicateIndexTest {
+
+    private static final long BASE = 0x5A5A_0F0F_3C3C_F0F0L;
+
+    private PostRepository postRepository;
+    private PostChangeLog changeLog;
+    private DuplicateIndex duplicateIndex;
+
+    @BeforeEach
+    void setUp() {
+        postRepository = mock(PostRepository.class);
+        changeLog = mock(PostChangeLog.class);
+        when(postRepository.findUnfingerprinted(anyInt(), any(Pageable.class))).thenReturn(List.of());
+        when(postRepository.findAllFingerprints()).thenReturn(List.of(
+                new Row("near", BASE ^ 0b1),
+                new Row("three-bits", BASE ^ 0b111),
+                new Row("four-bits", BASE ^ 0b1111_0000_0000L),
+                new Row("far", ~BASE)));
+        when(changeLog.head()).thenReturn(10L);
+        duplicateIndex = new DuplicateIndex(postRepository, changeLog, new DuplicateConfig());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void nothingIsADuplicateUntilLoaded() {
+        assertThat(duplicateIndex.findDuplicate(BASE, null)).isNull();
+    }
+
+    @Test
+    void closestPostWithinMaxDistanceIsFound() {
+        duplicateIndex.load();
+
+        assertThat(duplicateIndex.findDuplicate(BASE, null)).isEqualTo("near");
+        assertThat(duplicateIndex.findDuplicate(BASE, "near")).isEqualTo("three-bits");
+        assertThat(duplicateIndex.findDuplicate(BASE ^ 0b1111_0000_0000L, "four-bits")).isNull();
+        assertThat(duplicateIndex.findDuplicate(0x1234_5678_9ABC_DEF0L, null)).isNull();
+    }
+
+    @Test
+    void contentTooShortToFingerprintIsNeverADuplicate() {
+        duplicateIndex.load();
+
+        assertThat(duplicateIndex.findDuplicate(SimHash.NONE, null)).isNull();
+    }
+
+    @Test
+    void savesOutsideATransactionApplyAtOnce() {
+        duplicateIndex.load();
+
+        duplicateIndex.update("copy", ~BASE ^ 0b10);
+        duplicateIndex.remove("near");
+        duplicateIndex.update("three-bits", SimHash.NONE);
+
+        assertThat(duplicateIndex.findDuplicate(~BASE, "far")).isEqualTo("copy");
+        assertThat(duplicateIndex.findDuplicate(BASE, null)).isNull();
+    }
+
+    @Test
+    void savesInATransactionApplyOnlyOnceItCommits() {
+        duplicateIndex.load();
+        TransactionSynchronizationManager.initSynchronization();
+
+        duplicateIndex.remove("near");
+        assertThat(duplicateIndex.findDuplicate(BASE, null)).isEqualTo("near");
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        assertThat(duplicateIndex.findDuplicate(BASE, null)).isEqualTo("three-bits");
+    }
+
+    @Test
+    void refreshAppliesChangesMadeThroughOtherInstances() {
+        duplicateIndex.load();
+        when(changeLog.changedPosts(10)).thenReturn(new PostChangeLog.ChangedPosts(12, Set.of("near", "copy")));
+        when(postRepository.findFingerprintsByPostIds(Set.of("near", "copy"))).thenReturn(List.of(new Row("copy", BASE)));
+
+        duplicateIndex.refresh();
+
+        assertThat(duplicateIndex.findDuplicate(BASE, null)).isEqualTo("copy");
+        assertThat(duplicateIndex.findDuplicate(BASE, "copy")).isEqualTo("three-bits");
+        when(changeLog.changedPosts(12)).thenReturn(new PostChangeLog.ChangedPosts(12, Set.of()));
+        duplicateIndex.refresh();
+        verify(changeLog).changedPosts(12);
+    }
+
+    @Test
+    void prunedChangesAreResyncedWithTheDatabase() {
+        duplicateIndex.load();
+        when(changeLog.changedPosts(10)).thenReturn(null);
+        when(postRepository.findAllFingerprints()).thenReturn(List.of(new Row("three-bits", BASE ^ 0b111)));
+
+        duplicateIndex.refresh();
+
+        assertThat(duplicateIndex.findDuplicate(BASE, null)).isEqualTo("three-bits");
+        assertThat(duplicateIndex.findDuplicate(~BASE, null)).isNull();
+        verify(postRepository, times(2)).findAllFingerprints();
+    }
+
+    @Test
+    void failedLoadIsRetriedByRefresh() {
+        when(postRepository.findAllFingerprints()).thenThrow(new IllegalStateException("database down"))
+                .thenReturn(List.of(new Row("near", BASE)));
+
+        duplicateIndex.load();
+        assertThat(duplicateIndex.findDuplicate(BASE, null)).isNull();
+
+        duplicateIndex.refresh();
+        assertThat(duplicateIndex.findDuplicate(BASE, null)).isEqualTo("near");
+    }
+
+    @Test
+    void postsWithoutACurrentFingerprintAreFingerprintedFirst() {
+        String content = "word ".repeat(30);
+        when(postRepository.findUnfingerprinted(eq(SimHash.VERSION), any(Pageable.class)))
+                .thenReturn(List.of(new Content("old", content)), List.of());
+
+        duplicateIndex.load();
+
+        verify(postRepository).setContentFingerprint("old", SimHash.fingerprint(content), SimHash.VERSION);
+    }
+
+    private record Row(String postId, long contentFingerprint) implements PostSummary.Fingerprint {
+
+        @Override
+        public String getPostId() {
+            return postId;
+        }
+
+        @Override
+        public long getContentFingerprint() {
+            return contentFingerprint;
+        }
+    }
+
+    private record Content(String postId, String content) implements PostSummary.Content {
+
+        @Override
+        public String getPostId() {
+            return postId;
+        }
+
+        @Override
+        public String getContent() {
+            return content;
+        }
+    }
+}
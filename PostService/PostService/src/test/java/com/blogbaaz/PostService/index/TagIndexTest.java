@@ -0,0 +1,117 @@
+package com.blogbaaz.PostService.index;
+
+import com.blogbaaz.PostService.changes.PostChangeLog;
+import com.blogbaaz.PostService.repositories.PostRepository;
+import com.blogbaaz.PostService.repositories.PostSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TagIndexTest {
+
+    private PostRepository postRepository;
+    private TagIndex tagIndex;
+
+    @BeforeEach
+    void setUp() {
+        postRepository = mock(PostRepository.class);
+        when(postRepository.findAllTags()).thenReturn(List.of(
+                new Row("p1", "java"), new Row("p1", "spring"),
+                new Row("p2", "java"), new Row("p2", "kafka"),
+                new Row("p3", "spring"),
+                new Row("p4", "java"), new Row("p4", "spring"), new Row("p4", "kafka")));
+        tagIndex = new TagIndex(postRepository, mock(PostChangeLog.class));
+    }
+
+    @Test
+    void anyMatchesPostsWithAtLeastOneTag() {
+        assertThat(tagIndex.match(new String[]{"kafka", "spring"}, TagIndex.Mode.ANY, null))
+                .containsExactlyInAnyOrder("p1", "p2", "p3", "p4");
+    }
+
+    @Test
+    void allMatchesPostsWithEveryTag() {
+        assertThat(tagIndex.match(new String[]{"java", "spring"}, TagIndex.Mode.ALL, null))
+                .containsExactlyInAnyOrder("p1", "p4");
+        assertThat(tagIndex.match(new String[]{"java", "spring", "kafka"}, TagIndex.Mode.ALL, null))
+                .containsExactly("p4");
+    }
+
+    @Test
+    void excludedTagsAreSubtracted() {
+        assertThat(tagIndex.match(new String[]{"java"}, TagIndex.Mode.ANY, new String[]{"kafka"}))
+                .containsExactly("p1");
+        assertThat(tagIndex.match(new String[]{"spring"}, TagIndex.Mode.ALL, new String[]{"java", "kafka"}))
+                .containsExactly("p3");
+    }
+
+    @Test
+    void unknownTagMatchesNothing() {
+        assertThat(tagIndex.match(new String[]{"rust"}, TagIndex.Mode.ANY, null)).isEmpty();
+        assertThat(tagIndex.match(new String[]{"java", "rust"}, TagIndex.Mode.ALL, null)).isEmpty();
+        assertThat(tagIndex.match(new String[]{"java", "rust"}, TagIndex.Mode.ANY, null))
+                .containsExactlyInAnyOrder("p1", "p2", "p4");
+    }
+
+    @Test
+    void noTagsMatchNothing() {
+        assertThat(tagIndex.match(new String[0], TagIndex.Mode.ANY, null)).isEmpty();
+        assertThat(tagIndex.match(new String[0], TagIndex.Mode.ALL, null)).isEmpty();
+    }
+
+    @Test
+    void savesOutsideATransactionApplyAtOnce() {
+        tagIndex.match(new String[]{"java"}, TagIndex.Mode.ANY, null);
+
+        tagIndex.update("p5", Set.of("java", "rust"));
+        tagIndex.update("p1", Set.of("spring"));
+        tagIndex.remove("p2");
+
+        assertThat(tagIndex.match(new String[]{"java"}, TagIndex.Mode.ANY, null))
+                .containsExactlyInAnyOrder("p4", "p5");
+        assertThat(tagIndex.match(new String[]{"rust"}, TagIndex.Mode.ANY, null)).containsExactly("p5");
+        assertThat(tagIndex.counts(new String[]{"java", "kafka"})).containsEntry("java", 2).containsEntry("kafka", 1);
+    }
+
+    @Test
+    void loadsOnceOnFirstUse() {
+        tagIndex.match(new String[]{"java"}, TagIndex.Mode.ANY, null);
+        tagIndex.match(new String[]{"spring"}, TagIndex.Mode.ALL, null);
+
+        verify(postRepository).findAllTags();
+    }
+
+    @Test
+    void modeIsParsedIgnoringCase() {
+        assertThat(TagIndex.Mode.from("all")).isEqualTo(TagIndex.Mode.ALL);
+        assertThat(TagIndex.Mode.from("ANY")).isEqualTo(TagIndex.Mode.ANY);
+        assertThat(TagIndex.Mode.from(null)).isEqualTo(TagIndex.Mode.ANY);
+        assertThat(TagIndex.Mode.from("")).isEqualTo(TagIndex.Mode.ANY);
+        assertThatThrownBy(() -> TagIndex.Mode.from("foo"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unsupported tag mode: foo");
+        assertThat("All").matches(TagIndex.Mode.PATTERN);
+        assertThat("foo").doesNotMatch(TagIndex.Mode.PATTERN);
+    }
+
+    private record Row(String postId, String tag) implements PostSummary.Tag {
+
+        @Override
+        public String getPostId() {
+            return postId;
+        }
+
+        @Override
+        public String getTag() {
+            return tag;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.blogbaaz.PostService.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SimHashTest {
+
+    private static final String ENGLISH = "Kafka consumers read records from partitions in order, and each consumer group "
+            + "tracks its own offsets so that several applications can read the same topic at their own pace without "
+            + "getting in each other's way or losing track of where they stopped";
+    private static final String BANGLA = "আমার সোনার বাংলা আমি তোমায় ভালোবাসি চিরদিন তোমার আকাশ তোমার বাতাস আমার প্রাণে "
+            + "বাজায় বাঁশি ও মা ফাগুনে তোর আমের বনে ঘ্রাণে পাগল করে মরি হায় হায় রে";
+
+    @Test
+    void shortContentHasNoFingerprint() {
+        assertThat(SimHash.fingerprint(null)).isEqualTo(SimHash.NONE);
+        assertThat(SimHash.fingerprint("Just a few words here")).isEqualTo(SimHash.NONE);
+    }
+
+    @Test
+    void caseSpacingAndPunctuationAreIgnored() {
+        String restyled = "\"" + ENGLISH.toUpperCase().replace(",", " —").replace(" ", "\n ") + "!\"";
+
+        assertThat(SimHash.fingerprint(restyled)).isEqualTo(SimHash.fingerprint(ENGLISH));
+    }
+
+    @Test
+    void smallEditStaysCloseAndOtherContentDoesNot() {
+        long original = SimHash.fingerprint(ENGLISH);
+
+        assertThat(SimHash.distance(original, SimHash.fingerprint(ENGLISH.replace("several", "many")))).isLessThanOrEqualTo(12);
+        assertThat(SimHash.distance(original, SimHash.fingerprint(BANGLA))).isGreaterThan(12);
+    }
+
+    @Test
+    void banglaVowelSignsAndViramasDoNotSplitWords() {
+        // Twelve words: split at every vowel sign they would pass the twenty-word minimum
+        String twelveWords = "আমার সোনার বাংলা আমি তোমায় ভালোবাসি চিরদিন তোমার আকাশ তোমার বাতাস আমার";
+
+        assertThat(SimHash.fingerprint(twelveWords)).isEqualTo(SimHash.NONE);
+        assertThat(SimHash.fingerprint(BANGLA)).isNotEqualTo(SimHash.NONE);
+    }
+
+    @Test
+    void banglaNearDuplicateIsFound() {
+        long original = SimHash.fingerprint(BANGLA);
+
+        assertThat(SimHash.distance(original, SimHash.fingerprint(BANGLA.replace("চিরদিন", "সারাজীবন"))))
+                .isLessThanOrEqualTo(12);
+        assertThat(SimHash.fingerprint("«" + BANGLA.replace(" ", ", ") + "।»")).isEqualTo(original);
+    }
+
+    @Test
+    void joinersStayInsideTheWord() {
+        // র‍্যাব is written with a zero-width joiner; split there, nineteen of them would pass the minimum
+        String joined = "র\u200D্যাব ";
+
+        assertThat(SimHash.fingerprint(joined.repeat(19))).isEqualTo(SimHash.NONE);
+        assertThat(SimHash.fingerprint(joined.repeat(20))).isNotEqualTo(SimHash.NONE);
+    }
+}
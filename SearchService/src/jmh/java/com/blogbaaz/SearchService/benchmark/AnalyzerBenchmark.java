@@ -0,0 +1,169 @@
+package com.blogbaaz.SearchService.benchmark;
+
+import com.blogbaaz.SearchService.analysis.Analyzer;
+import com.blogbaaz.SearchService.dtos.PostDto;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Analysis throughput: the megabytes counter is MB/s of UTF-8 input. English
+ * text is the corpus's post contents; Bangla text is generated from Bangla
+ * letters, vowel signs, conjuncts, nukta letters, joiners and digits, so
+ * every Bangla folding path runs. tokenizer is the same split with no
+ * filters, the floor the filter chain adds to.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AnalyzerBenchmark {
+
+    private static final int TEXT_COUNT = 2_000;
+    private static final Analyzer TOKENIZER = new Analyzer();
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Input {
+        public double megabytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            megabytes = 0;
+        }
+    }
+
+    private Texts english;
+    private Texts bangla;
+    private long chars;
+    private final Analyzer.TokenConsumer counter = token -> {
+        chars += token.length();
+        return true;
+    };
+
+    @Setup
+    public void setUp() {
+        List<PostDto> posts = SyntheticCorpus.generate(TEXT_COUNT);
+        english = new Texts(posts.stream().map(PostDto::getContent).toArray(String[]::new));
+        Random random = new Random(SyntheticCorpus.DEFAULT_SEED);
+        String[] words = banglaWords(random, 5_000);
+        String[] texts = new String[TEXT_COUNT];
+        for (int i = 0; i < texts.length; i++) {
+            texts[i] = banglaText(random, words, 50 + random.nextInt(250));
+        }
+        bangla = new Texts(texts);
+    }
+
+    @Benchmark
+    public long english(Input input) {
+        return analyze(Analyzer.STANDARD, english, input);
+    }
+
+    @Benchmark
+    public long bangla(Input input) {
+        return analyze(Analyzer.STANDARD, bangla, input);
+    }
+
+    @Benchmark
+    public long tokenizer(Input input) {
+        return analyze(TOKENIZER, english, input);
+    }
+
+    private long analyze(Analyzer analyzer, Texts texts, Input input) {
+        int i = texts.next();
+        input.megabytes += texts.megabytes[i];
+        chars = 0;
+        analyzer.analyze(texts.texts[i], counter);
+        return chars;
+    }
+
+    // Pseudo-words of two to four syllables: a consonant or conjunct, then a vowel sign or none
+    private static String[] banglaWords(Random random, int count) {
+        String consonants = "কখগঘচছজঝটঠডঢণতথদধনপফবভমযরলশষসহ";
+        String vowelSigns = "ািীুূৃেৈোৌ";
+        String vowels = "অআইঈউঊএঐওঔ";
+        String[] words = new String[count];
+        for (int w = 0; w < count; w++) {
+            StringBuilder word = new StringBuilder();
+            if (random.nextInt(5) == 0) {
+                word.append(vowels.charAt(random.nextInt(vowels.length())));
+            }
+            for (int s = 2 + random.nextInt(3); s > 0; s--) {
+                word.append(consonants.charAt(random.nextInt(consonants.length())));
+                int shape = random.nextInt(20);
+                if (shape == 0) {
+                    // Conjunct, sometimes held apart with a non-joiner
+                    word.append('্');
+                    if (random.nextBoolean()) {
+                        word.append('\u200C');
+                    }
+                    word.append(consonants.charAt(random.nextInt(consonants.length())));
+                } else if (shape == 1) {
+                    // Precomposed nukta letter, which NFKC decomposes
+                    word.append("\u09DC\u09DD\u09DF".charAt(random.nextInt(3)));
+                }
+                if (random.nextInt(3) > 0) {
+                    word.append(vowelSigns.charAt(random.nextInt(vowelSigns.length())));
+                }
+            }
+            if (random.nextInt(30) == 0) {
+                // Khanda ta in its older encoding
+                word.append("ত্\u200D");
+            }
+            words[w] = word.toString();
+        }
+        return words;
+    }
+
+    // Common words far more often than rare ones, with dandas and the odd year in Bangla digits
+    private static String banglaText(Random random, String[] words, int length) {
+        StringBuilder text = new StringBuilder(length * 8);
+        for (int w = 0; w < length; w++) {
+            if (w > 0) {
+                text.append(random.nextInt(12) == 0 ? "। " : " ");
+            }
+            if (random.nextInt(40) == 0) {
+                text.append("২০").append((char) ('০' + random.nextInt(3))).append((char) ('০' + random.nextInt(10)));
+            } else {
+                text.append(words[(int) (words.length * Math.pow(random.nextDouble(), 3))]);
+            }
+        }
+        return text.append('।').toString();
+    }
+
+    private static final class Texts {
+        final String[] texts;
+        final double[] megabytes;
+        int next;
+
+        Texts(String[] texts) {
+            this.texts = texts;
+            this.megabytes = new double[texts.length];
+            for (int i = 0; i < texts.length; i++) {
+                megabytes[i] = texts[i].getBytes(StandardCharsets.UTF_8).length / 1e6;
+            }
+        }
+
+        int next() {
+            int i = next;
+            next = next + 1 == texts.length ? 0 : next + 1;
+            return i;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.blogbaaz.SearchService.benchmark;
+
+import com.blogbaaz.SearchService.dtos.PostDto;
+import com.blogbaaz.SearchService.dtos.PostSummaryDto;
+import com.blogbaaz.SearchService.dtos.SearchResponse;
+import com.blogbaaz.SearchService.dtos.SearchResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Turning a page of indexed posts into the API response: the summaries
+ * PostIndex hands out, the SearchResponse mapping in SearchServiceImpl and
+ * the JSON the controller writes. The *WithContent benchmarks serialize the
+ * same page in the shapes used before hits became content-free summaries:
+ * search results whose hits carry the full content, and pages of full posts
+ * from PostService. Each trial also prints the JSON bytes per hit for both
+ * shapes, and how much of that is content, the column the summary
+ * projection no longer reads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConversionBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int pageSize;
+
+    private List<PostDto> posts;
+    private List<PostSummaryDto> summaries;
+    private SearchResult result;
+    private SearchResult resultWithContent;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        posts = SyntheticCorpus.generate(pageSize);
+        summaries = summarize();
+        result = searchResult();
+        resultWithContent = result.toBuilder()
+                .posts(posts.stream()
+                        .map(post -> (SearchResponse) new ContentHit(SearchResponse.fromPostSummary(
+                                PostSummaryDto.fromPostDto(post), 1.0), post.getContent()))
+                        .collect(Collectors.toList()))
+                .build();
+        objectMapper = JsonMapper.builder().findAndAddModules().build();
+    }
+
+    @TearDown
+    public void reportPayloadSizes() throws JsonProcessingException {
+        long content = posts.stream().mapToLong(post -> post.getContent().getBytes(StandardCharsets.UTF_8).length).sum();
+        System.out.printf("%n%d hits, JSON bytes per hit: search results %d, with content %d; "
+                        + "PostService page %d, as full posts %d; content alone %d%n",
+                pageSize,
+                serialize().length / pageSize,
+                serializeWithContent().length / pageSize,
+                serializePostPage().length / pageSize,
+                serializePostPageWithContent().length / pageSize,
+                content / pageSize);
+    }
+
+    @Benchmark
+    public List<PostSummaryDto> summarize() {
+        return posts.stream()
+                .map(PostSummaryDto::fromPostDto)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public SearchResult searchResult() {
+        List<SearchResponse> responses = summaries.stream()
+                .map(summary -> SearchResponse.fromPostSummary(summary, 1.0))
+                .collect(Collectors.toList());
+        return SearchResult.builder()
+                .posts(responses)
+                .totalResults(responses.size())
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(result);
+    }
+
+    @Benchmark
+    public byte[] serializeWithContent() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(resultWithContent);
+    }
+
+    // What PostService sends SearchService for a page of hits
+    @Benchmark
+    public byte[] serializePostPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(summaries);
+    }
+
+    @Benchmark
+    public byte[] serializePostPageWithContent() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(posts);
+    }
+
+    // A search hit as it was before SearchResponse dropped the content field
+    public static class ContentHit extends SearchResponse {
+
+        private final String content;
+
+        ContentHit(SearchResponse hit, String content) {
+            super(hit.getPostId(), hit.getTitle(), hit.getExcerpt(), hit.getAuthorId(), hit.getAuthorName(),
+                    hit.getStatus(), hit.getTags(), hit.getCategory(), hit.getSlug(), hit.getFeaturedImage(),
+                    hit.isPublished(), hit.getViewCount(), hit.getLikeCount(), hit.getCommentCount(),
+                    hit.getCreatedAt(), hit.getUpdatedAt(), hit.getPublishedAt(), hit.getRelevanceScore(),
+                    hit.getHighlightedText());
+            this.content = content;
+        }
+
+        public String getContent() {
+            return content;
+        }
+    }
+}
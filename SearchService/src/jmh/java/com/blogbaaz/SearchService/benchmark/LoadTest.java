@@ -0,0 +1,233 @@
+package com.blogbaaz.SearchService.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent-request capacity of a running SearchService whose searches all
+ * wait on a slow PostService. Starts a stub PostService that answers summary
+ * searches after a fixed delay and refuses everything else, so the index never
+ * loads and every search makes the blocking call. Then holds a fixed number
+ * of requests in flight per level and reports throughput and latency
+ * percentiles. Each request searches a new keyword to stay clear of the cache.
+ *
+ * <p>Compare the two threading models by running it against each:
+ * <pre>
+ * java -jar SearchService.jar --post-service.url=http://localhost:8095 --eureka.client.enabled=false \
+ *     --search.index.persistent=false --search.comments.enabled=false --spring.threads.virtual.enabled=false
+ * mvn -Pbenchmark -DskipTests test-compile exec:exec@load-test -Dload.args="--stub-latency-ms=200"
+ * </pre>
+ * then again with {@code --spring.threads.virtual.enabled=true}.
+ * Platform threads top out near Tomcat's 200 threads divided by the PostService
+ * latency; past that, requests queue and p99 grows with the level. On a single
+ * CPU, virtual threads did worse at every level: with 200 ms and 1000 ms stub
+ * latency they gave lower throughput at most levels, a p99 of up to 13 s and
+ * many requests past their deadline, which is why they are off by default.
+ *
+ * <p>Options: --target (http://localhost:8086), --stub-port (8095),
+ * --stub-latency-ms (200), --levels (50,200,800,1600), --warmup-s (5),
+ * --duration-s (20), --out (JSON results file).
+ */
+public class LoadTest {
+
+    private static final int HITS = 10;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        URI target = URI.create(options.getOrDefault("target", "http://localhost:8086"));
+        int stubPort = Integer.parseInt(options.getOrDefault("stub-port", "8095"));
+        long stubLatencyMs = Long.parseLong(options.getOrDefault("stub-latency-ms", "200"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup-s", "5"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration-s", "20"));
+        List<Integer> levels = new ArrayList<>();
+        for (String level : options.getOrDefault("levels", "50,200,800,1600").split(",")) {
+            levels.add(Integer.parseInt(level.trim()));
+        }
+
+        HttpServer stub = startStub(stubPort, stubLatencyMs);
+        ExecutorService clientThreads = Executors.newFixedThreadPool(4);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(clientThreads)
+                .build();
+        try {
+            System.out.printf("Stub PostService on port %d answering in %d ms, target %s%n", stubPort, stubLatencyMs, target);
+            awaitTarget(client, target);
+
+            List<Result> results = new ArrayList<>();
+            System.out.printf("%8s %10s %9s %9s %9s %9s %7s%n", "inflight", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "errors");
+            for (int level : levels) {
+                run(client, target, level, Duration.ofSeconds(warmupSeconds));
+                Result result = run(client, target, level, Duration.ofSeconds(durationSeconds));
+                results.add(result);
+                System.out.printf("%8d %10.1f %9.1f %9.1f %9.1f %9.1f %7d%n", level, result.throughput(),
+                        result.millis(50), result.millis(90), result.millis(99), result.latency.getMaxValue() / 1e6,
+                        result.errors);
+            }
+            if (options.containsKey("out")) {
+                write(Path.of(options.get("out")), stubLatencyMs, results);
+            }
+        } finally {
+            stub.stop(0);
+            clientThreads.shutdownNow();
+        }
+    }
+
+    // Closed loop: each of the level's slots sends its next request as soon as the last one answers
+    private static Result run(HttpClient client, URI target, int level, Duration duration) throws InterruptedException {
+        Histogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+        AtomicLong completed = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        AtomicLong queries = new AtomicLong();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        CountDownLatch done = new CountDownLatch(level);
+
+        for (int slot = 0; slot < level; slot++) {
+            new Object() {
+                void send() {
+                    if (System.nanoTime() >= end) {
+                        done.countDown();
+                        return;
+                    }
+                    long sent = System.nanoTime();
+                    HttpRequest request = HttpRequest.newBuilder(target.resolve("/api/search?query=load" + queries.incrementAndGet()))
+                            .timeout(Duration.ofSeconds(60))
+                            .GET()
+                            .build();
+                    client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                        latency.recordValue(Math.min(System.nanoTime() - sent, latency.getHighestTrackableValue()));
+                        if (failure != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        } else {
+                            completed.incrementAndGet();
+                        }
+                        send();
+                    });
+                }
+            }.send();
+        }
+        done.await();
+        return new Result(level, completed.get(), errors.get(), System.nanoTime() - start, latency);
+    }
+
+    private static void awaitTarget(HttpClient client, URI target) throws InterruptedException {
+        HttpRequest health = HttpRequest.newBuilder(target.resolve("/actuator/health")).timeout(Duration.ofSeconds(2)).build();
+        for (int attempt = 0; ; attempt++) {
+            try {
+                client.send(health, HttpResponse.BodyHandlers.discarding());
+                return;
+            } catch (IOException e) {
+                if (attempt == 0) {
+                    System.out.println("Waiting for " + target + " ...");
+                }
+                Thread.sleep(1000);
+            }
+        }
+    }
+
+    // Summary searches answer after the latency, on a thread of their own; the rest is refused
+    private static HttpServer startStub(int port, long latencyMs) throws IOException {
+        byte[] hits = summaries().getBytes(StandardCharsets.UTF_8);
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 4096);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> respond(exchange, 503, new byte[0]));
+        server.createContext("/api/posts/summaries/search", exchange -> {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("X-Total-Count", String.valueOf(HITS));
+            respond(exchange, 200, hits);
+        });
+        server.start();
+        return server;
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String summaries() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < HITS; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(String.format(Locale.ROOT, "{\"postId\":\"load-%d\",\"title\":\"Load test post %d\","
+                    + "\"excerpt\":\"A post served by the load test stub\",\"authorId\":\"author-%d\","
+                    + "\"authorName\":\"Author %d\",\"status\":\"PUBLISHED\",\"tags\":[\"load\"],\"category\":\"test\","
+                    + "\"slug\":\"load-test-post-%d\",\"isPublished\":true,\"createdAt\":\"2024-01-01T00:00:00\","
+                    + "\"publishedAt\":\"2024-01-01T00:00:00\"}", i, i, i % 3, i % 3, i));
+        }
+        return json.append(']').toString();
+    }
+
+    private static void write(Path path, long stubLatencyMs, List<Result> results) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(path), false, StandardCharsets.UTF_8)) {
+            out.printf(Locale.ROOT, "{\"stubLatencyMs\":%d,\"levels\":[", stubLatencyMs);
+            for (int i = 0; i < results.size(); i++) {
+                Result result = results.get(i);
+                out.printf(Locale.ROOT, "%s{\"inflight\":%d,\"completed\":%d,\"errors\":%d,\"throughput\":%.1f,"
+                                + "\"p50Ms\":%.2f,\"p90Ms\":%.2f,\"p99Ms\":%.2f,\"maxMs\":%.2f}",
+                        i > 0 ? "," : "", result.level, result.completed, result.errors, result.throughput(),
+                        result.millis(50), result.millis(90), result.millis(99), result.latency.getMaxValue() / 1e6);
+            }
+            out.println("]}");
+        }
+        System.out.println("Results written to " + path);
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+
+    private record Result(int level, long completed, long errors, long elapsedNanos, Histogram latency) {
+
+        double throughput() {
+            return completed * 1e9 / elapsedNanos;
+        }
+
+        double millis(double percentile) {
+            return latency.getValueAtPercentile(percentile) / 1e6;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.blogbaaz.SearchService.benchmark;
+
+import com.blogbaaz.SearchService.dtos.PostDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Reproducible blog posts for benchmarks. Words, tags, categories and authors
+ * are drawn from Zipf distributions and body lengths are log-normal, so term
+ * frequencies and filter selectivities look like a real blog rather than
+ * uniform noise. The same size and seed always give the same posts.
+ */
+public final class SyntheticCorpus {
+
+    public static final long DEFAULT_SEED = 42;
+
+    private static final int VOCABULARY_SIZE = 50_000;
+    private static final int TAG_COUNT = 500;
+    private static final int CATEGORY_COUNT = 20;
+    // Each letter repeated roughly in proportion to its frequency in English text
+    private static final String LETTERS = "eeeeeeeeeeeetttttttttaaaaaaaaooooooooiiiiiiinnnnnnnsssssshhhhhhrrrrrrddddllllcccuuummwwffggyyppbbvkjxqz";
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2022, 1, 1, 0, 0);
+    // Posts span three years
+    private static final int SPAN_MINUTES = 3 * 365 * 24 * 60;
+
+    private static final String[] WORDS = words(VOCABULARY_SIZE);
+    private static final Zipf WORD_RANKS = new Zipf(VOCABULARY_SIZE, 1.0);
+    private static final Zipf TAG_RANKS = new Zipf(TAG_COUNT, 1.1);
+    private static final Zipf CATEGORY_RANKS = new Zipf(CATEGORY_COUNT, 0.8);
+
+    private SyntheticCorpus() {
+    }
+
+    public static List<PostDto> generate(int size) {
+        return generate(size, DEFAULT_SEED);
+    }
+
+    public static List<PostDto> generate(int size, long seed) {
+        Random random = new Random(seed);
+        // About twenty posts per author, with a few prolific ones
+        Zipf authorRanks = new Zipf(Math.max(1, size / 20), 0.9);
+        List<PostDto> posts = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            posts.add(post(i, random, authorRanks));
+        }
+        return posts;
+    }
+
+    // The word at this frequency rank, 0 being the most common
+    public static String word(int rank) {
+        return WORDS[rank];
+    }
+
+    public static String tag(int rank) {
+        return "tag-" + rank;
+    }
+
+    public static String category(int rank) {
+        return "category-" + rank;
+    }
+
+    public static String authorId(int rank) {
+        return "author-" + rank;
+    }
+
+    private static PostDto post(int i, Random random, Zipf authorRanks) {
+        int author = authorRanks.sample(random);
+        String title = capitalize(text(random, 4 + random.nextInt(9)));
+        // Median of about 150 words, with a long tail of essays
+        int contentWords = (int) Math.min(5_000, Math.max(20, Math.round(Math.exp(5.0 + 0.8 * random.nextGaussian()))));
+        String content = paragraphs(random, contentWords);
+        String excerpt = content.substring(0, Math.min(content.length(), 200));
+
+        Set<String> tags = new LinkedHashSet<>();
+        int tagCount = 1 + random.nextInt(5);
+        while (tags.size() < tagCount) {
+            tags.add(tag(TAG_RANKS.sample(random)));
+        }
+
+        // Most posts are published; the rest are drafts
+        boolean published = random.nextInt(100) < 85;
+        int views = published ? (int) Math.min(Integer.MAX_VALUE, Math.round(Math.exp(4.0 + 1.5 * random.nextGaussian()))) : 0;
+        LocalDateTime createdAt = EPOCH.plusMinutes(random.nextInt(SPAN_MINUTES));
+
+        return PostDto.builder()
+                .postId(String.format("post-%08d", i))
+                .title(title)
+                .content(content)
+                .excerpt(excerpt)
+                .authorId(authorId(author))
+                .authorName(capitalize(WORDS[author % VOCABULARY_SIZE]) + " " + capitalize(WORDS[(author * 31 + 7) % VOCABULARY_SIZE]))
+                .status(published ? "PUBLISHED" : "DRAFT")
+                .tags(tags)
+                .category(category(CATEGORY_RANKS.sample(random)))
+                .slug(String.format("post-%08d", i))
+                .isPublished(published)
+                .viewCount(views)
+                .likeCount(views / 20 + random.nextInt(3))
+                .commentCount(views / 50)
+                .createdAt(createdAt)
+                .updatedAt(createdAt.plusMinutes(random.nextInt(60 * 24 * 30)))
+                .publishedAt(published ? createdAt.plusMinutes(random.nextInt(60 * 24)) : null)
+                .build();
+    }
+
+    private static String paragraphs(Random random, int words) {
+        StringBuilder text = new StringBuilder(words * 7);
+        int sentence = 0;
+        for (int w = 0; w < words; w++) {
+            if (sentence == 0) {
+                if (w > 0) {
+                    text.append(random.nextInt(5) == 0 ? "\n\n" : " ");
+                }
+                sentence = 6 + random.nextInt(14);
+                text.append(capitalize(WORDS[WORD_RANKS.sample(random)]));
+            } else {
+                text.append(' ').append(WORDS[WORD_RANKS.sample(random)]);
+            }
+            if (--sentence == 0 || w == words - 1) {
+                text.append('.');
+            } else if (random.nextInt(12) == 0) {
+                text.append(',');
+            }
+        }
+        return text.toString();
+    }
+
+    private static String text(Random random, int words) {
+        StringBuilder text = new StringBuilder(words * 7);
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[WORD_RANKS.sample(random)]);
+        }
+        return text.toString();
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    // Distinct pseudo-words from English letter frequencies, shorter ones at the common ranks as in natural text
+    private static String[] words(int count) {
+        Random random = new Random(DEFAULT_SEED);
+        Set<String> seen = new HashSet<>();
+        String[] words = new String[count];
+        for (int rank = 0; rank < count; rank++) {
+            int length = 2 + (int) (2 * Math.log10(rank + 1)) + random.nextInt(3);
+            String word;
+            do {
+                StringBuilder letters = new StringBuilder(length);
+                for (int i = 0; i < length; i++) {
+                    letters.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+                }
+                word = letters.toString();
+            } while (!seen.add(word));
+            words[rank] = word;
+        }
+        return words;
+    }
+
+    // Inverse-CDF sampling over ranks 0..n-1 with weight 1/(rank+1)^exponent
+    private static final class Zipf {
+        private final double[] cumulative;
+
+        Zipf(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int rank = 0; rank < n; rank++) {
+                sum += 1 / Math.pow(rank + 1, exponent);
+                cumulative[rank] = sum;
+            }
+            for (int rank = 0; rank < n; rank++) {
+                cumulative[rank] /= sum;
+            }
+        }
+
+        int sample(Random random) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(rank < 0 ? -rank - 1 : rank, cumulative.length - 1);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.blogbaaz.SearchService.benchmark;
+
+import com.blogbaaz.SearchService.dtos.PostDto;
+import com.blogbaaz.SearchService.index.Tokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokenizing post fields as indexing and keyword search do. Each call takes
+ * the next post of the corpus so the lengths follow its distribution.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TokenizerBenchmark {
+
+    private static final int CORPUS_SIZE = 10_000;
+
+    private List<PostDto> posts;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        posts = SyntheticCorpus.generate(CORPUS_SIZE);
+    }
+
+    @Benchmark
+    public List<String> title() {
+        return Tokenizer.tokenize(nextPost().getTitle());
+    }
+
+    @Benchmark
+    public List<String> content() {
+        return Tokenizer.tokenize(nextPost().getContent());
+    }
+
+    private PostDto nextPost() {
+        PostDto post = posts.get(next);
+        next = next + 1 == posts.size() ? 0 : next + 1;
+        return post;
+    }
+}
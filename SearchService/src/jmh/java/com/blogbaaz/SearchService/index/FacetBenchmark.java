@@ -0,0 +1,68 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.benchmark.SyntheticCorpus;
+import com.blogbaaz.SearchService.dtos.PostDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counting every facet over a narrow match set (one author's posts) and a
+ * broad one (all published posts). The narrow case should stay flat as the
+ * corpus grows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class FacetBenchmark {
+
+    private static final List<Facet> ALL_FACETS = List.of(Facet.values());
+
+    @Param({"10000", "100000", "1000000"})
+    int corpusSize;
+
+    private InvertedIndex index;
+    private RoaringBitmap narrow;
+    private RoaringBitmap broad;
+
+    @Setup
+    public void setUp() {
+        index = new InvertedIndex();
+        for (PostDto post : SyntheticCorpus.generate(corpusSize)) {
+            index.add(post);
+        }
+        narrow = QueryPlanner.execute(index, PostQuery.builder().authorId(SyntheticCorpus.authorId(50)).build(), List.of());
+        broad = QueryPlanner.execute(index, PostQuery.builder().publishedOnly(true).build(), List.of());
+    }
+
+    @Benchmark
+    public int narrow() {
+        return count(narrow);
+    }
+
+    @Benchmark
+    public int broad() {
+        return count(broad);
+    }
+
+    private int count(RoaringBitmap matches) {
+        FacetCollector collector = new FacetCollector(ALL_FACETS, 10, matches.getCardinality());
+        index.collectFacets(matches, collector);
+        return collector.result().size();
+    }
+}
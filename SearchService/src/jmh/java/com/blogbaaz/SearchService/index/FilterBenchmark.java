@@ -0,0 +1,99 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.benchmark.SyntheticCorpus;
+import com.blogbaaz.SearchService.dtos.PostDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Intersecting several filters with {@link QueryPlanner}, from broad ones
+ * (the most popular category and tag) to narrow ones (a single author).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class FilterBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    int corpusSize;
+
+    private InvertedIndex index;
+    private PostQuery categoryAndTag;
+    private PostQuery allTags;
+    private PostQuery anyTagsExcluding;
+    private PostQuery authorAndCategory;
+    private PostQuery keywordAndFilters;
+    private List<QueryTerm> keyword;
+
+    @Setup
+    public void setUp() {
+        index = new InvertedIndex();
+        for (PostDto post : SyntheticCorpus.generate(corpusSize)) {
+            index.add(post);
+        }
+        categoryAndTag = PostQuery.builder()
+                .category(SyntheticCorpus.category(0))
+                .tags(new String[]{SyntheticCorpus.tag(0)})
+                .publishedOnly(true)
+                .build();
+        allTags = PostQuery.builder()
+                .tags(new String[]{SyntheticCorpus.tag(1), SyntheticCorpus.tag(5)})
+                .tagMode(PostQuery.TagMode.ALL)
+                .publishedOnly(true)
+                .build();
+        anyTagsExcluding = PostQuery.builder()
+                .tags(new String[]{SyntheticCorpus.tag(2), SyntheticCorpus.tag(20), SyntheticCorpus.tag(200)})
+                .excludeTags(new String[]{SyntheticCorpus.tag(0)})
+                .build();
+        authorAndCategory = PostQuery.builder()
+                .authorId(SyntheticCorpus.authorId(0))
+                .category(SyntheticCorpus.category(3))
+                .build();
+        keywordAndFilters = PostQuery.builder()
+                .category(SyntheticCorpus.category(1))
+                .tags(new String[]{SyntheticCorpus.tag(3)})
+                .publishedOnly(true)
+                .build();
+        keyword = List.of(QueryTerm.exact(SyntheticCorpus.word(300)));
+    }
+
+    @Benchmark
+    public int categoryAndTag() {
+        return QueryPlanner.execute(index, categoryAndTag, List.of()).getCardinality();
+    }
+
+    @Benchmark
+    public int allTags() {
+        return QueryPlanner.execute(index, allTags, List.of()).getCardinality();
+    }
+
+    @Benchmark
+    public int anyTagsExcluding() {
+        return QueryPlanner.execute(index, anyTagsExcluding, List.of()).getCardinality();
+    }
+
+    @Benchmark
+    public int authorAndCategory() {
+        return QueryPlanner.execute(index, authorAndCategory, List.of()).getCardinality();
+    }
+
+    @Benchmark
+    public int keywordAndFilters() {
+        return QueryPlanner.execute(index, keywordAndFilters, keyword).getCardinality();
+    }
+}
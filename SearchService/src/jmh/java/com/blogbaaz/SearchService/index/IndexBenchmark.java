@@ -0,0 +1,78 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.benchmark.SyntheticCorpus;
+import com.blogbaaz.SearchService.dtos.PostDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Term lookup and BM25 scoring on an in-memory index. termRank picks the
+ * query word by corpus frequency, so a common word at rank 10 scores a large
+ * share of the posts and a rare one at rank 5000 only a handful.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class IndexBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    int corpusSize;
+
+    @Param({"10", "300", "5000"})
+    int termRank;
+
+    private InvertedIndex index;
+    private String term;
+    private List<QueryTerm> terms;
+    private int[] docIds;
+    private int[] exactMatches;
+
+    @Setup
+    public void setUp() {
+        index = new InvertedIndex();
+        for (PostDto post : SyntheticCorpus.generate(corpusSize)) {
+            index.add(post);
+        }
+        term = SyntheticCorpus.word(termRank);
+        terms = List.of(QueryTerm.exact(term));
+        docIds = QueryPlanner.execute(index, PostQuery.builder().build(), terms).toArray();
+        exactMatches = new int[docIds.length];
+    }
+
+    @Benchmark
+    public Postings lookup() {
+        return index.postings(IndexField.CONTENT, term);
+    }
+
+    @Benchmark
+    public int documentFrequency() {
+        return index.documentFrequency(term);
+    }
+
+    // Title, excerpt and content postings unioned into the term's matches
+    @Benchmark
+    public RoaringBitmap match() {
+        return QueryPlanner.execute(index, PostQuery.builder().build(), terms);
+    }
+
+    @Benchmark
+    public float[] score() {
+        return Bm25Scorer.score(index, terms, docIds, exactMatches);
+    }
+}
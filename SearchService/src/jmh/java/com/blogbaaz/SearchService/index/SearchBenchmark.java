@@ -0,0 +1,118 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.benchmark.SyntheticCorpus;
+import com.blogbaaz.SearchService.config.SearchConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Whole {@link PostIndex#search} calls with the service's default settings:
+ * planning, scoring or sorting, top-k selection, highlighting and summaries.
+ * Runs against heap-only and segment-backed indexes. Phrase and boolean
+ * queries show the cost of matching from positional postings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx6g"})
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    private static final int LIMIT = 20;
+
+    @Param({"10000", "100000", "1000000"})
+    int corpusSize;
+
+    @Param({"false", "true"})
+    boolean persistent;
+
+    private Path directory;
+    private PostIndex postIndex;
+    private PostQuery keyword;
+    private PostQuery filtered;
+    private PostQuery phrase;
+    private PostQuery booleanQuery;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("search-index-benchmark");
+        SearchConfig config = new SearchConfig();
+        config.setHighlightEnabled(true);
+        config.setFuzzySearchEnabled(true);
+        config.getIndex().setPersistent(persistent);
+        config.getIndex().setDirectory(directory.toString());
+
+        postIndex = new PostIndex(event -> { }, new Highlighter(config), config, new SegmentStore(config), new ShardLayout(config));
+        postIndex.rebuild(SyntheticCorpus.generate(corpusSize), 0);
+
+        keyword = PostQuery.builder()
+                .keyword(SyntheticCorpus.word(50) + " " + SyntheticCorpus.word(400))
+                .build();
+        // Common words, so the phrase has many candidate docs to check positions in
+        phrase = PostQuery.builder()
+                .keyword("\"" + SyntheticCorpus.word(3) + " " + SyntheticCorpus.word(8) + "\"")
+                .build();
+        booleanQuery = PostQuery.builder()
+                .keyword(SyntheticCorpus.word(50) + " OR " + SyntheticCorpus.word(60) + " -" + SyntheticCorpus.word(5)
+                        + " tag:" + SyntheticCorpus.tag(2))
+                .build();
+        filtered = PostQuery.builder()
+                .category(SyntheticCorpus.category(2))
+                .tags(new String[]{SyntheticCorpus.tag(4)})
+                .publishedOnly(true)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        postIndex.close();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public PostHits relevance() {
+        return postIndex.search(keyword, PostIndex.RELEVANCE, "desc", LIMIT);
+    }
+
+    @Benchmark
+    public PostHits keywordByDate() {
+        return postIndex.search(keyword, "createdAt", "desc", LIMIT);
+    }
+
+    @Benchmark
+    public PostHits phraseRelevance() {
+        return postIndex.search(phrase, PostIndex.RELEVANCE, "desc", LIMIT);
+    }
+
+    @Benchmark
+    public PostHits booleanRelevance() {
+        return postIndex.search(booleanQuery, PostIndex.RELEVANCE, "desc", LIMIT);
+    }
+
+    @Benchmark
+    public PostHits filteredByViews() {
+        return postIndex.search(filtered, "viewCount", "desc", LIMIT);
+    }
+}
@@ -0,0 +1,98 @@
+package com.blogbaaz.SearchService.analysis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Splits text into tokens and runs each through a chain of
+ * {@link TokenFilter}s. A token is a run of letters, digits and combining
+ * marks, read by code point so that Bangla words stay whole across their
+ * vowel signs and joiners. Every token of a text goes through one reusable
+ * {@link Token}, and the consumer sees it before the next one is read, so
+ * no string is made unless the consumer makes it.
+ * <p>
+ * Positions count the tokens kept, so a dropped stopword leaves no gap: a
+ * quoted phrase matches whichever stopwords sit between its words.
+ */
+public final class Analyzer {
+
+    /**
+     * What posts and comments are indexed and searched with: NFKC folding,
+     * lower-casing, Bangla folding, English and Bangla stopwords and light
+     * English stemming.
+     */
+    public static final Analyzer STANDARD = new Analyzer(
+            new NfkcFilter(),
+            new LowerCaseFilter(),
+            new BanglaFilter(),
+            new StopFilter(Stream.concat(StopFilter.ENGLISH.stream(), StopFilter.BANGLA.stream()).toList()),
+            new EnglishStemFilter());
+
+    @FunctionalInterface
+    public interface TokenConsumer {
+
+        // False stops the analysis, for consumers that have seen enough
+        boolean accept(Token token);
+    }
+
+    private final TokenFilter[] filters;
+
+    public Analyzer(TokenFilter... filters) {
+        this.filters = filters.clone();
+    }
+
+    public void analyze(CharSequence text, TokenConsumer consumer) {
+        if (text == null) {
+            return;
+        }
+        Token token = new Token();
+        int position = 0;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            int codePoint = Character.codePointAt(text, i);
+            if (!isTokenChar(codePoint)) {
+                i += Character.charCount(codePoint);
+                continue;
+            }
+            token.start(position, i);
+            do {
+                token.appendCodePoint(codePoint);
+                i += Character.charCount(codePoint);
+            } while (i < length && isTokenChar(codePoint = Character.codePointAt(text, i)));
+            token.end(i);
+            if (filter(token)) {
+                position++;
+                if (!consumer.accept(token)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // The tokens of the text as strings, for callers that keep them
+    public List<String> terms(CharSequence text) {
+        List<String> terms = new ArrayList<>();
+        analyze(text, token -> terms.add(token.toString()));
+        return terms;
+    }
+
+    private boolean filter(Token token) {
+        for (TokenFilter filter : filters) {
+            if (!filter.apply(token) || token.length() == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Joiners count, so that Bangla conjuncts written with them are not split
+    public static boolean isTokenChar(int codePoint) {
+        if (Character.isLetterOrDigit(codePoint) || codePoint == '\u200C' || codePoint == '\u200D') {
+            return true;
+        }
+        int type = Character.getType(codePoint);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+    }
+}
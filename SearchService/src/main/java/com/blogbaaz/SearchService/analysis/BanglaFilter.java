@@ -0,0 +1,39 @@
+package com.blogbaaz.SearchService.analysis;
+
+/**
+ * Folds the spellings of Bangla words that look alike but differ in code
+ * points. Zero-width joiners and non-joiners only choose how a conjunct is
+ * drawn, so they are dropped, except that ta, hasanta and a joiner is the
+ * older encoding of khanda ta. Bangla digits become ASCII digits, so years
+ * and numbers match whichever were typed. Other tokens pass unchanged.
+ */
+public final class BanglaFilter implements TokenFilter {
+
+    private static final char TA = 'ত';
+    private static final char HASANTA = '্';
+    private static final char KHANDA_TA = 'ৎ';
+    private static final char ZERO = '০';
+    private static final char NINE = '৯';
+    private static final char ZWNJ = '\u200C';
+    private static final char ZWJ = '\u200D';
+
+    @Override
+    public boolean apply(Token token) {
+        char[] buffer = token.buffer();
+        int length = token.length();
+        int kept = 0;
+        for (int i = 0; i < length; i++) {
+            char c = buffer[i];
+            if (c == ZWNJ || c == ZWJ) {
+                if (c == ZWJ && kept >= 2 && buffer[kept - 1] == HASANTA && buffer[kept - 2] == TA) {
+                    buffer[kept - 2] = KHANDA_TA;
+                    kept--;
+                }
+                continue;
+            }
+            buffer[kept++] = c >= ZERO && c <= NINE ? (char) ('0' + (c - ZERO)) : c;
+        }
+        token.setLength(kept);
+        return true;
+    }
+}
@@ -0,0 +1,163 @@
+package com.blogbaaz.SearchService.analysis;
+
+/**
+ * A light English stemmer: plural -s and -es as in Lucene's minimal
+ * stemmer, then -ed and -ing as in step 1b of Porter's, so "posts",
+ * "posting" and "posted" all index as "post" and "running" as "run".
+ * Derivational suffixes (-ness, -ation) are left alone, which keeps stems
+ * real words that read well as spelling suggestions. Only tokens of ASCII
+ * letters are stemmed, in place.
+ */
+public final class EnglishStemFilter implements TokenFilter {
+
+    // Shorter words are left alone: "has", "its", "bus"
+    private static final int MIN_LENGTH = 4;
+    // Nor is -ed or -ing taken from words it would leave shorter: "used", "tied"
+    private static final int MIN_STEM = 3;
+
+    @Override
+    public boolean apply(Token token) {
+        int length = token.length();
+        if (length < MIN_LENGTH || !isAsciiWord(token.buffer(), length)) {
+            return true;
+        }
+        char[] buffer = token.ensureCapacity(length + 1);
+        length = stripPlural(buffer, length);
+        length = stripVerbSuffix(buffer, length);
+        token.setLength(length);
+        return true;
+    }
+
+    private static boolean isAsciiWord(char[] buffer, int length) {
+        for (int i = 0; i < length; i++) {
+            if (buffer[i] < 'a' || buffer[i] > 'z') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // -ies to -y, -es dropped after a hiss, -s dropped, but not from -ss, -us or the -es of "shoes", "trees", "toes"
+    private static int stripPlural(char[] b, int length) {
+        if (b[length - 1] != 's') {
+            return length;
+        }
+        switch (b[length - 2]) {
+            case 'u', 's':
+                return length;
+            case 'e':
+                if (length > MIN_LENGTH && b[length - 3] == 'i' && b[length - 4] != 'a' && b[length - 4] != 'e') {
+                    b[length - 3] = 'y';
+                    return length - 2;
+                }
+                // "classes", "boxes", "wishes"; not -ches, where "caches" and "matches" disagree
+                if (endsWith(b, length, "sses") || endsWith(b, length, "xes") || endsWith(b, length, "shes")) {
+                    return length - 2;
+                }
+                if (b[length - 3] == 'i' || b[length - 3] == 'a' || b[length - 3] == 'o' || b[length - 3] == 'e') {
+                    return length;
+                }
+                return length - 1;
+            default:
+                return length - 1;
+        }
+    }
+
+    // Porter's step 1b, plus -ied to -y so "studied" meets "study"
+    private static int stripVerbSuffix(char[] b, int length) {
+        if (endsWith(b, length, "eed")) {
+            return measure(b, length - 3) > 0 ? length - 1 : length;
+        }
+        if (endsWith(b, length, "ied") && length > MIN_LENGTH) {
+            b[length - 3] = 'y';
+            return length - 2;
+        }
+        int stem;
+        if (endsWith(b, length, "ed")) {
+            stem = length - 2;
+        } else if (endsWith(b, length, "ing")) {
+            stem = length - 3;
+        } else {
+            return length;
+        }
+        if (stem < MIN_STEM || !hasVowel(b, stem)) {
+            return length;
+        }
+        // Puts back what the suffix took: "hoped" and "hoping" to "hope", "running" to "run"
+        if (endsWith(b, stem, "at") || endsWith(b, stem, "bl") || endsWith(b, stem, "iz")) {
+            b[stem] = 'e';
+            return stem + 1;
+        }
+        if (b[stem - 1] == b[stem - 2] && isConsonant(b, stem - 1)
+                && b[stem - 1] != 'l' && b[stem - 1] != 's' && b[stem - 1] != 'z') {
+            return stem - 1;
+        }
+        if (measure(b, stem) == 1 && endsConsonantVowelConsonant(b, stem)) {
+            b[stem] = 'e';
+            return stem + 1;
+        }
+        return stem;
+    }
+
+    private static boolean endsWith(char[] b, int length, String suffix) {
+        int from = length - suffix.length();
+        if (from < 0) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            if (b[from + i] != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Y is a vowel after a consonant, as in "try"
+    private static boolean isConsonant(char[] b, int i) {
+        return switch (b[i]) {
+            case 'a', 'e', 'i', 'o', 'u' -> false;
+            case 'y' -> i == 0 || !isConsonant(b, i - 1);
+            default -> true;
+        };
+    }
+
+    private static boolean hasVowel(char[] b, int length) {
+        for (int i = 0; i < length; i++) {
+            if (!isConsonant(b, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Porter's m: vowel-consonant runs after any leading consonants
+    private static int measure(char[] b, int length) {
+        int i = 0;
+        while (i < length && isConsonant(b, i)) {
+            i++;
+        }
+        int m = 0;
+        while (i < length) {
+            while (i < length && !isConsonant(b, i)) {
+                i++;
+            }
+            if (i == length) {
+                break;
+            }
+            while (i < length && isConsonant(b, i)) {
+                i++;
+            }
+            m++;
+        }
+        return m;
+    }
+
+    // A short syllable like "hop" or "mak", whose silent e the suffix dropped; not after w, x or y
+    private static boolean endsConsonantVowelConsonant(char[] b, int length) {
+        if (length < 3 || !isConsonant(b, length - 3) || isConsonant(b, length - 2) || !isConsonant(b, length - 1)) {
+            return false;
+        }
+        char last = b[length - 1];
+        return last != 'w' && last != 'x' && last != 'y';
+    }
+}
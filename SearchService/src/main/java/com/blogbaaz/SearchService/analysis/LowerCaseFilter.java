@@ -0,0 +1,32 @@
+package com.blogbaaz.SearchService.analysis;
+
+/**
+ * Lower-cases the token in place, code point by code point, the same way
+ * whatever the default locale.
+ */
+public final class LowerCaseFilter implements TokenFilter {
+
+    @Override
+    public boolean apply(Token token) {
+        char[] buffer = token.buffer();
+        int length = token.length();
+        for (int i = 0; i < length; ) {
+            char c = buffer[i];
+            if (c < 0x80) {
+                if (c >= 'A' && c <= 'Z') {
+                    buffer[i] = (char) (c + ('a' - 'A'));
+                }
+                i++;
+                continue;
+            }
+            int codePoint = Character.codePointAt(buffer, i, length);
+            int lower = Character.toLowerCase(codePoint);
+            // Case pairs share a plane, so the lower-case form takes as many chars
+            if (lower != codePoint && Character.charCount(lower) == Character.charCount(codePoint)) {
+                Character.toChars(lower, buffer, i);
+            }
+            i += Character.charCount(codePoint);
+        }
+        return true;
+    }
+}
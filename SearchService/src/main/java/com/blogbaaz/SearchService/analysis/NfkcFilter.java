@@ -0,0 +1,52 @@
+package com.blogbaaz.SearchService.analysis;
+
+import java.text.Normalizer;
+
+/**
+ * Unicode NFKC folding, so that text typed differently but meaning the
+ * same indexes the same: full-width and styled letters, ligatures, and
+ * precomposed against combining-mark spellings. Most tokens are already
+ * normalized, so a quick scan skips them and only the rest are copied out
+ * through {@link Normalizer}.
+ */
+public final class NfkcFilter implements TokenFilter {
+
+    @Override
+    public boolean apply(Token token) {
+        if (!isNormalized(token)) {
+            token.setChars(Normalizer.normalize(token, Normalizer.Form.NFKC));
+        }
+        return true;
+    }
+
+    // Conservative: true only for chars NFKC leaves alone whatever follows them
+    static boolean isNormalized(Token token) {
+        char[] buffer = token.buffer();
+        for (int i = 0; i < token.length(); i++) {
+            char c = buffer[i];
+            if (c < 0xA0 || c >= 0xC0 && c <= 0xFF) {
+                // Latin-1 letters only change when a combining mark follows, and that mark is caught below
+                continue;
+            }
+            if (c >= 0x0980 && c <= 0x09FF && isStableBengali(c, i == 0 ? 0 : buffer[i - 1])) {
+                continue;
+            }
+            return false;
+        }
+        return true;
+    }
+
+    // Precomposed nukta letters decompose, e-kar composes with a following aa-kar or au length mark,
+    // and marks out of canonical order are swapped
+    private static boolean isStableBengali(char c, char previous) {
+        return switch (c) {
+            // Rra, rha, yya, sandhi mark
+            case '\u09DC', '\u09DD', '\u09DF', '\u09FE' -> false;
+            // Aa-kar, au length mark
+            case '\u09BE', '\u09D7' -> previous != '\u09C7';
+            // Nukta goes before hasanta
+            case '\u09BC' -> previous != '\u09CD';
+            default -> true;
+        };
+    }
+}
@@ -0,0 +1,61 @@
+package com.blogbaaz.SearchService.analysis;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Drops words too common to tell posts apart. The words are held in an
+ * open-addressed table of char arrays, so a token is looked up straight
+ * from its buffer. Runs after lower-casing and folding, before stemming.
+ */
+public final class StopFilter implements TokenFilter {
+
+    public static final Set<String> ENGLISH = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "if", "in", "into", "is", "it",
+            "no", "not", "of", "on", "or", "such", "that", "the", "their", "then", "there", "these",
+            "they", "this", "to", "was", "will", "with");
+
+    // Conjunctions, postpositions, pronouns and particles
+    public static final Set<String> BANGLA = Set.of(
+            "ও", "এবং", "কিন্তু", "অথবা", "বা", "যে", "যা", "এই", "ওই", "সেই", "এটি", "এটা", "সে", "তা",
+            "না", "নয়", "কি", "কী", "তো", "ই", "হয়", "হয়ে", "করে", "থেকে", "জন্য", "দিয়ে", "সঙ্গে", "সাথে",
+            "মধ্যে", "এর", "একটি", "একটা");
+
+    private final char[][] table;
+
+    // Words are folded as NfkcFilter and LowerCaseFilter fold tokens, so they match however they were typed
+    public StopFilter(Collection<String> words) {
+        table = new char[Integer.highestOneBit(Math.max(1, words.size()) * 4 - 1) << 1][];
+        for (String word : words) {
+            char[] chars = Normalizer.normalize(word, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT).toCharArray();
+            int slot = slot(chars, chars.length);
+            while (table[slot] != null && !Arrays.equals(table[slot], chars)) {
+                slot = (slot + 1) & (table.length - 1);
+            }
+            table[slot] = chars;
+        }
+    }
+
+    @Override
+    public boolean apply(Token token) {
+        char[] buffer = token.buffer();
+        int length = token.length();
+        for (int slot = slot(buffer, length); table[slot] != null; slot = (slot + 1) & (table.length - 1)) {
+            if (Arrays.equals(table[slot], 0, table[slot].length, buffer, 0, length)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int slot(char[] chars, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        return (hash ^ hash >>> 16) & (table.length - 1);
+    }
+}
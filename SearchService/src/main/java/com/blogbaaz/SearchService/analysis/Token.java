@@ -0,0 +1,114 @@
+package com.blogbaaz.SearchService.analysis;
+
+import java.util.Arrays;
+
+/**
+ * The token an {@link Analyzer} is working on: its chars in a reusable
+ * buffer, which filters rewrite in place, plus where it came from in the
+ * text. One instance serves every token of a text, so a consumer that keeps
+ * a token must copy it, for example with {@link #toString()}.
+ */
+public final class Token implements CharSequence {
+
+    private char[] buffer = new char[32];
+    private int length;
+    // Among the tokens kept so far, starting at 0
+    private int position;
+    // Chars of the original text the token was read from
+    private int startOffset;
+    private int endOffset;
+
+    public char[] buffer() {
+        return buffer;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    // Shortens the token, or lengthens it over chars already written to the buffer
+    public void setLength(int length) {
+        this.length = length;
+    }
+
+    public int position() {
+        return position;
+    }
+
+    public int startOffset() {
+        return startOffset;
+    }
+
+    public int endOffset() {
+        return endOffset;
+    }
+
+    // The buffer, grown to hold at least capacity chars with the current ones kept
+    public char[] ensureCapacity(int capacity) {
+        if (buffer.length < capacity) {
+            buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
+        }
+        return buffer;
+    }
+
+    public void append(char c) {
+        ensureCapacity(length + 1)[length++] = c;
+    }
+
+    public void appendCodePoint(int codePoint) {
+        ensureCapacity(length + 2);
+        length += Character.toChars(codePoint, buffer, length);
+    }
+
+    // Replaces the chars with the given ones
+    public void setChars(CharSequence chars) {
+        ensureCapacity(chars.length());
+        for (int i = 0; i < chars.length(); i++) {
+            buffer[i] = chars.charAt(i);
+        }
+        length = chars.length();
+    }
+
+    public boolean endsWith(String suffix) {
+        int from = length - suffix.length();
+        if (from < 0) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            if (buffer[from + i] != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean contentEquals(char[] chars) {
+        return Arrays.equals(buffer, 0, length, chars, 0, chars.length);
+    }
+
+    void start(int position, int startOffset) {
+        this.length = 0;
+        this.position = position;
+        this.startOffset = startOffset;
+    }
+
+    void end(int endOffset) {
+        this.endOffset = endOffset;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return buffer[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new String(buffer, start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, length);
+    }
+}
@@ -0,0 +1,11 @@
+package com.blogbaaz.SearchService.analysis;
+
+/**
+ * One step of an {@link Analyzer}. Filters rewrite the token in place and
+ * are shared between threads, so they keep no state between calls.
+ */
+public interface TokenFilter {
+
+    // False drops the token; later filters and the consumer never see it
+    boolean apply(Token token);
+}
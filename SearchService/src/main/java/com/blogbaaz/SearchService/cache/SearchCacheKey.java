@@ -0,0 +1,110 @@
+package com.blogbaaz.SearchService.cache;
+
+import com.blogbaaz.SearchService.dtos.PostDto;
+import com.blogbaaz.SearchService.dtos.SearchRequest;
+import com.blogbaaz.SearchService.index.KeywordQuery;
+import com.blogbaaz.SearchService.index.PostIndex;
+import com.blogbaaz.SearchService.index.PostQuery;
+import lombok.Data;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Normalized form of a search call, so requests that differ only in
+ * whitespace, tag order or the case of the sort direction share one cache
+ * entry. The query keeps its case: OR and tag: and category: values are
+ * case-sensitive.
+ */
+@Data
+public class SearchCacheKey {
+
+    public enum Kind { SEARCH, CATEGORY, AUTHOR, TAGS, FEATURED, PUBLISHED }
+
+    private final Kind kind;
+    private final String query;
+    private final String authorId;
+    private final String category;
+    private final List<String> tags;
+    private final PostQuery.TagMode tagMode;
+    private final List<String> excludeTags;
+    private final String sortBy;
+    private final String sortDirection;
+    private final int maxResults;
+    private final boolean publishedOnly;
+    private final boolean featuredOnly;
+    private final String searchAfter;
+    private final List<String> facets;
+    private final int facetSize;
+
+    public static SearchCacheKey of(Kind kind, SearchRequest request) {
+        return of(kind, request, request.getCategory(), request.getAuthorId(), request.getTags());
+    }
+
+    public static SearchCacheKey of(Kind kind, SearchRequest request, String category, String authorId, String[] tags) {
+        return new SearchCacheKey(
+                kind,
+                normalizeQuery(request.getQuery()),
+                authorId == null || authorId.isEmpty() ? null : authorId,
+                category == null || category.isEmpty() ? null : category,
+                normalizeTags(tags),
+                PostQuery.TagMode.from(request.getTagMode()),
+                normalizeTags(request.getExcludeTags()),
+                request.getSortBy(),
+                request.getSortDirection() == null ? null : request.getSortDirection().toLowerCase(Locale.ROOT),
+                request.getMaxResults(),
+                request.isPublishedOnly(),
+                request.isFeaturedOnly(),
+                request.getSearchAfter() == null || request.getSearchAfter().isEmpty() ? null : request.getSearchAfter(),
+                normalizeTags(request.getFacets()),
+                request.getFacets() == null || request.getFacets().length == 0 ? 0 : request.getFacetSize());
+    }
+
+    /**
+     * Whether this result could include the given post, mirroring the filters
+     * each kind of call applies. {@code postTerms} are the post's title,
+     * excerpt and content tokens; with fuzzy on, a close misspelling of a
+     * query term counts as a match.
+     */
+    boolean couldMatch(PostDto post, Set<String> postTerms, boolean fuzzy) {
+        return switch (kind) {
+            case SEARCH -> (authorId == null || authorId.equals(post.getAuthorId()))
+                    && (category == null || category.equals(post.getCategory()))
+                    && matchesTags(post)
+                    && (!(publishedOnly || featuredOnly) || PostIndex.isPublished(post))
+                    && matchesQuery(post, postTerms, fuzzy);
+            case CATEGORY -> Objects.equals(category, post.getCategory());
+            case AUTHOR -> Objects.equals(authorId, post.getAuthorId());
+            case TAGS -> matchesTags(post);
+            case FEATURED, PUBLISHED -> PostIndex.isPublished(post);
+        };
+    }
+
+    private boolean matchesQuery(PostDto post, Set<String> postTerms, boolean fuzzy) {
+        return KeywordQuery.parse(query).mayMatch(post, postTerms, fuzzy);
+    }
+
+    private boolean matchesTags(PostDto post) {
+        boolean included = tags.isEmpty() || (tagMode == PostQuery.TagMode.ALL ? hasAllTags(post) : hasAnyTag(post));
+        return included && (post.getTags() == null || excludeTags.stream().noneMatch(post.getTags()::contains));
+    }
+
+    private boolean hasAnyTag(PostDto post) {
+        return post.getTags() != null && post.getTags().stream().anyMatch(tags::contains);
+    }
+
+    private boolean hasAllTags(PostDto post) {
+        return post.getTags() != null && post.getTags().containsAll(tags);
+    }
+
+    private static List<String> normalizeTags(String[] tags) {
+        return tags == null ? List.of() : Arrays.stream(tags).filter(Objects::nonNull).distinct().sorted().toList();
+    }
+
+    private static String normalizeQuery(String query) {
+        return query == null ? "" : query.trim().replaceAll("\\s+", " ");
+    }
+}
@@ -0,0 +1,137 @@
+package com.blogbaaz.SearchService.cache;
+
+import com.blogbaaz.SearchService.config.SearchConfig;
+import com.blogbaaz.SearchService.dtos.PostDto;
+import com.blogbaaz.SearchService.dtos.SearchResponse;
+import com.blogbaaz.SearchService.dtos.SearchResult;
+import com.blogbaaz.SearchService.index.PostChangedEvent;
+import com.blogbaaz.SearchService.index.PostIndexRebuiltEvent;
+import com.blogbaaz.SearchService.index.Tokenizer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches whole search results. Caffeine handles W-TinyLFU eviction against a
+ * byte budget plus a TTL; post changes from {@link com.blogbaaz.SearchService.index.PostIndex}
+ * drop only the entries the changed post could appear in.
+ */
+@Component
+@Slf4j
+public class SearchResultCache {
+
+    private final boolean enabled;
+    private final boolean fuzzy;
+    private final Cache<SearchCacheKey, SearchResult> cache;
+    // Bumped before every invalidation so results computed across one are not kept
+    private final AtomicLong generation = new AtomicLong();
+
+    public SearchResultCache(SearchConfig searchConfig, MeterRegistry meterRegistry) {
+        SearchConfig.Cache config = searchConfig.getCache();
+        // Changes to posts on other shards never reach this instance, so nothing could invalidate their hits
+        this.enabled = config.isEnabled() && searchConfig.getShards().getCount() <= 1;
+        this.fuzzy = searchConfig.isFuzzySearchEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(config.getMaxBytes())
+                .weigher((SearchCacheKey key, SearchResult result) -> estimateBytes(result))
+                .expireAfterWrite(Duration.ofMillis(config.getTtlMs()))
+                .recordStats()
+                .build();
+        // Exposed as cache.gets / cache.evictions / cache.size with cache=searchResults
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "searchResults");
+    }
+
+    public SearchResult get(SearchCacheKey key, Supplier<SearchResult> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        SearchResult cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long startGeneration = generation.get();
+        SearchResult result = loader.get();
+        if (generation.get() == startGeneration) {
+            cache.put(key, result);
+            // An invalidation may have scanned the cache just before the put
+            if (generation.get() != startGeneration) {
+                cache.asMap().remove(key, result);
+            }
+        }
+        return result;
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @EventListener
+    public void onPostChanged(PostChangedEvent event) {
+        // Counts shown in cached hits may lag by up to the TTL rather than every view emptying the cache
+        if (event.isCountersOnly()) {
+            return;
+        }
+        generation.incrementAndGet();
+        invalidateMatching(event.getPrevious());
+        invalidateMatching(event.getCurrent());
+    }
+
+    @EventListener
+    public void onIndexRebuilt(PostIndexRebuiltEvent event) {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+        log.debug("Search result cache cleared after index rebuild, stats: {}", cache.stats());
+    }
+
+    private void invalidateMatching(PostDto post) {
+        if (post == null) {
+            return;
+        }
+        Set<String> postTerms = new HashSet<>();
+        postTerms.addAll(Tokenizer.tokenize(post.getTitle()));
+        postTerms.addAll(Tokenizer.tokenize(post.getExcerpt()));
+        postTerms.addAll(Tokenizer.tokenize(post.getContent()));
+
+        cache.asMap().keySet().removeIf(key -> key.couldMatch(post, postTerms, fuzzy));
+    }
+
+    // Approximate retained size: object headers and fields plus two bytes per char
+    static int estimateBytes(SearchResult result) {
+        long bytes = 64 + chars(result.getSearchQuery()) + chars(result.getSortBy()) + chars(result.getSortDirection());
+        if (result.getPosts() != null) {
+            for (SearchResponse post : result.getPosts()) {
+                bytes += 160
+                        + chars(post.getPostId()) + chars(post.getTitle()) + chars(post.getExcerpt())
+                        + chars(post.getAuthorId()) + chars(post.getAuthorName()) + chars(post.getStatus())
+                        + chars(post.getCategory()) + chars(post.getSlug()) + chars(post.getFeaturedImage());
+                if (post.getTags() != null) {
+                    for (String tag : post.getTags()) {
+                        bytes += 32 + chars(tag);
+                    }
+                }
+                if (post.getHighlightedText() != null) {
+                    for (String snippet : post.getHighlightedText()) {
+                        bytes += chars(snippet);
+                    }
+                }
+            }
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    private static long chars(String value) {
+        return value == null ? 0 : 40 + 2L * value.length();
+    }
+}
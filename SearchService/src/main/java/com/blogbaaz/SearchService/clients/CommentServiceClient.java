@@ -0,0 +1,34 @@
+package com.blogbaaz.SearchService.clients;
+
+import com.blogbaaz.SearchService.dtos.CommentChangeFeed;
+import com.blogbaaz.SearchService.dtos.CommentDto;
+import feign.Request;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+
+@FeignClient(name = "COMMENT-SERVICE", url = "${comment-service.url}")
+public interface CommentServiceClient {
+
+    // Keyset scan of every visible comment, ordered by commentId, used to build the comment index
+    @GetMapping("/api/comments/all")
+    List<CommentDto> getAllComments(
+            @RequestParam String after,
+            @RequestParam int limit
+    );
+
+    // Change feed: CommentService holds the request up to waitMs while there is
+    // nothing new, so callers pass options with a longer read timeout
+    @GetMapping("/api/comments/changes")
+    CommentChangeFeed getChanges(
+            @RequestParam long after,
+            @RequestParam int limit,
+            @RequestParam long waitMs,
+            Request.Options options
+    );
+
+    @GetMapping("/api/comments/changes/head")
+    long getChangeHead();
+}
@@ -0,0 +1,237 @@
+package com.blogbaaz.SearchService.clients;
+
+import com.blogbaaz.SearchService.config.SearchConfig;
+import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Runs PostService calls off the request thread, bounded by the request's
+ * deadline. If the first attempt has not answered within the operation's
+ * recent p95 latency, a second one goes to another instance if there is
+ * one, and whichever answers first wins while the other is cancelled. Hedges
+ * draw on a budget refilled by a fixed share of calls, so a slow PostService
+ * never sees its load doubled. Attempts run on a bounded platform pool; when
+ * virtual threads are turned on (spring.threads.virtual.enabled, off by default)
+ * each attempt gets its own virtual thread instead.
+ */
+@Component
+@Slf4j
+public class HedgedPostServiceClient {
+
+    // Hedge budget is tracked in thousandths of a hedge
+    private static final long TOKEN = 1000;
+    private static final long MAX_TOKENS = 10 * TOKEN;
+
+    private final PostServiceInstances instances;
+    private final SearchConfig.PostServiceCalls config;
+    private final AsyncTaskExecutor executor;
+    // Null when attempts run on virtual threads
+    private final ThreadPoolExecutor pool;
+    private final Map<String, LatencyTracker> latencies = new ConcurrentHashMap<>();
+    private final AtomicLong hedgeTokens = new AtomicLong(MAX_TOKENS);
+    private final Counter hedges;
+    private final Counter hedgeWins;
+
+    public HedgedPostServiceClient(PostServiceInstances instances, SearchConfig searchConfig, MeterRegistry meterRegistry,
+                                   Environment environment) {
+        this.instances = instances;
+        this.config = searchConfig.getPostService();
+        if (Threading.VIRTUAL.isActive(environment)) {
+            this.pool = null;
+            this.executor = virtualThreads(config.getMaxConcurrentCalls());
+        } else {
+            this.pool = platformThreads(config.getMaxConcurrentCalls());
+            this.executor = new TaskExecutorAdapter(pool);
+        }
+        this.hedges = meterRegistry.counter("search.postservice.hedges");
+        this.hedgeWins = meterRegistry.counter("search.postservice.hedge.wins");
+    }
+
+    // No queue: a call that finds every thread busy runs on the caller instead
+    private static ThreadPoolExecutor platformThreads(int maxConcurrentCalls) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(0, maxConcurrentCalls, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "post-service-call-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    // Same limit and overflow rule, but nothing is pooled: a virtual thread per attempt is cheaper than reuse
+    private static AsyncTaskExecutor virtualThreads(int maxConcurrentCalls) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("post-service-call-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(maxConcurrentCalls);
+        executor.setRejectTasksWhenLimitReached(true);
+        return executor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        } else if (executor instanceof SimpleAsyncTaskExecutor virtualThreads) {
+            virtualThreads.close();
+        }
+    }
+
+    public <T> T call(String operation, Function<PostServiceClient, T> request) {
+        long deadline = RequestDeadline.currentOr(System.nanoTime() + config.getTimeoutMs() * 1_000_000);
+        List<PostServiceClient> targets = instances.next(2);
+        depositHedgeToken();
+
+        Call<T> call = new Call<>(operation, request, deadline);
+        if (!call.start(targets.get(0), false)) {
+            return request.apply(targets.get(0));
+        }
+        try {
+            long hedgeAt = System.nanoTime() + latency(operation).p95Nanos(config.getInitialHedgeDelayMs() * 1_000_000);
+            awaitQuietly(CompletableFuture.anyOf(call.result, call.primarySettled), Math.min(hedgeAt, deadline));
+            // With a single instance a hedge would only land on the same slow server
+            if (!call.result.isDone() && targets.size() > 1 && shouldHedge(call, deadline) && call.start(targets.get(1), true)) {
+                hedges.increment();
+            }
+            call.close();
+            return call.result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("PostService " + operation + " call missed its deadline");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting for PostService " + operation);
+        } finally {
+            call.cancel();
+        }
+    }
+
+    private boolean shouldHedge(Call<?> call, long deadline) {
+        if (!config.isHedgeEnabled() || System.nanoTime() >= deadline) {
+            return false;
+        }
+        // A rejected request would only be rejected again
+        if (call.failure() instanceof FeignException.FeignClientException) {
+            return false;
+        }
+        return hedgeTokens.getAndUpdate(tokens -> tokens >= TOKEN ? tokens - TOKEN : tokens) >= TOKEN;
+    }
+
+    private void depositHedgeToken() {
+        long deposit = TOKEN * config.getHedgeBudgetPercent() / 100;
+        hedgeTokens.getAndUpdate(tokens -> Math.min(MAX_TOKENS, tokens + deposit));
+    }
+
+    private LatencyTracker latency(String operation) {
+        return latencies.computeIfAbsent(operation, o -> new LatencyTracker());
+    }
+
+    private static void awaitQuietly(CompletableFuture<?> future, long untilNanos) throws InterruptedException {
+        try {
+            future.get(Math.max(0, untilNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | ExecutionException ignored) {
+            // The caller checks the outcome itself
+        }
+    }
+
+    // The attempts made for one call and their shared outcome
+    private final class Call<T> {
+        final String operation;
+        final Function<PostServiceClient, T> request;
+        final long deadline;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        // Completes when the first attempt finishes either way, so a fast failure is retried at once
+        final CompletableFuture<Void> primarySettled = new CompletableFuture<>();
+        final List<Future<?>> attempts = new ArrayList<>(2);
+        int running;
+        boolean closed;
+        RuntimeException failure;
+
+        Call(String operation, Function<PostServiceClient, T> request, long deadline) {
+            this.operation = operation;
+            this.request = request;
+            this.deadline = deadline;
+        }
+
+        boolean start(PostServiceClient target, boolean hedge) {
+            synchronized (this) {
+                running++;
+            }
+            try {
+                attempts.add(executor.submit(() -> run(target, hedge)));
+                return true;
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    running--;
+                }
+                return false;
+            }
+        }
+
+        private void run(PostServiceClient target, boolean hedge) {
+            long start = System.nanoTime();
+            try {
+                T value = request.apply(target);
+                latency(operation).record(System.nanoTime() - start);
+                if (result.complete(value) && hedge) {
+                    hedgeWins.increment();
+                }
+            } catch (RuntimeException e) {
+                failed(e);
+            } finally {
+                if (!hedge) {
+                    primarySettled.complete(null);
+                }
+            }
+        }
+
+        synchronized RuntimeException failure() {
+            return failure;
+        }
+
+        private synchronized void failed(RuntimeException e) {
+            failure = e;
+            running--;
+            if (running == 0 && closed) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        // No more attempts will start; fail once the running ones have all failed
+        synchronized void close() {
+            closed = true;
+            if (running == 0 && failure != null) {
+                result.completeExceptionally(failure);
+            }
+        }
+
+        void cancel() {
+            attempts.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+}
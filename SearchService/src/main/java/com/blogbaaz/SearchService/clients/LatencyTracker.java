@@ -0,0 +1,35 @@
+package com.blogbaaz.SearchService.clients;
+
+import java.util.Arrays;
+
+// Rolling p95 over the most recent successful call latencies of one operation
+final class LatencyTracker {
+
+    private static final int SAMPLES = 128;
+    private static final int MIN_SAMPLES = 20;
+    // How many new samples trigger recomputing the percentile
+    private static final int RECOMPUTE_EVERY = 16;
+
+    private final long[] samples = new long[SAMPLES];
+    private int count;
+    private int next;
+    private int sinceRecompute;
+    private long p95 = -1;
+
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % SAMPLES;
+        count = Math.min(count + 1, SAMPLES);
+        if (++sinceRecompute >= RECOMPUTE_EVERY) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            p95 = sorted[(int) Math.ceil(0.95 * count) - 1];
+            sinceRecompute = 0;
+        }
+    }
+
+    // Falls back until enough calls have been seen to trust the percentile
+    synchronized long p95Nanos(long fallbackNanos) {
+        return count < MIN_SAMPLES || p95 < 0 ? fallbackNanos : p95;
+    }
+}
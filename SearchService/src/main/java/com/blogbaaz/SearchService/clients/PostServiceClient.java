@@ -1,7 +1,11 @@
 package com.blogbaaz.SearchService.clients;
 
-import com.blogbaaz.SearchService.dtos.PostDto;
+import com.blogbaaz.SearchService.dtos.PostChangeFeed;
+import com.blogbaaz.SearchService.dtos.PostPage;
+import com.blogbaaz.SearchService.dtos.PostSummaryDto;
+import feign.Request;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -9,37 +13,77 @@ import java.util.List;
 @FeignClient(name = "POST-SERVICE", url = "${post-service.url}")
 public interface PostServiceClient {
     
-    @GetMapping("/api/posts/search")
-    List<PostDto> searchPosts(
+    // Total match count sent alongside bounded list responses
+    String TOTAL_COUNT_HEADER = "X-Total-Count";
+    
+    // Paged scan of every post, used to build the search index; pages carry
+    // full content, so callers pass options with a longer read timeout
+    @GetMapping("/api/posts")
+    PostPage getAllPosts(
+            @RequestParam int page,
+            @RequestParam int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir,
+            Request.Options options
+    );
+    
+    // Change feed: PostService holds the request up to waitMs while there is
+    // nothing new, so callers pass options with a longer read timeout
+    @GetMapping("/api/posts/changes")
+    PostChangeFeed getChanges(
+            @RequestParam long after,
+            @RequestParam int limit,
+            @RequestParam long waitMs,
+            Request.Options options
+    );
+    
+    @GetMapping("/api/posts/changes/head")
+    long getChangeHead();
+    
+    // Result lists use the content-free summary endpoints
+    @GetMapping("/api/posts/summaries/search")
+    ResponseEntity<List<PostSummaryDto>> searchPosts(
             @RequestParam String keyword,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam long offset,
+            @RequestParam int limit
     );
     
-    @GetMapping("/api/posts/category/{category}")
-    List<PostDto> getPostsByCategory(
+    @GetMapping("/api/posts/summaries/category/{category}")
+    ResponseEntity<List<PostSummaryDto>> getPostsByCategory(
             @PathVariable String category,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam long offset,
+            @RequestParam int limit
     );
     
-    @GetMapping("/api/posts/author/{authorId}")
-    List<PostDto> getPostsByAuthor(
+    @GetMapping("/api/posts/summaries/author/{authorId}")
+    ResponseEntity<List<PostSummaryDto>> getPostsByAuthor(
             @PathVariable String authorId,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam long offset,
+            @RequestParam int limit
     );
     
-    @GetMapping("/api/posts/tags")
-    List<PostDto> getPostsByTags(
+    @GetMapping("/api/posts/summaries/tags")
+    ResponseEntity<List<PostSummaryDto>> getPostsByTags(
             @RequestParam String[] tags,
+            @RequestParam String mode,
+            @RequestParam(required = false) String[] exclude,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam long offset,
+            @RequestParam int limit
     );
     
-    @GetMapping("/api/posts/published")
-    List<PostDto> getPublishedPosts(
+    @GetMapping("/api/posts/summaries/published")
+    ResponseEntity<List<PostSummaryDto>> getPublishedPosts(
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam long offset,
+            @RequestParam int limit
     );
 }
@@ -0,0 +1,55 @@
+package com.blogbaaz.SearchService.clients;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.openfeign.FeignClientBuilder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One {@link PostServiceClient} per POST-SERVICE instance registered in
+ * Eureka, handed out round-robin so a hedged request lands on a different
+ * instance from the first. Without any registered instances, everything
+ * goes to the configured post-service.url.
+ */
+@Component
+@RequiredArgsConstructor
+public class PostServiceInstances {
+
+    private static final String SERVICE_ID = "POST-SERVICE";
+
+    private final DiscoveryClient discoveryClient;
+    private final PostServiceClient defaultClient;
+    private final ApplicationContext applicationContext;
+    private final Map<URI, PostServiceClient> clients = new ConcurrentHashMap<>();
+    private final AtomicInteger nextInstance = new AtomicInteger();
+
+    // Up to count clients for distinct instances, the first being the next in turn
+    List<PostServiceClient> next(int count) {
+        List<ServiceInstance> instances = discoveryClient.getInstances(SERVICE_ID);
+        if (instances.isEmpty()) {
+            return List.of(defaultClient);
+        }
+        int start = Math.floorMod(nextInstance.getAndIncrement(), instances.size());
+        List<PostServiceClient> picked = new ArrayList<>(count);
+        for (int i = 0; i < Math.min(count, instances.size()); i++) {
+            picked.add(client(instances.get((start + i) % instances.size()).getUri()));
+        }
+        return picked;
+    }
+
+    private PostServiceClient client(URI uri) {
+        return clients.computeIfAbsent(uri, u -> new FeignClientBuilder(applicationContext)
+                .forType(PostServiceClient.class, SERVICE_ID)
+                .url(u.toString())
+                .build());
+    }
+}
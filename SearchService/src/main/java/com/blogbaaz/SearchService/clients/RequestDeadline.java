@@ -0,0 +1,37 @@
+package com.blogbaaz.SearchService.clients;
+
+/**
+ * Time budget of the request being served on this thread. Set from the
+ * caller's {@value #TIMEOUT_HEADER} header, or the configured default, and
+ * passed on to other shards as whatever remains of it. PostService calls are
+ * bounded by it but not told about it.
+ */
+public final class RequestDeadline {
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    // System.nanoTime() by which the request should be answered
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    public static void set(long deadlineNanos) {
+        DEADLINE.set(deadlineNanos);
+    }
+
+    public static void clear() {
+        DEADLINE.remove();
+    }
+
+    static long currentOr(long fallbackNanos) {
+        Long deadline = DEADLINE.get();
+        return deadline == null ? fallbackNanos : deadline;
+    }
+
+    // Milliseconds left, never below zero, or -1 when no deadline is set
+    public static long remainingMillis() {
+        Long deadline = DEADLINE.get();
+        return deadline == null ? -1 : Math.max(0, (deadline - System.nanoTime()) / 1_000_000);
+    }
+}
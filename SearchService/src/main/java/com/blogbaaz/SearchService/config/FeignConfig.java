@@ -1,5 +1,6 @@
 package com.blogbaaz.SearchService.config;
 
+import com.blogbaaz.SearchService.clients.RequestDeadline;
 import feign.Logger;
 import feign.RequestInterceptor;
 import feign.RequestTemplate;
@@ -9,6 +10,9 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class FeignConfig {
     
+    // Only other SearchService shards read the forwarded deadline
+    private static final String SEARCH_SERVICE = "SEARCH-SERVICE";
+    
     @Bean
     public Logger.Level feignLoggerLevel() {
         return Logger.Level.FULL;
@@ -20,6 +24,11 @@ public class FeignConfig {
             @Override
             public void apply(RequestTemplate template) {
                 template.header("Content-Type", "application/json");
+                // Whatever is left of our own deadline, so a shard can give up when we have
+                long remainingMs = RequestDeadline.remainingMillis();
+                if (remainingMs >= 0 && SEARCH_SERVICE.equals(template.feignTarget().name())) {
+                    template.header(RequestDeadline.TIMEOUT_HEADER, Long.toString(remainingMs));
+                }
             }
         };
     }
@@ -0,0 +1,40 @@
+package com.blogbaaz.SearchService.config;
+
+import com.blogbaaz.SearchService.clients.RequestDeadline;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Starts each request's deadline; a caller may shorten the configured timeout but not extend it
+@Component
+@RequiredArgsConstructor
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    private final SearchConfig searchConfig;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long timeoutMs = searchConfig.getPostService().getTimeoutMs();
+        String header = request.getHeader(RequestDeadline.TIMEOUT_HEADER);
+        if (header != null) {
+            try {
+                timeoutMs = Math.min(timeoutMs, Math.max(0, Long.parseLong(header.trim())));
+            } catch (NumberFormatException ignored) {
+                // Malformed budgets fall back to the default
+            }
+        }
+        RequestDeadline.set(System.nanoTime() + timeoutMs * 1_000_000);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+}
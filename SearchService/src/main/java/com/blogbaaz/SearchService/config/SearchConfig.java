@@ -0,0 +1,137 @@
+package com.blogbaaz.SearchService.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "search")
+public class SearchConfig {
+    private int maxResults = 100;
+    private boolean highlightEnabled;
+    private boolean fuzzySearchEnabled;
+    private Index index = new Index();
+    private Cache cache = new Cache();
+    private Highlight highlight = new Highlight();
+    private Fuzzy fuzzy = new Fuzzy();
+    private Suggest suggest = new Suggest();
+    private Spelling spelling = new Spelling();
+    private Related related = new Related();
+    private PostServiceCalls postService = new PostServiceCalls();
+    private Changes changes = new Changes();
+    private Comments comments = new Comments();
+    private Shards shards = new Shards();
+
+    @Data
+    public static class Index {
+        // Full reload from PostService at startup and on resync; on this timer only while the change feed is off or unreachable
+        private long refreshIntervalMs = 3600000;
+        // Until the first load or restore succeeds it is retried this often
+        private long retryDelayMs = 30000;
+        private int pageSize = 500;
+        // Read timeout for each page of a full reload, which bypasses the hedged client and its request deadline
+        private long loadTimeoutMs = 60000;
+        // Keep the index in memory-mapped segment files that survive restarts
+        private boolean persistent = true;
+        private String directory = "data/search-index";
+        // Buffered posts are written to a new segment this often, or sooner once there are max-buffered-docs
+        private long flushIntervalMs = 30000;
+        private int maxBufferedDocs = 10000;
+        // Posts per segment written by a full reload
+        private int segmentDocs = 100000;
+        // Segments merged at once, and the largest segment a merge may produce (under 2 GB)
+        private int mergeFactor = 10;
+        private long maxSegmentBytes = 1024L * 1024 * 1024;
+    }
+
+    @Data
+    public static class Cache {
+        private boolean enabled = true;
+        // Rough upper bound on the heap held by cached results
+        private long maxBytes = 64L * 1024 * 1024;
+        private long ttlMs = 60000;
+    }
+
+    @Data
+    public static class Highlight {
+        private int maxSnippets = 3;
+        private int fragmentSize = 160;
+        // Total time spent highlighting one page of hits; later hits go without snippets
+        private long budgetMs = 20;
+        private String preTag = "<em>";
+        private String postTag = "</em>";
+    }
+
+    @Data
+    public static class Fuzzy {
+        // Indexed terms tried per misspelled query term, closest first
+        private int maxExpansions = 8;
+    }
+
+    @Data
+    public static class Suggest {
+        // Completions kept per trie node, and so the most one request can get
+        private int maxSuggestions = 10;
+    }
+
+    @Data
+    public static class Spelling {
+        private boolean enabled = true;
+        // Searches with at most this many results get a did-you-mean correction
+        private int maxHits = 2;
+    }
+
+    @Data
+    public static class Related {
+        // Share of a related post's score from tags in common, the rest from similar content
+        private double tagWeight = 0.3;
+    }
+
+    @Data
+    public static class PostServiceCalls {
+        // Deadline for requests that do not bring a shorter one
+        private long timeoutMs = 2000;
+        private boolean hedgeEnabled = true;
+        // Hedge delay until enough calls have been timed to use their p95
+        private long initialHedgeDelayMs = 100;
+        // Hedges allowed per hundred calls, on top of a small burst allowance
+        private int hedgeBudgetPercent = 10;
+        private int maxConcurrentCalls = 64;
+    }
+
+    @Data
+    public static class Changes {
+        // Follow PostService's change feed between full reloads
+        private boolean enabled = true;
+        // How long PostService may hold a poll open while nothing changes
+        private long waitMs = 25000;
+        private int batchSize = 500;
+        private long retryDelayMs = 5000;
+    }
+
+    @Data
+    public static class Comments {
+        // Index CommentService's comments for /api/search/all, kept current through its change feed
+        private boolean enabled = true;
+        private long refreshIntervalMs = 3600000;
+        private int pageSize = 1000;
+        // Multiplies comment scores before they are ranked against post scores
+        private double weight = 1.0;
+    }
+
+    @Data
+    public static class Shards {
+        // Instances the post index is split across by a hash of postId; 1 keeps every post on every instance
+        private int count = 1;
+        // This instance's shard, from 0 to count - 1
+        private int index = 0;
+        // How long each round of shard calls may take before a search answers without the slow shards
+        private long timeoutMs = 500;
+        // Base URL per shard, used for shards with no instance registered in Eureka
+        private List<String> urls = new ArrayList<>();
+    }
+}
@@ -0,0 +1,42 @@
+package com.blogbaaz.SearchService.config;
+
+import com.blogbaaz.SearchService.dtos.CombinedSearchResult;
+import com.blogbaaz.SearchService.dtos.SearchResult;
+import com.blogbaaz.SearchService.metrics.SearchTimings;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// Marks where serialization starts and, when asked for, adds the stage timings to search results
+@ControllerAdvice
+public class SearchTimingAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SearchTimings timings = SearchTimings.current();
+        if (timings == null) {
+            return body;
+        }
+        if (Boolean.parseBoolean(request.getHeaders().getFirst(SearchTimings.DEBUG_HEADER))) {
+            // Results may be shared through the cache, so the timings go on a copy
+            if (body instanceof SearchResult result) {
+                body = result.toBuilder().timings(timings.toMillis()).build();
+            } else if (body instanceof CombinedSearchResult result) {
+                body = result.toBuilder().timings(timings.toMillis()).build();
+            }
+        }
+        timings.startSerializing();
+        return body;
+    }
+}
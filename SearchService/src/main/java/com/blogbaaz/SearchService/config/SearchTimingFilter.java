@@ -0,0 +1,43 @@
+package com.blogbaaz.SearchService.config;
+
+import com.blogbaaz.SearchService.metrics.SearchMetrics;
+import com.blogbaaz.SearchService.metrics.SearchTimings;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Times each search request by stage and records it against the endpoint that handled it
+@Component
+@RequiredArgsConstructor
+public class SearchTimingFilter extends OncePerRequestFilter {
+
+    private final SearchMetrics searchMetrics;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/search");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SearchTimings timings = SearchTimings.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SearchTimings.clear();
+            // Only requests that reached a handler; the pattern keeps path variables out of the tags
+            Object endpoint = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (endpoint != null) {
+                searchMetrics.record(timings, endpoint.toString());
+            }
+        }
+    }
+}
@@ -1,14 +1,20 @@
 package com.blogbaaz.SearchService.controllers;
 
+import com.blogbaaz.SearchService.dtos.CombinedSearchResult;
 import com.blogbaaz.SearchService.dtos.SearchRequest;
 import com.blogbaaz.SearchService.dtos.SearchResult;
+import com.blogbaaz.SearchService.dtos.Suggestion;
+import com.blogbaaz.SearchService.index.PostQuery;
 import com.blogbaaz.SearchService.services.SearchService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Pattern;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/search")
 @RequiredArgsConstructor
@@ -29,21 +35,33 @@ public class SearchController {
             @RequestParam String query,
             @RequestParam(required = false) String authorId,
             @RequestParam(required = false) String[] tags,
+            @RequestParam(defaultValue = "any") @Pattern(regexp = PostQuery.TagMode.PATTERN, message = "Tag mode must be any or all") String tagMode,
+            @RequestParam(required = false) String[] excludeTags,
+            @RequestParam(required = false) String category,
             @RequestParam(defaultValue = "20") int maxResults,
             @RequestParam(defaultValue = "createdAt") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDirection,
             @RequestParam(defaultValue = "true") boolean publishedOnly,
-            @RequestParam(defaultValue = "false") boolean featuredOnly) {
+            @RequestParam(defaultValue = "false") boolean featuredOnly,
+            @RequestParam(required = false) String searchAfter,
+            @RequestParam(required = false) String[] facets,
+            @RequestParam(defaultValue = "10") int facetSize) {
         
         SearchRequest request = SearchRequest.builder()
                 .query(query)
                 .authorId(authorId)
                 .tags(tags)
+                .tagMode(tagMode)
+                .excludeTags(excludeTags)
+                .category(category)
                 .maxResults(maxResults)
                 .sortBy(sortBy)
                 .sortDirection(sortDirection)
                 .publishedOnly(publishedOnly)
                 .featuredOnly(featuredOnly)
+                .searchAfter(searchAfter)
+                .facets(facets)
+                .facetSize(facetSize)
                 .build();
         
         log.info("Search request received: {}", request);
@@ -51,6 +69,33 @@ public class SearchController {
         return ResponseEntity.ok(result);
     }
     
+    // Posts and comments matching the query in one ranking; each comment links back to its post
+    @GetMapping("/all")
+    public ResponseEntity<CombinedSearchResult> searchAll(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "20") int maxResults) {
+        
+        log.info("Combined search request received: {}", query);
+        return ResponseEntity.ok(searchService.searchAll(query, maxResults));
+    }
+    
+    // Published posts most like this one in content and tags, best first
+    @GetMapping("/related/{postId}")
+    public ResponseEntity<SearchResult> relatedPosts(
+            @PathVariable String postId,
+            @RequestParam(defaultValue = "5") int maxResults) {
+        
+        return ResponseEntity.ok(searchService.relatedPosts(postId, maxResults));
+    }
+    
+    @GetMapping("/suggest")
+    public ResponseEntity<List<Suggestion>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        
+        return ResponseEntity.ok(searchService.suggest(prefix, limit));
+    }
+    
     @GetMapping("/category/{category}")
     public ResponseEntity<SearchResult> searchByCategory(
             @PathVariable String category,
@@ -94,12 +139,16 @@ public class SearchController {
     @GetMapping("/tags")
     public ResponseEntity<SearchResult> searchByTags(
             @RequestParam String[] tags,
+            @RequestParam(defaultValue = "any") @Pattern(regexp = PostQuery.TagMode.PATTERN, message = "Tag mode must be any or all") String mode,
+            @RequestParam(required = false) String[] exclude,
             @RequestParam(defaultValue = "20") int maxResults,
             @RequestParam(defaultValue = "createdAt") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDirection) {
         
         SearchRequest request = SearchRequest.builder()
                 .query("")
+                .tagMode(mode)
+                .excludeTags(exclude)
                 .maxResults(maxResults)
                 .sortBy(sortBy)
                 .sortDirection(sortDirection)
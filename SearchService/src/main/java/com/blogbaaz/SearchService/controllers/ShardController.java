@@ -0,0 +1,56 @@
+package com.blogbaaz.SearchService.controllers;
+
+import com.blogbaaz.SearchService.dtos.Suggestion;
+import com.blogbaaz.SearchService.index.CollectionStats;
+import com.blogbaaz.SearchService.related.RelatedPosts;
+import com.blogbaaz.SearchService.shard.ShardClient;
+import com.blogbaaz.SearchService.shard.ShardRelatedRequest;
+import com.blogbaaz.SearchService.shard.ShardSearchRequest;
+import com.blogbaaz.SearchService.shard.ShardSearchResponse;
+import com.blogbaaz.SearchService.shard.ShardSearcher;
+import com.blogbaaz.SearchService.suggest.SpellChecker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+// Called by other SearchService instances when the index is sharded; outside /api, so the gateway does not route it
+@RestController
+@RequestMapping(ShardClient.BASE_PATH)
+@RequiredArgsConstructor
+public class ShardController {
+
+    private final ShardSearcher shardSearcher;
+
+    @GetMapping("/stats")
+    public ResponseEntity<CollectionStats> stats(@RequestParam String keyword) {
+        return ResponseEntity.ok(shardSearcher.stats(keyword));
+    }
+
+    @PostMapping("/search")
+    public ResponseEntity<ShardSearchResponse> search(@RequestBody ShardSearchRequest request) {
+        return ResponseEntity.ok(shardSearcher.search(request));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<Suggestion>> suggest(@RequestParam String prefix, @RequestParam int limit) {
+        return ResponseEntity.ok(shardSearcher.suggest(prefix, limit));
+    }
+
+    @PostMapping("/spelling")
+    public ResponseEntity<Map<String, SpellChecker.TermSpelling>> spelling(@RequestBody List<String> terms) {
+        return ResponseEntity.ok(shardSearcher.spelling(terms));
+    }
+
+    @GetMapping("/related/source")
+    public ResponseEntity<RelatedPosts.Source> relatedSource(@RequestParam String postId) {
+        return ResponseEntity.ok(shardSearcher.relatedSource(postId));
+    }
+
+    @PostMapping("/related")
+    public ResponseEntity<List<ShardSearchResponse.Hit>> related(@RequestBody ShardRelatedRequest request) {
+        return ResponseEntity.ok(shardSearcher.related(request));
+    }
+}
@@ -0,0 +1,33 @@
+package com.blogbaaz.SearchService.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder(toBuilder = true)
+public class CombinedSearchResult {
+
+    // Posts and comments in one ranking, best first
+    private List<SearchHit> hits;
+    private int totalPosts;
+    private int totalComments;
+    private String searchQuery;
+    private long searchTimeMs;
+    // The query with misspelled words corrected, only when it found few or no posts or comments
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String didYouMean;
+    // Set when some shards of a sharded index did not answer in time, so their hits are missing
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private boolean partial;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<Integer> missingShards;
+    // Milliseconds per stage, only when the X-Search-Debug header asks for them
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Double> timings;
+}
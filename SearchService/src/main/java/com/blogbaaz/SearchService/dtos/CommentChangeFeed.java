@@ -0,0 +1,27 @@
+package com.blogbaaz.SearchService.dtos;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Mirrors CommentService's change feed batches; comments is the current state
+// of the changed comments that are still visible
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentChangeFeed {
+    private long lastSeq;
+    private boolean resyncRequired;
+    private List<Change> changes = new ArrayList<>();
+    private List<CommentDto> comments = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Change {
+        private long seq;
+        private String commentId;
+        private String type;
+    }
+}
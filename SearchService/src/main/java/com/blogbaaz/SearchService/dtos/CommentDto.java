@@ -0,0 +1,22 @@
+package com.blogbaaz.SearchService.dtos;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// The fields of CommentService's comments that search uses
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CommentDto {
+    private String commentId;
+    private String postId;
+    private String authorId;
+    private String authorName;
+    private String content;
+    private String parentCommentId;
+    private int likeCount;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
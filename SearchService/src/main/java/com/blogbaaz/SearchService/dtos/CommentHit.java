@@ -0,0 +1,27 @@
+package com.blogbaaz.SearchService.dtos;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// A matching comment with enough of its post to link to it
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CommentHit {
+    private String commentId;
+    private String parentCommentId;
+    private String postId;
+    private String postTitle;
+    private String postSlug;
+    private String authorId;
+    private String authorName;
+    private String content;
+    private int likeCount;
+    private LocalDateTime createdAt;
+    private double relevanceScore;
+    private List<String> highlightedText;
+}
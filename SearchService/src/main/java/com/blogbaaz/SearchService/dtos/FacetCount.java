@@ -0,0 +1,13 @@
+package com.blogbaaz.SearchService.dtos;
+
+import lombok.*;
+
+// How many matching posts have a facet value
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class FacetCount {
+    private String value;
+    private long count;
+}
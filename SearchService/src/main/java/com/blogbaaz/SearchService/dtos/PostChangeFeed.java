@@ -0,0 +1,27 @@
+package com.blogbaaz.SearchService.dtos;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Mirrors PostService's change feed batches; posts is the current state of
+// the changed posts that still exist
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostChangeFeed {
+    private long lastSeq;
+    private boolean resyncRequired;
+    private List<Change> changes = new ArrayList<>();
+    private List<PostDto> posts = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Change {
+        private long seq;
+        private String postId;
+        private String type;
+    }
+}
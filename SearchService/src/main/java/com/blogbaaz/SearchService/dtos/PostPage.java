@@ -0,0 +1,19 @@
+package com.blogbaaz.SearchService.dtos;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Mirrors the JSON of PostService's Page<PostDto> responses
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostPage {
+    private List<PostDto> content = new ArrayList<>();
+    private int number;
+    private int size;
+    private int totalPages;
+    private long totalElements;
+    private boolean last = true;
+}
@@ -0,0 +1,53 @@
+package com.blogbaaz.SearchService.dtos;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+// PostDto without content; what a search hit carries
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PostSummaryDto {
+    private String postId;
+    private String title;
+    private String excerpt;
+    private String authorId;
+    private String authorName;
+    private String status;
+    private Set<String> tags;
+    private String category;
+    private String slug;
+    private String featuredImage;
+    private boolean isPublished;
+    private int viewCount;
+    private int likeCount;
+    private int commentCount;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime publishedAt;
+
+    public static PostSummaryDto fromPostDto(PostDto postDto) {
+        return PostSummaryDto.builder()
+                .postId(postDto.getPostId())
+                .title(postDto.getTitle())
+                .excerpt(postDto.getExcerpt())
+                .authorId(postDto.getAuthorId())
+                .authorName(postDto.getAuthorName())
+                .status(postDto.getStatus())
+                .tags(postDto.getTags())
+                .category(postDto.getCategory())
+                .slug(postDto.getSlug())
+                .featuredImage(postDto.getFeaturedImage())
+                .isPublished(postDto.isPublished())
+                .viewCount(postDto.getViewCount())
+                .likeCount(postDto.getLikeCount())
+                .commentCount(postDto.getCommentCount())
+                .createdAt(postDto.getCreatedAt())
+                .updatedAt(postDto.getUpdatedAt())
+                .publishedAt(postDto.getPublishedAt())
+                .build();
+    }
+}
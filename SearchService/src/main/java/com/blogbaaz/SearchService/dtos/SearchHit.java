@@ -0,0 +1,24 @@
+package com.blogbaaz.SearchService.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+// One entry of a combined search: either a post or a comment, never both
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SearchHit {
+
+    public static final String POST = "post";
+    public static final String COMMENT = "comment";
+
+    private String type;
+    private double score;
+    // The post the hit belongs to, for either type
+    private String postId;
+    private SearchResponse post;
+    private CommentHit comment;
+}
@@ -1,8 +1,11 @@
 package com.blogbaaz.SearchService.dtos;
 
+import com.blogbaaz.SearchService.index.PostQuery;
 import lombok.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
 
 @Data
 @Builder
@@ -17,6 +20,15 @@ public class SearchRequest {
     
     private String[] tags;
     
+    // "any" or "all" of the given tags
+    @Pattern(regexp = PostQuery.TagMode.PATTERN, message = "Tag mode must be any or all")
+    @Builder.Default
+    private String tagMode = "any";
+    
+    private String[] excludeTags;
+    
+    private String category;
+    
     @Max(value = 100, message = "Max results cannot exceed 100")
     private int maxResults = 20;
     
@@ -27,4 +39,15 @@ public class SearchRequest {
     private boolean publishedOnly = true;
     
     private boolean featuredOnly = false;
+    
+    // nextCursor of the previous page; resumes right after its last hit
+    private String searchAfter;
+    
+    // Facets to count over all matches: category, tags, author, publishMonth
+    private String[] facets;
+    
+    @Min(value = 1, message = "Facet size must be at least 1")
+    @Max(value = 100, message = "Facet size cannot exceed 100")
+    @Builder.Default
+    private int facetSize = 10;
 }
@@ -16,7 +16,6 @@ public class SearchResponse {
     private String postId;
     private String title;
     private String excerpt;
-    private String content;
     private String authorId;
     private String authorName;
     private String status;
@@ -36,28 +35,27 @@ public class SearchResponse {
     private double relevanceScore;
     private List<String> highlightedText;
     
-    // Convert from PostDto
-    public static SearchResponse fromPostDto(PostDto postDto) {
+    // Convert from a content-free post summary
+    public static SearchResponse fromPostSummary(PostSummaryDto summary, double relevanceScore) {
         return SearchResponse.builder()
-                .postId(postDto.getPostId())
-                .title(postDto.getTitle())
-                .excerpt(postDto.getExcerpt())
-                .content(postDto.getContent())
-                .authorId(postDto.getAuthorId())
-                .authorName(postDto.getAuthorName())
-                .status(postDto.getStatus())
-                .tags(postDto.getTags())
-                .category(postDto.getCategory())
-                .slug(postDto.getSlug())
-                .featuredImage(postDto.getFeaturedImage())
-                .isPublished(postDto.isPublished())
-                .viewCount(postDto.getViewCount())
-                .likeCount(postDto.getLikeCount())
-                .commentCount(postDto.getCommentCount())
-                .createdAt(postDto.getCreatedAt())
-                .updatedAt(postDto.getUpdatedAt())
-                .publishedAt(postDto.getPublishedAt())
-                .relevanceScore(0.0) // Default relevance score
+                .postId(summary.getPostId())
+                .title(summary.getTitle())
+                .excerpt(summary.getExcerpt())
+                .authorId(summary.getAuthorId())
+                .authorName(summary.getAuthorName())
+                .status(summary.getStatus())
+                .tags(summary.getTags())
+                .category(summary.getCategory())
+                .slug(summary.getSlug())
+                .featuredImage(summary.getFeaturedImage())
+                .isPublished(summary.isPublished())
+                .viewCount(summary.getViewCount())
+                .likeCount(summary.getLikeCount())
+                .commentCount(summary.getCommentCount())
+                .createdAt(summary.getCreatedAt())
+                .updatedAt(summary.getUpdatedAt())
+                .publishedAt(summary.getPublishedAt())
+                .relevanceScore(relevanceScore)
                 .build();
     }
 }
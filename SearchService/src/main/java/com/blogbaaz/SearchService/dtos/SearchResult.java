@@ -1,14 +1,16 @@
 package com.blogbaaz.SearchService.dtos;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 
 import java.util.List;
+import java.util.Map;
 
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class SearchResult {
     
     private List<SearchResponse> posts;
@@ -17,4 +19,20 @@ public class SearchResult {
     private long searchTimeMs;
     private String sortBy;
     private String sortDirection;
+    // Pass as searchAfter for the next page; null on the last page
+    private String nextCursor;
+    // Most common values per requested facet across all matches; absent when none were requested
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, List<FacetCount>> facets;
+    // The query with misspelled words corrected, only when it found few or no posts
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String didYouMean;
+    // Set when some shards of a sharded index did not answer in time, so their hits are missing
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private boolean partial;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<Integer> missingShards;
+    // Milliseconds per stage, only when the X-Search-Debug header asks for them
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Double> timings;
 }
@@ -0,0 +1,17 @@
+package com.blogbaaz.SearchService.dtos;
+
+import lombok.*;
+
+// One typeahead completion; weight is the summed popularity of the posts behind it
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Suggestion {
+
+    public enum Type { TITLE, TAG, CATEGORY, AUTHOR }
+
+    private String text;
+    private Type type;
+    private long weight;
+}
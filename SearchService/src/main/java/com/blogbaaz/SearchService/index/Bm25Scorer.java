@@ -0,0 +1,162 @@
+package com.blogbaaz.SearchService.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BM25 over the keyword-searchable fields, summed per field with boosts so a
+ * title match outranks the same match in the excerpt or body.
+ */
+final class Bm25Scorer {
+
+    static final IndexField[] FIELDS = {IndexField.TITLE, IndexField.EXCERPT, IndexField.CONTENT};
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final Map<IndexField, Double> BOOSTS = new EnumMap<>(Map.of(
+            IndexField.TITLE, 3.0,
+            IndexField.EXCERPT, 2.0,
+            IndexField.CONTENT, 1.0
+    ));
+
+    private Bm25Scorer() {
+    }
+
+    // Fuzzy variants count for this fraction of an exact match per edit
+    private static final double FUZZY_DECAY = 0.5;
+
+    static float[] score(InvertedIndex index, List<QueryTerm> terms, int[] docIds, int[] exactMatches) {
+        return score(index, terms, docIds, exactMatches, null);
+    }
+
+    /**
+     * Scores for the given sorted doc ids, aligned by position. Each query
+     * term contributes its best-scoring variant. When exactMatches is given,
+     * it receives the number of query terms each doc matches exactly. Given
+     * stats for the whole corpus, term weights and length norms come from
+     * them rather than from this index alone.
+     */
+    static float[] score(InvertedIndex index, List<QueryTerm> terms, int[] docIds, int[] exactMatches,
+                         CollectionStats stats) {
+        float[] scores = new float[docIds.length];
+        if (docIds.length == 0) {
+            return scores;
+        }
+        float[] termScores = new float[docIds.length];
+        float[] variantScores = new float[docIds.length];
+
+        for (QueryTerm term : terms) {
+            if (term.size() == 1) {
+                accumulate(index, stats, term.variant(0), 1, docIds, scores);
+                countExact(index, term.variant(0), docIds, exactMatches);
+                continue;
+            }
+            Arrays.fill(termScores, 0);
+            for (int v = 0; v < term.size(); v++) {
+                Arrays.fill(variantScores, 0);
+                accumulate(index, stats, term.variant(v), Math.pow(FUZZY_DECAY, term.distance(v)), docIds, variantScores);
+                for (int i = 0; i < docIds.length; i++) {
+                    termScores[i] = Math.max(termScores[i], variantScores[i]);
+                }
+            }
+            for (int i = 0; i < docIds.length; i++) {
+                scores[i] += termScores[i];
+            }
+            countExact(index, term.variant(0), docIds, exactMatches);
+        }
+        return scores;
+    }
+
+    private static void accumulate(InvertedIndex index, CollectionStats stats, String term, double factor,
+                                   int[] docIds, float[] scores) {
+        long docCount = stats == null ? index.size() : Math.max(stats.getDocCount(), index.size());
+        for (IndexField field : FIELDS) {
+            Postings postings = index.postings(field, term);
+            if (postings == null) {
+                continue;
+            }
+            int df = postings.size();
+            long corpusDf = stats == null ? df : stats.docFreq(field, term, df);
+            double idf = Math.log(1 + (docCount - corpusDf + 0.5) / (corpusDf + 0.5));
+            double weight = factor * BOOSTS.get(field) * idf;
+            double averageLength = stats == null ? index.averageFieldLength(field) : stats.averageFieldLength(field);
+
+            // Probe the postings directly when only a few docs need scoring
+            if (docIds.length * 8 < df) {
+                for (int i = 0; i < docIds.length; i++) {
+                    int pos = postings.indexOf(docIds[i]);
+                    if (pos >= 0) {
+                        scores[i] += termScore(index, field, docIds[i], postings.freqAt(pos), averageLength, weight);
+                    }
+                }
+                continue;
+            }
+
+            int i = 0, j = 0;
+            while (i < docIds.length && j < df) {
+                int docId = postings.docAt(j);
+                if (docIds[i] < docId) {
+                    i++;
+                } else if (docId < docIds[i]) {
+                    j++;
+                } else {
+                    scores[i] += termScore(index, field, docId, postings.freqAt(j), averageLength, weight);
+                    i++;
+                    j++;
+                }
+            }
+        }
+    }
+
+    private static void countExact(InvertedIndex index, String term, int[] docIds, int[] exactMatches) {
+        if (exactMatches == null) {
+            return;
+        }
+        List<Postings> lists = new ArrayList<>(FIELDS.length);
+        for (IndexField field : FIELDS) {
+            Postings postings = index.postings(field, term);
+            if (postings != null) {
+                lists.add(postings);
+            }
+        }
+        boolean[] matched = new boolean[docIds.length];
+        for (Postings postings : lists) {
+            int df = postings.size();
+            if (docIds.length * 8 < df) {
+                for (int i = 0; i < docIds.length; i++) {
+                    matched[i] |= postings.contains(docIds[i]);
+                }
+                continue;
+            }
+            // Both sides are sorted, so walk them together as accumulate does
+            int i = 0, j = 0;
+            while (i < docIds.length && j < df) {
+                int docId = postings.docAt(j);
+                if (docIds[i] < docId) {
+                    i++;
+                } else if (docId < docIds[i]) {
+                    j++;
+                } else {
+                    matched[i++] = true;
+                    j++;
+                }
+            }
+        }
+        for (int i = 0; i < docIds.length; i++) {
+            if (matched[i]) {
+                exactMatches[i]++;
+            }
+        }
+    }
+
+    private static float termScore(InvertedIndex index, IndexField field, int docId, int tf,
+                                   double averageLength, double weight) {
+        double norm = averageLength == 0
+                ? 1
+                : 1 - B + B * index.fieldLength(field, docId) / averageLength;
+        return (float) (weight * tf * (K1 + 1) / (tf + K1 * norm));
+    }
+}
@@ -0,0 +1,74 @@
+package com.blogbaaz.SearchService.index;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The corpus statistics BM25 depends on, for the terms of one query. Summed
+ * over every shard, they let each shard score its posts as if it held the
+ * whole corpus, so scores from different shards can be ranked together.
+ * They also carry each fuzzy term's indexed variants, so that every shard
+ * expands a misspelled term to the same words.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CollectionStats {
+
+    private long docCount;
+    // Per scored field: tokens summed over posts, and posts with the field set
+    private Map<IndexField, Long> totalFieldLengths = new EnumMap<>(IndexField.class);
+    private Map<IndexField, Long> fieldDocCounts = new EnumMap<>(IndexField.class);
+    // Per scored field: posts containing each term, fuzzy variants included
+    private Map<IndexField, Map<String, Long>> docFreqs = new EnumMap<>(IndexField.class);
+    // Per fuzzy query term: the term and its variants within the edit budget, with posts containing each
+    private Map<String, Map<String, Long>> variantFreqs = new HashMap<>();
+
+    public static CollectionStats merge(Collection<CollectionStats> shards) {
+        CollectionStats merged = new CollectionStats();
+        for (CollectionStats shard : shards) {
+            merged.docCount += shard.docCount;
+            shard.totalFieldLengths.forEach((field, length) -> merged.totalFieldLengths.merge(field, length, Long::sum));
+            shard.fieldDocCounts.forEach((field, count) -> merged.fieldDocCounts.merge(field, count, Long::sum));
+            shard.docFreqs.forEach((field, freqs) -> {
+                Map<String, Long> mergedFreqs = merged.docFreqs.computeIfAbsent(field, f -> new HashMap<>());
+                freqs.forEach((term, df) -> mergedFreqs.merge(term, df, Long::sum));
+            });
+            shard.variantFreqs.forEach((term, freqs) -> {
+                Map<String, Long> mergedFreqs = merged.variantFreqs.computeIfAbsent(term, t -> new HashMap<>());
+                freqs.forEach((variant, df) -> mergedFreqs.merge(variant, df, Long::sum));
+            });
+        }
+        return merged;
+    }
+
+    // A term missing here was not indexed anywhere when the stats were read, so it counts as the shard sees it
+    long docFreq(IndexField field, String term, long localDocFreq) {
+        Map<String, Long> freqs = docFreqs.get(field);
+        Long df = freqs == null ? null : freqs.get(term);
+        return df == null ? localDocFreq : Math.max(df, localDocFreq);
+    }
+
+    // Null for a term the stats were not gathered for, which the shard then expands from its own terms
+    QueryTerm expand(String term, int maxExpansions, boolean onlyIfMissing) {
+        Map<String, Long> freqs = variantFreqs.get(term);
+        if (freqs == null) {
+            return null;
+        }
+        if (maxExpansions <= 0 || (onlyIfMissing && freqs.containsKey(term))) {
+            return QueryTerm.exact(term);
+        }
+        return InvertedIndex.pickVariants(term, freqs, maxExpansions);
+    }
+
+    double averageFieldLength(IndexField field) {
+        long docs = fieldDocCounts.getOrDefault(field, 0L);
+        return docs == 0 ? 0 : (double) totalFieldLengths.getOrDefault(field, 0L) / docs;
+    }
+}
@@ -0,0 +1,121 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.clients.CommentServiceClient;
+import com.blogbaaz.SearchService.config.SearchConfig;
+import com.blogbaaz.SearchService.dtos.CommentChangeFeed;
+import com.blogbaaz.SearchService.dtos.CommentDto;
+import feign.Request;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps {@link CommentIndex} current between full reloads by long-polling
+ * CommentService's change feed and applying each changed comment as it is
+ * now. Follows the feed from the index's own position, set by the last full
+ * load, so nothing committed during a load is missed; changes already in the
+ * index are simply applied again.
+ */
+@Component
+@Slf4j
+public class CommentChangeFollower {
+
+    // Headroom over the server-side wait before the read times out
+    private static final long READ_TIMEOUT_MARGIN_MS = 5000;
+
+    private final CommentServiceClient commentServiceClient;
+    private final CommentIndex commentIndex;
+    private final CommentIndexLoader commentIndexLoader;
+    private final SearchConfig.Changes config;
+    private final boolean enabled;
+    private final Request.Options pollOptions;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public CommentChangeFollower(CommentServiceClient commentServiceClient, CommentIndex commentIndex,
+                                 CommentIndexLoader commentIndexLoader, SearchConfig searchConfig) {
+        this.commentServiceClient = commentServiceClient;
+        this.commentIndex = commentIndex;
+        this.commentIndexLoader = commentIndexLoader;
+        this.config = searchConfig.getChanges();
+        this.enabled = config.isEnabled() && searchConfig.getComments().isEnabled();
+        this.pollOptions = new Request.Options(
+                searchConfig.getPostService().getTimeoutMs(), TimeUnit.MILLISECONDS,
+                config.getWaitMs() + READ_TIMEOUT_MARGIN_MS, TimeUnit.MILLISECONDS, true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::follow, "comment-change-follower");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void follow() {
+        while (running) {
+            long after = commentIndex.changeSeq();
+            try {
+                if (after < 0) {
+                    // Until a full load has told us where the feed stood
+                    Thread.sleep(config.getRetryDelayMs());
+                    continue;
+                }
+                CommentChangeFeed feed = commentServiceClient.getChanges(after, config.getBatchSize(), config.getWaitMs(), pollOptions);
+                if (feed.isResyncRequired()) {
+                    log.warn("Change feed no longer holds changes after {}, reloading the comment index", after);
+                    commentIndexLoader.reload();
+                    continue;
+                }
+                apply(after, feed);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Reading the comment change feed failed, retrying in {} ms: {}", config.getRetryDelayMs(), e.getMessage());
+                try {
+                    Thread.sleep(config.getRetryDelayMs());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Each changed comment once, in the order it first changed; a comment missing from the batch was deleted or hidden
+    private void apply(long after, CommentChangeFeed feed) {
+        Map<String, CommentDto> comments = feed.getComments().stream()
+                .collect(Collectors.toMap(CommentDto::getCommentId, Function.identity(), (a, b) -> b));
+        Set<String> commentIds = feed.getChanges().stream()
+                .map(CommentChangeFeed.Change::getCommentId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        // Dropped if a full load swapped in meanwhile; the next poll starts from its position
+        if (commentIndex.applyChanges(after, feed.getLastSeq(), commentIds, comments) && !commentIds.isEmpty()) {
+            log.debug("Applied {} comment changes up to {}", feed.getChanges().size(), feed.getLastSeq());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.blogbaaz.SearchService.index;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// One page of comment hits plus the number of comments that matched overall
+@Getter
+@AllArgsConstructor
+public class CommentHits {
+
+    public static final CommentHits EMPTY = new CommentHits(List.of(), 0);
+
+    private final List<ScoredComment> hits;
+    private final long totalHits;
+}
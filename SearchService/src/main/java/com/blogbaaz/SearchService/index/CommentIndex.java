@@ -0,0 +1,333 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.dtos.CommentDto;
+import com.blogbaaz.SearchService.dtos.PostSummaryDto;
+import com.blogbaaz.SearchService.metrics.SearchTimings;
+import com.blogbaaz.SearchService.metrics.SearchTimings.Stage;
+import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory keyword index over CommentService comments, searched alongside
+ * {@link PostIndex}. Comments far outnumber posts, so each term's postings
+ * are packed into a {@link CommentPostings} byte array, and changes are
+ * applied in place: a changed comment is appended under a new doc id and its
+ * old doc is marked deleted. Deleted docs are dropped from the postings once
+ * they make up {@value #MAX_DELETED_RATIO} of the index.
+ * <p>
+ * Only comments on posts that {@link PostIndex} holds as published are
+ * returned, so a comment never leads to a post readers cannot see.
+ */
+@Component
+@RequiredArgsConstructor
+public class CommentIndex {
+
+    private static final double MAX_DELETED_RATIO = 0.3;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // Marks posts known not to be published in the per-search lookup
+    private static final PostSummaryDto UNPUBLISHED = new PostSummaryDto();
+
+    private final Highlighter highlighter;
+    private final PostIndex postIndex;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Docs docs = new Docs();
+    private volatile boolean ready;
+    // Change feed position the index reflects, -1 if unknown
+    private volatile long changeSeq = -1;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return docs.docIds.size();
+    }
+
+    public long changeSeq() {
+        return changeSeq;
+    }
+
+    // Heap held by postings, for the load log
+    public long postingsBytes() {
+        lock.readLock().lock();
+        try {
+            return docs.postings.values().stream().mapToLong(CommentPostings::sizeInBytes).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Builds a fresh index off to the side and swaps it in; changeSeq is where the change feed stood before comments were read
+    public void rebuild(Collection<CommentDto> comments, long changeSeq) {
+        Docs rebuilt = new Docs();
+        for (CommentDto comment : comments) {
+            rebuilt.add(comment);
+        }
+        lock.writeLock().lock();
+        try {
+            docs = rebuilt;
+            this.changeSeq = changeSeq;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a batch of the change feed read after afterSeq: each comment in
+     * commentIds is replaced by its version in comments, or removed if it has
+     * none. Returns false, applying nothing, if a full load has moved the
+     * index away from afterSeq meanwhile.
+     */
+    public boolean applyChanges(long afterSeq, long lastSeq, Collection<String> commentIds, Map<String, CommentDto> comments) {
+        lock.writeLock().lock();
+        try {
+            if (changeSeq != afterSeq) {
+                return false;
+            }
+            for (String commentId : commentIds) {
+                CommentDto comment = comments.get(commentId);
+                if (comment != null) {
+                    docs.add(comment);
+                } else {
+                    docs.remove(commentId);
+                }
+            }
+            if (docs.deletedRatio() >= MAX_DELETED_RATIO) {
+                docs = docs.compact();
+            }
+            changeSeq = lastSeq;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Comments on published posts containing every query term, best BM25
+     * score first, cut to at most limit hits. Ties go to the more recently
+     * indexed comment. Comments have no fields or positions, so of a
+     * {@link KeywordQuery} only the words that rank posts are used.
+     */
+    public CommentHits search(String keyword, int limit) {
+        List<String> tokens = KeywordQuery.parse(keyword).scoredTerms();
+        if (tokens.isEmpty() || limit <= 0) {
+            return CommentHits.EMPTY;
+        }
+
+        List<CommentDto> page;
+        List<PostSummaryDto> pagePosts;
+        float[] scores;
+        int total;
+
+        long lapStart = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            Docs current = docs;
+            Matches matches = current.match(tokens);
+            lapStart = SearchTimings.lap(Stage.SCORE, lapStart);
+
+            // Many comments share a post, so each post is looked up once
+            Map<String, PostSummaryDto> posts = new HashMap<>();
+            int kept = 0;
+            for (int i = 0; i < matches.size; i++) {
+                String postId = current.comments.get(matches.docIds[i]).getPostId();
+                PostSummaryDto post = posts.computeIfAbsent(postId, id -> {
+                    PostSummaryDto summary = postIndex.publishedPost(id);
+                    return summary == null ? UNPUBLISHED : summary;
+                });
+                if (post != UNPUBLISHED) {
+                    matches.docIds[kept] = matches.docIds[i];
+                    matches.scores[kept] = matches.scores[i];
+                    kept++;
+                }
+            }
+            total = kept;
+            int[] docIds = Arrays.copyOf(matches.docIds, kept);
+            float[] allScores = Arrays.copyOf(matches.scores, kept);
+            lapStart = SearchTimings.lap(Stage.FILTER, lapStart);
+
+            int[] top = TopDocs.select(docIds, new int[kept], allScores, limit);
+            page = new ArrayList<>(top.length);
+            pagePosts = new ArrayList<>(top.length);
+            scores = new float[top.length];
+            for (int i = 0; i < top.length; i++) {
+                CommentDto comment = current.comments.get(docIds[top[i]]);
+                page.add(comment);
+                pagePosts.add(posts.get(comment.getPostId()));
+                scores[i] = allScores[top[i]];
+            }
+            SearchTimings.lap(Stage.SELECT, lapStart);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Indexed comments are never modified, so snippets can be built without the lock
+        lapStart = System.nanoTime();
+        List<List<String>> highlights = highlighter.highlightTexts(page.stream().map(CommentDto::getContent).toList(), tokens);
+        SearchTimings.lap(Stage.HIGHLIGHT, lapStart);
+        List<ScoredComment> hits = new ArrayList<>(page.size());
+        for (int i = 0; i < page.size(); i++) {
+            hits.add(new ScoredComment(page.get(i), pagePosts.get(i), scores[i], highlights.get(i)));
+        }
+        return new CommentHits(hits, total);
+    }
+
+    private static final class Matches {
+        private int[] docIds = new int[16];
+        private float[] scores = new float[16];
+        private int size;
+
+        void add(int docId, float score) {
+            if (size == docIds.length) {
+                docIds = Arrays.copyOf(docIds, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            docIds[size] = docId;
+            scores[size] = score;
+            size++;
+        }
+    }
+
+    /**
+     * The indexed comments. Doc ids are positions in comments; a deleted doc
+     * keeps its id, with its comment cleared, until the next compaction.
+     */
+    private static final class Docs {
+        private final List<CommentDto> comments = new ArrayList<>();
+        private int[] lengths = new int[64];
+        private final Map<String, Integer> docIds = new HashMap<>();
+        private final Map<String, CommentPostings> postings = new HashMap<>();
+        private final RoaringBitmap deleted = new RoaringBitmap();
+        // Tokens across live docs
+        private long totalLength;
+
+        void add(CommentDto comment) {
+            remove(comment.getCommentId());
+            int docId = comments.size();
+            comments.add(comment);
+            List<String> tokens = Tokenizer.tokenize(comment.getContent());
+            Map<String, Integer> freqs = new HashMap<>();
+            for (String token : tokens) {
+                freqs.merge(token, 1, Integer::sum);
+            }
+            for (Map.Entry<String, Integer> freq : freqs.entrySet()) {
+                postings.computeIfAbsent(freq.getKey(), term -> new CommentPostings()).add(docId, freq.getValue());
+            }
+            if (docId == lengths.length) {
+                lengths = Arrays.copyOf(lengths, docId * 2);
+            }
+            lengths[docId] = tokens.size();
+            totalLength += tokens.size();
+            docIds.put(comment.getCommentId(), docId);
+        }
+
+        void remove(String commentId) {
+            Integer docId = docIds.remove(commentId);
+            if (docId != null) {
+                deleted.add(docId);
+                totalLength -= lengths[docId];
+                comments.set(docId, null);
+            }
+        }
+
+        double deletedRatio() {
+            return comments.isEmpty() ? 0 : (double) deleted.getCardinality() / comments.size();
+        }
+
+        // A copy with the live docs renumbered from zero and deleted ones gone from every posting list
+        Docs compact() {
+            Docs compacted = new Docs();
+            int[] docMap = new int[comments.size()];
+            for (int docId = 0; docId < comments.size(); docId++) {
+                if (deleted.contains(docId)) {
+                    docMap[docId] = -1;
+                    continue;
+                }
+                int newDocId = compacted.comments.size();
+                docMap[docId] = newDocId;
+                CommentDto comment = comments.get(docId);
+                compacted.comments.add(comment);
+                compacted.docIds.put(comment.getCommentId(), newDocId);
+            }
+            compacted.lengths = new int[Math.max(64, compacted.comments.size())];
+            for (int docId = 0; docId < docMap.length; docId++) {
+                if (docMap[docId] >= 0) {
+                    compacted.lengths[docMap[docId]] = lengths[docId];
+                }
+            }
+            for (Map.Entry<String, CommentPostings> entry : postings.entrySet()) {
+                CommentPostings remapped = entry.getValue().remap(docMap);
+                if (remapped.size() > 0) {
+                    compacted.postings.put(entry.getKey(), remapped);
+                }
+            }
+            compacted.totalLength = totalLength;
+            return compacted;
+        }
+
+        // Live docs holding every term, in doc id order, with their BM25 scores
+        Matches match(List<String> terms) {
+            Matches matches = new Matches();
+            int docCount = docIds.size();
+            List<CommentPostings> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                CommentPostings list = postings.get(term);
+                if (list == null) {
+                    return matches;
+                }
+                lists.add(list);
+            }
+            // Rarest first, so it leads the walk and the others skip ahead to it.
+            // Deleted docs still count toward document frequency until compaction.
+            lists.sort(Comparator.comparingInt(CommentPostings::size));
+            CommentPostings.Cursor[] cursors = new CommentPostings.Cursor[lists.size()];
+            double[] idfs = new double[lists.size()];
+            for (int i = 0; i < cursors.length; i++) {
+                cursors[i] = lists.get(i).cursor();
+                int df = lists.get(i).size();
+                idfs[i] = Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+            }
+            double averageLength = docCount == 0 ? 1 : Math.max(1, (double) totalLength / docCount);
+
+            CommentPostings.Cursor lead = cursors[0];
+            int doc = lead.next() ? lead.doc() : -1;
+            while (doc >= 0) {
+                int target = doc;
+                for (int i = 1; i < cursors.length && target == doc; i++) {
+                    if (!cursors[i].advance(doc)) {
+                        return matches;
+                    }
+                    target = cursors[i].doc();
+                }
+                if (target == doc) {
+                    if (!deleted.contains(doc)) {
+                        double norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                        double score = 0;
+                        for (int i = 0; i < cursors.length; i++) {
+                            int freq = cursors[i].freq();
+                            score += idfs[i] * freq * (K1 + 1) / (freq + norm);
+                        }
+                        matches.add(doc, (float) score);
+                    }
+                    doc = lead.next() ? lead.doc() : -1;
+                } else {
+                    doc = lead.advance(target) ? lead.doc() : -1;
+                }
+            }
+            return matches;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.clients.CommentServiceClient;
+import com.blogbaaz.SearchService.config.SearchConfig;
+import com.blogbaaz.SearchService.dtos.CommentDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CommentIndexLoader {
+
+    private final CommentServiceClient commentServiceClient;
+    private final CommentIndex commentIndex;
+    private final SearchConfig searchConfig;
+
+    // Also run by the change feed follower when it has fallen too far behind
+    @Scheduled(initialDelay = 0, fixedDelayString = "${search.comments.refresh-interval-ms:3600000}")
+    public synchronized void reload() {
+        SearchConfig.Comments config = searchConfig.getComments();
+        if (!config.isEnabled()) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+
+        try {
+            // Taken before the scan, so changes made during it are replayed from the feed
+            long changeSeq = changeHead();
+            List<CommentDto> comments = new ArrayList<>();
+            String after = "";
+            List<CommentDto> page;
+            do {
+                // Keyset pages by commentId; CommentService may cap the page size, so stop on an empty page
+                page = commentServiceClient.getAllComments(after, config.getPageSize());
+                comments.addAll(page);
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1).getCommentId();
+                }
+            } while (!page.isEmpty());
+
+            commentIndex.rebuild(comments, changeSeq);
+            log.info("Comment index rebuilt with {} comments ({} KB of postings) in {} ms",
+                    commentIndex.size(), commentIndex.postingsBytes() / 1024, System.currentTimeMillis() - startTime);
+
+        } catch (Exception e) {
+            log.warn("Comment index rebuild failed, keeping previous index: {}", e.getMessage());
+        }
+    }
+
+    private long changeHead() {
+        if (!searchConfig.getChanges().isEnabled()) {
+            return -1;
+        }
+        try {
+            return commentServiceClient.getChangeHead();
+        } catch (Exception e) {
+            log.warn("Comment change feed unavailable, comment index will only refresh on full reloads: {}", e.getMessage());
+            return -1;
+        }
+    }
+}
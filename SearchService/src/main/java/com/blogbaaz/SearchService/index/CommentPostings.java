@@ -0,0 +1,140 @@
+package com.blogbaaz.SearchService.index;
+
+import java.util.Arrays;
+
+/**
+ * Append-only postings of one term in {@link CommentIndex}, packed as
+ * variable-length doc id deltas. Most comments use a word once, so the
+ * frequency rides in the low bit of the delta and is only written when it is
+ * above one; a typical posting takes one or two bytes instead of eight. Every
+ * {@value #SKIP_INTERVAL} postings a skip point lets a cursor jump ahead
+ * without decoding everything in between.
+ */
+final class CommentPostings {
+
+    static final int SKIP_INTERVAL = 64;
+
+    private byte[] bytes = new byte[8];
+    private int length;
+    private int size;
+    private int lastDoc = -1;
+    // Last doc id before each skip point and the byte offset the point starts at
+    private int[] skipDocs = new int[0];
+    private int[] skipOffsets = new int[0];
+
+    // Doc ids must be added in increasing order
+    void add(int docId, int freq) {
+        if (size > 0 && size % SKIP_INTERVAL == 0) {
+            int skips = size / SKIP_INTERVAL;
+            skipDocs = Arrays.copyOf(skipDocs, skips);
+            skipOffsets = Arrays.copyOf(skipOffsets, skips);
+            skipDocs[skips - 1] = lastDoc;
+            skipOffsets[skips - 1] = length;
+        }
+        int delta = docId - lastDoc;
+        writeVInt(freq > 1 ? delta << 1 | 1 : delta << 1);
+        if (freq > 1) {
+            writeVInt(freq);
+        }
+        lastDoc = docId;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Heap bytes held, for sizing reports
+    long sizeInBytes() {
+        return bytes.length + 8L * skipDocs.length + 32;
+    }
+
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    // Copy holding only the docs kept by docMap, renumbered; docMap maps old ids to new ones or -1
+    CommentPostings remap(int[] docMap) {
+        CommentPostings remapped = new CommentPostings();
+        Cursor cursor = cursor();
+        while (cursor.next()) {
+            int docId = docMap[cursor.doc()];
+            if (docId >= 0) {
+                remapped.add(docId, cursor.freq());
+            }
+        }
+        return remapped;
+    }
+
+    private void writeVInt(int value) {
+        if (length + 5 > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 3 / 2, length + 5));
+        }
+        while ((value & ~0x7F) != 0) {
+            bytes[length++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        bytes[length++] = (byte) value;
+    }
+
+    // Forward-only walk over the postings as they were when it started
+    final class Cursor {
+        private final int end = length;
+        private final int count = size;
+        private int offset;
+        private int read;
+        private int doc = -1;
+        private int freq;
+
+        boolean next() {
+            if (read == count || offset >= end) {
+                return false;
+            }
+            int value = readVInt();
+            doc += value >>> 1;
+            freq = (value & 1) == 0 ? 1 : readVInt();
+            read++;
+            return true;
+        }
+
+        // Moves to the first doc at or after target; false when there is none
+        boolean advance(int target) {
+            if (doc >= target) {
+                return true;
+            }
+            int skip = Arrays.binarySearch(skipDocs, 0, Math.min(skipDocs.length, (count - 1) / SKIP_INTERVAL), target);
+            // Skip point whose preceding doc is the last one below target
+            int point = (skip >= 0 ? skip : -skip - 1) - 1;
+            if (point >= 0 && (point + 1) * SKIP_INTERVAL > read) {
+                doc = skipDocs[point];
+                offset = skipOffsets[point];
+                read = (point + 1) * SKIP_INTERVAL;
+            }
+            while (next()) {
+                if (doc >= target) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int doc() {
+            return doc;
+        }
+
+        int freq() {
+            return freq;
+        }
+
+        private int readVInt() {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = bytes[offset++];
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.dtos.PostDto;
+
+import java.util.Comparator;
+
+/**
+ * Orders doc ids by a sort field, ties broken by postId ascending. Numeric
+ * fields come from doc values, so only titles and ties read stored posts.
+ */
+final class DocSort implements Comparator<Integer> {
+
+    private static final Comparator<String> TITLE_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    private final InvertedIndex index;
+    private final SortField field;
+    private final boolean ascending;
+
+    DocSort(InvertedIndex index, SortField field, boolean ascending) {
+        this.index = index;
+        this.field = field;
+        this.ascending = ascending;
+    }
+
+    @Override
+    public int compare(Integer a, Integer b) {
+        int cmp = field.isNumeric()
+                ? Long.compare(index.sortValue(field, a), index.sortValue(field, b))
+                : TITLE_ORDER.compare(index.title(a), index.title(b));
+        if (cmp != 0) {
+            return ascending ? cmp : -cmp;
+        }
+        return index.postId(a).compareTo(index.postId(b));
+    }
+
+    // Whether the doc comes after the anchor a cursor was made from
+    boolean isAfter(int docId, PostDto anchor) {
+        int cmp = field.isNumeric()
+                ? Long.compare(index.sortValue(field, docId), field.value(anchor))
+                : TITLE_ORDER.compare(index.title(docId), anchor.getTitle());
+        if (cmp != 0) {
+            return (ascending ? cmp : -cmp) > 0;
+        }
+        return index.postId(docId).compareTo(anchor.getPostId()) > 0;
+    }
+}
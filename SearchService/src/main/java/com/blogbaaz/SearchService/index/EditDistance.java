@@ -0,0 +1,63 @@
+package com.blogbaaz.SearchService.index;
+
+/**
+ * Bounded edit distance for fuzzy term matching: Levenshtein plus adjacent
+ * transpositions (optimal string alignment).
+ */
+public final class EditDistance {
+
+    private EditDistance() {
+    }
+
+    // Edits allowed for a query term of this length: none for very short terms
+    public static int maxEdits(int length) {
+        if (length <= 2) {
+            return 0;
+        }
+        return length <= 5 ? 1 : 2;
+    }
+
+    // Distance between a and b, or max + 1 once it is certain to exceed max.
+    // Swapping two adjacent chars counts as one edit, as it is a common typo.
+    public static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        int previousMin = 0;
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                char cb = b.charAt(j - 1);
+                int cost = ca == cb ? 0 : 1;
+                int d = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && ca == b.charAt(j - 2) && a.charAt(i - 2) == cb) {
+                    d = Math.min(d, beforePrevious[j - 2] + 1);
+                }
+                current[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            // A transposition reaches back two rows, adding one edit to that row's minimum
+            if (rowMin > max && previousMin >= max) {
+                return max + 1;
+            }
+            previousMin = rowMin;
+            int[] swap = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    public static boolean within(String a, String b, int max) {
+        return distance(a, b, max) <= max;
+    }
+}
@@ -0,0 +1,38 @@
+package com.blogbaaz.SearchService.index;
+
+/**
+ * Fields search results can be counted by. The publish month (yyyy-MM, UTC)
+ * comes from the publishedAt doc values; the rest read an exact-value field.
+ */
+enum Facet {
+    CATEGORY("category", IndexField.CATEGORY),
+    TAGS("tags", IndexField.TAG),
+    AUTHOR("author", IndexField.AUTHOR_ID),
+    PUBLISH_MONTH("publishMonth", null);
+
+    private final String name;
+    private final IndexField field;
+
+    Facet(String name, IndexField field) {
+        this.name = name;
+        this.field = field;
+    }
+
+    static Facet of(String name) {
+        for (Facet facet : values()) {
+            if (facet.name.equals(name)) {
+                return facet;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported facet: " + name);
+    }
+
+    String facetName() {
+        return name;
+    }
+
+    // Null for the publish month
+    IndexField field() {
+        return field;
+    }
+}
@@ -0,0 +1,181 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.dtos.FacetCount;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts facet values over the docs matching a search, fed one part at a
+ * time by {@link InvertedIndex#collectFacets} in a single pass over the
+ * match bitmap. Values are read from each part's ordinal columns, never from
+ * stored posts, and only matching docs are touched: a part's counts go in an
+ * array indexed by ordinal when the field has few values next to the number
+ * of matches, otherwise in a hash table holding only the values seen.
+ */
+final class FacetCollector {
+
+    // An ordinal array is used while it would be at most this many times the number of matches
+    private static final int DENSE_RATIO = 4;
+
+    private final List<Facet> facets;
+    private final int size;
+    private final int matchCount;
+    private final List<Map<String, Long>> totals = new ArrayList<>();
+    private final Counts[] counts;
+    private IndexPart part;
+
+    FacetCollector(List<Facet> facets, int size, int matchCount) {
+        this.facets = facets;
+        this.size = size;
+        this.matchCount = matchCount;
+        this.counts = new Counts[facets.size()];
+        facets.forEach(facet -> totals.add(new HashMap<>()));
+    }
+
+    void startPart(IndexPart part) {
+        this.part = part;
+        for (int f = 0; f < facets.size(); f++) {
+            IndexField field = facets.get(f).field();
+            counts[f] = new Counts(field == null ? -1 : part.ordCount(field), matchCount);
+        }
+    }
+
+    void collect(int docId) {
+        for (int f = 0; f < facets.size(); f++) {
+            IndexField field = facets.get(f).field();
+            if (field == null) {
+                long publishedAt = part.sortValue(SortField.PUBLISHED_AT, docId);
+                if (publishedAt != SortField.NULL_DATE) {
+                    counts[f].add(monthOf(publishedAt));
+                }
+                continue;
+            }
+            int values = part.valueCount(field, docId);
+            for (int i = 0; i < values; i++) {
+                counts[f].add(part.valueOrd(field, docId, i));
+            }
+        }
+    }
+
+    void finishPart() {
+        for (int f = 0; f < facets.size(); f++) {
+            IndexField field = facets.get(f).field();
+            Map<String, Long> total = totals.get(f);
+            counts[f].forEach((key, count) -> total.merge(
+                    field == null ? monthName(key) : part.valueOfOrd(field, key), (long) count, Long::sum));
+        }
+        part = null;
+    }
+
+    // The size most common values per facet, most common first and then by value
+    Map<String, List<FacetCount>> result() {
+        Map<String, List<FacetCount>> result = new LinkedHashMap<>();
+        Comparator<Map.Entry<String, Long>> order = Map.Entry.<String, Long>comparingByValue().reversed()
+                .thenComparing(Map.Entry::getKey, SegmentWriter.TERM_ORDER);
+        for (int f = 0; f < facets.size(); f++) {
+            TopKCollector<Map.Entry<String, Long>> top = new TopKCollector<>(order, size);
+            totals.get(f).entrySet().forEach(top::offer);
+            result.put(facets.get(f).facetName(),
+                    top.toList().stream().map(entry -> new FacetCount(entry.getKey(), entry.getValue())).toList());
+        }
+        return result;
+    }
+
+    // Months since year zero, from a publishedAt doc value
+    private static int monthOf(long publishedAt) {
+        LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(Math.floorDiv(publishedAt, 1_000_000_000L), 86_400L));
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    private static String monthName(int month) {
+        return String.format("%04d-%02d", Math.floorDiv(month, 12), Math.floorMod(month, 12) + 1);
+    }
+
+    private interface KeyCount {
+        void accept(int key, int count);
+    }
+
+    // Counts for one facet within one part
+    private static final class Counts {
+        private static final int EMPTY = -1;
+
+        private final int[] dense;
+        // Open-addressing table of key, count pairs when not dense
+        private int[] table;
+        private int used;
+
+        // keyCount is -1 when keys are not ordinals, which always counts sparsely
+        Counts(int keyCount, int matchCount) {
+            boolean useDense = keyCount >= 0 && keyCount <= (long) DENSE_RATIO * matchCount;
+            dense = useDense ? new int[keyCount] : null;
+            if (!useDense) {
+                table = new int[32];
+                Arrays.fill(table, EMPTY);
+            }
+        }
+
+        void add(int key) {
+            if (dense != null) {
+                dense[key]++;
+                return;
+            }
+            int slot = find(table, key);
+            if (table[slot] == EMPTY) {
+                table[slot] = key;
+                table[slot + 1] = 0;
+                if (++used * 4 > table.length) {
+                    grow();
+                    slot = find(table, key);
+                }
+            }
+            table[slot + 1]++;
+        }
+
+        void forEach(KeyCount consumer) {
+            if (dense != null) {
+                for (int key = 0; key < dense.length; key++) {
+                    if (dense[key] > 0) {
+                        consumer.accept(key, dense[key]);
+                    }
+                }
+                return;
+            }
+            for (int slot = 0; slot < table.length; slot += 2) {
+                if (table[slot] != EMPTY) {
+                    consumer.accept(table[slot], table[slot + 1]);
+                }
+            }
+        }
+
+        // Slot of the key, or of the empty entry where it belongs; keys are never negative
+        private static int find(int[] table, int key) {
+            int mask = table.length / 2 - 1;
+            int hash = key * 0x9E3779B9;
+            int slot = (hash ^ hash >>> 16) & mask;
+            while (table[2 * slot] != EMPTY && table[2 * slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return 2 * slot;
+        }
+
+        private void grow() {
+            int[] old = table;
+            table = new int[old.length * 2];
+            Arrays.fill(table, EMPTY);
+            for (int slot = 0; slot < old.length; slot += 2) {
+                if (old[slot] != EMPTY) {
+                    int at = find(table, old[slot]);
+                    table[at] = old[slot];
+                    table[at + 1] = old[slot + 1];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.analysis.Token;
+import com.blogbaaz.SearchService.config.SearchConfig;
+import com.blogbaaz.SearchService.dtos.PostDto;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds query-term snippets for search hits. Each text is analyzed once as
+ * {@link Tokenizer} analyzes it for the index, so "running" is marked for a
+ * search for "run", and every token is compared in place against the query
+ * terms, so no per-token strings or regexes are created. A per-request time
+ * budget bounds the total work.
+ */
+@Component
+public class Highlighter {
+
+    // Matches past this many are ignored; snippets only need the first few
+    private static final int MAX_MATCHES = 256;
+    // How often, in chars, the scan checks the deadline
+    private static final int DEADLINE_CHECK_CHARS = 4096;
+    // Context kept before the first match of a snippet
+    private static final int LEAD_CHARS = 30;
+
+    private final boolean enabled;
+    private final SearchConfig.Highlight config;
+
+    public Highlighter(SearchConfig searchConfig) {
+        this.enabled = searchConfig.isHighlightEnabled();
+        this.config = searchConfig.getHighlight();
+    }
+
+    /**
+     * Snippets for each post, in order; an entry is null when the post has no
+     * match or the budget ran out before reaching it.
+     */
+    public List<List<String>> highlight(List<PostDto> posts, List<String> terms) {
+        List<List<String>> result = new ArrayList<>(posts.size());
+        if (!enabled || terms.isEmpty()) {
+            posts.forEach(post -> result.add(null));
+            return result;
+        }
+
+        long deadline = System.nanoTime() + config.getBudgetMs() * 1_000_000;
+        char[][] matcher = compile(terms);
+        Matches matches = new Matches();
+        for (PostDto post : posts) {
+            List<String> snippets = null;
+            if (System.nanoTime() < deadline) {
+                snippets = snippets(post.getContent(), matcher, matches, deadline);
+                if (snippets == null) {
+                    snippets = snippets(post.getExcerpt(), matcher, matches, deadline);
+                }
+            }
+            result.add(snippets);
+        }
+        return result;
+    }
+
+    // Snippets for each plain text, in order, as for posts
+    public List<List<String>> highlightTexts(List<String> texts, List<String> terms) {
+        List<List<String>> result = new ArrayList<>(texts.size());
+        if (!enabled || terms.isEmpty()) {
+            texts.forEach(text -> result.add(null));
+            return result;
+        }
+
+        long deadline = System.nanoTime() + config.getBudgetMs() * 1_000_000;
+        char[][] matcher = compile(terms);
+        Matches matches = new Matches();
+        for (String text : texts) {
+            result.add(System.nanoTime() < deadline ? snippets(text, matcher, matches, deadline) : null);
+        }
+        return result;
+    }
+
+    private static char[][] compile(List<String> terms) {
+        // At most 64 distinct terms, so a long can track which ones a snippet covers
+        return terms.stream().distinct().limit(Long.SIZE).map(String::toCharArray).toArray(char[][]::new);
+    }
+
+    private List<String> snippets(String text, char[][] terms, Matches matches, long deadline) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        scan(text, terms, matches, deadline);
+        if (matches.count == 0) {
+            return null;
+        }
+
+        List<int[]> windows = pickWindows(matches);
+        List<String> snippets = new ArrayList<>(windows.size());
+        for (int[] window : windows) {
+            snippets.add(render(text, matches, window[0], window[1]));
+        }
+        return snippets;
+    }
+
+    // Single pass over text, recording the offsets of tokens that equal a query term
+    private static void scan(String text, char[][] terms, Matches matches, long deadline) {
+        matches.count = 0;
+        int[] nextCheck = {DEADLINE_CHECK_CHARS};
+        Tokenizer.tokenize(text, token -> {
+            if (token.startOffset() >= nextCheck[0]) {
+                if (System.nanoTime() > deadline) {
+                    return false;
+                }
+                nextCheck[0] = token.startOffset() + DEADLINE_CHECK_CHARS;
+            }
+            int term = matchTerm(token, terms);
+            if (term >= 0) {
+                matches.add(token.startOffset(), token.endOffset(), term);
+            }
+            return matches.count < MAX_MATCHES;
+        });
+    }
+
+    private static int matchTerm(Token token, char[][] terms) {
+        for (int t = 0; t < terms.length; t++) {
+            if (token.contentEquals(terms[t])) {
+                return t;
+            }
+        }
+        return -1;
+    }
+
+    // Greedily takes the non-overlapping windows covering the most distinct terms, then the most matches
+    private List<int[]> pickWindows(Matches matches) {
+        int fragmentSize = config.getFragmentSize();
+        List<int[]> windows = new ArrayList<>();
+        boolean[] used = new boolean[matches.count];
+
+        for (int round = 0; round < config.getMaxSnippets(); round++) {
+            int bestFirst = -1, bestLast = -1, bestScore = 0;
+            int last = 0;
+            for (int first = 0; first < matches.count; first++) {
+                if (used[first]) {
+                    continue;
+                }
+                // Extend the window over following matches that fit and are still unused
+                last = Math.max(last, first);
+                while (last + 1 < matches.count && !used[last + 1]
+                        && matches.ends[last + 1] - matches.starts[first] <= fragmentSize) {
+                    last++;
+                }
+                long covered = 0;
+                for (int m = first; m <= last; m++) {
+                    covered |= 1L << matches.terms[m];
+                }
+                int score = Long.bitCount(covered) * MAX_MATCHES + (last - first + 1);
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestFirst = first;
+                    bestLast = last;
+                }
+            }
+            if (bestFirst < 0) {
+                break;
+            }
+            for (int m = bestFirst; m <= bestLast; m++) {
+                used[m] = true;
+            }
+            windows.add(new int[]{bestFirst, bestLast});
+        }
+        windows.sort((a, b) -> Integer.compare(a[0], b[0]));
+        return windows;
+    }
+
+    private String render(String text, Matches matches, int first, int last) {
+        int from = wordStart(text, Math.max(0, matches.starts[first] - LEAD_CHARS));
+        int to = wordEnd(text, Math.max(matches.ends[last], Math.min(text.length(), from + config.getFragmentSize())));
+
+        StringBuilder snippet = new StringBuilder(to - from + 16);
+        if (from > 0) {
+            snippet.append("…");
+        }
+        // Mark every match inside the snippet, including ones another window was built around
+        int pos = from;
+        for (int m = 0; m < matches.count; m++) {
+            if (matches.starts[m] < from || matches.ends[m] > to) {
+                continue;
+            }
+            appendEscaped(snippet, text, pos, matches.starts[m]);
+            snippet.append(config.getPreTag());
+            appendEscaped(snippet, text, matches.starts[m], matches.ends[m]);
+            snippet.append(config.getPostTag());
+            pos = matches.ends[m];
+        }
+        appendEscaped(snippet, text, pos, to);
+        if (to < text.length()) {
+            snippet.append("…");
+        }
+        return snippet.toString();
+    }
+
+    private static int wordStart(String text, int pos) {
+        while (pos > 0 && !Character.isWhitespace(text.charAt(pos - 1))) {
+            pos--;
+        }
+        return pos;
+    }
+
+    private static int wordEnd(String text, int pos) {
+        while (pos < text.length() && !Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    // Post text may contain markup; only the highlight tags should reach the client as HTML
+    private static void appendEscaped(StringBuilder out, String text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    // Match offsets for one text, reused across the posts of a request
+    private static final class Matches {
+        final int[] starts = new int[MAX_MATCHES];
+        final int[] ends = new int[MAX_MATCHES];
+        final int[] terms = new int[MAX_MATCHES];
+        int count;
+
+        void add(int start, int end, int term) {
+            starts[count] = start;
+            ends[count] = end;
+            terms[count] = term;
+            count++;
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.dtos.PostDto;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * In-memory part of the index, holding posts added since the last segment
+ * was written (or everything, when segments are off). Full-text fields keep
+ * term frequencies and positions for scoring and phrases; exact-value fields and the published flag
+ * are plain doc id bitmaps for filtering, and exact-value fields also keep
+ * each doc's value ordinals for facet counts. Ordinals are handed out in
+ * first-seen order and never reused.
+ */
+final class IndexBuffer implements IndexPart {
+
+    // Exact values are not tokenized, so each is a single token
+    private static final int[] FIRST_POSITION = {0};
+
+    // docId -> post, null once the post is removed
+    private final List<PostDto> docs = new ArrayList<>();
+    private final Map<String, Integer> docIdsByPostId = new HashMap<>();
+    private final EnumMap<IndexField, Map<String, PostingsList>> postings = new EnumMap<>(IndexField.class);
+    private final EnumMap<IndexField, FieldLengths> lengths = new EnumMap<>(IndexField.class);
+    private final EnumMap<IndexField, Map<String, RoaringBitmap>> values = new EnumMap<>(IndexField.class);
+    private final EnumMap<IndexField, ValueOrds> ords = new EnumMap<>(IndexField.class);
+    // Numeric sort values by field ordinal and doc, as segments keep them, so sorts and facets need not chase posts
+    private final long[][] docValues = new long[SortField.values().length][16];
+    private final RoaringBitmap live = new RoaringBitmap();
+    private final RoaringBitmap published = new RoaringBitmap();
+    private final TermDictionary dictionary = new TermDictionary();
+
+    IndexBuffer() {
+        for (IndexField field : IndexField.values()) {
+            if (field.isTokenized()) {
+                postings.put(field, new HashMap<>());
+                lengths.put(field, new FieldLengths());
+            } else {
+                values.put(field, new HashMap<>());
+                ords.put(field, new ValueOrds());
+            }
+        }
+    }
+
+    // Local doc id of the post; the caller has removed any earlier version
+    int add(PostDto post) {
+        int docId = docs.size();
+        docs.add(post);
+        docIdsByPostId.put(post.getPostId(), docId);
+        live.add(docId);
+        if (PostIndex.isPublished(post)) {
+            published.add(docId);
+        }
+        for (SortField field : SortField.values()) {
+            if (field.isNumeric()) {
+                if (docId >= docValues[field.ordinal()].length) {
+                    docValues[field.ordinal()] = Arrays.copyOf(docValues[field.ordinal()], docId * 2);
+                }
+                docValues[field.ordinal()][docId] = field.value(post);
+            }
+        }
+
+        forEachField(post, (field, termPositions, length) -> {
+            if (!field.isTokenized()) {
+                Map<String, RoaringBitmap> dictionary = values.get(field);
+                termPositions.keySet().forEach(value ->
+                        dictionary.computeIfAbsent(value, v -> new RoaringBitmap()).add(docId));
+                ords.get(field).set(docId, termPositions.keySet());
+                return;
+            }
+            Map<String, PostingsList> fieldPostings = postings.get(field);
+            boolean searchable = Arrays.asList(Bm25Scorer.FIELDS).contains(field);
+            termPositions.forEach((term, positions) ->
+                    fieldPostings.computeIfAbsent(term, t -> {
+                        if (searchable) {
+                            dictionary.add(t);
+                        }
+                        return new PostingsList();
+                    }).add(docId, positions));
+            lengths.get(field).set(docId, length);
+        });
+        return docId;
+    }
+
+    PostDto remove(String postId) {
+        Integer docId = docIdsByPostId.remove(postId);
+        if (docId == null) {
+            return null;
+        }
+        PostDto post = docs.get(docId);
+        docs.set(docId, null);
+        live.remove(docId);
+        published.remove(docId);
+
+        forEachField(post, (field, termPositions, length) -> {
+            if (!field.isTokenized()) {
+                Map<String, RoaringBitmap> dictionary = values.get(field);
+                for (String value : termPositions.keySet()) {
+                    RoaringBitmap bitmap = dictionary.get(value);
+                    if (bitmap != null) {
+                        bitmap.remove(docId);
+                        if (bitmap.isEmpty()) {
+                            dictionary.remove(value);
+                        }
+                    }
+                }
+                return;
+            }
+            Map<String, PostingsList> fieldPostings = postings.get(field);
+            for (String term : termPositions.keySet()) {
+                PostingsList list = fieldPostings.get(term);
+                if (list != null) {
+                    list.remove(docId);
+                    if (list.size() == 0) {
+                        fieldPostings.remove(term);
+                    }
+                }
+            }
+            lengths.get(field).set(docId, 0);
+        });
+        return post;
+    }
+
+    @Override
+    public PostDto doc(int docId) {
+        return docs.get(docId);
+    }
+
+    @Override
+    public PostDto summary(int docId) {
+        return docs.get(docId);
+    }
+
+    @Override
+    public String postId(int docId) {
+        return docs.get(docId).getPostId();
+    }
+
+    @Override
+    public String title(int docId) {
+        return docs.get(docId).getTitle();
+    }
+
+    @Override
+    public long sortValue(SortField field, int docId) {
+        if (!field.isNumeric()) {
+            throw new IllegalStateException("Titles are compared as text");
+        }
+        return docValues[field.ordinal()][docId];
+    }
+
+    @Override
+    public ByteBuffer storedBytes(int docId) {
+        return ByteBuffer.wrap(StoredPosts.encode(docs.get(docId)));
+    }
+
+    @Override
+    public int docId(String postId) {
+        Integer docId = docIdsByPostId.get(postId);
+        return docId == null ? -1 : docId;
+    }
+
+    @Override
+    public List<String> postIds() {
+        return sorted(docIdsByPostId.keySet());
+    }
+
+    int size() {
+        return docIdsByPostId.size();
+    }
+
+    @Override
+    public int maxDoc() {
+        return docs.size();
+    }
+
+    // The bitmap and postings accessors return live buffer state; callers must not modify them
+
+    @Override
+    public RoaringBitmap liveDocs() {
+        return live;
+    }
+
+    @Override
+    public RoaringBitmap publishedDocs() {
+        return published;
+    }
+
+    @Override
+    public RoaringBitmap valueDocs(IndexField field, String value) {
+        return values.get(field).get(value);
+    }
+
+    @Override
+    public PostingsList postings(IndexField field, String term) {
+        return postings.get(field).get(term);
+    }
+
+    @Override
+    public List<String> terms(IndexField field) {
+        return sorted(field.isTokenized() ? postings.get(field).keySet() : values.get(field).keySet());
+    }
+
+    @Override
+    public int valueCount(IndexField field, int docId) {
+        return ords.get(field).get(docId).length;
+    }
+
+    @Override
+    public int valueOrd(IndexField field, int docId, int index) {
+        return ords.get(field).get(docId)[index];
+    }
+
+    @Override
+    public int ordCount(IndexField field) {
+        return ords.get(field).byOrd.size();
+    }
+
+    @Override
+    public String valueOfOrd(IndexField field, int ord) {
+        return ords.get(field).byOrd.get(ord);
+    }
+
+    @Override
+    public List<String> similar(String term, int maxEdits) {
+        return dictionary.similar(term, maxEdits);
+    }
+
+    @Override
+    public int fieldLength(IndexField field, int docId) {
+        return lengths.get(field).get(docId);
+    }
+
+    @Override
+    public long totalFieldLength(IndexField field) {
+        return lengths.get(field).total;
+    }
+
+    @Override
+    public int fieldDocCount(IndexField field) {
+        return lengths.get(field).docCount;
+    }
+
+    private static List<String> sorted(Collection<String> strings) {
+        List<String> sorted = new ArrayList<>(strings);
+        sorted.sort(SegmentWriter.TERM_ORDER);
+        return sorted;
+    }
+
+    private void forEachField(PostDto post, FieldConsumer consumer) {
+        acceptText(consumer, IndexField.TITLE, post.getTitle());
+        acceptText(consumer, IndexField.EXCERPT, post.getExcerpt());
+        acceptText(consumer, IndexField.CONTENT, post.getContent());
+        acceptText(consumer, IndexField.AUTHOR, post.getAuthorName());
+
+        if (post.getTags() != null && !post.getTags().isEmpty()) {
+            acceptValues(consumer, IndexField.TAG, post.getTags());
+        }
+        if (post.getCategory() != null) {
+            acceptValues(consumer, IndexField.CATEGORY, List.of(post.getCategory()));
+        }
+        if (post.getAuthorId() != null) {
+            acceptValues(consumer, IndexField.AUTHOR_ID, List.of(post.getAuthorId()));
+        }
+    }
+
+    private static void acceptText(FieldConsumer consumer, IndexField field, String text) {
+        List<String> tokens = Tokenizer.tokenize(text);
+        if (tokens.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> remaining = new HashMap<>();
+        for (String token : tokens) {
+            remaining.merge(token, 1, Integer::sum);
+        }
+        // Filled from the back, so each term's array is sized by its first (last-position) sighting
+        Map<String, int[]> termPositions = new HashMap<>(remaining.size() * 2);
+        for (int position = tokens.size() - 1; position >= 0; position--) {
+            String token = tokens.get(position);
+            int occurrence = remaining.merge(token, -1, Integer::sum);
+            termPositions.computeIfAbsent(token, t -> new int[occurrence + 1])[occurrence] = position;
+        }
+        consumer.accept(field, termPositions, tokens.size());
+    }
+
+    private static void acceptValues(FieldConsumer consumer, IndexField field, Collection<String> values) {
+        Map<String, int[]> termPositions = new HashMap<>();
+        for (String value : values) {
+            termPositions.put(value, FIRST_POSITION);
+        }
+        consumer.accept(field, termPositions, values.size());
+    }
+
+    private interface FieldConsumer {
+        void accept(IndexField field, Map<String, int[]> termPositions, int length);
+    }
+
+    // Per-doc value ordinals for one exact-value field; a removed doc keeps its entry but is never live again
+    private static final class ValueOrds {
+        private static final int[] NONE = new int[0];
+
+        private final Map<String, Integer> byValue = new HashMap<>();
+        private final List<String> byOrd = new ArrayList<>();
+        private int[][] byDoc = new int[16][];
+
+        void set(int docId, Collection<String> docValues) {
+            int[] docOrds = new int[docValues.size()];
+            int i = 0;
+            for (String value : docValues) {
+                docOrds[i++] = byValue.computeIfAbsent(value, v -> {
+                    byOrd.add(v);
+                    return byOrd.size() - 1;
+                });
+            }
+            if (docId >= byDoc.length) {
+                byDoc = Arrays.copyOf(byDoc, Math.max(byDoc.length * 2, docId + 1));
+            }
+            byDoc[docId] = docOrds;
+        }
+
+        int[] get(int docId) {
+            int[] docOrds = docId < byDoc.length ? byDoc[docId] : null;
+            return docOrds == null ? NONE : docOrds;
+        }
+    }
+
+    // Per-doc token counts for one field, used as BM25 length norms
+    private static final class FieldLengths {
+        private int[] byDoc = new int[16];
+        private long total;
+        private int docCount;
+
+        void set(int docId, int length) {
+            if (docId >= byDoc.length) {
+                byDoc = Arrays.copyOf(byDoc, Math.max(byDoc.length * 2, docId + 1));
+            }
+            int previous = byDoc[docId];
+            byDoc[docId] = length;
+            total += length - previous;
+            docCount += Integer.signum(length) - Integer.signum(previous);
+        }
+
+        int get(int docId) {
+            return docId < byDoc.length ? byDoc[docId] : 0;
+        }
+    }
+}
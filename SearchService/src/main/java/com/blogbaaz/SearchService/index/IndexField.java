@@ -0,0 +1,24 @@
+package com.blogbaaz.SearchService.index;
+
+public enum IndexField {
+    // Tokenized full-text fields
+    TITLE(true),
+    EXCERPT(true),
+    CONTENT(true),
+    AUTHOR(true),
+
+    // Exact-value fields
+    TAG(false),
+    CATEGORY(false),
+    AUTHOR_ID(false);
+
+    private final boolean tokenized;
+
+    IndexField(boolean tokenized) {
+        this.tokenized = tokenized;
+    }
+
+    public boolean isTokenized() {
+        return tokenized;
+    }
+}
@@ -0,0 +1,69 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.dtos.PostDto;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * One slice of the index with its own doc ids from zero: a mapped
+ * {@link IndexSegment} or the in-memory {@link IndexBuffer}. Term and postId
+ * lists are in {@link SegmentWriter#TERM_ORDER}, so parts can be merged
+ * without sorting.
+ */
+interface IndexPart {
+
+    // Doc ids handed out, including ones no longer live
+    int maxDoc();
+
+    RoaringBitmap liveDocs();
+
+    RoaringBitmap publishedDocs();
+
+    PostDto doc(int docId);
+
+    // The post without its content
+    PostDto summary(int docId);
+
+    String postId(int docId);
+
+    String title(int docId);
+
+    long sortValue(SortField field, int docId);
+
+    // The post as stored in a segment
+    ByteBuffer storedBytes(int docId);
+
+    // Live doc for the post, or -1
+    int docId(String postId);
+
+    List<String> postIds();
+
+    // Null when the term does not occur
+    Postings postings(IndexField field, String term);
+
+    // Null when no doc has the value
+    RoaringBitmap valueDocs(IndexField field, String value);
+
+    List<String> terms(IndexField field);
+
+    // Exact-value field values of a doc as ordinals, for counting facets without loading posts
+    int valueCount(IndexField field, int docId);
+
+    int valueOrd(IndexField field, int docId, int index);
+
+    // Ordinals run from zero to below this
+    int ordCount(IndexField field);
+
+    String valueOfOrd(IndexField field, int ord);
+
+    int fieldLength(IndexField field, int docId);
+
+    long totalFieldLength(IndexField field);
+
+    // Docs with a non-empty value for the field
+    int fieldDocCount(IndexField field);
+
+    List<String> similar(String term, int maxEdits);
+}
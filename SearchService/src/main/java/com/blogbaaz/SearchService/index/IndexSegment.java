@@ -0,0 +1,358 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.dtos.PostDto;
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.EnumMap;
+import java.util.List;
+
+/**
+ * Immutable index part written by {@link SegmentWriter} and read in place
+ * from a memory-mapped file, so opening one costs a few reads of its footer
+ * and the OS page cache holds the data instead of the heap. All reads are
+ * absolute, so any number of threads can share a segment.
+ */
+final class IndexSegment implements IndexPart {
+
+    static final int MAGIC = 0x42425347;
+    // Segments of an older version are not read; the index is rebuilt from PostService instead.
+    // Also bumped when analysis changes, since older segments hold terms queries no longer produce
+    static final int VERSION = 4;
+    // Directory position, magic and version
+    static final int FOOTER_BYTES = 12;
+
+    private final String name;
+    private final ByteBuffer data;
+    private final int maxDoc;
+    private final int storedOffsetsAt;
+    private final EnumMap<SortField, Integer> docValuesAt = new EnumMap<>(SortField.class);
+    private final EnumMap<IndexField, TextField> textFields = new EnumMap<>(IndexField.class);
+    private final EnumMap<IndexField, BitmapTable> valueFields = new EnumMap<>(IndexField.class);
+    private final EnumMap<IndexField, OrdColumn> ordColumns = new EnumMap<>(IndexField.class);
+    private final RoaringBitmap published;
+    private final Table postIds;
+    private final int postIdDocsAt;
+    private final Table fuzzyTerms;
+    private final BitmapTable trigrams;
+
+    private IndexSegment(String name, ByteBuffer data) throws IOException {
+        this.name = name;
+        this.data = data;
+        int footer = data.capacity() - FOOTER_BYTES;
+        if (footer < 0 || data.getInt(footer + 4) != MAGIC || data.getInt(footer + 8) != VERSION) {
+            throw new IOException("Not a search index segment: " + name);
+        }
+
+        // Mirrors the directory written by SegmentWriter
+        Reader in = new Reader(data.getInt(footer));
+        maxDoc = in.next();
+        storedOffsetsAt = in.next();
+        for (SortField field : SortField.values()) {
+            if (field.isNumeric()) {
+                docValuesAt.put(field, in.next());
+            }
+        }
+        for (IndexField field : IndexField.values()) {
+            if (field.isTokenized()) {
+                textFields.put(field, new TextField(in.next(), in.nextLong(), in.next(),
+                        new Table(in.next()), in.next(), in.next()));
+            } else {
+                valueFields.put(field, new BitmapTable(new Table(in.next()), in.next()));
+                ordColumns.put(field, new OrdColumn(in.next(), in.next()));
+            }
+        }
+        published = bitmapAt(in.next(), in.next()).toRoaringBitmap();
+        postIds = new Table(in.next());
+        postIdDocsAt = in.next();
+        fuzzyTerms = new Table(in.next());
+        trigrams = new BitmapTable(new Table(in.next()), in.next());
+    }
+
+    static IndexSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping outlives the channel
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new IndexSegment(path.getFileName().toString(), data);
+        }
+    }
+
+    String name() {
+        return name;
+    }
+
+    long sizeInBytes() {
+        return data.capacity();
+    }
+
+    @Override
+    public int maxDoc() {
+        return maxDoc;
+    }
+
+    // Deleted docs are dropped when a segment is written
+    @Override
+    public RoaringBitmap liveDocs() {
+        RoaringBitmap live = new RoaringBitmap();
+        live.add(0L, maxDoc);
+        return live;
+    }
+
+    @Override
+    public RoaringBitmap publishedDocs() {
+        return published;
+    }
+
+    @Override
+    public PostDto doc(int docId) {
+        return StoredPosts.decode(data, storedAt(docId), true);
+    }
+
+    @Override
+    public PostDto summary(int docId) {
+        return StoredPosts.decode(data, storedAt(docId), false);
+    }
+
+    @Override
+    public String postId(int docId) {
+        return StoredPosts.postId(data, storedAt(docId));
+    }
+
+    @Override
+    public String title(int docId) {
+        return StoredPosts.title(data, storedAt(docId));
+    }
+
+    @Override
+    public long sortValue(SortField field, int docId) {
+        if (!field.isNumeric()) {
+            throw new IllegalStateException("Titles are compared as text");
+        }
+        return data.getLong(docValuesAt.get(field) + 8 * docId);
+    }
+
+    @Override
+    public ByteBuffer storedBytes(int docId) {
+        int from = storedAt(docId);
+        return data.slice(from, storedAt(docId + 1) - from);
+    }
+
+    @Override
+    public int docId(String postId) {
+        int index = postIds.find(postId);
+        return index < 0 ? -1 : data.getInt(postIdDocsAt + 4 * index);
+    }
+
+    @Override
+    public List<String> postIds() {
+        return postIds;
+    }
+
+    @Override
+    public Postings postings(IndexField field, String term) {
+        TextField text = textFields.get(field);
+        int index = text.terms.find(term);
+        if (index < 0) {
+            return null;
+        }
+        return new SegmentPostings(data, data.getInt(text.postingsAt + 4 * index), data.getInt(text.dfAt + 4 * index));
+    }
+
+    @Override
+    public RoaringBitmap valueDocs(IndexField field, String value) {
+        ImmutableRoaringBitmap docs = valueFields.get(field).get(value);
+        return docs == null ? null : docs.toRoaringBitmap();
+    }
+
+    @Override
+    public List<String> terms(IndexField field) {
+        return field.isTokenized() ? textFields.get(field).terms : valueFields.get(field).keys;
+    }
+
+    @Override
+    public int valueCount(IndexField field, int docId) {
+        int offsetsAt = ordColumns.get(field).offsetsAt;
+        return data.getInt(offsetsAt + 4 * (docId + 1)) - data.getInt(offsetsAt + 4 * docId);
+    }
+
+    @Override
+    public int valueOrd(IndexField field, int docId, int index) {
+        OrdColumn column = ordColumns.get(field);
+        return data.getInt(column.ordsAt + 4 * (data.getInt(column.offsetsAt + 4 * docId) + index));
+    }
+
+    @Override
+    public int ordCount(IndexField field) {
+        return valueFields.get(field).keys.size();
+    }
+
+    @Override
+    public String valueOfOrd(IndexField field, int ord) {
+        return valueFields.get(field).keys.get(ord);
+    }
+
+    @Override
+    public int fieldLength(IndexField field, int docId) {
+        return data.getInt(textFields.get(field).lengthsAt + 4 * docId);
+    }
+
+    @Override
+    public long totalFieldLength(IndexField field) {
+        return textFields.get(field).totalLength;
+    }
+
+    @Override
+    public int fieldDocCount(IndexField field) {
+        return textFields.get(field).docCount;
+    }
+
+    @Override
+    public List<String> similar(String term, int maxEdits) {
+        return TermDictionary.similar(term, maxEdits, fuzzyTerms.size(),
+                trigrams::get, fuzzyTerms::get);
+    }
+
+    private int storedAt(int docId) {
+        return data.getInt(storedOffsetsAt + 4 * docId);
+    }
+
+    private ImmutableRoaringBitmap bitmapAt(int from, int to) {
+        return new ImmutableRoaringBitmap(data.slice(from, to - from));
+    }
+
+    private static final class TextField {
+        final int lengthsAt;
+        final long totalLength;
+        final int docCount;
+        final Table terms;
+        final int postingsAt;
+        final int dfAt;
+
+        TextField(int lengthsAt, long totalLength, int docCount, Table terms, int postingsAt, int dfAt) {
+            this.lengthsAt = lengthsAt;
+            this.totalLength = totalLength;
+            this.docCount = docCount;
+            this.terms = terms;
+            this.postingsAt = postingsAt;
+            this.dfAt = dfAt;
+        }
+    }
+
+    // Each doc's value ordinals start at its offset; the ordinals index the field's key table
+    private static final class OrdColumn {
+        final int offsetsAt;
+        final int ordsAt;
+
+        OrdColumn(int offsetsAt, int ordsAt) {
+            this.offsetsAt = offsetsAt;
+            this.ordsAt = ordsAt;
+        }
+    }
+
+    // Sorted keys, each with a serialized bitmap; the bitmaps lie back to back
+    private final class BitmapTable {
+        final Table keys;
+        final int boundsAt;
+
+        BitmapTable(Table keys, int boundsAt) {
+            this.keys = keys;
+            this.boundsAt = boundsAt;
+        }
+
+        ImmutableRoaringBitmap get(String key) {
+            int index = keys.find(key);
+            return index < 0 ? null
+                    : bitmapAt(data.getInt(boundsAt + 4 * index), data.getInt(boundsAt + 4 * (index + 1)));
+        }
+    }
+
+    /**
+     * Sorted UTF-8 strings: a count, count + 1 offsets into the bytes that
+     * follow, then the bytes. Looked up by binary search on the raw bytes,
+     * which order the same as {@link SegmentWriter#TERM_ORDER}.
+     */
+    private final class Table extends AbstractList<String> {
+        final int size;
+        final int offsetsAt;
+        final int bytesAt;
+
+        Table(int at) {
+            this.size = data.getInt(at);
+            this.offsetsAt = at + 4;
+            this.bytesAt = offsetsAt + 4 * (size + 1);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public String get(int index) {
+            int from = data.getInt(offsetsAt + 4 * index);
+            byte[] bytes = new byte[data.getInt(offsetsAt + 4 * (index + 1)) - from];
+            data.get(bytesAt + from, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        int find(String key) {
+            byte[] target = key.getBytes(StandardCharsets.UTF_8);
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = compareAt(mid, target);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        private int compareAt(int index, byte[] target) {
+            int from = bytesAt + data.getInt(offsetsAt + 4 * index);
+            int length = bytesAt + data.getInt(offsetsAt + 4 * (index + 1)) - from;
+            int common = Math.min(length, target.length);
+            for (int i = 0; i < common; i++) {
+                int cmp = Byte.toUnsignedInt(data.get(from + i)) - Byte.toUnsignedInt(target[i]);
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            return length - target.length;
+        }
+    }
+
+    // Sequential reads over the directory
+    private final class Reader {
+        private int pos;
+
+        Reader(int pos) {
+            this.pos = pos;
+        }
+
+        int next() {
+            int value = data.getInt(pos);
+            pos += 4;
+            return value;
+        }
+
+        long nextLong() {
+            long value = data.getLong(pos);
+            pos += 8;
+            return value;
+        }
+    }
+}
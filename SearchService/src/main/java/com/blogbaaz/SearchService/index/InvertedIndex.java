@@ -0,0 +1,457 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.dtos.PostDto;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.*;
+
+/**
+ * Term dictionary and postings over posts, keyed by a dense internal doc id.
+ * Made of immutable segments followed by an in-memory buffer that takes all
+ * new posts; each part's doc ids are shifted by the docs of the parts before
+ * it. Removing a post from a segment only marks it deleted until the segment
+ * is rewritten.
+ * Not thread-safe; {@link PostIndex} guards access.
+ */
+class InvertedIndex {
+
+    private static final RoaringBitmap EMPTY_BITMAP = new RoaringBitmap();
+
+    // The last part is always the buffer taking new posts
+    private final List<Part> parts = new ArrayList<>();
+    private int[] bases;
+    private IndexBuffer buffer;
+    private final RoaringBitmap live = new RoaringBitmap();
+    private final RoaringBitmap published = new RoaringBitmap();
+
+    InvertedIndex() {
+        this(List.of(), List.of());
+    }
+
+    InvertedIndex(List<? extends IndexPart> segments, List<RoaringBitmap> deletes) {
+        for (int i = 0; i < segments.size(); i++) {
+            parts.add(new Part(segments.get(i), deletes.get(i)));
+        }
+        buffer = new IndexBuffer();
+        parts.add(new Part(buffer, new RoaringBitmap()));
+        refresh();
+    }
+
+    // Returns the version of the post this replaces, if any
+    PostDto add(PostDto post) {
+        PostDto previous = remove(post.getPostId());
+        int docId = bufferBase() + buffer.add(post);
+        live.add(docId);
+        if (PostIndex.isPublished(post)) {
+            published.add(docId);
+        }
+        return previous;
+    }
+
+    PostDto remove(String postId) {
+        int bufferDocId = buffer.docId(postId);
+        if (bufferDocId >= 0) {
+            live.remove(bufferBase() + bufferDocId);
+            published.remove(bufferBase() + bufferDocId);
+            return buffer.remove(postId);
+        }
+        for (int i = parts.size() - 2; i >= 0; i--) {
+            Part part = parts.get(i);
+            int docId = part.reader.docId(postId);
+            if (docId >= 0 && !part.deletes.contains(docId)) {
+                part.deletes.add(docId);
+                live.remove(bases[i] + docId);
+                published.remove(bases[i] + docId);
+                return part.reader.doc(docId);
+            }
+        }
+        return null;
+    }
+
+    PostDto doc(int docId) {
+        int i = partOf(docId);
+        return parts.get(i).reader.doc(docId - bases[i]);
+    }
+
+    PostDto summary(int docId) {
+        int i = partOf(docId);
+        return parts.get(i).reader.summary(docId - bases[i]);
+    }
+
+    String postId(int docId) {
+        int i = partOf(docId);
+        return parts.get(i).reader.postId(docId - bases[i]);
+    }
+
+    String title(int docId) {
+        int i = partOf(docId);
+        return parts.get(i).reader.title(docId - bases[i]);
+    }
+
+    long sortValue(SortField field, int docId) {
+        int i = partOf(docId);
+        return parts.get(i).reader.sortValue(field, docId - bases[i]);
+    }
+
+    Integer docId(String postId) {
+        for (int i = parts.size() - 1; i >= 0; i--) {
+            Part part = parts.get(i);
+            int docId = part.reader.docId(postId);
+            if (docId >= 0 && !part.deletes.contains(docId)) {
+                return bases[i] + docId;
+            }
+        }
+        return null;
+    }
+
+    int size() {
+        return live.getCardinality();
+    }
+
+    int bufferedDocs() {
+        return buffer.size();
+    }
+
+    // Whether postings and value bitmaps may still list deleted docs
+    boolean hasDeletions() {
+        for (Part part : parts) {
+            if (!part.deletes.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The bitmap accessors may return live index state; callers must not modify them
+
+    RoaringBitmap liveDocs() {
+        return live;
+    }
+
+    RoaringBitmap publishedDocs() {
+        return published;
+    }
+
+    RoaringBitmap valueDocs(IndexField field, String value) {
+        if (parts.size() == 1) {
+            RoaringBitmap bitmap = buffer.valueDocs(field, value);
+            return bitmap == null ? EMPTY_BITMAP : bitmap;
+        }
+        RoaringBitmap docs = new RoaringBitmap();
+        for (int i = 0; i < parts.size(); i++) {
+            RoaringBitmap bitmap = parts.get(i).reader.valueDocs(field, value);
+            if (bitmap != null) {
+                docs.or(bases[i] == 0 ? bitmap : RoaringBitmap.addOffset(bitmap, bases[i]));
+            }
+        }
+        return docs;
+    }
+
+    Postings postings(IndexField field, String term) {
+        List<Postings> found = new ArrayList<>(parts.size());
+        List<Integer> foundBases = new ArrayList<>(parts.size());
+        for (int i = 0; i < parts.size(); i++) {
+            Postings postings = parts.get(i).reader.postings(field, term);
+            if (postings != null && postings.size() > 0) {
+                found.add(postings);
+                foundBases.add(bases[i]);
+            }
+        }
+        if (found.isEmpty()) {
+            return null;
+        }
+        if (found.size() == 1 && foundBases.get(0) == 0) {
+            return found.get(0);
+        }
+        return new MultiPostings(found.toArray(new Postings[0]), foundBases.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    // Docs containing the term in any keyword-searchable field, counted per field
+    int documentFrequency(String term) {
+        int df = 0;
+        for (Part part : parts) {
+            for (IndexField field : Bm25Scorer.FIELDS) {
+                Postings postings = part.reader.postings(field, term);
+                df += postings == null ? 0 : postings.size();
+            }
+        }
+        return df;
+    }
+
+    // Published posts containing each term, counted per field like documentFrequency
+    Map<String, Integer> termFrequencies() {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (Part part : parts) {
+            RoaringBitmap visible = RoaringBitmap.and(part.reader.publishedDocs(),
+                    RoaringBitmap.andNot(part.reader.liveDocs(), part.deletes));
+            boolean allVisible = visible.getLongCardinality() == part.reader.maxDoc();
+            for (IndexField field : Bm25Scorer.FIELDS) {
+                for (String term : part.reader.terms(field)) {
+                    Postings postings = part.reader.postings(field, term);
+                    int df = postings == null ? 0
+                            : allVisible ? postings.size() : RoaringBitmap.andCardinality(postings.toBitmap(), visible);
+                    if (df > 0) {
+                        frequencies.merge(term, df, Integer::sum);
+                    }
+                }
+            }
+        }
+        return frequencies;
+    }
+
+    /**
+     * The term plus up to maxExpansions indexed terms within its edit budget,
+     * closest and then most common first. With onlyIfMissing, variants are
+     * only added when the term itself matches nothing.
+     */
+    QueryTerm expand(String term, int maxExpansions, boolean onlyIfMissing) {
+        if (maxExpansions <= 0 || (onlyIfMissing && documentFrequency(term) > 0)) {
+            return QueryTerm.exact(term);
+        }
+        return pickVariants(term, variantFrequencies(term), maxExpansions);
+    }
+
+    // Indexed terms within the term's edit budget, the term itself included, with their documentFrequency
+    Map<String, Long> variantFrequencies(String term) {
+        int maxEdits = EditDistance.maxEdits(term.length());
+        Set<String> candidates = new LinkedHashSet<>();
+        candidates.add(term);
+        for (Part part : parts) {
+            candidates.addAll(part.reader.similar(term, maxEdits));
+        }
+        Map<String, Long> frequencies = new HashMap<>();
+        for (String candidate : candidates) {
+            int df = documentFrequency(candidate);
+            if (df > 0) {
+                frequencies.put(candidate, (long) df);
+            }
+        }
+        return frequencies;
+    }
+
+    // The expansion picked from variant frequencies, which may be summed over several indexes
+    static QueryTerm pickVariants(String term, Map<String, Long> frequencies, int maxExpansions) {
+        int maxEdits = EditDistance.maxEdits(term.length());
+        Map<String, Integer> distances = new HashMap<>();
+        for (String candidate : frequencies.keySet()) {
+            if (!candidate.equals(term)) {
+                distances.put(candidate, EditDistance.distance(term, candidate, maxEdits));
+            }
+        }
+        List<String> fuzzy = distances.keySet().stream()
+                .sorted(Comparator.<String>comparingInt(distances::get)
+                        .thenComparing(frequencies::get, Comparator.reverseOrder())
+                        .thenComparing(Comparator.naturalOrder()))
+                .limit(maxExpansions)
+                .toList();
+
+        List<String> variants = new ArrayList<>(fuzzy.size() + 1);
+        int[] variantDistances = new int[fuzzy.size() + 1];
+        variants.add(term);
+        for (int i = 0; i < fuzzy.size(); i++) {
+            variants.add(fuzzy.get(i));
+            variantDistances[i + 1] = distances.get(fuzzy.get(i));
+        }
+        return new QueryTerm(variants, variantDistances);
+    }
+
+    int fieldLength(IndexField field, int docId) {
+        int i = partOf(docId);
+        return parts.get(i).reader.fieldLength(field, docId - bases[i]);
+    }
+
+    double averageFieldLength(IndexField field) {
+        long docCount = fieldDocCount(field);
+        return docCount == 0 ? 0 : (double) totalFieldLength(field) / docCount;
+    }
+
+    long totalFieldLength(IndexField field) {
+        long total = 0;
+        for (Part part : parts) {
+            total += part.reader.totalFieldLength(field);
+        }
+        return total;
+    }
+
+    long fieldDocCount(IndexField field) {
+        long docCount = 0;
+        for (Part part : parts) {
+            docCount += part.reader.fieldDocCount(field);
+        }
+        return docCount;
+    }
+
+    /**
+     * Summaries of all live posts, read lazily. Segments never change and the
+     * buffer's posts are copied up front, so the result stays valid after the
+     * caller lets go of the index.
+     */
+    Collection<PostDto> summaries() {
+        return live(false);
+    }
+
+    // All live posts with their content, read lazily like summaries
+    Collection<PostDto> posts() {
+        return live(true);
+    }
+
+    private Collection<PostDto> live(boolean withContent) {
+        List<IndexPart> readers = new ArrayList<>();
+        List<RoaringBitmap> docs = new ArrayList<>();
+        List<PostDto> buffered = new ArrayList<>(buffer.size());
+        for (Part part : parts) {
+            if (part.reader == buffer) {
+                buffer.liveDocs().forEach((int docId) -> buffered.add(withContent ? buffer.doc(docId) : buffer.summary(docId)));
+            } else {
+                readers.add(part.reader);
+                docs.add(RoaringBitmap.andNot(part.reader.liveDocs(), part.deletes));
+            }
+        }
+        int size = size();
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<PostDto> iterator() {
+                return new Iterator<>() {
+                    private int part;
+                    private PeekableIntIterator it = readers.isEmpty() ? null : docs.get(0).getIntIterator();
+                    private final Iterator<PostDto> tail = buffered.iterator();
+
+                    @Override
+                    public boolean hasNext() {
+                        while (it != null && !it.hasNext()) {
+                            it = ++part < readers.size() ? docs.get(part).getIntIterator() : null;
+                        }
+                        return it != null || tail.hasNext();
+                    }
+
+                    @Override
+                    public PostDto next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        if (it == null) {
+                            return tail.next();
+                        }
+                        IndexPart reader = readers.get(part);
+                        return withContent ? reader.doc(it.next()) : reader.summary(it.next());
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    // Feeds the docs, a subset of the live ones, to the collector part by part in one ordered pass
+    void collectFacets(RoaringBitmap docs, FacetCollector collector) {
+        PeekableIntIterator it = docs.getIntIterator();
+        for (int i = 0; i < parts.size() && it.hasNext(); i++) {
+            int end = i + 1 < bases.length ? bases[i + 1] : Integer.MAX_VALUE;
+            if (it.peekNext() >= end) {
+                continue;
+            }
+            collector.startPart(parts.get(i).reader);
+            while (it.hasNext() && it.peekNext() < end) {
+                collector.collect(it.next() - bases[i]);
+            }
+            collector.finishPart();
+        }
+    }
+
+    // Parts to flush: the current buffer, plus any left from a flush that failed
+    List<Part> freeze() {
+        if (buffer.size() > 0) {
+            buffer = new IndexBuffer();
+            parts.add(new Part(buffer, new RoaringBitmap()));
+            refresh();
+        }
+        return parts.stream().filter(part -> part.reader instanceof IndexBuffer && part.reader != buffer).toList();
+    }
+
+    List<Part> segments() {
+        return parts.stream().filter(part -> part.reader instanceof IndexSegment).toList();
+    }
+
+    /**
+     * Swaps adjacent parts for the segment written from them. Deletes made
+     * since the write started are carried over through the doc maps.
+     */
+    void replace(List<Part> replaced, List<RoaringBitmap> deletesAtWrite, IndexSegment segment, int[][] docMaps) {
+        int at = parts.indexOf(replaced.get(0));
+        if (at < 0 || !parts.subList(at, Math.min(at + replaced.size(), parts.size())).equals(replaced)) {
+            throw new IllegalStateException("Replaced index parts are no longer in place");
+        }
+        RoaringBitmap deletes = new RoaringBitmap();
+        for (int i = 0; i < replaced.size(); i++) {
+            int[] docMap = docMaps[i];
+            RoaringBitmap.andNot(replaced.get(i).deletes, deletesAtWrite.get(i)).forEach((int docId) -> {
+                if (docMap[docId] >= 0) {
+                    deletes.add(docMap[docId]);
+                }
+            });
+        }
+        parts.subList(at, at + replaced.size()).clear();
+        parts.add(at, new Part(segment, deletes));
+        refresh();
+    }
+
+    private int bufferBase() {
+        return bases[bases.length - 1];
+    }
+
+    private int partOf(int docId) {
+        int i = Arrays.binarySearch(bases, docId);
+        if (i < 0) {
+            return -i - 2;
+        }
+        // Parts without docs share a base with the next one
+        while (i + 1 < bases.length && bases[i + 1] == docId) {
+            i++;
+        }
+        return i;
+    }
+
+    // Recomputes doc bases and the live and published bitmaps after the parts change
+    private void refresh() {
+        bases = new int[parts.size()];
+        live.clear();
+        published.clear();
+        int base = 0;
+        for (int i = 0; i < parts.size(); i++) {
+            Part part = parts.get(i);
+            bases[i] = base;
+            RoaringBitmap partLive = RoaringBitmap.andNot(part.reader.liveDocs(), part.deletes);
+            live.or(RoaringBitmap.addOffset(partLive, base));
+            published.or(RoaringBitmap.addOffset(RoaringBitmap.and(part.reader.publishedDocs(), partLive), base));
+            base += part.reader.maxDoc();
+        }
+    }
+
+    // One part of the index with the docs deleted from it since it was written
+    static final class Part {
+        private final IndexPart reader;
+        private final RoaringBitmap deletes;
+
+        Part(IndexPart reader, RoaringBitmap deletes) {
+            this.reader = reader;
+            this.deletes = deletes;
+        }
+
+        IndexPart reader() {
+            return reader;
+        }
+
+        // A copy; the caller holds the index lock
+        RoaringBitmap deletes() {
+            return deletes.clone();
+        }
+
+        double deletedRatio() {
+            return reader.maxDoc() == 0 ? 0 : (double) deletes.getCardinality() / reader.maxDoc();
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.dtos.PostDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A parsed keyword. Bare words and "quoted phrases" must all match in the
+ * title, excerpt or content; +word says the same explicitly, -word excludes,
+ * and OR between two clauses lets either one satisfy them. field:word or
+ * field:"phrase" limits a clause to one field: title: and author: match words
+ * of the title and author name, tag: and category: exact values. A word the
+ * tokenizer splits (e-mail, node.js) is matched as a phrase. Parsed queries
+ * are immutable and cached by keyword, since the same searches recur.
+ */
+public final class KeywordQuery {
+
+    static final KeywordQuery EMPTY = new KeywordQuery(List.of(), List.of());
+    private static final int PARSED_CACHE_SIZE = 10_000;
+    private static final Cache<String, KeywordQuery> PARSED = Caffeine.newBuilder()
+            .maximumSize(PARSED_CACHE_SIZE)
+            .build();
+
+    enum Field {
+        // Any of the scored text fields
+        TEXT(null),
+        TITLE(IndexField.TITLE),
+        AUTHOR(IndexField.AUTHOR),
+        TAG(IndexField.TAG),
+        CATEGORY(IndexField.CATEGORY);
+
+        private final IndexField indexField;
+
+        Field(IndexField indexField) {
+            this.indexField = indexField;
+        }
+
+        IndexField indexField() {
+            return indexField;
+        }
+
+        boolean isExact() {
+            return indexField != null && !indexField.isTokenized();
+        }
+
+        // Null when the prefix is not a field name, so "http://..." stays a word
+        static Field ofPrefix(String prefix) {
+            return switch (prefix.toLowerCase(Locale.ROOT)) {
+                case "title" -> TITLE;
+                case "author" -> AUTHOR;
+                case "tag" -> TAG;
+                case "category" -> CATEGORY;
+                default -> null;
+            };
+        }
+    }
+
+    /**
+     * One thing to look for: a value of an exact field, or one or more tokens
+     * of a text field that must appear in order, one after another.
+     */
+    record Atom(Field field, List<String> terms, String value) {
+
+        static Atom text(Field field, List<String> terms) {
+            return new Atom(field, List.copyOf(terms), null);
+        }
+
+        static Atom exact(Field field, String value) {
+            return new Atom(field, List.of(), value);
+        }
+
+        boolean isPhrase() {
+            return terms.size() > 1;
+        }
+
+        // A lone word anywhere in the text, the only kind expanded with fuzzy variants
+        boolean isFuzzable() {
+            return field == Field.TEXT && terms.size() == 1;
+        }
+
+        // Loose check against a post: text atoms need their words somewhere in it, not in order or in the field
+        boolean mayMatch(PostDto post, Set<String> postTerms, boolean fuzzy) {
+            return switch (field) {
+                case TAG -> post.getTags() != null && post.getTags().contains(value);
+                case CATEGORY -> value.equals(post.getCategory());
+                case AUTHOR -> Tokenizer.tokenize(post.getAuthorName()).containsAll(terms);
+                case TEXT, TITLE -> terms.stream().allMatch(term -> postTerms.contains(term)
+                        || fuzzy && isFuzzable() && maybeVariant(term, postTerms));
+            };
+        }
+
+        private static boolean maybeVariant(String term, Set<String> postTerms) {
+            int maxEdits = EditDistance.maxEdits(term.length());
+            return maxEdits > 0 && postTerms.stream().anyMatch(postTerm -> EditDistance.within(term, postTerm, maxEdits));
+        }
+    }
+
+    // Clauses that must all hold, each met by any one of its atoms
+    private final List<List<Atom>> required;
+    private final List<Atom> excluded;
+
+    KeywordQuery(List<List<Atom>> required, List<Atom> excluded) {
+        this.required = required;
+        this.excluded = excluded;
+    }
+
+    List<List<Atom>> required() {
+        return required;
+    }
+
+    List<Atom> excluded() {
+        return excluded;
+    }
+
+    boolean isEmpty() {
+        return required.isEmpty() && excluded.isEmpty();
+    }
+
+    /**
+     * Whether the post might match, given the tokens of its title, excerpt
+     * and content. Never false for a post that matches; exclusions are not
+     * checked, since a post losing an excluded word can start matching.
+     */
+    public boolean mayMatch(PostDto post, Set<String> postTerms, boolean fuzzy) {
+        for (List<Atom> clause : required) {
+            if (clause.stream().noneMatch(atom -> atom.mayMatch(post, postTerms, fuzzy))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Distinct tokens that rank and highlight a match: words of required text atoms in the scored fields
+    List<String> scoredTerms() {
+        Set<String> terms = new LinkedHashSet<>();
+        for (List<Atom> clause : required) {
+            for (Atom atom : clause) {
+                if (atom.field() == Field.TEXT || atom.field() == Field.TITLE) {
+                    terms.addAll(atom.terms());
+                }
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    // Distinct words that may be matched by fuzzy variants
+    List<String> fuzzyTerms() {
+        Set<String> terms = new LinkedHashSet<>();
+        for (List<Atom> clause : required) {
+            for (Atom atom : clause) {
+                if (atom.isFuzzable()) {
+                    terms.add(atom.terms().get(0));
+                }
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    public static KeywordQuery parse(String keyword) {
+        if (keyword == null || keyword.isBlank()) {
+            return EMPTY;
+        }
+        return PARSED.get(keyword, KeywordQuery::parseUncached);
+    }
+
+    private static KeywordQuery parseUncached(String keyword) {
+        List<List<Atom>> required = new ArrayList<>();
+        List<Atom> excluded = new ArrayList<>();
+        // Whether the last clause may take an OR alternative, and whether one is pending
+        boolean canJoin = false;
+        boolean joining = false;
+
+        Lexer lexer = new Lexer(keyword);
+        for (Lexer.Token token = lexer.next(); token != null; token = lexer.next()) {
+            if (token.isOr()) {
+                joining = canJoin;
+                continue;
+            }
+            Atom atom = token.atom();
+            if (atom == null) {
+                // Nothing searchable in it, like a lone punctuation mark
+                continue;
+            }
+            if (token.prefix() == '-') {
+                excluded.add(atom);
+                canJoin = false;
+                joining = false;
+                continue;
+            }
+            if (joining && token.prefix() == 0) {
+                required.get(required.size() - 1).add(atom);
+            } else {
+                List<Atom> clause = new ArrayList<>(2);
+                clause.add(atom);
+                required.add(clause);
+            }
+            // An explicit +clause stands on its own
+            canJoin = token.prefix() != '+';
+            joining = false;
+        }
+        return new KeywordQuery(required.stream().map(List::copyOf).toList(), List.copyOf(excluded));
+    }
+
+    // Splits the keyword into optionally prefixed, optionally fielded words and quoted phrases
+    private static final class Lexer {
+        private final String text;
+        private int at;
+
+        Lexer(String text) {
+            this.text = text;
+        }
+
+        record Token(char prefix, Field field, String text, boolean quoted) {
+
+            boolean isOr() {
+                return prefix == 0 && field == Field.TEXT && !quoted && "OR".equals(text);
+            }
+
+            Atom atom() {
+                if (field.isExact()) {
+                    return text.isEmpty() ? null : Atom.exact(field, text);
+                }
+                List<String> terms = Tokenizer.tokenize(text);
+                return terms.isEmpty() ? null : Atom.text(field, terms);
+            }
+        }
+
+        Token next() {
+            while (at < text.length() && Character.isWhitespace(text.charAt(at))) {
+                at++;
+            }
+            if (at == text.length()) {
+                return null;
+            }
+            char prefix = 0;
+            if ((text.charAt(at) == '+' || text.charAt(at) == '-') && at + 1 < text.length()
+                    && !Character.isWhitespace(text.charAt(at + 1))) {
+                prefix = text.charAt(at++);
+            }
+            Field field = Field.TEXT;
+            int colon = fieldColon();
+            if (colon > 0) {
+                field = Field.ofPrefix(text.substring(at, colon));
+                at = colon + 1;
+            }
+            if (at < text.length() && text.charAt(at) == '"') {
+                int close = text.indexOf('"', at + 1);
+                int end = close < 0 ? text.length() : close;
+                String phrase = text.substring(at + 1, end);
+                at = close < 0 ? end : close + 1;
+                return new Token(prefix, field, phrase.trim(), true);
+            }
+            int start = at;
+            while (at < text.length() && !Character.isWhitespace(text.charAt(at))) {
+                at++;
+            }
+            return new Token(prefix, field, text.substring(start, at), false);
+        }
+
+        // Position of the colon ending a known field name at the cursor, or -1
+        private int fieldColon() {
+            int i = at;
+            while (i < text.length() && Character.isLetter(text.charAt(i))) {
+                i++;
+            }
+            if (i == at || i >= text.length() - 1 || text.charAt(i) != ':' || Character.isWhitespace(text.charAt(i + 1))) {
+                return -1;
+            }
+            return Field.ofPrefix(text.substring(at, i)) == null ? -1 : i;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.blogbaaz.SearchService.index;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.Arrays;
+
+/**
+ * Postings of several index parts seen as one list. Each part numbers its
+ * docs from zero and is shifted by its doc base; parts are in base order, so
+ * the combined list stays sorted.
+ */
+final class MultiPostings implements Postings {
+
+    private final Postings[] parts;
+    private final int[] bases;
+    // Position in the combined list where each part starts, plus the total size
+    private final int[] starts;
+    // Part of the last lookup; scoring walks the list in order. Instances are per query, so never shared
+    private int lastPart;
+
+    MultiPostings(Postings[] parts, int[] bases) {
+        this.parts = parts;
+        this.bases = bases;
+        this.starts = new int[parts.length + 1];
+        for (int i = 0; i < parts.length; i++) {
+            starts[i + 1] = starts[i] + parts[i].size();
+        }
+    }
+
+    @Override
+    public int size() {
+        return starts[parts.length];
+    }
+
+    @Override
+    public int docAt(int index) {
+        int part = partAt(index);
+        return bases[part] + parts[part].docAt(index - starts[part]);
+    }
+
+    @Override
+    public int freqAt(int index) {
+        int part = partAt(index);
+        return parts[part].freqAt(index - starts[part]);
+    }
+
+    @Override
+    public int positionAt(int index, int occurrence) {
+        int part = partAt(index);
+        return parts[part].positionAt(index - starts[part], occurrence);
+    }
+
+    @Override
+    public int indexOf(int docId) {
+        int part = Arrays.binarySearch(bases, docId);
+        if (part < 0) {
+            part = -part - 2;
+        }
+        if (part < 0) {
+            return -1;
+        }
+        int pos = parts[part].indexOf(docId - bases[part]);
+        return pos >= 0 ? starts[part] + pos : -1;
+    }
+
+    @Override
+    public RoaringBitmap toBitmap() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int i = 0; i < parts.length; i++) {
+            bitmap.or(RoaringBitmap.addOffset(parts[i].toBitmap(), bases[i]));
+        }
+        return bitmap;
+    }
+
+    private int partAt(int index) {
+        if (index >= starts[lastPart] && index < starts[lastPart + 1]) {
+            return lastPart;
+        }
+        lastPart = findPart(index);
+        return lastPart;
+    }
+
+    private int findPart(int index) {
+        int part = Arrays.binarySearch(starts, 0, parts.length, index);
+        // Empty parts share a start with the next one; take the last part starting there
+        if (part >= 0) {
+            while (part + 1 < parts.length && starts[part + 1] == index) {
+                part++;
+            }
+            return part;
+        }
+        return -part - 2;
+    }
+}
@@ -0,0 +1,130 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.clients.PostServiceClient;
+import com.blogbaaz.SearchService.config.SearchConfig;
+import com.blogbaaz.SearchService.dtos.PostChangeFeed;
+import com.blogbaaz.SearchService.dtos.PostDto;
+import feign.Request;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps {@link PostIndex} current after a full load or restore by long-polling
+ * PostService's change feed and applying each changed post as it is now.
+ * Follows the feed from the index's own position, set by the last full load
+ * or restore, so nothing committed during a load is missed; changes already
+ * in the index are simply applied again.
+ */
+@Component
+@Slf4j
+public class PostChangeFollower {
+
+    // Headroom over the server-side wait before the read times out
+    private static final long READ_TIMEOUT_MARGIN_MS = 5000;
+    // PostService batches these into one COUNTED change per post; the others are older rows
+    private static final Set<String> COUNTER_CHANGES = Set.of("COUNTED", "VIEWED", "LIKED", "COMMENTED");
+
+    // Long polls go straight to PostService: hedging or a request deadline would cut them short
+    private final PostServiceClient postServiceClient;
+    private final PostIndex postIndex;
+    private final PostIndexLoader postIndexLoader;
+    private final SearchConfig.Changes config;
+    private final Request.Options pollOptions;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public PostChangeFollower(PostServiceClient postServiceClient, PostIndex postIndex,
+                              PostIndexLoader postIndexLoader, SearchConfig searchConfig) {
+        this.postServiceClient = postServiceClient;
+        this.postIndex = postIndex;
+        this.postIndexLoader = postIndexLoader;
+        this.config = searchConfig.getChanges();
+        this.pollOptions = new Request.Options(
+                searchConfig.getPostService().getTimeoutMs(), TimeUnit.MILLISECONDS,
+                config.getWaitMs() + READ_TIMEOUT_MARGIN_MS, TimeUnit.MILLISECONDS, true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::follow, "post-change-follower");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void follow() {
+        while (running) {
+            long after = postIndex.changeSeq();
+            try {
+                if (after < 0) {
+                    // Until a full load or restore has told us where the feed stood
+                    Thread.sleep(config.getRetryDelayMs());
+                    continue;
+                }
+                PostChangeFeed feed = postServiceClient.getChanges(after, config.getBatchSize(), config.getWaitMs(), pollOptions);
+                if (feed.isResyncRequired()) {
+                    log.warn("Change feed no longer holds changes after {}, reloading the search index", after);
+                    postIndexLoader.reload();
+                    continue;
+                }
+                apply(after, feed);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Reading the post change feed failed, retrying in {} ms: {}", config.getRetryDelayMs(), e.getMessage());
+                try {
+                    Thread.sleep(config.getRetryDelayMs());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Each changed post once, in the order it first changed; a post missing from the batch was deleted
+    private void apply(long after, PostChangeFeed feed) {
+        Map<String, PostDto> posts = feed.getPosts().stream()
+                .collect(Collectors.toMap(PostDto::getPostId, Function.identity(), (a, b) -> b));
+        Set<String> postIds = feed.getChanges().stream()
+                .map(PostChangeFeed.Change::getPostId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        // Posts with nothing but counter changes in this batch
+        Set<String> countersOnly = new HashSet<>(postIds);
+        for (PostChangeFeed.Change change : feed.getChanges()) {
+            if (!COUNTER_CHANGES.contains(change.getType())) {
+                countersOnly.remove(change.getPostId());
+            }
+        }
+        // Dropped if a full load or restore swapped in meanwhile; the next poll starts from its position
+        if (postIndex.applyChanges(after, feed.getLastSeq(), postIds, posts, countersOnly) && !postIds.isEmpty()) {
+            log.debug("Applied {} post changes up to {}", feed.getChanges().size(), feed.getLastSeq());
+        }
+    }
+}
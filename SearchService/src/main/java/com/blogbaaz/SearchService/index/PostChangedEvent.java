@@ -0,0 +1,25 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.dtos.PostDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by {@link PostIndex} after a single post is added, replaced or
+ * removed. {@code previous} is null for a new post, {@code current} is null
+ * for a removed one. {@code countersOnly} is set when the change feed
+ * reported nothing but view, like and comment count changes for the post,
+ * which leave what it matches and where it is indexed as they were.
+ */
+@Getter
+@AllArgsConstructor
+public class PostChangedEvent {
+
+    private final PostDto previous;
+    private final PostDto current;
+    private final boolean countersOnly;
+
+    public PostChangedEvent(PostDto previous, PostDto current) {
+        this(previous, current, false);
+    }
+}
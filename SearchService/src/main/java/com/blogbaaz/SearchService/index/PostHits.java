@@ -0,0 +1,30 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.dtos.FacetCount;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+// One page of hits plus the number of posts that matched overall
+@Getter
+@AllArgsConstructor
+public class PostHits {
+    private final List<ScoredPost> hits;
+    private final long totalHits;
+    // Where the next page starts, or null when this page is the last
+    private final SearchCursor next;
+    // Counts per requested facet over every match, or null when none were asked for
+    private final Map<String, List<FacetCount>> facets;
+    // Shards that did not answer in time, so their posts are missing; empty when nothing is
+    private final List<Integer> missingShards;
+
+    public PostHits(List<ScoredPost> hits, long totalHits) {
+        this(hits, totalHits, null, null);
+    }
+
+    public PostHits(List<ScoredPost> hits, long totalHits, SearchCursor next, Map<String, List<FacetCount>> facets) {
+        this(hits, totalHits, next, facets, List.of());
+    }
+}
@@ -0,0 +1,668 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.config.SearchConfig;
+import com.blogbaaz.SearchService.dtos.FacetCount;
+import com.blogbaaz.SearchService.dtos.PostDto;
+import com.blogbaaz.SearchService.dtos.PostSummaryDto;
+import com.blogbaaz.SearchService.metrics.SearchTimings;
+import com.blogbaaz.SearchService.metrics.SearchTimings.Stage;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Search index over PostService data. Query methods mirror the
+ * PostServiceClient list endpoints so SearchService can answer them locally.
+ * <p>
+ * With search.index.persistent on, posts live in memory-mapped segment files
+ * and only recent changes are held on the heap until the next flush. A
+ * checkpoint records the segments and the change feed position they are
+ * current to, so a restart reopens them and catches up from the feed instead
+ * of reloading every post. Small segments are merged in the background.
+ * <p>
+ * With search.shards.count above 1, only the posts {@link ShardLayout}
+ * assigns to this instance are kept; the rest are dropped as they arrive.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PostIndex {
+
+    public static final String RELEVANCE = "relevance";
+    // A segment with this share of its docs deleted is rewritten on its own
+    private static final double MAX_DELETED_RATIO = 0.3;
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final Highlighter highlighter;
+    private final SearchConfig searchConfig;
+    private final SegmentStore segmentStore;
+    private final ShardLayout shardLayout;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Serializes rebuilds, restores, flushes and merges
+    private final Object maintenance = new Object();
+    private volatile InvertedIndex index = new InvertedIndex();
+    private volatile boolean ready;
+    // Change feed position the index reflects, -1 if unknown
+    private volatile long changeSeq = -1;
+    // Position the segments on disk reflect; guarded by maintenance
+    private long persistedSeq = -1;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public long changeSeq() {
+        return changeSeq;
+    }
+
+    // Builds a fresh index off to the side and swaps it in; changeSeq is where the change feed stood before posts were read
+    public void rebuild(Collection<PostDto> posts, long changeSeq) {
+        if (shardLayout.isSharded()) {
+            posts = posts.stream().filter(post -> shardLayout.owns(post.getPostId())).toList();
+        }
+        synchronized (maintenance) {
+            InvertedIndex rebuilt;
+            if (persistent()) {
+                rebuilt = writeSegments(posts);
+            } else {
+                rebuilt = new InvertedIndex();
+                for (PostDto post : posts) {
+                    rebuilt.add(post);
+                }
+            }
+            lock.writeLock().lock();
+            try {
+                index = rebuilt;
+                this.changeSeq = changeSeq;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (persistent()) {
+                persistedSeq = changeSeq;
+                try {
+                    checkpoint();
+                } catch (IOException e) {
+                    log.warn("Could not checkpoint the rebuilt search index: {}", e.getMessage());
+                }
+            }
+        }
+        eventPublisher.publishEvent(new PostIndexRebuiltEvent(posts));
+    }
+
+    /**
+     * Reopens the segments of the last checkpoint. Returns false, leaving the
+     * index as it was, when there is none or it has no change feed position
+     * to catch up from.
+     */
+    public boolean restore() {
+        if (!persistent()) {
+            return false;
+        }
+        Collection<PostDto> summaries;
+        synchronized (maintenance) {
+            try {
+                SegmentStore.Checkpoint checkpoint = segmentStore.readCheckpoint();
+                if (checkpoint == null || checkpoint.getChangeSeq() < 0) {
+                    return false;
+                }
+                InvertedIndex restored = new InvertedIndex(segmentStore.open(checkpoint), checkpoint.getDeletes());
+                summaries = restored.summaries();
+                lock.writeLock().lock();
+                try {
+                    index = restored;
+                    changeSeq = checkpoint.getChangeSeq();
+                    ready = true;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                persistedSeq = checkpoint.getChangeSeq();
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not restore the search index from disk: {}", e.getMessage());
+                return false;
+            }
+        }
+        eventPublisher.publishEvent(new PostIndexRebuiltEvent(summaries));
+        return true;
+    }
+
+    public void upsert(PostDto post) {
+        if (!shardLayout.owns(post.getPostId())) {
+            remove(post.getPostId());
+            return;
+        }
+        PostDto previous;
+        lock.writeLock().lock();
+        try {
+            previous = index.add(post);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        eventPublisher.publishEvent(new PostChangedEvent(previous, post));
+    }
+
+    public void remove(String postId) {
+        PostDto previous;
+        lock.writeLock().lock();
+        try {
+            previous = index.remove(postId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (previous != null) {
+            eventPublisher.publishEvent(new PostChangedEvent(previous, null));
+        }
+    }
+
+    /**
+     * Applies a batch of the change feed read after afterSeq: each post in
+     * postIds is replaced by its version in posts, or removed if it has none.
+     * Posts in countersOnly only had their counters change, so their events
+     * say so and listeners keyed on content can skip them.
+     * Returns false, applying nothing more, once the index has moved away from
+     * afterSeq; a full load or restore swapped in meanwhile has its own
+     * position to follow the feed from.
+     */
+    public boolean applyChanges(long afterSeq, long lastSeq, Collection<String> postIds, Map<String, PostDto> posts,
+                                Set<String> countersOnly) {
+        for (String postId : postIds) {
+            // Another shard's post is as good as deleted here
+            PostDto post = shardLayout.owns(postId) ? posts.get(postId) : null;
+            PostDto previous;
+            lock.writeLock().lock();
+            try {
+                if (changeSeq != afterSeq) {
+                    return false;
+                }
+                previous = post != null ? index.add(post) : index.remove(postId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (post != null || previous != null) {
+                boolean counters = post != null && previous != null && countersOnly.contains(postId);
+                eventPublisher.publishEvent(new PostChangedEvent(previous, post, counters));
+            }
+        }
+        boolean flush;
+        lock.writeLock().lock();
+        try {
+            if (changeSeq != afterSeq) {
+                return false;
+            }
+            changeSeq = lastSeq;
+            flush = persistent() && index.bufferedDocs() >= searchConfig.getIndex().getMaxBufferedDocs();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (flush) {
+            maintain();
+        }
+        return true;
+    }
+
+    /**
+     * Writes buffered posts to a new segment and merges segments while there
+     * are more than the merge factor of them. Segments are written without
+     * holding the index lock; deletes made meanwhile are carried over when the
+     * new segment is swapped in.
+     */
+    @Scheduled(initialDelayString = "${search.index.flush-interval-ms:30000}",
+            fixedDelayString = "${search.index.flush-interval-ms:30000}")
+    public void maintain() {
+        if (!persistent()) {
+            return;
+        }
+        synchronized (maintenance) {
+            if (!ready) {
+                return;
+            }
+            try {
+                flush();
+                while (merge()) {
+                    // Until no merge is due
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("Search index maintenance failed, buffered posts stay in memory: {}", e.getMessage());
+            }
+        }
+    }
+
+    // Buffered posts would otherwise be replayed from the change feed on the next start
+    @PreDestroy
+    public void close() {
+        maintain();
+    }
+
+    private boolean persistent() {
+        return searchConfig.getIndex().isPersistent();
+    }
+
+    // Later copies of a post win, as when adding them one by one
+    private InvertedIndex writeSegments(Collection<PostDto> posts) {
+        SearchConfig.Index config = searchConfig.getIndex();
+        Map<String, PostDto> latest = new LinkedHashMap<>();
+        for (PostDto post : posts) {
+            latest.put(post.getPostId(), post);
+        }
+        try {
+            List<IndexSegment> segments = new ArrayList<>();
+            IndexBuffer buffer = new IndexBuffer();
+            long bytes = 0;
+            for (PostDto post : latest.values()) {
+                buffer.add(post);
+                bytes += estimateBytes(post);
+                if (buffer.size() >= config.getSegmentDocs() || bytes >= config.getMaxSegmentBytes()) {
+                    segments.add(segmentStore.write(List.of(buffer), List.of(new RoaringBitmap())).getSegment());
+                    buffer = new IndexBuffer();
+                    bytes = 0;
+                }
+            }
+            if (buffer.size() > 0) {
+                segments.add(segmentStore.write(List.of(buffer), List.of(new RoaringBitmap())).getSegment());
+            }
+            return new InvertedIndex(segments, segments.stream().map(segment -> new RoaringBitmap()).toList());
+        } catch (IOException e) {
+            throw new IllegalStateException("Writing search index segments failed: " + e.getMessage(), e);
+        }
+    }
+
+    // Stored text plus about as much again for its postings
+    private static long estimateBytes(PostDto post) {
+        return 256 + 2L * (length(post.getTitle()) + length(post.getExcerpt()) + length(post.getContent()));
+    }
+
+    private static int length(String text) {
+        return text == null ? 0 : text.length();
+    }
+
+    private void flush() throws IOException {
+        List<InvertedIndex.Part> frozen;
+        List<RoaringBitmap> deletes;
+        long seq;
+        lock.writeLock().lock();
+        try {
+            frozen = index.freeze();
+            deletes = frozen.stream().map(InvertedIndex.Part::deletes).toList();
+            seq = changeSeq;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (!frozen.isEmpty()) {
+            replace(frozen, deletes);
+        } else if (seq == persistedSeq) {
+            return;
+        }
+        // With nothing buffered, only deletes have changed since the last checkpoint
+        persistedSeq = seq;
+        checkpoint();
+    }
+
+    private boolean merge() throws IOException {
+        List<InvertedIndex.Part> merged;
+        List<RoaringBitmap> deletes;
+        lock.readLock().lock();
+        try {
+            merged = pickMerge(index.segments());
+            deletes = merged.stream().map(InvertedIndex.Part::deletes).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (merged.isEmpty()) {
+            return false;
+        }
+        replace(merged, deletes);
+        checkpoint();
+        return true;
+    }
+
+    // A mostly deleted segment on its own, else the adjacent run of merge-factor segments with the fewest live bytes
+    private List<InvertedIndex.Part> pickMerge(List<InvertedIndex.Part> segments) {
+        SearchConfig.Index config = searchConfig.getIndex();
+        for (InvertedIndex.Part segment : segments) {
+            if (segment.deletedRatio() >= MAX_DELETED_RATIO) {
+                return List.of(segment);
+            }
+        }
+        int mergeFactor = Math.max(2, config.getMergeFactor());
+        List<InvertedIndex.Part> best = List.of();
+        long bestBytes = Long.MAX_VALUE;
+        for (int i = 0; segments.size() > mergeFactor && i + mergeFactor <= segments.size(); i++) {
+            long bytes = 0;
+            for (InvertedIndex.Part segment : segments.subList(i, i + mergeFactor)) {
+                bytes += (long) (((IndexSegment) segment.reader()).sizeInBytes() * (1 - segment.deletedRatio()));
+            }
+            if (bytes <= config.getMaxSegmentBytes() && bytes < bestBytes) {
+                best = segments.subList(i, i + mergeFactor);
+                bestBytes = bytes;
+            }
+        }
+        return best;
+    }
+
+    private void replace(List<InvertedIndex.Part> parts, List<RoaringBitmap> deletes) throws IOException {
+        SegmentStore.Written written = segmentStore.write(parts.stream().map(InvertedIndex.Part::reader).toList(), deletes);
+        lock.writeLock().lock();
+        try {
+            index.replace(parts, deletes, written.getSegment(), written.getDocMaps());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void checkpoint() throws IOException {
+        List<String> names = new ArrayList<>();
+        List<RoaringBitmap> deletes = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (InvertedIndex.Part segment : index.segments()) {
+                names.add(((IndexSegment) segment.reader()).name());
+                deletes.add(segment.deletes());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        segmentStore.writeCheckpoint(new SegmentStore.Checkpoint(persistedSeq, names, deletes));
+    }
+
+    public PostHits search(PostQuery query, String sortBy, String sortDir, int limit) {
+        return search(query, sortBy, sortDir, limit, null);
+    }
+
+    /**
+     * Posts matching every filter in the query, cut to at most limit results.
+     * The keyword may use the {@link KeywordQuery} syntax of phrases, +/-,
+     * OR and field: prefixes. Keyword hits carry BM25 scores; sortBy=relevance
+     * ranks by them. With
+     * fuzzy search on, relevance queries also match close misspellings, ranked
+     * below posts matching more terms exactly; other sorts only fall back to
+     * them for terms with no exact match.
+     * <p>
+     * Given a cursor from an earlier page, only hits after it are ranked, so
+     * a deep page costs the same as the first. Ties on the sort key are broken
+     * by postId (by index order for relevance) so pages never overlap.
+     */
+    public PostHits search(PostQuery query, String sortBy, String sortDir, int limit, SearchCursor after) {
+        return search(query, sortBy, sortDir, limit, after, null);
+    }
+
+    /**
+     * As above, but scoring with stats gathered from every shard by
+     * {@link #collectionStats}, so the scores of all shards' hits compare.
+     */
+    public PostHits search(PostQuery query, String sortBy, String sortDir, int limit, SearchCursor after,
+                           CollectionStats stats) {
+        String sortField = sortBy == null ? "createdAt" : sortBy;
+        String direction = "asc".equalsIgnoreCase(sortDir) ? "asc" : "desc";
+        if (after != null && !after.matches(sortField, direction)) {
+            throw new IllegalArgumentException("searchAfter cursor belongs to a different sort order");
+        }
+        SortField field = SortField.of(sortField);
+        KeywordQuery keyword = KeywordQuery.parse(query.getKeyword());
+        List<String> scoredTerms = keyword.scoredTerms();
+        boolean relevance = RELEVANCE.equals(sortField) && !scoredTerms.isEmpty();
+        List<PostDto> page;
+        float[] scores;
+        int[] tiers;
+        long total;
+        SearchCursor next = null;
+        Map<String, List<FacetCount>> facets = null;
+
+        List<QueryTerm> terms;
+
+        long lapStart = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            Map<String, QueryTerm> expansions = expand(keyword.fuzzyTerms(), !relevance, stats);
+            terms = scoredTerms.stream().map(term -> expansions.getOrDefault(term, QueryTerm.exact(term))).toList();
+            RoaringBitmap matches = QueryPlanner.execute(index, query, keyword, expansions);
+            int[] docIds = matches.toArray();
+            total = docIds.length;
+            lapStart = SearchTimings.lap(Stage.FILTER, lapStart);
+
+            if (query.getFacets() != null && query.getFacets().length > 0) {
+                List<Facet> requested = Arrays.stream(query.getFacets()).map(Facet::of).distinct().toList();
+                FacetCollector collector = new FacetCollector(requested, query.getFacetSize(), docIds.length);
+                index.collectFacets(matches, collector);
+                facets = collector.result();
+                lapStart = SearchTimings.lap(Stage.FACET, lapStart);
+            }
+
+            if (relevance) {
+                int[] exactMatches = new int[docIds.length];
+                float[] allScores = Bm25Scorer.score(index, terms, docIds, exactMatches, stats);
+                lapStart = SearchTimings.lap(Stage.SCORE, lapStart);
+                int remaining = after == null ? docIds.length : keepAfter(after, docIds, exactMatches, allScores);
+                if (remaining < docIds.length) {
+                    docIds = Arrays.copyOf(docIds, remaining);
+                    exactMatches = Arrays.copyOf(exactMatches, remaining);
+                    allScores = Arrays.copyOf(allScores, remaining);
+                }
+                int[] top = TopDocs.select(docIds, exactMatches, allScores, limit);
+                page = new ArrayList<>(top.length);
+                scores = new float[top.length];
+                tiers = new int[top.length];
+                for (int i = 0; i < top.length; i++) {
+                    page.add(index.doc(docIds[top[i]]));
+                    scores[i] = allScores[top[i]];
+                    tiers[i] = exactMatches[top[i]];
+                }
+                if (remaining > top.length && top.length > 0) {
+                    int last = top[top.length - 1];
+                    next = SearchCursor.afterScore(direction, index.postId(docIds[last]),
+                            exactMatches[last], allScores[last]);
+                }
+                SearchTimings.lap(Stage.SELECT, lapStart);
+            } else {
+                PostDto anchor = after == null ? null : after.anchor();
+                DocSort order = new DocSort(index, field, "asc".equals(direction));
+                TopKCollector<Integer> collector = new TopKCollector<>(order, limit);
+                for (int docId : docIds) {
+                    if (anchor == null || order.isAfter(docId, anchor)) {
+                        collector.offer(docId);
+                    }
+                }
+                List<Integer> top = collector.toList();
+                page = new ArrayList<>(top.size());
+                for (int docId : top) {
+                    page.add(index.doc(docId));
+                }
+                if (collector.total() > page.size() && !page.isEmpty()) {
+                    next = SearchCursor.after(sortField, direction, page.get(page.size() - 1));
+                }
+                lapStart = SearchTimings.lap(Stage.SELECT, lapStart);
+                scores = pageScores(top, terms, stats);
+                tiers = new int[top.size()];
+                SearchTimings.lap(Stage.SCORE, lapStart);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Posts are never modified once indexed, so snippets can be built without the lock
+        lapStart = System.nanoTime();
+        List<String> highlightTerms = terms.stream().flatMap(term -> term.variants().stream()).toList();
+        List<List<String>> highlights = highlighter.highlight(page, highlightTerms);
+        lapStart = SearchTimings.lap(Stage.HIGHLIGHT, lapStart);
+        List<ScoredPost> hits = new ArrayList<>(page.size());
+        for (int i = 0; i < page.size(); i++) {
+            hits.add(new ScoredPost(PostSummaryDto.fromPostDto(page.get(i)), scores[i], highlights.get(i), tiers[i]));
+        }
+        SearchTimings.lap(Stage.CONVERT, lapStart);
+        return new PostHits(hits, total, next, facets);
+    }
+
+    /**
+     * Moves the hits ranked after the cursor to the front of the arrays, in
+     * place, and returns their count. Mirrors the {@link TopDocs} order; if
+     * the cursor's post has since left the index, hits tied with it are kept.
+     * Merged pages rank ties shard by shard, so a cursor from another shard's
+     * post keeps every tie here when that shard comes first, and none after.
+     */
+    private int keepAfter(SearchCursor after, int[] docIds, int[] tiers, float[] scores) {
+        Integer cursorDoc = index.docId(after.getPostId());
+        int cursorDocId = cursorDoc != null ? cursorDoc
+                : shardLayout.shardOf(after.getPostId()) > shardLayout.index() ? -1 : Integer.MAX_VALUE;
+        int kept = 0;
+        for (int i = 0; i < docIds.length; i++) {
+            boolean isAfter = tiers[i] != after.getTier() ? tiers[i] < after.getTier()
+                    : scores[i] != after.getScore() ? scores[i] < after.getScore()
+                    : docIds[i] < cursorDocId;
+            if (isAfter) {
+                docIds[kept] = docIds[i];
+                tiers[kept] = tiers[i];
+                scores[kept] = scores[i];
+                kept++;
+            }
+        }
+        return kept;
+    }
+
+    // Fuzzy variants by term, picked from the whole corpus when stats are given; caller holds the read lock
+    private Map<String, QueryTerm> expand(List<String> tokens, boolean onlyIfMissing, CollectionStats stats) {
+        if (!searchConfig.isFuzzySearchEnabled()) {
+            return Map.of();
+        }
+        int maxExpansions = searchConfig.getFuzzy().getMaxExpansions();
+        Map<String, QueryTerm> expansions = new HashMap<>();
+        for (String token : tokens) {
+            QueryTerm expansion = stats == null ? null : stats.expand(token, maxExpansions, onlyIfMissing);
+            expansions.put(token, expansion != null ? expansion : index.expand(token, maxExpansions, onlyIfMissing));
+        }
+        return expansions;
+    }
+
+    // BM25 scores for just the returned page, in page order; caller holds the read lock
+    private float[] pageScores(List<Integer> pageDocIds, List<QueryTerm> terms, CollectionStats stats) {
+        if (terms.isEmpty()) {
+            return new float[pageDocIds.size()];
+        }
+        int[] sortedDocIds = pageDocIds.stream().mapToInt(Integer::intValue).sorted().toArray();
+        float[] sorted = Bm25Scorer.score(index, terms, sortedDocIds, null, stats);
+        float[] scores = new float[pageDocIds.size()];
+        for (int i = 0; i < pageDocIds.size(); i++) {
+            scores[i] = sorted[Arrays.binarySearch(sortedDocIds, pageDocIds.get(i))];
+        }
+        return scores;
+    }
+
+    /**
+     * This index's share of the corpus stats for the keyword: its terms, the
+     * fuzzy variants indexed here and how many posts contain each. A search
+     * run with the sum over all shards expands and scores as one index would.
+     */
+    public CollectionStats collectionStats(String keyword) {
+        KeywordQuery parsed = KeywordQuery.parse(keyword);
+        CollectionStats stats = new CollectionStats();
+        lock.readLock().lock();
+        try {
+            Set<String> terms = new HashSet<>(parsed.scoredTerms());
+            if (searchConfig.isFuzzySearchEnabled()) {
+                for (String term : parsed.fuzzyTerms()) {
+                    Map<String, Long> variants = index.variantFrequencies(term);
+                    stats.getVariantFreqs().put(term, variants);
+                    terms.addAll(variants.keySet());
+                }
+            }
+            stats.setDocCount(index.size());
+            for (IndexField field : Bm25Scorer.FIELDS) {
+                stats.getTotalFieldLengths().put(field, index.totalFieldLength(field));
+                stats.getFieldDocCounts().put(field, index.fieldDocCount(field));
+                Map<String, Long> docFreqs = new HashMap<>();
+                for (String term : terms) {
+                    Postings postings = index.postings(field, term);
+                    if (postings != null) {
+                        docFreqs.put(term, (long) postings.size());
+                    }
+                }
+                stats.getDocFreqs().put(field, docFreqs);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return stats;
+    }
+
+    // Every post in the index with its content, read lazily as the result is iterated
+    public Collection<PostDto> posts() {
+        lock.readLock().lock();
+        try {
+            return index.posts();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Each word of published titles, excerpts and content with the number of
+     * posts it appears in, counted once per field.
+     */
+    public Map<String, Integer> termFrequencies() {
+        lock.readLock().lock();
+        try {
+            return index.termFrequencies();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public PostHits searchPosts(String keyword, String sortBy, String sortDir, int limit) {
+        return search(PostQuery.builder().keyword(keyword).build(), sortBy, sortDir, limit);
+    }
+
+    public PostHits getPostsByCategory(String category, String sortBy, String sortDir, int limit) {
+        return search(PostQuery.builder().category(category).build(), sortBy, sortDir, limit);
+    }
+
+    public PostHits getPostsByAuthor(String authorId, String sortBy, String sortDir, int limit) {
+        return search(PostQuery.builder().authorId(authorId).build(), sortBy, sortDir, limit);
+    }
+
+    public PostHits getPostsByTags(String[] tags, PostQuery.TagMode mode, String[] excludeTags,
+                                   String sortBy, String sortDir, int limit) {
+        PostQuery query = PostQuery.builder().tags(tags).tagMode(mode).excludeTags(excludeTags).build();
+        return search(query, sortBy, sortDir, limit);
+    }
+
+    public PostHits getPublishedPosts(String sortBy, String sortDir, int limit) {
+        return search(PostQuery.builder().publishedOnly(true).build(), sortBy, sortDir, limit);
+    }
+
+    // Summary of the post if it is indexed and published, else null
+    public PostSummaryDto publishedPost(String postId) {
+        lock.readLock().lock();
+        try {
+            Integer docId = index.docId(postId);
+            if (docId == null || !index.publishedDocs().contains(docId)) {
+                return null;
+            }
+            return PostSummaryDto.fromPostDto(index.summary(docId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static boolean isPublished(PostDto post) {
+        return post.isPublished() && "PUBLISHED".equals(post.getStatus());
+    }
+}
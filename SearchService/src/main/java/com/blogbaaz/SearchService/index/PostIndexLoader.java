@@ -0,0 +1,99 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.clients.HedgedPostServiceClient;
+import com.blogbaaz.SearchService.clients.PostServiceClient;
+import com.blogbaaz.SearchService.config.SearchConfig;
+import com.blogbaaz.SearchService.dtos.PostDto;
+import com.blogbaaz.SearchService.dtos.PostPage;
+import feign.Request;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Slf4j
+public class PostIndexLoader {
+
+    private final HedgedPostServiceClient postServiceClient;
+    // Pages of full posts go straight to PostService: the hedged client's deadline would cut a large page short
+    private final PostServiceClient bulkClient;
+    private final PostIndex postIndex;
+    private final SearchConfig searchConfig;
+    private final Request.Options pageOptions;
+
+    public PostIndexLoader(HedgedPostServiceClient postServiceClient, PostServiceClient bulkClient,
+                           PostIndex postIndex, SearchConfig searchConfig) {
+        this.postServiceClient = postServiceClient;
+        this.bulkClient = bulkClient;
+        this.postIndex = postIndex;
+        this.searchConfig = searchConfig;
+        this.pageOptions = new Request.Options(
+                searchConfig.getPostService().getTimeoutMs(), TimeUnit.MILLISECONDS,
+                searchConfig.getIndex().getLoadTimeoutMs(), TimeUnit.MILLISECONDS, true);
+    }
+
+    // At startup, and again until a load or restore has succeeded
+    @Scheduled(initialDelay = 0, fixedDelayString = "${search.index.retry-delay-ms:30000}")
+    public void load() {
+        if (!postIndex.isReady()) {
+            reload();
+        }
+    }
+
+    // Once loaded the change feed keeps the index current; only without a feed position is it reloaded in full
+    @Scheduled(initialDelayString = "${search.index.refresh-interval-ms:3600000}",
+            fixedDelayString = "${search.index.refresh-interval-ms:3600000}")
+    public void refresh() {
+        if (postIndex.isReady() && postIndex.changeSeq() < 0) {
+            reload();
+        }
+    }
+
+    // Also run by the change feed follower when it has fallen too far behind
+    public synchronized void reload() {
+        long startTime = System.currentTimeMillis();
+
+        // At startup, segments left on disk only need catching up from the change feed
+        if (!postIndex.isReady() && postIndex.restore()) {
+            log.info("Search index restored from disk with {} posts in {} ms",
+                    postIndex.size(), System.currentTimeMillis() - startTime);
+            return;
+        }
+
+        try {
+            // Taken before the scan, so changes made during it are replayed from the feed
+            long changeSeq = changeHead();
+            List<PostDto> posts = new ArrayList<>();
+            int page = 0;
+            PostPage postPage;
+            do {
+                // Oldest first, so posts created mid-scan land on the last page
+                postPage = bulkClient.getAllPosts(page++, searchConfig.getIndex().getPageSize(), "createdAt", "asc", pageOptions);
+                posts.addAll(postPage.getContent());
+            } while (!postPage.isLast() && !postPage.getContent().isEmpty());
+
+            postIndex.rebuild(posts, changeSeq);
+            log.info("Search index rebuilt with {} posts in {} ms",
+                    postIndex.size(), System.currentTimeMillis() - startTime);
+
+        } catch (Exception e) {
+            log.warn("Search index rebuild failed, keeping previous index: {}", e.getMessage());
+        }
+    }
+
+    private long changeHead() {
+        if (!searchConfig.getChanges().isEnabled()) {
+            return -1;
+        }
+        try {
+            return postServiceClient.call("getChangeHead", client -> client.getChangeHead());
+        } catch (Exception e) {
+            log.warn("Change feed unavailable, index will only refresh on timed full reloads: {}", e.getMessage());
+            return -1;
+        }
+    }
+}
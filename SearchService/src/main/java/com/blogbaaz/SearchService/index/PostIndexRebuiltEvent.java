@@ -0,0 +1,19 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.dtos.PostDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collection;
+
+/**
+ * Published by {@link PostIndex} after a full rebuild or a restore from disk
+ * swaps in a new index. {@code posts} is everything the new index holds;
+ * after a restore they are read lazily and come without their content.
+ */
+@Getter
+@AllArgsConstructor
+public class PostIndexRebuiltEvent {
+
+    private final Collection<PostDto> posts;
+}
@@ -0,0 +1,49 @@
+package com.blogbaaz.SearchService.index;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Locale;
+
+/**
+ * Filters for a {@link PostIndex#search} call. Every non-empty filter must
+ * hold for a post to match.
+ */
+@Data
+@Builder
+public class PostQuery {
+
+    public enum TagMode {
+        ANY, ALL;
+
+        // For validating requests, so other values are a 400 rather than a failed search
+        public static final String PATTERN = "(?i)any|all";
+
+        public static TagMode from(String mode) {
+            if (mode == null || mode.isEmpty()) {
+                return ANY;
+            }
+            try {
+                return valueOf(mode.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported tag mode: " + mode);
+            }
+        }
+    }
+
+    private String keyword;
+    private String authorId;
+    private String category;
+    private String[] tags;
+    @Builder.Default
+    private TagMode tagMode = TagMode.ANY;
+    private String[] excludeTags;
+    private boolean publishedOnly;
+    // Featured posts are currently the published ones, as in getFeaturedPosts
+    private boolean featuredOnly;
+
+    // Facets to count over every match (category, tags, author, publishMonth) and how many values to keep for each
+    private String[] facets;
+    @Builder.Default
+    private int facetSize = 10;
+}
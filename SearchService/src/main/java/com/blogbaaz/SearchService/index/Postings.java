@@ -0,0 +1,30 @@
+package com.blogbaaz.SearchService.index;
+
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * Ascending doc ids of one term in one field, with the term's frequency in
+ * each doc and the token positions it occurs at, so phrases are matched from
+ * the postings alone. Backed by the in-memory buffer, a mapped segment, or
+ * several of them laid end to end.
+ */
+interface Postings {
+
+    int size();
+
+    int docAt(int index);
+
+    int freqAt(int index);
+
+    // Token position of the term's nth occurrence in the doc at index; positions ascend with n
+    int positionAt(int index, int occurrence);
+
+    // Position of docId in this list, or a negative value when absent
+    int indexOf(int docId);
+
+    default boolean contains(int docId) {
+        return indexOf(docId) >= 0;
+    }
+
+    RoaringBitmap toBitmap();
+}
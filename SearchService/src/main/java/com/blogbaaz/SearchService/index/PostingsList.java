@@ -0,0 +1,121 @@
+package com.blogbaaz.SearchService.index;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.Arrays;
+
+/**
+ * Sorted, duplicate-free list of doc ids for a single term, with the term's
+ * frequency and positions in each doc. The growable form used by
+ * {@link IndexBuffer}. Positions of all docs share one array, each doc's run
+ * starting where the previous one ends, so a posting costs no extra object.
+ */
+final class PostingsList implements Postings {
+
+    private int[] docs = new int[4];
+    private int[] freqs = new int[4];
+    // Where each doc's run of positions starts in positions
+    private int[] positionStarts = new int[4];
+    private int[] positions = new int[4];
+    private int size;
+    private int positionCount;
+
+    void add(int docId, int[] docPositions) {
+        if (size > 0 && docs[size - 1] >= docId) {
+            int pos = Arrays.binarySearch(docs, 0, size, docId);
+            if (pos >= 0) {
+                removeAt(pos);
+            } else {
+                pos = -pos - 1;
+            }
+            insertAt(pos, docId, docPositions);
+            return;
+        }
+        insertAt(size, docId, docPositions);
+    }
+
+    void remove(int docId) {
+        int pos = Arrays.binarySearch(docs, 0, size, docId);
+        if (pos >= 0) {
+            removeAt(pos);
+        }
+    }
+
+    @Override
+    public boolean contains(int docId) {
+        return Arrays.binarySearch(docs, 0, size, docId) >= 0;
+    }
+
+    @Override
+    public int indexOf(int docId) {
+        return Arrays.binarySearch(docs, 0, size, docId);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int docAt(int index) {
+        return docs[index];
+    }
+
+    @Override
+    public int freqAt(int index) {
+        return freqs[index];
+    }
+
+    @Override
+    public int positionAt(int index, int occurrence) {
+        return positions[positionStarts[index] + occurrence];
+    }
+
+    @Override
+    public RoaringBitmap toBitmap() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        bitmap.addN(docs, 0, size);
+        return bitmap;
+    }
+
+    private void insertAt(int pos, int docId, int[] docPositions) {
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, docs.length * 2);
+            freqs = Arrays.copyOf(freqs, freqs.length * 2);
+            positionStarts = Arrays.copyOf(positionStarts, positionStarts.length * 2);
+        }
+        if (positionCount + docPositions.length > positions.length) {
+            positions = Arrays.copyOf(positions, Math.max(positions.length * 2, positionCount + docPositions.length));
+        }
+        int start = pos == size ? positionCount : positionStarts[pos];
+        System.arraycopy(positions, start, positions, start + docPositions.length, positionCount - start);
+        System.arraycopy(docPositions, 0, positions, start, docPositions.length);
+        positionCount += docPositions.length;
+
+        System.arraycopy(docs, pos, docs, pos + 1, size - pos);
+        System.arraycopy(freqs, pos, freqs, pos + 1, size - pos);
+        System.arraycopy(positionStarts, pos, positionStarts, pos + 1, size - pos);
+        docs[pos] = docId;
+        freqs[pos] = docPositions.length;
+        positionStarts[pos] = start;
+        size++;
+        for (int i = pos + 1; i < size; i++) {
+            positionStarts[i] += docPositions.length;
+        }
+    }
+
+    private void removeAt(int pos) {
+        int start = positionStarts[pos];
+        int freq = freqs[pos];
+        System.arraycopy(positions, start + freq, positions, start, positionCount - start - freq);
+        positionCount -= freq;
+
+        System.arraycopy(docs, pos + 1, docs, pos, size - pos - 1);
+        System.arraycopy(freqs, pos + 1, freqs, pos, size - pos - 1);
+        System.arraycopy(positionStarts, pos + 1, positionStarts, pos, size - pos - 1);
+        size--;
+        for (int i = pos; i < size; i++) {
+            positionStarts[i] -= freq;
+        }
+    }
+}
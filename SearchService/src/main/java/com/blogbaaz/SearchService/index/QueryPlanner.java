@@ -0,0 +1,435 @@
+package com.blogbaaz.SearchService.index;
+
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Evaluates all filters of a {@link PostQuery} together. Each filter becomes a
+ * clause with a cheap size estimate, and clauses are intersected smallest
+ * first. Once the candidates are far fewer than a clause's docs, the clause is
+ * checked per candidate instead of being materialized. An empty clause
+ * sorts first and ends the query before anything else is read. Phrases are
+ * matched from positional postings, starting from their rarest word; keyword
+ * exclusions are subtracted last, from what is left.
+ */
+final class QueryPlanner {
+
+    private static final int PROBE_RATIO = 8;
+
+    private QueryPlanner() {
+    }
+
+    // Matching doc ids, each term required somewhere in the scored fields; may be a live index bitmap, so callers must not modify it
+    static RoaringBitmap execute(InvertedIndex index, PostQuery query, List<QueryTerm> terms) {
+        List<Clause> clauses = new ArrayList<>();
+        for (QueryTerm term : terms) {
+            clauses.add(termClause(index, Bm25Scorer.FIELDS, term));
+        }
+        return execute(index, query, clauses, List.of());
+    }
+
+    // Matching doc ids for a parsed keyword; expansions hold the fuzzy variants of its lone words
+    static RoaringBitmap execute(InvertedIndex index, PostQuery query, KeywordQuery keyword,
+                                 Map<String, QueryTerm> expansions) {
+        List<Clause> clauses = new ArrayList<>();
+        for (List<KeywordQuery.Atom> alternatives : keyword.required()) {
+            if (alternatives.size() == 1) {
+                clauses.add(atomClause(index, alternatives.get(0), expansions));
+                continue;
+            }
+            List<Clause> either = new ArrayList<>(alternatives.size());
+            for (KeywordQuery.Atom atom : alternatives) {
+                either.add(atomClause(index, atom, expansions));
+            }
+            clauses.add(new AnyClause(either));
+        }
+        List<Clause> exclusions = new ArrayList<>();
+        for (KeywordQuery.Atom atom : keyword.excluded()) {
+            exclusions.add(atomClause(index, atom, Map.of()));
+        }
+        return execute(index, query, clauses, exclusions);
+    }
+
+    private static RoaringBitmap execute(InvertedIndex index, PostQuery query, List<Clause> keywordClauses,
+                                         List<Clause> exclusions) {
+        List<Clause> clauses = plan(index, query);
+        clauses.addAll(keywordClauses);
+        clauses.sort(Comparator.comparingLong(Clause::estimate));
+
+        RoaringBitmap result = clauses.isEmpty() ? index.liveDocs() : clauses.get(0).materialize();
+        for (int i = 1; i < clauses.size() && !result.isEmpty(); i++) {
+            Clause clause = clauses.get(i);
+            result = result.getLongCardinality() * PROBE_RATIO < clause.estimate()
+                    ? probe(result, clause, true)
+                    : RoaringBitmap.and(result, clause.materialize());
+        }
+
+        if (query.getExcludeTags() != null && !result.isEmpty()) {
+            for (String tag : query.getExcludeTags()) {
+                result = RoaringBitmap.andNot(result, index.valueDocs(IndexField.TAG, tag));
+            }
+        }
+        for (int i = 0; i < exclusions.size() && !result.isEmpty(); i++) {
+            Clause exclusion = exclusions.get(i);
+            result = result.getLongCardinality() * PROBE_RATIO < exclusion.estimate()
+                    ? probe(result, exclusion, false)
+                    : RoaringBitmap.andNot(result, exclusion.materialize());
+        }
+        return result;
+    }
+
+    private static Clause atomClause(InvertedIndex index, KeywordQuery.Atom atom, Map<String, QueryTerm> expansions) {
+        KeywordQuery.Field field = atom.field();
+        if (field.isExact()) {
+            return new BitmapClause(index.valueDocs(field.indexField(), atom.value()));
+        }
+        IndexField[] fields = field == KeywordQuery.Field.TEXT ? Bm25Scorer.FIELDS : new IndexField[]{field.indexField()};
+        if (atom.isPhrase()) {
+            return phraseClause(index, fields, atom.terms());
+        }
+        String term = atom.terms().get(0);
+        QueryTerm variants = atom.isFuzzable() ? expansions.getOrDefault(term, QueryTerm.exact(term)) : QueryTerm.exact(term);
+        return termClause(index, fields, variants);
+    }
+
+    private static Clause termClause(InvertedIndex index, IndexField[] fields, QueryTerm term) {
+        List<Postings> lists = new ArrayList<>();
+        for (String variant : term.variants()) {
+            for (IndexField field : fields) {
+                Postings list = index.postings(field, variant);
+                if (list != null) {
+                    lists.add(list);
+                }
+            }
+        }
+        return new TermClause(lists);
+    }
+
+    // A phrase can only match within one field, and only in fields holding every one of its words
+    private static Clause phraseClause(InvertedIndex index, IndexField[] fields, List<String> terms) {
+        List<FieldPhrase> phrases = new ArrayList<>(fields.length);
+        for (IndexField field : fields) {
+            Postings[] lists = new Postings[terms.size()];
+            for (int i = 0; i < lists.length && (i == 0 || lists[i - 1] != null); i++) {
+                lists[i] = index.postings(field, terms.get(i));
+            }
+            if (lists[lists.length - 1] != null) {
+                phrases.add(new FieldPhrase(lists));
+            }
+        }
+        return new PhraseClause(phrases);
+    }
+
+    private static List<Clause> plan(InvertedIndex index, PostQuery query) {
+        List<Clause> clauses = new ArrayList<>();
+
+        if (query.getAuthorId() != null && !query.getAuthorId().isEmpty()) {
+            clauses.add(new BitmapClause(index.valueDocs(IndexField.AUTHOR_ID, query.getAuthorId())));
+        }
+        if (query.getCategory() != null && !query.getCategory().isEmpty()) {
+            clauses.add(new BitmapClause(index.valueDocs(IndexField.CATEGORY, query.getCategory())));
+        }
+        if (query.getTags() != null && query.getTags().length > 0) {
+            List<RoaringBitmap> tagDocs = new ArrayList<>();
+            for (String tag : query.getTags()) {
+                tagDocs.add(index.valueDocs(IndexField.TAG, tag));
+            }
+            if (query.getTagMode() == PostQuery.TagMode.ALL) {
+                tagDocs.forEach(docs -> clauses.add(new BitmapClause(docs)));
+            } else {
+                clauses.add(new AnyBitmapClause(tagDocs));
+            }
+        }
+        if (query.isPublishedOnly() || query.isFeaturedOnly()) {
+            clauses.add(new BitmapClause(index.publishedDocs()));
+        }
+        // Postings and value bitmaps of segments still list their deleted docs
+        if (index.hasDeletions()) {
+            clauses.add(new BitmapClause(index.liveDocs()));
+        }
+        return clauses;
+    }
+
+    // Candidates for which the clause's outcome is wanted
+    private static RoaringBitmap probe(RoaringBitmap candidates, Clause clause, boolean wanted) {
+        RoaringBitmap kept = new RoaringBitmap();
+        PeekableIntIterator it = candidates.getIntIterator();
+        while (it.hasNext()) {
+            int docId = it.next();
+            if (clause.matches(docId) == wanted) {
+                kept.add(docId);
+            }
+        }
+        return kept;
+    }
+
+    private interface Clause {
+        long estimate();
+
+        RoaringBitmap materialize();
+
+        boolean matches(int docId);
+    }
+
+    private static final class BitmapClause implements Clause {
+        private final RoaringBitmap docs;
+
+        BitmapClause(RoaringBitmap docs) {
+            this.docs = docs;
+        }
+
+        @Override
+        public long estimate() {
+            return docs.getLongCardinality();
+        }
+
+        @Override
+        public RoaringBitmap materialize() {
+            return docs;
+        }
+
+        @Override
+        public boolean matches(int docId) {
+            return docs.contains(docId);
+        }
+    }
+
+    // Union of several bitmaps, only built if the clause is not probed
+    private static final class AnyBitmapClause implements Clause {
+        private final List<RoaringBitmap> docs;
+
+        AnyBitmapClause(List<RoaringBitmap> docs) {
+            this.docs = docs;
+        }
+
+        @Override
+        public long estimate() {
+            long total = 0;
+            for (RoaringBitmap bitmap : docs) {
+                total += bitmap.getLongCardinality();
+            }
+            return total;
+        }
+
+        @Override
+        public RoaringBitmap materialize() {
+            return RoaringBitmap.or(docs.iterator());
+        }
+
+        @Override
+        public boolean matches(int docId) {
+            for (RoaringBitmap bitmap : docs) {
+                if (bitmap.contains(docId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // A keyword term, matching any of its variants in any of the scored text fields
+    private static final class TermClause implements Clause {
+        private final List<Postings> lists;
+
+        TermClause(List<Postings> lists) {
+            this.lists = lists;
+        }
+
+        @Override
+        public long estimate() {
+            long total = 0;
+            for (Postings list : lists) {
+                total += list.size();
+            }
+            return total;
+        }
+
+        @Override
+        public RoaringBitmap materialize() {
+            RoaringBitmap docs = new RoaringBitmap();
+            for (Postings list : lists) {
+                docs.or(list.toBitmap());
+            }
+            return docs;
+        }
+
+        @Override
+        public boolean matches(int docId) {
+            for (Postings list : lists) {
+                if (list.contains(docId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // Docs meeting any of several clauses, as for words joined by OR
+    private static final class AnyClause implements Clause {
+        private final List<Clause> clauses;
+
+        AnyClause(List<Clause> clauses) {
+            this.clauses = clauses;
+        }
+
+        @Override
+        public long estimate() {
+            long total = 0;
+            for (Clause clause : clauses) {
+                total += clause.estimate();
+            }
+            return total;
+        }
+
+        @Override
+        public RoaringBitmap materialize() {
+            RoaringBitmap docs = new RoaringBitmap();
+            for (Clause clause : clauses) {
+                docs.or(clause.materialize());
+            }
+            return docs;
+        }
+
+        @Override
+        public boolean matches(int docId) {
+            for (Clause clause : clauses) {
+                if (clause.matches(docId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // A phrase matching in any of the fields that could hold it
+    private static final class PhraseClause implements Clause {
+        private final List<FieldPhrase> phrases;
+
+        PhraseClause(List<FieldPhrase> phrases) {
+            this.phrases = phrases;
+        }
+
+        @Override
+        public long estimate() {
+            long total = 0;
+            for (FieldPhrase phrase : phrases) {
+                total += phrase.estimate();
+            }
+            return total;
+        }
+
+        @Override
+        public RoaringBitmap materialize() {
+            RoaringBitmap docs = new RoaringBitmap();
+            for (FieldPhrase phrase : phrases) {
+                phrase.collect(docs);
+            }
+            return docs;
+        }
+
+        @Override
+        public boolean matches(int docId) {
+            for (FieldPhrase phrase : phrases) {
+                if (phrase.matches(docId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A phrase in one field: the postings of each word by its offset in the
+     * phrase. Candidates come from the rarest word, each other word is looked
+     * up from the next rarest on, and a doc matches once every word sits at
+     * its offset from one occurrence of the rarest.
+     */
+    private static final class FieldPhrase {
+        private final Postings[] lists;
+        // Phrase offsets from the rarest word to the most common
+        private final int[] order;
+        // Each word's index in its postings for the doc being checked
+        private final int[] indexes;
+
+        FieldPhrase(Postings[] lists) {
+            this.lists = lists;
+            this.order = IntStream.range(0, lists.length).boxed()
+                    .sorted(Comparator.comparingInt(i -> lists[i].size()))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            this.indexes = new int[lists.length];
+        }
+
+        long estimate() {
+            return lists[order[0]].size();
+        }
+
+        void collect(RoaringBitmap docs) {
+            Postings rarest = lists[order[0]];
+            for (int i = 0; i < rarest.size(); i++) {
+                int docId = rarest.docAt(i);
+                if (matchesAt(docId, i)) {
+                    docs.add(docId);
+                }
+            }
+        }
+
+        boolean matches(int docId) {
+            int index = lists[order[0]].indexOf(docId);
+            return index >= 0 && matchesAt(docId, index);
+        }
+
+        private boolean matchesAt(int docId, int rarestIndex) {
+            indexes[order[0]] = rarestIndex;
+            for (int k = 1; k < order.length; k++) {
+                int index = lists[order[k]].indexOf(docId);
+                if (index < 0) {
+                    return false;
+                }
+                indexes[order[k]] = index;
+            }
+            Postings rarest = lists[order[0]];
+            for (int o = 0; o < rarest.freqAt(rarestIndex); o++) {
+                int start = rarest.positionAt(rarestIndex, o) - order[0];
+                if (start >= 0 && restAt(start)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Whether every word but the rarest occurs at its offset from start
+        private boolean restAt(int start) {
+            for (int k = 1; k < order.length; k++) {
+                int offset = order[k];
+                if (!hasPosition(lists[offset], indexes[offset], start + offset)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean hasPosition(Postings list, int index, int position) {
+            int low = 0;
+            int high = list.freqAt(index) - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int at = list.positionAt(index, mid);
+                if (at < position) {
+                    low = mid + 1;
+                } else if (at > position) {
+                    high = mid - 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
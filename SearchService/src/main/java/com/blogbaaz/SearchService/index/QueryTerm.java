@@ -0,0 +1,38 @@
+package com.blogbaaz.SearchService.index;
+
+import java.util.List;
+
+/**
+ * A query term with the index terms it matches: the term itself first, then
+ * any fuzzy variants, each with its edit distance.
+ */
+final class QueryTerm {
+
+    private final List<String> variants;
+    private final int[] distances;
+
+    QueryTerm(List<String> variants, int[] distances) {
+        this.variants = variants;
+        this.distances = distances;
+    }
+
+    static QueryTerm exact(String term) {
+        return new QueryTerm(List.of(term), new int[]{0});
+    }
+
+    List<String> variants() {
+        return variants;
+    }
+
+    String variant(int i) {
+        return variants.get(i);
+    }
+
+    int distance(int i) {
+        return distances[i];
+    }
+
+    int size() {
+        return variants.size();
+    }
+}
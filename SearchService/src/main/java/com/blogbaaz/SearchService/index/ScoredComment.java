@@ -0,0 +1,19 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.dtos.CommentDto;
+import com.blogbaaz.SearchService.dtos.PostSummaryDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class ScoredComment {
+    private final CommentDto comment;
+    // The published post the comment was left on
+    private final PostSummaryDto post;
+    private final double score;
+    // Query-term snippets, or null when highlighting is off or found nothing
+    private final List<String> highlights;
+}
@@ -0,0 +1,22 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.dtos.PostSummaryDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class ScoredPost {
+    private final PostSummaryDto post;
+    private final double score;
+    // Query-term snippets, or null when highlighting is off or found nothing
+    private final List<String> highlights;
+    // Query terms matched exactly, which outranks the score in relevance order; 0 for other sorts
+    private final int tier;
+
+    public ScoredPost(PostSummaryDto post, double score, List<String> highlights) {
+        this(post, score, highlights, 0);
+    }
+}
@@ -0,0 +1,117 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.dtos.PostDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position after the last hit of a page: its sort key plus postId, which
+ * breaks ties. Resuming from it skips earlier hits without ranking them
+ * again. Sent to clients as an opaque URL-safe token.
+ */
+@Getter
+@AllArgsConstructor
+public class SearchCursor {
+
+    private static final byte VERSION = 1;
+
+    private final String sortBy;
+    private final String sortDirection;
+    private final String postId;
+    // Sort field value; null when the field is unset or the sort is by score
+    private final String value;
+    // Relevance sorts only: exactly matched terms and BM25 score of the hit
+    private final int tier;
+    private final float score;
+
+    static SearchCursor after(String sortBy, String sortDirection, PostDto post) {
+        Object value = switch (sortBy) {
+            case "createdAt", PostIndex.RELEVANCE -> post.getCreatedAt();
+            case "updatedAt" -> post.getUpdatedAt();
+            case "publishedAt" -> post.getPublishedAt();
+            case "title" -> post.getTitle();
+            case "viewCount" -> post.getViewCount();
+            case "likeCount" -> post.getLikeCount();
+            case "commentCount" -> post.getCommentCount();
+            default -> throw new IllegalArgumentException("Unsupported sort field: " + sortBy);
+        };
+        return new SearchCursor(sortBy, sortDirection, post.getPostId(),
+                value == null ? null : value.toString(), 0, 0);
+    }
+
+    static SearchCursor afterScore(String sortDirection, String postId, int tier, float score) {
+        return new SearchCursor(PostIndex.RELEVANCE, sortDirection, postId, null, tier, score);
+    }
+
+    // A stand-in post carrying just the sort field and postId, to compare hits against
+    PostDto anchor() {
+        PostDto anchor = new PostDto();
+        anchor.setPostId(postId);
+        switch (sortBy) {
+            case "createdAt", PostIndex.RELEVANCE -> anchor.setCreatedAt(dateTime());
+            case "updatedAt" -> anchor.setUpdatedAt(dateTime());
+            case "publishedAt" -> anchor.setPublishedAt(dateTime());
+            case "title" -> anchor.setTitle(value);
+            case "viewCount" -> anchor.setViewCount(Integer.parseInt(value));
+            case "likeCount" -> anchor.setLikeCount(Integer.parseInt(value));
+            case "commentCount" -> anchor.setCommentCount(Integer.parseInt(value));
+            default -> throw new IllegalArgumentException("Unsupported sort field: " + sortBy);
+        }
+        return anchor;
+    }
+
+    boolean matches(String sortBy, String sortDirection) {
+        return this.sortBy.equals(sortBy) && this.sortDirection.equalsIgnoreCase(sortDirection);
+    }
+
+    private LocalDateTime dateTime() {
+        return value == null ? null : LocalDateTime.parse(value);
+    }
+
+    public String encode() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(VERSION);
+            out.writeUTF(sortBy);
+            out.writeUTF(sortDirection);
+            out.writeUTF(postId);
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeUTF(value);
+            }
+            out.writeInt(tier);
+            out.writeFloat(score);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static SearchCursor decode(String token) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)));
+            if (in.readByte() != VERSION) {
+                throw new IllegalArgumentException("Unsupported searchAfter cursor version");
+            }
+            String sortBy = in.readUTF();
+            String sortDirection = in.readUTF();
+            String postId = in.readUTF();
+            String value = in.readBoolean() ? in.readUTF() : null;
+            SearchCursor cursor = new SearchCursor(sortBy, sortDirection, postId, value, in.readInt(), in.readFloat());
+            // Fails on a value that does not parse as the sort field's type
+            cursor.anchor();
+            return cursor;
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("Invalid searchAfter cursor", e);
+        }
+    }
+}
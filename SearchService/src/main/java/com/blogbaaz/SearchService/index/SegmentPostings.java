@@ -0,0 +1,70 @@
+package com.blogbaaz.SearchService.index;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.nio.ByteBuffer;
+
+// Postings read in place from a mapped segment: df doc ids, df frequencies, df offsets into the
+// positions that follow, then every doc's positions in doc order
+final class SegmentPostings implements Postings {
+
+    private final ByteBuffer data;
+    private final int docsAt;
+    private final int size;
+
+    SegmentPostings(ByteBuffer data, int docsAt, int size) {
+        this.data = data;
+        this.docsAt = docsAt;
+        this.size = size;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int docAt(int index) {
+        return data.getInt(docsAt + 4 * index);
+    }
+
+    @Override
+    public int freqAt(int index) {
+        return data.getInt(docsAt + 4 * (size + index));
+    }
+
+    @Override
+    public int positionAt(int index, int occurrence) {
+        int positionsAt = docsAt + 12 * size;
+        return data.getInt(positionsAt + 4 * (data.getInt(docsAt + 4 * (2 * size + index)) + occurrence));
+    }
+
+    @Override
+    public int indexOf(int docId) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int doc = docAt(mid);
+            if (doc < docId) {
+                low = mid + 1;
+            } else if (doc > docId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    @Override
+    public RoaringBitmap toBitmap() {
+        int[] docs = new int[size];
+        for (int i = 0; i < size; i++) {
+            docs[i] = docAt(i);
+        }
+        RoaringBitmap bitmap = new RoaringBitmap();
+        bitmap.addN(docs, 0, size);
+        return bitmap;
+    }
+}
@@ -0,0 +1,175 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.config.SearchConfig;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Segment files and the checkpoint naming the ones in use, in one directory.
+ * A segment is complete and synced before any checkpoint refers to it, and
+ * the checkpoint is replaced atomically, so a crash leaves either the old or
+ * the new set of segments. Files no checkpoint refers to are removed.
+ */
+@Component
+@Slf4j
+class SegmentStore {
+
+    private static final String CHECKPOINT = "checkpoint";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int CHECKPOINT_MAGIC = 0x42424350;
+    private static final int CHECKPOINT_VERSION = 1;
+
+    private final Path directory;
+    private long nextSegment = -1;
+
+    SegmentStore(SearchConfig searchConfig) {
+        Path base = Path.of(searchConfig.getIndex().getDirectory());
+        SearchConfig.Shards shards = searchConfig.getShards();
+        // Shards of one layout can share a machine and base directory; another layout starts from a full load
+        this.directory = shards.getCount() > 1
+                ? base.resolve("shard-" + shards.getIndex() + "-of-" + shards.getCount())
+                : base;
+    }
+
+    // Writes the parts' live docs to a new segment and maps it
+    Written write(List<? extends IndexPart> parts, List<RoaringBitmap> deletes) throws IOException {
+        Files.createDirectories(directory);
+        Path path = directory.resolve(nextSegmentName());
+        try {
+            int[][] docMaps = SegmentWriter.write(parts, deletes, path);
+            return new Written(IndexSegment.open(path), docMaps);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        }
+    }
+
+    List<IndexSegment> open(Checkpoint checkpoint) throws IOException {
+        List<IndexSegment> segments = new ArrayList<>();
+        for (String name : checkpoint.getSegments()) {
+            segments.add(IndexSegment.open(directory.resolve(name)));
+        }
+        return segments;
+    }
+
+    // Null when nothing has been checkpointed yet
+    Checkpoint readCheckpoint() throws IOException {
+        Path path = directory.resolve(CHECKPOINT);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+            if (in.readInt() != CHECKPOINT_MAGIC || in.readInt() != CHECKPOINT_VERSION) {
+                throw new IOException("Unrecognized search index checkpoint");
+            }
+            long changeSeq = in.readLong();
+            int count = in.readInt();
+            List<String> segments = new ArrayList<>(count);
+            List<RoaringBitmap> deletes = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                segments.add(in.readUTF());
+                RoaringBitmap deleted = new RoaringBitmap();
+                deleted.deserialize(in);
+                deletes.add(deleted);
+            }
+            return new Checkpoint(changeSeq, segments, deletes);
+        }
+    }
+
+    void writeCheckpoint(Checkpoint checkpoint) throws IOException {
+        Files.createDirectories(directory);
+        Path temp = directory.resolve(CHECKPOINT + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            out.writeInt(CHECKPOINT_MAGIC);
+            out.writeInt(CHECKPOINT_VERSION);
+            out.writeLong(checkpoint.getChangeSeq());
+            out.writeInt(checkpoint.getSegments().size());
+            for (int i = 0; i < checkpoint.getSegments().size(); i++) {
+                out.writeUTF(checkpoint.getSegments().get(i));
+                RoaringBitmap deleted = checkpoint.getDeletes().get(i);
+                deleted.runOptimize();
+                deleted.serialize(out);
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        deleteUnreferenced(checkpoint.getSegments());
+    }
+
+    // Segments merged away, or left by a write that never made it into a checkpoint
+    private void deleteUnreferenced(Collection<String> inUse) {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> isSegment(path) && !inUse.contains(path.getFileName().toString()))
+                    .forEach(path -> {
+                        try {
+                            Files.deleteIfExists(path);
+                        } catch (IOException e) {
+                            // Still mapped on some platforms; the next checkpoint tries again
+                            log.debug("Could not delete unused index segment {}: {}", path, e.getMessage());
+                        }
+                    });
+        } catch (IOException e) {
+            log.warn("Could not clean up the search index directory: {}", e.getMessage());
+        }
+    }
+
+    private synchronized String nextSegmentName() throws IOException {
+        if (nextSegment < 0) {
+            nextSegment = 0;
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path path : (Iterable<Path>) files::iterator) {
+                    if (isSegment(path)) {
+                        String name = path.getFileName().toString();
+                        long number = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                        nextSegment = Math.max(nextSegment, number + 1);
+                    }
+                }
+            }
+        }
+        return SEGMENT_PREFIX + nextSegment++ + SEGMENT_SUFFIX;
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.matches(SEGMENT_PREFIX + "\\d+" + SEGMENT_SUFFIX.replace(".", "\\."));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static final class Written {
+        private final IndexSegment segment;
+        // Old doc id -> new doc id, per part written
+        private final int[][] docMaps;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static final class Checkpoint {
+        // Change feed position the segments are current to, -1 if unknown
+        private final long changeSeq;
+        private final List<String> segments;
+        private final List<RoaringBitmap> deletes;
+    }
+}
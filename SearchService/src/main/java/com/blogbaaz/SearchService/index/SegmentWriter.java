@@ -0,0 +1,433 @@
+package com.blogbaaz.SearchService.index;
+
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Writes the live docs of one or more index parts into a single segment file,
+ * in part order, so a flush of the buffer and a merge of segments are the
+ * same operation. Terms are merged part by part in sorted order; deleted docs
+ * are dropped and the rest renumbered densely.
+ * <p>
+ * Layout: stored posts and their offsets, doc values per numeric sort field,
+ * field lengths, the published bitmap, per field its postings (with token
+ * positions) or bitmaps followed by the sorted term table (and, for
+ * exact-value fields, each doc's value ordinals into that table), the postId
+ * table, the fuzzy term dictionary, and last a directory of section positions
+ * and a footer.
+ */
+final class SegmentWriter {
+
+    // Code point order, which is also the byte order of the UTF-8 the segment stores
+    static final Comparator<String> TERM_ORDER = (a, b) -> {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int ca = a.codePointAt(i);
+            int cb = b.codePointAt(j);
+            if (ca != cb) {
+                return Integer.compare(ca, cb);
+            }
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    };
+
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    private final List<? extends IndexPart> parts;
+    private final List<RoaringBitmap> deletes;
+    // Old doc id -> new doc id per part, -1 for docs not carried over
+    private final int[][] docMaps;
+    private final int maxDoc;
+    private DataOutputStream out;
+    // Section positions, in the order IndexSegment reads them back
+    private final ByteArrayOutputStream directoryBytes = new ByteArrayOutputStream();
+    private final DataOutputStream directory = new DataOutputStream(directoryBytes);
+
+    private SegmentWriter(List<? extends IndexPart> parts, List<RoaringBitmap> deletes) {
+        this.parts = parts;
+        this.deletes = deletes;
+        this.docMaps = new int[parts.size()][];
+        int next = 0;
+        for (int p = 0; p < parts.size(); p++) {
+            int[] docMap = new int[parts.get(p).maxDoc()];
+            Arrays.fill(docMap, -1);
+            PeekableIntIterator it = RoaringBitmap.andNot(parts.get(p).liveDocs(), deletes.get(p)).getIntIterator();
+            while (it.hasNext()) {
+                docMap[it.next()] = next++;
+            }
+            docMaps[p] = docMap;
+        }
+        this.maxDoc = next;
+    }
+
+    /**
+     * Writes the parts' docs, minus the given deletes, to path and syncs it.
+     * Returns each part's doc map, for carrying over deletes made meanwhile.
+     */
+    static int[][] write(List<? extends IndexPart> parts, List<RoaringBitmap> deletes, Path path) throws IOException {
+        SegmentWriter writer = new SegmentWriter(parts, deletes);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writer.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), COPY_BUFFER_BYTES));
+            writer.writeSegment();
+            writer.out.flush();
+            channel.force(true);
+        }
+        return writer.docMaps;
+    }
+
+    private void writeSegment() throws IOException {
+        // Stored posts, then where each starts
+        int[] storedOffsets = new int[maxDoc + 1];
+        byte[] copyBuffer = new byte[COPY_BUFFER_BYTES];
+        forEachDoc((part, docId, newDocId) -> {
+            storedOffsets[newDocId] = position();
+            ByteBuffer stored = part.storedBytes(docId);
+            while (stored.hasRemaining()) {
+                int length = Math.min(stored.remaining(), copyBuffer.length);
+                stored.get(copyBuffer, 0, length);
+                out.write(copyBuffer, 0, length);
+            }
+        });
+        storedOffsets[maxDoc] = position();
+        directory.writeInt(maxDoc);
+        directory.writeInt(position());
+        for (int offset : storedOffsets) {
+            out.writeInt(offset);
+        }
+
+        for (SortField field : SortField.values()) {
+            if (field.isNumeric()) {
+                directory.writeInt(position());
+                forEachDoc((part, docId, newDocId) -> out.writeLong(part.sortValue(field, docId)));
+            }
+        }
+
+        TreeSet<String> fuzzyTerms = new TreeSet<>(TERM_ORDER);
+        for (IndexField field : IndexField.values()) {
+            if (field.isTokenized()) {
+                writeTextField(field, fuzzyTerms);
+            } else {
+                writeValueField(field);
+            }
+        }
+
+        RoaringBitmap published = new RoaringBitmap();
+        forEachDoc((part, docId, newDocId) -> {
+            if (part.publishedDocs().contains(docId)) {
+                published.add(newDocId);
+            }
+        });
+        directory.writeInt(position());
+        writeBitmap(published);
+        directory.writeInt(position());
+
+        writePostIds();
+        writeFuzzyTerms(fuzzyTerms);
+
+        int directoryAt = position();
+        directoryBytes.writeTo(out);
+        out.writeInt(directoryAt);
+        out.writeInt(IndexSegment.MAGIC);
+        out.writeInt(IndexSegment.VERSION);
+    }
+
+    private void writeTextField(IndexField field, Set<String> fuzzyTerms) throws IOException {
+        int lengthsAt = position();
+        long[] total = new long[1];
+        int[] docCount = new int[1];
+        forEachDoc((part, docId, newDocId) -> {
+            int length = part.fieldLength(field, docId);
+            total[0] += length;
+            docCount[0] += Integer.signum(length);
+            out.writeInt(length);
+        });
+
+        boolean searchable = Arrays.asList(Bm25Scorer.FIELDS).contains(field);
+        List<String> terms = new ArrayList<>();
+        List<Integer> postingsAt = new ArrayList<>();
+        List<Integer> dfs = new ArrayList<>();
+        int[] docs = new int[16];
+        int[] freqs = new int[16];
+        int[] positions = new int[16];
+        for (MergedTerms merged = new MergedTerms(field); merged.next(); ) {
+            int df = 0;
+            int positionCount = 0;
+            for (int p = 0; p < parts.size(); p++) {
+                Postings postings = merged.has(p) ? parts.get(p).postings(field, merged.term) : null;
+                if (postings == null) {
+                    continue;
+                }
+                for (int i = 0; i < postings.size(); i++) {
+                    int newDocId = docMaps[p][postings.docAt(i)];
+                    if (newDocId < 0) {
+                        continue;
+                    }
+                    if (df == docs.length) {
+                        docs = Arrays.copyOf(docs, df * 2);
+                        freqs = Arrays.copyOf(freqs, df * 2);
+                    }
+                    int freq = postings.freqAt(i);
+                    if (positionCount + freq > positions.length) {
+                        positions = Arrays.copyOf(positions, Math.max(positions.length * 2, positionCount + freq));
+                    }
+                    for (int o = 0; o < freq; o++) {
+                        positions[positionCount++] = postings.positionAt(i, o);
+                    }
+                    docs[df] = newDocId;
+                    freqs[df++] = freq;
+                }
+            }
+            if (df == 0) {
+                continue;
+            }
+            terms.add(merged.term);
+            postingsAt.add(position());
+            dfs.add(df);
+            for (int i = 0; i < df; i++) {
+                out.writeInt(docs[i]);
+            }
+            for (int i = 0; i < df; i++) {
+                out.writeInt(freqs[i]);
+            }
+            for (int i = 0, start = 0; i < df; start += freqs[i++]) {
+                out.writeInt(start);
+            }
+            for (int i = 0; i < positionCount; i++) {
+                out.writeInt(positions[i]);
+            }
+            if (searchable) {
+                fuzzyTerms.add(merged.term);
+            }
+        }
+
+        directory.writeInt(lengthsAt);
+        directory.writeLong(total[0]);
+        directory.writeInt(docCount[0]);
+        directory.writeInt(position());
+        writeTable(terms);
+        directory.writeInt(position());
+        writeInts(postingsAt);
+        directory.writeInt(position());
+        writeInts(dfs);
+    }
+
+    private void writeValueField(IndexField field) throws IOException {
+        List<String> values = new ArrayList<>();
+        List<Integer> bounds = new ArrayList<>();
+        List<RoaringBitmap> docsByOrd = new ArrayList<>();
+        for (MergedTerms merged = new MergedTerms(field); merged.next(); ) {
+            RoaringBitmap docs = new RoaringBitmap();
+            for (int p = 0; p < parts.size(); p++) {
+                RoaringBitmap partDocs = merged.has(p) ? parts.get(p).valueDocs(field, merged.term) : null;
+                if (partDocs == null) {
+                    continue;
+                }
+                int[] docMap = docMaps[p];
+                partDocs.forEach((int docId) -> {
+                    if (docMap[docId] >= 0) {
+                        docs.add(docMap[docId]);
+                    }
+                });
+            }
+            if (docs.isEmpty()) {
+                continue;
+            }
+            values.add(merged.term);
+            bounds.add(position());
+            writeBitmap(docs);
+            docsByOrd.add(docs);
+        }
+        bounds.add(position());
+        directory.writeInt(position());
+        writeTable(values);
+        directory.writeInt(position());
+        writeInts(bounds);
+        writeOrds(docsByOrd);
+    }
+
+    // Per doc, the ordinals of its values in ascending order: maxDoc + 1 offsets, then the ordinals
+    private void writeOrds(List<RoaringBitmap> docsByOrd) throws IOException {
+        int[] offsets = new int[maxDoc + 1];
+        for (RoaringBitmap docs : docsByOrd) {
+            docs.forEach((int docId) -> offsets[docId + 1]++);
+        }
+        for (int docId = 0; docId < maxDoc; docId++) {
+            offsets[docId + 1] += offsets[docId];
+        }
+        int[] ords = new int[offsets[maxDoc]];
+        int[] next = Arrays.copyOf(offsets, maxDoc);
+        for (int ord = 0; ord < docsByOrd.size(); ord++) {
+            int value = ord;
+            docsByOrd.get(ord).forEach((int docId) -> ords[next[docId]++] = value);
+        }
+        directory.writeInt(position());
+        for (int offset : offsets) {
+            out.writeInt(offset);
+        }
+        directory.writeInt(position());
+        for (int ord : ords) {
+            out.writeInt(ord);
+        }
+    }
+
+    // Each live post once; a post deleted from one part may be live in a later one
+    private void writePostIds() throws IOException {
+        List<String> postIds = new ArrayList<>(maxDoc);
+        List<Integer> docIds = new ArrayList<>(maxDoc);
+        for (MergedTerms merged = new MergedTerms(null); merged.next(); ) {
+            for (int p = parts.size() - 1; p >= 0; p--) {
+                int docId = merged.has(p) ? parts.get(p).docId(merged.term) : -1;
+                if (docId >= 0 && docMaps[p][docId] >= 0) {
+                    postIds.add(merged.term);
+                    docIds.add(docMaps[p][docId]);
+                    break;
+                }
+            }
+        }
+        directory.writeInt(position());
+        writeTable(postIds);
+        directory.writeInt(position());
+        writeInts(docIds);
+    }
+
+    // Keyword-searchable terms with the ids of the terms containing each trigram, as TermDictionary keeps them
+    private void writeFuzzyTerms(TreeSet<String> fuzzyTerms) throws IOException {
+        List<String> terms = new ArrayList<>(fuzzyTerms);
+        Map<String, RoaringBitmap> termIdsByTrigram = new HashMap<>();
+        for (int termId = 0; termId < terms.size(); termId++) {
+            for (String trigram : TermDictionary.trigrams(terms.get(termId))) {
+                termIdsByTrigram.computeIfAbsent(trigram, t -> new RoaringBitmap()).add(termId);
+            }
+        }
+        List<String> trigrams = new ArrayList<>(termIdsByTrigram.keySet());
+        trigrams.sort(TERM_ORDER);
+        List<Integer> bounds = new ArrayList<>(trigrams.size() + 1);
+        for (String trigram : trigrams) {
+            bounds.add(position());
+            writeBitmap(termIdsByTrigram.get(trigram));
+        }
+        bounds.add(position());
+
+        directory.writeInt(position());
+        writeTable(terms);
+        directory.writeInt(position());
+        writeTable(trigrams);
+        directory.writeInt(position());
+        writeInts(bounds);
+    }
+
+    private void writeTable(List<String> sorted) throws IOException {
+        List<byte[]> encoded = new ArrayList<>(sorted.size());
+        for (String string : sorted) {
+            encoded.add(string.getBytes(StandardCharsets.UTF_8));
+        }
+        out.writeInt(encoded.size());
+        int offset = 0;
+        out.writeInt(offset);
+        for (byte[] bytes : encoded) {
+            offset += bytes.length;
+            out.writeInt(offset);
+        }
+        for (byte[] bytes : encoded) {
+            out.write(bytes);
+        }
+    }
+
+    private void writeInts(List<Integer> values) throws IOException {
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private void writeBitmap(RoaringBitmap bitmap) throws IOException {
+        bitmap.runOptimize();
+        bitmap.serialize(out);
+    }
+
+    // Segments are addressed with int offsets, so each must stay under 2 GB
+    private int position() throws IOException {
+        int written = out.size();
+        if (written == Integer.MAX_VALUE) {
+            throw new IOException("Search index segment exceeds 2 GB");
+        }
+        return written;
+    }
+
+    private void forEachDoc(DocConsumer consumer) throws IOException {
+        for (int p = 0; p < parts.size(); p++) {
+            IndexPart part = parts.get(p);
+            int[] docMap = docMaps[p];
+            for (int docId = 0; docId < docMap.length; docId++) {
+                if (docMap[docId] >= 0) {
+                    consumer.accept(part, docId, docMap[docId]);
+                }
+            }
+        }
+    }
+
+    private interface DocConsumer {
+        void accept(IndexPart part, int docId, int newDocId) throws IOException;
+    }
+
+    // Walks the sorted terms of one field (postIds when field is null) across all parts at once
+    private final class MergedTerms {
+        private final List<List<String>> lists = new ArrayList<>();
+        private final int[] positions;
+        private final boolean[] current;
+        private final String[] heads;
+        String term;
+
+        MergedTerms(IndexField field) {
+            for (IndexPart part : parts) {
+                lists.add(field == null ? part.postIds() : part.terms(field));
+            }
+            positions = new int[lists.size()];
+            current = new boolean[lists.size()];
+            heads = new String[lists.size()];
+        }
+
+        boolean next() {
+            for (int p = 0; p < lists.size(); p++) {
+                if (current[p]) {
+                    positions[p]++;
+                }
+            }
+            String smallest = null;
+            for (int p = 0; p < lists.size(); p++) {
+                heads[p] = null;
+                if (positions[p] < lists.get(p).size()) {
+                    heads[p] = lists.get(p).get(positions[p]);
+                    if (smallest == null || TERM_ORDER.compare(heads[p], smallest) < 0) {
+                        smallest = heads[p];
+                    }
+                }
+            }
+            for (int p = 0; p < lists.size(); p++) {
+                current[p] = smallest != null && smallest.equals(heads[p]);
+            }
+            term = smallest;
+            return smallest != null;
+        }
+
+        // Whether part p has the current term
+        boolean has(int p) {
+            return current[p];
+        }
+    }
+}
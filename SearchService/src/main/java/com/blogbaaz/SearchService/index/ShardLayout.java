@@ -0,0 +1,51 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.config.SearchConfig;
+import org.springframework.stereotype.Component;
+
+/**
+ * Which shard this instance is and which posts it holds. A post belongs to
+ * exactly one of search.shards.count shards, picked by a hash of its postId
+ * that every instance computes the same way.
+ */
+@Component
+public class ShardLayout {
+
+    private final int count;
+    private final int index;
+
+    public ShardLayout(SearchConfig searchConfig) {
+        this.count = Math.max(1, searchConfig.getShards().getCount());
+        this.index = searchConfig.getShards().getIndex();
+        if (index < 0 || index >= count) {
+            throw new IllegalStateException("search.shards.index must be between 0 and " + (count - 1) + ", was " + index);
+        }
+    }
+
+    public boolean isSharded() {
+        return count > 1;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int index() {
+        return index;
+    }
+
+    // String.hashCode is fixed by the language spec, so shards agree across JVMs; mixed so nearby ids spread out
+    public int shardOf(String postId) {
+        long hash = postId.hashCode() * 0x9e3779b97f4a7c15L;
+        return (int) Math.floorMod(hash ^ hash >>> 32, (long) count);
+    }
+
+    public boolean owns(String postId) {
+        return count == 1 || shardOf(postId) == index;
+    }
+
+    // As registered in Eureka metadata, so coordinators skip instances of a different layout
+    public static String label(int index, int count) {
+        return index + "/" + count;
+    }
+}
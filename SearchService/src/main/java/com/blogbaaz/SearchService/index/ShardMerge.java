@@ -0,0 +1,115 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.dtos.FacetCount;
+import com.blogbaaz.SearchService.dtos.PostDto;
+import com.blogbaaz.SearchService.dtos.PostSummaryDto;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges the pages several shards returned for one {@link PostIndex#search}
+ * into the page a single index would have returned. Each shard ranks its
+ * own hits as search does, so the merged page is the best limit hits of all
+ * pages under that same order. Relevance ties between shards go to the lower
+ * shard, which is the order {@link PostIndex} resumes cursors in.
+ */
+public final class ShardMerge {
+
+    private static final Comparator<String> TITLE_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+    private static final Comparator<ScoredPost> RELEVANCE_ORDER = Comparator
+            .comparingInt(ScoredPost::getTier).reversed()
+            .thenComparing(Comparator.comparingDouble(ScoredPost::getScore).reversed());
+
+    private ShardMerge() {
+    }
+
+    /**
+     * Pages are given in shard order. Totals and facet counts are summed;
+     * facet values a shard cut from its own top list are missed, so shards
+     * should be asked for more values than the merged result keeps.
+     */
+    public static PostHits merge(List<PostHits> pages, String keyword, String sortBy, String sortDir, int limit,
+                                 int facetSize, List<Integer> missingShards) {
+        String sortField = sortBy == null ? "createdAt" : sortBy;
+        String direction = "asc".equalsIgnoreCase(sortDir) ? "asc" : "desc";
+        boolean relevance = PostIndex.RELEVANCE.equals(sortField) && !KeywordQuery.parse(keyword).scoredTerms().isEmpty();
+
+        List<ScoredPost> all = new ArrayList<>();
+        long total = 0;
+        boolean more = false;
+        for (PostHits page : pages) {
+            all.addAll(page.getHits());
+            total += page.getTotalHits();
+            more |= page.getNext() != null;
+        }
+        // Stable, so relevance ties stay in shard order and then each shard's own order
+        all.sort(relevance ? RELEVANCE_ORDER : fieldOrder(SortField.of(sortField), "asc".equals(direction)));
+        List<ScoredPost> hits = all.size() > limit ? new ArrayList<>(all.subList(0, Math.max(limit, 0))) : all;
+        more |= all.size() > hits.size();
+
+        SearchCursor next = null;
+        if (more && !hits.isEmpty()) {
+            ScoredPost last = hits.get(hits.size() - 1);
+            next = relevance
+                    ? SearchCursor.afterScore(direction, last.getPost().getPostId(), last.getTier(), (float) last.getScore())
+                    : SearchCursor.after(sortField, direction, sortKeys(last.getPost()));
+        }
+        return new PostHits(hits, total, next, mergeFacets(pages, facetSize), missingShards);
+    }
+
+    // The order DocSort gives: the field, then postId ascending whichever the direction
+    private static Comparator<ScoredPost> fieldOrder(SortField field, boolean ascending) {
+        Comparator<PostDto> byField = field.isNumeric()
+                ? Comparator.comparingLong(field::value)
+                : Comparator.comparing(PostDto::getTitle, TITLE_ORDER);
+        if (!ascending) {
+            byField = byField.reversed();
+        }
+        return Comparator.comparing(hit -> sortKeys(hit.getPost()), byField.thenComparing(PostDto::getPostId));
+    }
+
+    // Just the fields hits sort and resume on
+    private static PostDto sortKeys(PostSummaryDto post) {
+        return PostDto.builder()
+                .postId(post.getPostId())
+                .title(post.getTitle())
+                .createdAt(post.getCreatedAt())
+                .updatedAt(post.getUpdatedAt())
+                .publishedAt(post.getPublishedAt())
+                .viewCount(post.getViewCount())
+                .likeCount(post.getLikeCount())
+                .commentCount(post.getCommentCount())
+                .build();
+    }
+
+    // Same order as FacetCollector: most common first, then by value
+    private static Map<String, List<FacetCount>> mergeFacets(List<PostHits> pages, int facetSize) {
+        Map<String, Map<String, Long>> totals = new LinkedHashMap<>();
+        for (PostHits page : pages) {
+            if (page.getFacets() == null) {
+                continue;
+            }
+            page.getFacets().forEach((facet, counts) -> {
+                Map<String, Long> facetTotals = totals.computeIfAbsent(facet, f -> new HashMap<>());
+                counts.forEach(count -> facetTotals.merge(count.getValue(), count.getCount(), Long::sum));
+            });
+        }
+        if (totals.isEmpty()) {
+            return null;
+        }
+        Comparator<Map.Entry<String, Long>> order = Map.Entry.<String, Long>comparingByValue().reversed()
+                .thenComparing(Map.Entry::getKey, SegmentWriter.TERM_ORDER);
+        Map<String, List<FacetCount>> result = new LinkedHashMap<>();
+        totals.forEach((facet, counts) -> {
+            TopKCollector<Map.Entry<String, Long>> top = new TopKCollector<>(order, facetSize);
+            counts.entrySet().forEach(top::offer);
+            result.put(facet, top.toList().stream().map(entry -> new FacetCount(entry.getKey(), entry.getValue())).toList());
+        });
+        return result;
+    }
+}
@@ -0,0 +1,71 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.dtos.PostDto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Fields results can be sorted on. Every field except the title is kept per
+ * doc as a long (dates as nanoseconds since the epoch, unset dates lowest),
+ * so sorting never has to load whole posts.
+ */
+enum SortField {
+    CREATED_AT("createdAt"),
+    UPDATED_AT("updatedAt"),
+    PUBLISHED_AT("publishedAt"),
+    TITLE("title"),
+    VIEW_COUNT("viewCount"),
+    LIKE_COUNT("likeCount"),
+    COMMENT_COUNT("commentCount");
+
+    static final long NULL_DATE = Long.MIN_VALUE;
+
+    private final String name;
+
+    SortField(String name) {
+        this.name = name;
+    }
+
+    static SortField of(String sortBy) {
+        // Without a keyword there is nothing to rank on, so relevance falls back to recency
+        if (sortBy == null || PostIndex.RELEVANCE.equals(sortBy)) {
+            return CREATED_AT;
+        }
+        for (SortField field : values()) {
+            if (field.name.equals(sortBy)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort field: " + sortBy);
+    }
+
+    boolean isNumeric() {
+        return this != TITLE;
+    }
+
+    long value(PostDto post) {
+        return switch (this) {
+            case CREATED_AT -> encode(post.getCreatedAt());
+            case UPDATED_AT -> encode(post.getUpdatedAt());
+            case PUBLISHED_AT -> encode(post.getPublishedAt());
+            case VIEW_COUNT -> post.getViewCount();
+            case LIKE_COUNT -> post.getLikeCount();
+            case COMMENT_COUNT -> post.getCommentCount();
+            case TITLE -> throw new IllegalStateException("Titles are compared as text");
+        };
+    }
+
+    static long encode(LocalDateTime dateTime) {
+        return dateTime == null
+                ? NULL_DATE
+                : dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + dateTime.getNano();
+    }
+
+    static LocalDateTime decode(long value) {
+        return value == NULL_DATE
+                ? null
+                : LocalDateTime.ofEpochSecond(Math.floorDiv(value, 1_000_000_000L),
+                        (int) Math.floorMod(value, 1_000_000_000L), ZoneOffset.UTC);
+    }
+}
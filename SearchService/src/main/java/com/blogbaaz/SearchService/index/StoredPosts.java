@@ -0,0 +1,156 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.dtos.PostDto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Binary form of a post inside a segment. postId and title come first so
+ * they can be read without the rest, and content comes last so summaries
+ * can stop before it.
+ */
+final class StoredPosts {
+
+    private StoredPosts() {
+    }
+
+    static byte[] encode(PostDto post) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 + length(post.getContent()));
+            DataOutputStream out = new DataOutputStream(bytes);
+            writeString(out, post.getPostId());
+            writeString(out, post.getTitle());
+            writeString(out, post.getExcerpt());
+            writeString(out, post.getAuthorId());
+            writeString(out, post.getAuthorName());
+            writeString(out, post.getStatus());
+            writeString(out, post.getCategory());
+            writeString(out, post.getSlug());
+            writeString(out, post.getFeaturedImage());
+            out.writeBoolean(post.isPublished());
+            out.writeInt(post.getViewCount());
+            out.writeInt(post.getLikeCount());
+            out.writeInt(post.getCommentCount());
+            out.writeLong(SortField.encode(post.getCreatedAt()));
+            out.writeLong(SortField.encode(post.getUpdatedAt()));
+            out.writeLong(SortField.encode(post.getPublishedAt()));
+            out.writeInt(post.getTags() == null ? -1 : post.getTags().size());
+            if (post.getTags() != null) {
+                for (String tag : post.getTags()) {
+                    writeString(out, tag);
+                }
+            }
+            writeString(out, post.getContent());
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static PostDto decode(ByteBuffer data, int offset, boolean withContent) {
+        Reader in = new Reader(data, offset);
+        PostDto post = PostDto.builder()
+                .postId(in.string())
+                .title(in.string())
+                .excerpt(in.string())
+                .authorId(in.string())
+                .authorName(in.string())
+                .status(in.string())
+                .category(in.string())
+                .slug(in.string())
+                .featuredImage(in.string())
+                .isPublished(in.bool())
+                .viewCount(in.integer())
+                .likeCount(in.integer())
+                .commentCount(in.integer())
+                .createdAt(SortField.decode(in.longValue()))
+                .updatedAt(SortField.decode(in.longValue()))
+                .publishedAt(SortField.decode(in.longValue()))
+                .build();
+        int tagCount = in.integer();
+        if (tagCount >= 0) {
+            Set<String> tags = new HashSet<>(tagCount * 2);
+            for (int i = 0; i < tagCount; i++) {
+                tags.add(in.string());
+            }
+            post.setTags(tags);
+        }
+        if (withContent) {
+            post.setContent(in.string());
+        }
+        return post;
+    }
+
+    static String postId(ByteBuffer data, int offset) {
+        return new Reader(data, offset).string();
+    }
+
+    static String title(ByteBuffer data, int offset) {
+        Reader in = new Reader(data, offset);
+        in.skipString();
+        return in.string();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    // Absolute reads from a shared buffer, so concurrent readers never touch its position
+    private static final class Reader {
+        private final ByteBuffer data;
+        private int pos;
+
+        Reader(ByteBuffer data, int pos) {
+            this.data = data;
+            this.pos = pos;
+        }
+
+        String string() {
+            int length = integer();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            data.get(pos, bytes);
+            pos += length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        void skipString() {
+            int length = integer();
+            pos += Math.max(length, 0);
+        }
+
+        int integer() {
+            int value = data.getInt(pos);
+            pos += 4;
+            return value;
+        }
+
+        long longValue() {
+            long value = data.getLong(pos);
+            pos += 8;
+            return value;
+        }
+
+        boolean bool() {
+            return data.get(pos++) != 0;
+        }
+    }
+}
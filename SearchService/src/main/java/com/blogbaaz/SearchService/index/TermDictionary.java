@@ -0,0 +1,99 @@
+package com.blogbaaz.SearchService.index;
+
+import org.roaringbitmap.ImmutableBitmapDataProvider;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Vocabulary of the keyword-searchable fields with a trigram index over it,
+ * used to find terms within a small edit distance of a query term. Terms are
+ * only added; ones whose postings have since emptied are filtered out by the
+ * caller and dropped on the next rebuild. Segments keep the same trigram
+ * index on disk and search it with {@link #similar(String, int, int, Function, IntFunction)}.
+ */
+final class TermDictionary {
+
+    private static final char PAD = '\u0000';
+
+    private final List<String> terms = new ArrayList<>();
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final Map<String, RoaringBitmap> termIdsByTrigram = new HashMap<>();
+
+    void add(String term) {
+        if (termIds.containsKey(term)) {
+            return;
+        }
+        int termId = terms.size();
+        terms.add(term);
+        termIds.put(term, termId);
+        for (String trigram : trigrams(term)) {
+            termIdsByTrigram.computeIfAbsent(trigram, t -> new RoaringBitmap()).add(termId);
+        }
+    }
+
+    /**
+     * Terms other than the given one within maxEdits of it. An edit breaks at
+     * most four trigrams (a transposition), so candidates must share all but
+     * 4 * maxEdits of the term's trigrams, and at least one, before the exact
+     * distance is checked.
+     */
+    List<String> similar(String term, int maxEdits) {
+        return similar(term, maxEdits, terms.size(), termIdsByTrigram::get, terms::get);
+    }
+
+    // The same search over any numbering of terms, given the term ids per trigram
+    static List<String> similar(String term, int maxEdits, int termCount,
+                                Function<String, ? extends ImmutableBitmapDataProvider> termIdsByTrigram,
+                                IntFunction<String> termAt) {
+        List<String> result = new ArrayList<>();
+        if (maxEdits == 0) {
+            return result;
+        }
+        List<String> trigrams = trigrams(term);
+        int required = Math.max(1, trigrams.size() - 4 * maxEdits);
+
+        int[] shared = new int[termCount];
+        RoaringBitmap candidates = new RoaringBitmap();
+        for (String trigram : trigrams) {
+            ImmutableBitmapDataProvider ids = termIdsByTrigram.apply(trigram);
+            if (ids == null) {
+                continue;
+            }
+            PeekableIntIterator it = ids.getIntIterator();
+            while (it.hasNext()) {
+                int termId = it.next();
+                if (++shared[termId] == required) {
+                    candidates.add(termId);
+                }
+            }
+        }
+
+        PeekableIntIterator it = candidates.getIntIterator();
+        while (it.hasNext()) {
+            String candidate = termAt.apply(it.next());
+            if (Math.abs(candidate.length() - term.length()) <= maxEdits
+                    && !candidate.equals(term)
+                    && EditDistance.within(term, candidate, maxEdits)) {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+
+    // Padded with two chars on each side, so short terms still have trigrams to share
+    static List<String> trigrams(String term) {
+        String padded = "" + PAD + PAD + term + PAD + PAD;
+        List<String> trigrams = new ArrayList<>(padded.length() - 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+}
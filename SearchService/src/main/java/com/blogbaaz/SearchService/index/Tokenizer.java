@@ -0,0 +1,29 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.analysis.Analyzer;
+
+import java.util.List;
+
+/**
+ * The terms posts and comments are indexed under, and keywords looked up
+ * by: text run through {@link Analyzer#STANDARD}. Indexing and search must
+ * agree, so both go through here.
+ */
+public final class Tokenizer {
+
+    private Tokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        return Analyzer.STANDARD.terms(text);
+    }
+
+    public static void tokenize(String text, Analyzer.TokenConsumer consumer) {
+        Analyzer.STANDARD.analyze(text, consumer);
+    }
+
+    // Combining marks and joiners are kept so that scripts like Bangla don't split on vowel signs
+    public static boolean isTokenChar(char c) {
+        return Analyzer.isTokenChar(c);
+    }
+}
@@ -0,0 +1,88 @@
+package com.blogbaaz.SearchService.index;
+
+/**
+ * Bounded min-heap selection of the best scored hits, so only the requested
+ * page of results is ever materialized.
+ */
+final class TopDocs {
+
+    private TopDocs() {
+    }
+
+    // Positions into docIds/scores of the k best hits, best first. A higher tier
+    // always wins; within a tier the higher score, then the higher (more recently
+    // indexed) doc id.
+    static int[] select(int[] docIds, int[] tiers, float[] scores, int k) {
+        int size = Math.min(k, docIds.length);
+        if (size <= 0) {
+            return new int[0];
+        }
+
+        int[] heap = new int[size];
+        int count = 0;
+        for (int pos = 0; pos < docIds.length; pos++) {
+            if (count < size) {
+                heap[count] = pos;
+                siftUp(heap, count++, docIds, tiers, scores);
+            } else if (better(pos, heap[0], docIds, tiers, scores)) {
+                heap[0] = pos;
+                siftDown(heap, count, docIds, tiers, scores);
+            }
+        }
+
+        int[] result = new int[count];
+        for (int i = count - 1; i >= 0; i--) {
+            result[i] = heap[0];
+            heap[0] = heap[i];
+            siftDown(heap, i, docIds, tiers, scores);
+        }
+        return result;
+    }
+
+    private static boolean better(int a, int b, int[] docIds, int[] tiers, float[] scores) {
+        if (tiers[a] != tiers[b]) {
+            return tiers[a] > tiers[b];
+        }
+        if (scores[a] != scores[b]) {
+            return scores[a] > scores[b];
+        }
+        return docIds[a] > docIds[b];
+    }
+
+    private static void siftUp(int[] heap, int index, int[] docIds, int[] tiers, float[] scores) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!better(heap[parent], heap[index], docIds, tiers, scores)) {
+                break;
+            }
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, int[] docIds, int[] tiers, float[] scores) {
+        int index = 0;
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) {
+                break;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < size && better(heap[left], heap[right], docIds, tiers, scores)) {
+                worst = right;
+            }
+            if (!better(heap[index], heap[worst], docIds, tiers, scores)) {
+                break;
+            }
+            swap(heap, index, worst);
+            index = worst;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+}
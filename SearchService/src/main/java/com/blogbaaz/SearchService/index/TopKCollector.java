@@ -0,0 +1,46 @@
+package com.blogbaaz.SearchService.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the first k items of a stream under the given order without sorting
+ * the whole stream, and counts how many items were offered.
+ */
+final class TopKCollector<T> {
+
+    private final Comparator<T> order;
+    private final int k;
+    // Root is the item that would be dropped next
+    private final PriorityQueue<T> heap;
+    private int total;
+
+    TopKCollector(Comparator<T> order, int k) {
+        this.order = order;
+        this.k = Math.max(k, 0);
+        this.heap = new PriorityQueue<>(Math.max(this.k, 1), order.reversed());
+    }
+
+    void offer(T item) {
+        total++;
+        if (heap.size() < k) {
+            heap.add(item);
+        } else if (k > 0 && order.compare(item, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(item);
+        }
+    }
+
+    int total() {
+        return total;
+    }
+
+    List<T> toList() {
+        List<T> items = new ArrayList<>(heap);
+        items.sort(order);
+        return Collections.unmodifiableList(items);
+    }
+}
@@ -0,0 +1,55 @@
+package com.blogbaaz.SearchService.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records finished {@link SearchTimings} as Micrometer timers, tagged by
+ * endpoint, branch and source. search.request holds whole requests and
+ * search.stage one timer per stage. Both publish percentile histograms and
+ * client-side p50/p95/p99, visible under /actuator/metrics.
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchMetrics {
+
+    // Stages of a cached or index-served request run in microseconds
+    private static final Duration MIN_EXPECTED = Duration.ofNanos(1_000);
+    private static final Duration MAX_EXPECTED = Duration.ofSeconds(30);
+
+    private final MeterRegistry meterRegistry;
+
+    public void record(SearchTimings timings, String endpoint) {
+        timings.finishSerializing();
+        // Nothing below the cache ran, so nothing labeled the request
+        String branch = timings.branch() == null ? "none" : timings.branch();
+        String source = timings.source() == null ? "cache" : timings.source();
+        Tags tags = Tags.of("endpoint", endpoint, "branch", branch, "source", source);
+
+        timer("search.request", "Search request latency", tags)
+                .record(System.nanoTime() - timings.startNanos(), TimeUnit.NANOSECONDS);
+        for (Map.Entry<SearchTimings.Stage, Long> stage : timings.stages().entrySet()) {
+            timer("search.stage", "Search request latency per stage", tags.and("stage", stage.getKey().name().toLowerCase(Locale.ROOT)))
+                    .record(stage.getValue(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(String name, String description, Tags tags) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_EXPECTED)
+                .maximumExpectedValue(MAX_EXPECTED)
+                .register(meterRegistry);
+    }
+}
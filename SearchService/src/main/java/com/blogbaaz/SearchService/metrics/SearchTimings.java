@@ -0,0 +1,132 @@
+package com.blogbaaz.SearchService.metrics;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Nanosecond time spent in each stage of the search request being served on
+ * this thread. Stages call {@link #lap} as they finish; outside a timed
+ * request that is a no-op. Sent back in the response when the caller sets
+ * the {@value #DEBUG_HEADER} header; serialization happens after the body is
+ * built, so it only reaches {@link SearchMetrics}.
+ */
+public final class SearchTimings {
+
+    public static final String DEBUG_HEADER = "X-Search-Debug";
+
+    public enum Stage {
+        // PostService call while the index is not loaded
+        FETCH,
+        // Fuzzy expansion and filter intersection
+        FILTER,
+        // Facet counts over all matches
+        FACET,
+        SCORE,
+        // Sorting, cursor and top-k selection
+        SELECT,
+        HIGHLIGHT,
+        // Indexed posts to summaries and summaries to responses
+        CONVERT,
+        SERIALIZE
+    }
+
+    private static final ThreadLocal<SearchTimings> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final long[] stageNanos = new long[Stage.values().length];
+    private String branch;
+    private String source;
+    private boolean serializing;
+    private long serializeStartNanos;
+
+    private SearchTimings() {
+    }
+
+    public static SearchTimings start() {
+        SearchTimings timings = new SearchTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    // Null outside a timed request
+    public static SearchTimings current() {
+        return CURRENT.get();
+    }
+
+    // Adds the time since sinceNanos to the stage and returns now, for timing the next stage
+    public static long lap(Stage stage, long sinceNanos) {
+        long now = System.nanoTime();
+        SearchTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.stageNanos[stage.ordinal()] += now - sinceNanos;
+        }
+        return now;
+    }
+
+    // Which kind of query was run (keyword, author, tags, ...) and what answered it (index or postService)
+    public static void label(String branch, String source) {
+        SearchTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.branch = branch;
+            timings.source = source;
+        }
+    }
+
+    // The response body is about to be written; the rest of the request counts as serialization
+    public void startSerializing() {
+        serializing = true;
+        serializeStartNanos = System.nanoTime();
+    }
+
+    // Called once the response has been written
+    void finishSerializing() {
+        if (serializing) {
+            stageNanos[Stage.SERIALIZE.ordinal()] += System.nanoTime() - serializeStartNanos;
+            serializing = false;
+        }
+    }
+
+    public long startNanos() {
+        return startNanos;
+    }
+
+    public long stageNanos(Stage stage) {
+        return stageNanos[stage.ordinal()];
+    }
+
+    public String branch() {
+        return branch;
+    }
+
+    public String source() {
+        return source;
+    }
+
+    // Milliseconds per stage so far, plus the total since the request started
+    public Map<String, Double> toMillis() {
+        Map<String, Double> millis = new LinkedHashMap<>();
+        for (Stage stage : Stage.values()) {
+            if (stageNanos[stage.ordinal()] > 0) {
+                millis.put(stage.name().toLowerCase(Locale.ROOT), stageNanos[stage.ordinal()] / 1e6);
+            }
+        }
+        millis.put("total", (System.nanoTime() - startNanos) / 1e6);
+        return millis;
+    }
+
+    Map<Stage, Long> stages() {
+        Map<Stage, Long> stages = new EnumMap<>(Stage.class);
+        for (Stage stage : Stage.values()) {
+            if (stageNanos[stage.ordinal()] > 0) {
+                stages.put(stage, stageNanos[stage.ordinal()]);
+            }
+        }
+        return stages;
+    }
+}
@@ -0,0 +1,271 @@
+package com.blogbaaz.SearchService.related;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Posts bucketed by bands of their {@link MinHash} signatures: posts that
+ * agree on every row of a band share its bucket, so the posts similar to one
+ * are found in that post's own buckets. With 32 bands of 2 rows, two posts
+ * sharing a fifth of their words meet in some bucket about three times in
+ * four, and posts sharing half almost always. Buckets of common words grow
+ * long, so only the newest {@link #MAX_BUCKET_SCAN} posts in each are read,
+ * which bounds a lookup however many posts there are.
+ * Not thread-safe; {@link RelatedPosts} guards access.
+ */
+final class LshIndex {
+
+    static final int BANDS = 32;
+    static final int ROWS = MinHash.SIZE / BANDS;
+    static final int MAX_BUCKET_SCAN = 64;
+    private static final Comparator<RelatedPosts.Match> BETTER_FIRST = Comparator
+            .comparingDouble(RelatedPosts.Match::score).reversed()
+            .thenComparing(RelatedPosts.Match::postId);
+
+    private final double tagWeight;
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final List<String> postIds = new ArrayList<>();
+    private final List<int[]> signatures = new ArrayList<>();
+    private final List<Set<String>> tags = new ArrayList<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+
+    // Open addressing on the band key; each bucket heads a chain of post slots through entrySlots and entryNext.
+    // Heads are entry index + 1, 0 for a never used bucket and -1 for one emptied by removals.
+    private long[] bucketKeys = new long[1024];
+    private int[] bucketHeads = new int[1024];
+    private int usedBuckets;
+    private int[] entrySlots = new int[1024];
+    private int[] entryNext = new int[1024];
+    private int entryCount;
+    // Entry index + 1 of the first entry free for reuse, chained through entryNext
+    private int freeEntries;
+
+    LshIndex(double tagWeight) {
+        this.tagWeight = tagWeight;
+    }
+
+    int size() {
+        return slots.size();
+    }
+
+    // Adds or replaces the post; a null signature leaves it out of every bucket
+    void put(String postId, int[] signature, Collection<String> postTags) {
+        remove(postId);
+        int slot;
+        if (freeSlots.isEmpty()) {
+            slot = postIds.size();
+            postIds.add(postId);
+            signatures.add(signature);
+            tags.add(postTags == null ? Set.of() : new HashSet<>(postTags));
+        } else {
+            slot = freeSlots.pop();
+            postIds.set(slot, postId);
+            signatures.set(slot, signature);
+            tags.set(slot, postTags == null ? Set.of() : new HashSet<>(postTags));
+        }
+        slots.put(postId, slot);
+        if (signature != null) {
+            for (int band = 0; band < BANDS; band++) {
+                addEntry(bandKey(signature, band), slot);
+            }
+        }
+    }
+
+    void remove(String postId) {
+        Integer slot = slots.remove(postId);
+        if (slot == null) {
+            return;
+        }
+        int[] signature = signatures.get(slot);
+        if (signature != null) {
+            for (int band = 0; band < BANDS; band++) {
+                removeEntry(bandKey(signature, band), slot);
+            }
+        }
+        postIds.set(slot, null);
+        signatures.set(slot, null);
+        tags.set(slot, null);
+        freeSlots.push(slot);
+    }
+
+    // The post's signature and tags, or null when it is not here or has no words to compare
+    RelatedPosts.Source source(String postId) {
+        Integer slot = slots.get(postId);
+        if (slot == null || signatures.get(slot) == null) {
+            return null;
+        }
+        return new RelatedPosts.Source(signatures.get(slot), Set.copyOf(tags.get(slot)));
+    }
+
+    /**
+     * Up to limit posts other than postId sharing a bucket with the source,
+     * best first by estimated word overlap blended with tag overlap. The
+     * source may come from a post held on another shard.
+     */
+    List<RelatedPosts.Match> related(RelatedPosts.Source source, String postId, int limit) {
+        if (source == null || source.signature() == null || limit <= 0) {
+            return List.of();
+        }
+        int[] signature = source.signature();
+        Set<String> postTags = source.tags() == null ? Set.of() : source.tags();
+        Set<Integer> seen = new HashSet<>();
+        // The best limit so far, worst on top
+        PriorityQueue<RelatedPosts.Match> best = new PriorityQueue<>(limit + 1, BETTER_FIRST.reversed());
+        for (int band = 0; band < BANDS; band++) {
+            int scanned = 0;
+            for (int entry = head(bandKey(signature, band)); entry > 0 && scanned < MAX_BUCKET_SCAN;
+                 entry = entryNext[entry - 1], scanned++) {
+                int other = entrySlots[entry - 1];
+                if (!seen.add(other) || postIds.get(other).equals(postId)) {
+                    continue;
+                }
+                double score = (1 - tagWeight) * MinHash.similarity(signature, signatures.get(other))
+                        + tagWeight * overlap(postTags, tags.get(other));
+                best.add(new RelatedPosts.Match(postIds.get(other), score));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+        List<RelatedPosts.Match> matches = new ArrayList<>(best);
+        matches.sort(BETTER_FIRST);
+        return matches;
+    }
+
+    // Jaccard similarity of the two tag sets, 0 when either has none
+    private static double overlap(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        int shared = 0;
+        for (String tag : a) {
+            if (b.contains(tag)) {
+                shared++;
+            }
+        }
+        return (double) shared / (a.size() + b.size() - shared);
+    }
+
+    // The band's rows and index mixed into 64 bits; a collision only adds a candidate
+    private static long bandKey(int[] signature, int band) {
+        long key = (band + 1) * 0x9e3779b97f4a7c15L;
+        for (int row = band * ROWS; row < (band + 1) * ROWS; row++) {
+            key = (key ^ signature[row]) * 0xff51afd7ed558ccdL;
+            key ^= key >>> 32;
+        }
+        return key;
+    }
+
+    private int head(long key) {
+        int bucket = find(key);
+        return bucket < 0 ? 0 : Math.max(0, bucketHeads[bucket]);
+    }
+
+    // The bucket holding the key, or -1
+    private int find(long key) {
+        int mask = bucketHeads.length - 1;
+        for (int bucket = (int) (key ^ key >>> 32) & mask; bucketHeads[bucket] != 0; bucket = (bucket + 1) & mask) {
+            if (bucketKeys[bucket] == key) {
+                return bucket;
+            }
+        }
+        return -1;
+    }
+
+    private void addEntry(long key, int slot) {
+        int bucket = find(key);
+        if (bucket < 0) {
+            if (2 * (usedBuckets + 1) > bucketHeads.length) {
+                rehash();
+            }
+            int mask = bucketHeads.length - 1;
+            bucket = (int) (key ^ key >>> 32) & mask;
+            while (bucketHeads[bucket] != 0) {
+                bucket = (bucket + 1) & mask;
+            }
+            bucketKeys[bucket] = key;
+            bucketHeads[bucket] = -1;
+            usedBuckets++;
+        }
+        int entry = newEntry();
+        entrySlots[entry] = slot;
+        // Newest first, so a long bucket is read from its most recent posts
+        entryNext[entry] = Math.max(0, bucketHeads[bucket]);
+        bucketHeads[bucket] = entry + 1;
+    }
+
+    private void removeEntry(long key, int slot) {
+        int bucket = find(key);
+        if (bucket < 0) {
+            return;
+        }
+        int previous = 0;
+        for (int entry = Math.max(0, bucketHeads[bucket]); entry > 0; previous = entry, entry = entryNext[entry - 1]) {
+            if (entrySlots[entry - 1] != slot) {
+                continue;
+            }
+            int next = entryNext[entry - 1];
+            if (previous == 0) {
+                bucketHeads[bucket] = next == 0 ? -1 : next;
+            } else {
+                entryNext[previous - 1] = next;
+            }
+            entryNext[entry - 1] = freeEntries;
+            freeEntries = entry;
+            return;
+        }
+    }
+
+    private int newEntry() {
+        if (freeEntries > 0) {
+            int entry = freeEntries - 1;
+            freeEntries = entryNext[entry];
+            return entry;
+        }
+        if (entryCount == entrySlots.length) {
+            entrySlots = Arrays.copyOf(entrySlots, entryCount * 2);
+            entryNext = Arrays.copyOf(entryNext, entryCount * 2);
+        }
+        return entryCount++;
+    }
+
+    // Drops emptied buckets, growing the table until it is at most a quarter full
+    private void rehash() {
+        int live = 0;
+        for (int head : bucketHeads) {
+            if (head > 0) {
+                live++;
+            }
+        }
+        int capacity = bucketHeads.length;
+        while (4 * (live + 1) > capacity) {
+            capacity *= 2;
+        }
+        long[] oldKeys = bucketKeys;
+        int[] oldHeads = bucketHeads;
+        bucketKeys = new long[capacity];
+        bucketHeads = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldHeads.length; i++) {
+            if (oldHeads[i] > 0) {
+                int bucket = (int) (oldKeys[i] ^ oldKeys[i] >>> 32) & mask;
+                while (bucketHeads[bucket] != 0) {
+                    bucket = (bucket + 1) & mask;
+                }
+                bucketKeys[bucket] = oldKeys[i];
+                bucketHeads[bucket] = oldHeads[i];
+            }
+        }
+        usedBuckets = live;
+    }
+}
@@ -0,0 +1,98 @@
+package com.blogbaaz.SearchService.related;
+
+import com.blogbaaz.SearchService.dtos.PostDto;
+import com.blogbaaz.SearchService.index.Tokenizer;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * MinHash signatures of a post's words. The share of positions where two
+ * signatures agree estimates the Jaccard similarity of the two posts' word
+ * sets. Single words rather than word n-grams, since posts on one topic share
+ * vocabulary but rarely whole runs of text; stopwords and very short words
+ * are left out so that every post does not look alike.
+ */
+final class MinHash {
+
+    static final int SIZE = 64;
+
+    private static final int MIN_WORD_LENGTH = 3;
+    private static final Set<String> STOPWORDS = Set.of(
+            "about", "after", "all", "also", "and", "any", "are", "because", "been", "before", "but", "can",
+            "could", "did", "does", "each", "for", "from", "had", "has", "have", "her", "here", "him", "his",
+            "how", "into", "its", "just", "like", "more", "most", "not", "now", "one", "only", "other", "our",
+            "out", "over", "she", "should", "some", "such", "than", "that", "the", "their", "them", "then",
+            "there", "these", "they", "this", "those", "through", "too", "use", "used", "using", "very", "was",
+            "way", "well", "were", "what", "when", "where", "which", "while", "who", "why", "will", "with",
+            "would", "you", "your");
+
+    // Multipliers and offsets of the SIZE hash functions, fixed so signatures survive restarts
+    private static final long[] MULTIPLIERS = new long[SIZE];
+    private static final long[] OFFSETS = new long[SIZE];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5eed);
+        for (int i = 0; i < SIZE; i++) {
+            MULTIPLIERS[i] = random.nextLong() | 1;
+            OFFSETS[i] = random.nextLong();
+        }
+    }
+
+    private MinHash() {
+    }
+
+    // Null when the post has no words to compare
+    static int[] signature(PostDto post) {
+        Set<String> words = new HashSet<>();
+        addWords(words, post.getTitle());
+        addWords(words, post.getExcerpt());
+        addWords(words, post.getContent());
+        if (words.isEmpty()) {
+            return null;
+        }
+        int[] signature = new int[SIZE];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (String word : words) {
+            long hash = hash(word);
+            for (int i = 0; i < SIZE; i++) {
+                int value = (int) ((hash * MULTIPLIERS[i] + OFFSETS[i]) >>> 33);
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    static double similarity(int[] a, int[] b) {
+        int same = 0;
+        for (int i = 0; i < SIZE; i++) {
+            if (a[i] == b[i]) {
+                same++;
+            }
+        }
+        return (double) same / SIZE;
+    }
+
+    private static void addWords(Set<String> words, String text) {
+        for (String word : Tokenizer.tokenize(text)) {
+            if (word.length() >= MIN_WORD_LENGTH && !STOPWORDS.contains(word)) {
+                words.add(word);
+            }
+        }
+    }
+
+    // 64-bit FNV-1a, mixed so the hash functions see well-spread bits
+    private static long hash(String word) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < word.length(); i++) {
+            hash = (hash ^ word.charAt(i)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        return hash ^ hash >>> 33;
+    }
+}
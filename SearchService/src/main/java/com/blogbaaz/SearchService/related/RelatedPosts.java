@@ -0,0 +1,114 @@
+package com.blogbaaz.SearchService.related;
+
+import com.blogbaaz.SearchService.config.SearchConfig;
+import com.blogbaaz.SearchService.dtos.PostDto;
+import com.blogbaaz.SearchService.index.PostChangedEvent;
+import com.blogbaaz.SearchService.index.PostIndex;
+import com.blogbaaz.SearchService.index.PostIndexRebuiltEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * "More like this" for published posts: the posts whose words overlap most
+ * with a given one, by {@link MinHash} signatures bucketed in an
+ * {@link LshIndex}, with tags in common counting for search.related.tag-weight.
+ * A signature is computed once per post version, as {@link PostIndex}
+ * reports changes; a rebuild reads the posts back from the index, since
+ * restored posts come without their content.
+ */
+@Component
+@Slf4j
+public class RelatedPosts {
+
+    public record Match(String postId, double score) {
+    }
+
+    // What the shards need to find posts like one held on just one of them
+    public record Source(int[] signature, Set<String> tags) {
+    }
+
+    private final PostIndex postIndex;
+    private final double tagWeight;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private LshIndex lsh;
+
+    public RelatedPosts(PostIndex postIndex, SearchConfig searchConfig) {
+        this.postIndex = postIndex;
+        this.tagWeight = searchConfig.getRelated().getTagWeight();
+        this.lsh = new LshIndex(tagWeight);
+    }
+
+    // Empty when the post is not published or has no words to compare
+    public List<Match> related(String postId, int limit) {
+        lock.readLock().lock();
+        try {
+            return lsh.related(lsh.source(postId), postId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Null when the post is not published here or has no words to compare
+    public Source source(String postId) {
+        lock.readLock().lock();
+        try {
+            return lsh.source(postId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Posts here like the source post, which may be held on another shard
+    public List<Match> related(Source source, String postId, int limit) {
+        lock.readLock().lock();
+        try {
+            return lsh.related(source, postId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onPostChanged(PostChangedEvent event) {
+        if (event.isCountersOnly()) {
+            return;
+        }
+        PostDto current = event.getCurrent();
+        boolean published = current != null && PostIndex.isPublished(current);
+        int[] signature = published ? MinHash.signature(current) : null;
+        lock.writeLock().lock();
+        try {
+            if (published) {
+                lsh.put(current.getPostId(), signature, current.getTags());
+            } else if (current != null || event.getPrevious() != null) {
+                lsh.remove(current != null ? current.getPostId() : event.getPrevious().getPostId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Built off to the side, so related posts keep being served meanwhile
+    @EventListener
+    public void onIndexRebuilt(PostIndexRebuiltEvent event) {
+        LshIndex rebuilt = new LshIndex(tagWeight);
+        for (PostDto post : postIndex.posts()) {
+            if (PostIndex.isPublished(post)) {
+                rebuilt.put(post.getPostId(), MinHash.signature(post), post.getTags());
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            lsh = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Related posts rebuilt for {} posts", rebuilt.size());
+    }
+}
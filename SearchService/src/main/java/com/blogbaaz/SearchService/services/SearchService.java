@@ -1,7 +1,11 @@
 package com.blogbaaz.SearchService.services;
 
+import com.blogbaaz.SearchService.dtos.CombinedSearchResult;
 import com.blogbaaz.SearchService.dtos.SearchRequest;
 import com.blogbaaz.SearchService.dtos.SearchResult;
+import com.blogbaaz.SearchService.dtos.Suggestion;
+
+import java.util.List;
 
 public interface SearchService {
     
@@ -16,4 +20,10 @@ public interface SearchService {
     SearchResult getFeaturedPosts(SearchRequest request);
     
     SearchResult getPublishedPosts(SearchRequest request);
+    
+    List<Suggestion> suggest(String prefix, int limit);
+    
+    CombinedSearchResult searchAll(String query, int maxResults);
+    
+    SearchResult relatedPosts(String postId, int maxResults);
 }
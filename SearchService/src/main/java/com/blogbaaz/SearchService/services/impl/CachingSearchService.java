@@ -0,0 +1,82 @@
+package com.blogbaaz.SearchService.services.impl;
+
+import com.blogbaaz.SearchService.cache.SearchCacheKey;
+import com.blogbaaz.SearchService.cache.SearchCacheKey.Kind;
+import com.blogbaaz.SearchService.cache.SearchResultCache;
+import com.blogbaaz.SearchService.dtos.CombinedSearchResult;
+import com.blogbaaz.SearchService.dtos.SearchRequest;
+import com.blogbaaz.SearchService.dtos.SearchResult;
+import com.blogbaaz.SearchService.dtos.Suggestion;
+import com.blogbaaz.SearchService.services.SearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Serves repeated searches from {@link SearchResultCache}, delegating misses
+ * to {@link SearchServiceImpl}.
+ */
+@Service
+@Primary
+@RequiredArgsConstructor
+public class CachingSearchService implements SearchService {
+
+    private final SearchServiceImpl searchService;
+    private final SearchResultCache searchResultCache;
+
+    @Override
+    public SearchResult searchPosts(SearchRequest request) {
+        return searchResultCache.get(SearchCacheKey.of(Kind.SEARCH, request),
+                () -> searchService.searchPosts(request));
+    }
+
+    @Override
+    public SearchResult searchByCategory(String category, SearchRequest request) {
+        return searchResultCache.get(SearchCacheKey.of(Kind.CATEGORY, request, category, null, null),
+                () -> searchService.searchByCategory(category, request));
+    }
+
+    @Override
+    public SearchResult searchByAuthor(String authorId, SearchRequest request) {
+        return searchResultCache.get(SearchCacheKey.of(Kind.AUTHOR, request, null, authorId, null),
+                () -> searchService.searchByAuthor(authorId, request));
+    }
+
+    @Override
+    public SearchResult searchByTags(String[] tags, SearchRequest request) {
+        return searchResultCache.get(SearchCacheKey.of(Kind.TAGS, request, null, null, tags),
+                () -> searchService.searchByTags(tags, request));
+    }
+
+    @Override
+    public SearchResult getFeaturedPosts(SearchRequest request) {
+        return searchResultCache.get(SearchCacheKey.of(Kind.FEATURED, request),
+                () -> searchService.getFeaturedPosts(request));
+    }
+
+    @Override
+    public SearchResult getPublishedPosts(SearchRequest request) {
+        return searchResultCache.get(SearchCacheKey.of(Kind.PUBLISHED, request),
+                () -> searchService.getPublishedPosts(request));
+    }
+
+    // Already answered from memory in well under a millisecond, so not worth caching
+    @Override
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return searchService.suggest(prefix, limit);
+    }
+
+    // Comment hits change with every comment written, which the cache has no way to see
+    @Override
+    public CombinedSearchResult searchAll(String query, int maxResults) {
+        return searchService.searchAll(query, maxResults);
+    }
+
+    // A handful of bucket reads, no cheaper from the cache
+    @Override
+    public SearchResult relatedPosts(String postId, int maxResults) {
+        return searchService.relatedPosts(postId, maxResults);
+    }
+}
@@ -1,16 +1,42 @@
 package com.blogbaaz.SearchService.services.impl;
 
+import com.blogbaaz.SearchService.clients.HedgedPostServiceClient;
 import com.blogbaaz.SearchService.clients.PostServiceClient;
+import com.blogbaaz.SearchService.config.SearchConfig;
+import com.blogbaaz.SearchService.dtos.CombinedSearchResult;
+import com.blogbaaz.SearchService.dtos.CommentDto;
+import com.blogbaaz.SearchService.dtos.CommentHit;
+import com.blogbaaz.SearchService.dtos.SearchHit;
 import com.blogbaaz.SearchService.dtos.SearchRequest;
 import com.blogbaaz.SearchService.dtos.SearchResult;
 import com.blogbaaz.SearchService.dtos.SearchResponse;
-import com.blogbaaz.SearchService.dtos.PostDto;
+import com.blogbaaz.SearchService.dtos.PostSummaryDto;
+import com.blogbaaz.SearchService.dtos.Suggestion;
+import com.blogbaaz.SearchService.index.CommentHits;
+import com.blogbaaz.SearchService.index.CommentIndex;
+import com.blogbaaz.SearchService.index.PostHits;
+import com.blogbaaz.SearchService.index.PostIndex;
+import com.blogbaaz.SearchService.index.PostQuery;
+import com.blogbaaz.SearchService.index.ScoredComment;
+import com.blogbaaz.SearchService.index.ScoredPost;
+import com.blogbaaz.SearchService.index.SearchCursor;
+import com.blogbaaz.SearchService.index.ShardLayout;
+import com.blogbaaz.SearchService.metrics.SearchTimings;
+import com.blogbaaz.SearchService.metrics.SearchTimings.Stage;
+import com.blogbaaz.SearchService.related.RelatedPosts;
 import com.blogbaaz.SearchService.services.SearchService;
+import com.blogbaaz.SearchService.shard.ShardedSearch;
+import com.blogbaaz.SearchService.suggest.SpellChecker;
+import com.blogbaaz.SearchService.suggest.Suggester;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,54 +44,43 @@ import java.util.stream.Collectors;
 @Slf4j
 public class SearchServiceImpl implements SearchService {
     
-    private final PostServiceClient postServiceClient;
+    private static final String INDEX = "index";
+    private static final String POST_SERVICE = "postService";
+    
+    private final HedgedPostServiceClient postServiceClient;
+    private final PostIndex postIndex;
+    private final CommentIndex commentIndex;
+    private final Suggester suggester;
+    private final SpellChecker spellChecker;
+    private final RelatedPosts relatedPosts;
+    private final ShardLayout shardLayout;
+    private final ShardedSearch shardedSearch;
+    private final SearchConfig searchConfig;
     
     @Override
     public SearchResult searchPosts(SearchRequest request) {
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
         
         try {
-            List<PostDto> posts;
-            
-            if (request.getAuthorId() != null && !request.getAuthorId().isEmpty()) {
-                posts = postServiceClient.getPostsByAuthor(
-                    request.getAuthorId(),
-                    request.getSortBy(),
-                    request.getSortDirection()
-                );
-            } else if (request.getTags() != null && request.getTags().length > 0) {
-                posts = postServiceClient.getPostsByTags(
-                    request.getTags(),
-                    request.getSortBy(),
-                    request.getSortDirection()
-                );
-            } else if (request.isPublishedOnly()) {
-                posts = postServiceClient.getPublishedPosts(
-                    request.getSortBy(),
-                    request.getSortDirection()
-                );
+            PostHits hits;
+            if (postIndex.isReady()) {
+                SearchTimings.label(branch(request), INDEX);
+                SearchCursor after = request.getSearchAfter() == null || request.getSearchAfter().isEmpty()
+                        ? null
+                        : SearchCursor.decode(request.getSearchAfter());
+                hits = indexSearch(toPostQuery(request), request.getSortBy(), request.getSortDirection(), request.getMaxResults(), after);
+            } else if (request.getSearchAfter() != null && !request.getSearchAfter().isEmpty()) {
+                // Cursors point into the local index; PostService cannot resume from one
+                throw new IllegalStateException("searchAfter is unavailable until the search index has loaded");
             } else {
-                posts = postServiceClient.searchPosts(
-                    request.getQuery(),
-                    request.getSortBy(),
-                    request.getSortDirection()
-                );
-            }
-            
-            // Convert PostDto to SearchResponse
-            List<SearchResponse> searchResponses = posts.stream()
-                .map(SearchResponse::fromPostDto)
-                .collect(Collectors.toList());
-            
-            // Apply max results limit
-            if (searchResponses.size() > request.getMaxResults()) {
-                searchResponses = searchResponses.stream()
-                    .limit(request.getMaxResults())
-                    .collect(Collectors.toList());
+                hits = searchPostService(request);
             }
             
-            return createSearchResult(searchResponses, request, startTime);
+            return createSearchResult(hits, request, startTime);
             
+        } catch (IllegalArgumentException e) {
+            // A bad cursor, sort or filter in the request: answered with 400 rather than wrapped as a failure
+            throw e;
         } catch (Exception e) {
             log.error("Error searching posts: {}", e.getMessage(), e);
             throw new RuntimeException("Search failed: " + e.getMessage());
@@ -74,28 +89,16 @@ public class SearchServiceImpl implements SearchService {
     
     @Override
     public SearchResult searchByCategory(String category, SearchRequest request) {
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
         
         try {
-            List<PostDto> posts = postServiceClient.getPostsByCategory(
-                category,
-                request.getSortBy(),
-                request.getSortDirection()
-            );
+            boolean indexed = postIndex.isReady();
+            SearchTimings.label("category", indexed ? INDEX : POST_SERVICE);
+            PostHits hits = indexed
+                    ? indexSearch(PostQuery.builder().category(category).build(), request.getSortBy(), request.getSortDirection(), request.getMaxResults(), null)
+                    : fetch("getPostsByCategory", client -> client.getPostsByCategory(category, postServiceSortBy(request), request.getSortDirection(), 0, request.getMaxResults()));
             
-            // Convert PostDto to SearchResponse
-            List<SearchResponse> searchResponses = posts.stream()
-                .map(SearchResponse::fromPostDto)
-                .collect(Collectors.toList());
-            
-            // Apply max results limit
-            if (searchResponses.size() > request.getMaxResults()) {
-                searchResponses = searchResponses.stream()
-                    .limit(request.getMaxResults())
-                    .collect(Collectors.toList());
-            }
-            
-            return createSearchResult(searchResponses, request, startTime);
+            return createSearchResult(hits, request, startTime);
             
         } catch (Exception e) {
             log.error("Error searching posts by category: {}", e.getMessage(), e);
@@ -105,28 +108,16 @@ public class SearchServiceImpl implements SearchService {
     
     @Override
     public SearchResult searchByAuthor(String authorId, SearchRequest request) {
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
         
         try {
-            List<PostDto> posts = postServiceClient.getPostsByAuthor(
-                authorId,
-                request.getSortBy(),
-                request.getSortDirection()
-            );
-            
-            // Convert PostDto to SearchResponse
-            List<SearchResponse> searchResponses = posts.stream()
-                .map(SearchResponse::fromPostDto)
-                .collect(Collectors.toList());
+            boolean indexed = postIndex.isReady();
+            SearchTimings.label("author", indexed ? INDEX : POST_SERVICE);
+            PostHits hits = indexed
+                    ? indexSearch(PostQuery.builder().authorId(authorId).build(), request.getSortBy(), request.getSortDirection(), request.getMaxResults(), null)
+                    : fetch("getPostsByAuthor", client -> client.getPostsByAuthor(authorId, postServiceSortBy(request), request.getSortDirection(), 0, request.getMaxResults()));
             
-            // Apply max results limit
-            if (searchResponses.size() > request.getMaxResults()) {
-                searchResponses = searchResponses.stream()
-                    .limit(request.getMaxResults())
-                    .collect(Collectors.toList());
-            }
-            
-            return createSearchResult(searchResponses, request, startTime);
+            return createSearchResult(hits, request, startTime);
             
         } catch (Exception e) {
             log.error("Error searching posts by author: {}", e.getMessage(), e);
@@ -136,28 +127,16 @@ public class SearchServiceImpl implements SearchService {
     
     @Override
     public SearchResult searchByTags(String[] tags, SearchRequest request) {
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
         
         try {
-            List<PostDto> posts = postServiceClient.getPostsByTags(
-                tags,
-                request.getSortBy(),
-                request.getSortDirection()
-            );
-            
-            // Convert PostDto to SearchResponse
-            List<SearchResponse> searchResponses = posts.stream()
-                .map(SearchResponse::fromPostDto)
-                .collect(Collectors.toList());
-            
-            // Apply max results limit
-            if (searchResponses.size() > request.getMaxResults()) {
-                searchResponses = searchResponses.stream()
-                    .limit(request.getMaxResults())
-                    .collect(Collectors.toList());
-            }
+            boolean indexed = postIndex.isReady();
+            SearchTimings.label("tags", indexed ? INDEX : POST_SERVICE);
+            PostHits hits = indexed
+                    ? indexSearch(PostQuery.builder().tags(tags).tagMode(PostQuery.TagMode.from(request.getTagMode())).excludeTags(request.getExcludeTags()).build(), request.getSortBy(), request.getSortDirection(), request.getMaxResults(), null)
+                    : fetch("getPostsByTags", client -> client.getPostsByTags(tags, request.getTagMode(), request.getExcludeTags(), postServiceSortBy(request), request.getSortDirection(), 0, request.getMaxResults()));
             
-            return createSearchResult(searchResponses, request, startTime);
+            return createSearchResult(hits, request, startTime);
             
         } catch (Exception e) {
             log.error("Error searching posts by tags: {}", e.getMessage(), e);
@@ -167,29 +146,18 @@ public class SearchServiceImpl implements SearchService {
     
     @Override
     public SearchResult getFeaturedPosts(SearchRequest request) {
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
         
         try {
-            // Since PostService doesn't have featured posts endpoint, 
+            // Since PostService doesn't have featured posts endpoint,
             // we'll get published posts and filter by some criteria
-            List<PostDto> posts = postServiceClient.getPublishedPosts(
-                request.getSortBy(),
-                request.getSortDirection()
-            );
+            boolean indexed = postIndex.isReady();
+            SearchTimings.label("featured", indexed ? INDEX : POST_SERVICE);
+            PostHits hits = indexed
+                    ? indexSearch(PostQuery.builder().publishedOnly(true).build(), request.getSortBy(), request.getSortDirection(), request.getMaxResults(), null)
+                    : fetch("getPublishedPosts", client -> client.getPublishedPosts(postServiceSortBy(request), request.getSortDirection(), 0, request.getMaxResults()));
             
-            // Convert PostDto to SearchResponse
-            List<SearchResponse> searchResponses = posts.stream()
-                .map(SearchResponse::fromPostDto)
-                .collect(Collectors.toList());
-            
-            // Apply max results limit
-            if (searchResponses.size() > request.getMaxResults()) {
-                searchResponses = searchResponses.stream()
-                    .limit(request.getMaxResults())
-                    .collect(Collectors.toList());
-            }
-            
-            return createSearchResult(searchResponses, request, startTime);
+            return createSearchResult(hits, request, startTime);
             
         } catch (Exception e) {
             log.error("Error getting featured posts: {}", e.getMessage(), e);
@@ -199,44 +167,263 @@ public class SearchServiceImpl implements SearchService {
     
     @Override
     public SearchResult getPublishedPosts(SearchRequest request) {
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
         
         try {
-            List<PostDto> posts = postServiceClient.getPublishedPosts(
-                request.getSortBy(),
-                request.getSortDirection()
-            );
+            boolean indexed = postIndex.isReady();
+            SearchTimings.label("published", indexed ? INDEX : POST_SERVICE);
+            PostHits hits = indexed
+                    ? indexSearch(PostQuery.builder().publishedOnly(true).build(), request.getSortBy(), request.getSortDirection(), request.getMaxResults(), null)
+                    : fetch("getPublishedPosts", client -> client.getPublishedPosts(postServiceSortBy(request), request.getSortDirection(), 0, request.getMaxResults()));
             
-            // Convert PostDto to SearchResponse
-            List<SearchResponse> searchResponses = posts.stream()
-                .map(SearchResponse::fromPostDto)
-                .collect(Collectors.toList());
+            return createSearchResult(hits, request, startTime);
             
-            // Apply max results limit
-            if (searchResponses.size() > request.getMaxResults()) {
-                searchResponses = searchResponses.stream()
-                    .limit(request.getMaxResults())
-                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            log.error("Error getting published posts: {}", e.getMessage(), e);
+            throw new RuntimeException("Published posts retrieval failed: " + e.getMessage());
+        }
+    }
+    
+    // From every shard when the index is sharded; before the first index load there is nothing to suggest
+    @Override
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return shardLayout.isSharded() ? shardedSearch.suggest(prefix, limit) : suggester.suggest(prefix, limit);
+    }
+    
+    // Published posts and comments on them, ranked together; comments are left out until their index has loaded
+    @Override
+    public CombinedSearchResult searchAll(String query, int maxResults) {
+        long startTime = System.nanoTime();
+        int limit = Math.max(1, Math.min(maxResults, searchConfig.getMaxResults()));
+        
+        try {
+            PostHits posts;
+            CommentHits comments;
+            if (postIndex.isReady() && shardLayout.isSharded()) {
+                SearchTimings.label("all", INDEX);
+                ShardedSearch.Combined combined = shardedSearch.searchAll(query, limit);
+                posts = combined.posts();
+                comments = combined.comments();
+            } else if (postIndex.isReady()) {
+                SearchTimings.label("all", INDEX);
+                PostQuery postQuery = PostQuery.builder().keyword(query).publishedOnly(true).build();
+                posts = postIndex.search(postQuery, PostIndex.RELEVANCE, "desc", limit);
+                comments = commentIndex.isReady() ? commentIndex.search(query, limit) : CommentHits.EMPTY;
+            } else {
+                SearchTimings.label("all", POST_SERVICE);
+                posts = fetch("searchPosts", client -> client.searchPosts(query, "createdAt", "desc", 0, limit));
+                comments = commentIndex.isReady() ? commentIndex.search(query, limit) : CommentHits.EMPTY;
             }
             
-            return createSearchResult(searchResponses, request, startTime);
+            return createCombinedResult(posts, comments, query, limit, startTime);
             
         } catch (Exception e) {
-            log.error("Error getting published posts: {}", e.getMessage(), e);
-            throw new RuntimeException("Published posts retrieval failed: " + e.getMessage());
+            log.error("Error searching posts and comments: {}", e.getMessage(), e);
+            throw new RuntimeException("Combined search failed: " + e.getMessage());
         }
     }
     
-    private SearchResult createSearchResult(List<SearchResponse> posts, SearchRequest request, long startTime) {
-        long searchTime = System.currentTimeMillis() - startTime;
+    // Served from the index, every shard's when sharded; before the first load, and for unpublished posts, nothing is related
+    @Override
+    public SearchResult relatedPosts(String postId, int maxResults) {
+        long startTime = System.nanoTime();
+        int limit = Math.max(1, Math.min(maxResults, searchConfig.getMaxResults()));
+        SearchTimings.label("related", INDEX);
+        
+        List<SearchResponse> posts = new ArrayList<>();
+        if (shardLayout.isSharded()) {
+            for (ScoredPost hit : shardedSearch.related(postId, limit)) {
+                posts.add(SearchResponse.fromPostSummary(hit.getPost(), hit.getScore()));
+            }
+        } else {
+            for (RelatedPosts.Match match : relatedPosts.related(postId, limit)) {
+                PostSummaryDto post = postIndex.publishedPost(match.postId());
+                if (post != null) {
+                    posts.add(SearchResponse.fromPostSummary(post, match.score()));
+                }
+            }
+        }
         
         return SearchResult.builder()
                 .posts(posts)
                 .totalResults(posts.size())
+                .searchTimeMs((System.nanoTime() - startTime) / 1_000_000)
+                .sortBy(PostIndex.RELEVANCE)
+                .sortDirection("desc")
+                .build();
+    }
+    
+    // Every shard's posts when the index is split across instances, else this instance's whole index
+    private PostHits indexSearch(PostQuery query, String sortBy, String sortDir, int limit, SearchCursor after) {
+        return shardLayout.isSharded()
+                ? shardedSearch.search(query, sortBy, sortDir, limit, after)
+                : postIndex.search(query, sortBy, sortDir, limit, after);
+    }
+    
+    private PostQuery toPostQuery(SearchRequest request) {
+        return PostQuery.builder()
+                .keyword(request.getQuery())
+                .authorId(request.getAuthorId())
+                .category(request.getCategory())
+                .tags(request.getTags())
+                .tagMode(PostQuery.TagMode.from(request.getTagMode()))
+                .excludeTags(request.getExcludeTags())
+                .publishedOnly(request.isPublishedOnly())
+                .featuredOnly(request.isFeaturedOnly())
+                .facets(request.getFacets())
+                .facetSize(request.getFacetSize())
+                .build();
+    }
+    
+    // PostService filters on one field per call, so until the index has loaded
+    // only the most specific filter is applied
+    private PostHits searchPostService(SearchRequest request) {
+        String sortBy = postServiceSortBy(request);
+        if (request.getAuthorId() != null && !request.getAuthorId().isEmpty()) {
+            SearchTimings.label("author", POST_SERVICE);
+            return fetch("getPostsByAuthor", client -> client.getPostsByAuthor(request.getAuthorId(), sortBy, request.getSortDirection(), 0, request.getMaxResults()));
+        } else if (request.getTags() != null && request.getTags().length > 0) {
+            SearchTimings.label("tags", POST_SERVICE);
+            return fetch("getPostsByTags", client -> client.getPostsByTags(request.getTags(), request.getTagMode(), request.getExcludeTags(), sortBy, request.getSortDirection(), 0, request.getMaxResults()));
+        } else if (request.getCategory() != null && !request.getCategory().isEmpty()) {
+            SearchTimings.label("category", POST_SERVICE);
+            return fetch("getPostsByCategory", client -> client.getPostsByCategory(request.getCategory(), sortBy, request.getSortDirection(), 0, request.getMaxResults()));
+        } else if (request.isPublishedOnly() && (request.getQuery() == null || request.getQuery().isBlank())) {
+            SearchTimings.label("published", POST_SERVICE);
+            return fetch("getPublishedPosts", client -> client.getPublishedPosts(sortBy, request.getSortDirection(), 0, request.getMaxResults()));
+        }
+        SearchTimings.label("keyword", POST_SERVICE);
+        return fetch("searchPosts", client -> client.searchPosts(request.getQuery(), sortBy, request.getSortDirection(), 0, request.getMaxResults()));
+    }
+    
+    // The index applies every filter at once; a keyword is what dominates the cost, then the narrowest filter
+    private static String branch(SearchRequest request) {
+        if (request.getQuery() != null && !request.getQuery().isBlank()) {
+            return "keyword";
+        } else if (request.getAuthorId() != null && !request.getAuthorId().isEmpty()) {
+            return "author";
+        } else if (request.getTags() != null && request.getTags().length > 0) {
+            return "tags";
+        } else if (request.getCategory() != null && !request.getCategory().isEmpty()) {
+            return "category";
+        }
+        return request.isPublishedOnly() || request.isFeaturedOnly() ? "published" : "all";
+    }
+    
+    // PostService has no relevance ordering, so fall back to its default sort
+    private String postServiceSortBy(SearchRequest request) {
+        return PostIndex.RELEVANCE.equals(request.getSortBy()) ? "createdAt" : request.getSortBy();
+    }
+    
+    private PostHits fetch(String operation, Function<PostServiceClient, ResponseEntity<List<PostSummaryDto>>> call) {
+        long fetchStart = System.nanoTime();
+        ResponseEntity<List<PostSummaryDto>> response = postServiceClient.call(operation, call);
+        SearchTimings.lap(Stage.FETCH, fetchStart);
+        return fromPostService(response);
+    }
+    
+    // PostService returns only the requested rows; the full match count comes in a header
+    private PostHits fromPostService(ResponseEntity<List<PostSummaryDto>> response) {
+        List<PostSummaryDto> posts = response.getBody() == null ? List.of() : response.getBody();
+        String totalCount = response.getHeaders().getFirst(PostServiceClient.TOTAL_COUNT_HEADER);
+        
+        List<ScoredPost> hits = posts.stream()
+            .map(post -> new ScoredPost(post, 0.0, null))
+            .collect(Collectors.toList());
+        return new PostHits(hits, totalCount == null ? posts.size() : Long.parseLong(totalCount));
+    }
+    
+    // Comment scores are weighted so the two kinds of hit can be tuned against each other; on equal scores posts come first
+    private CombinedSearchResult createCombinedResult(PostHits posts, CommentHits comments, String query, int limit, long startTime) {
+        long convertStart = System.nanoTime();
+        double commentWeight = searchConfig.getComments().getWeight();
+        List<SearchHit> hits = new ArrayList<>(posts.getHits().size() + comments.getHits().size());
+        for (ScoredPost hit : posts.getHits()) {
+            SearchResponse post = SearchResponse.fromPostSummary(hit.getPost(), hit.getScore());
+            post.setHighlightedText(hit.getHighlights());
+            hits.add(SearchHit.builder()
+                    .type(SearchHit.POST)
+                    .score(hit.getScore())
+                    .postId(post.getPostId())
+                    .post(post)
+                    .build());
+        }
+        for (ScoredComment hit : comments.getHits()) {
+            CommentDto comment = hit.getComment();
+            double score = hit.getScore() * commentWeight;
+            hits.add(SearchHit.builder()
+                    .type(SearchHit.COMMENT)
+                    .score(score)
+                    .postId(comment.getPostId())
+                    .comment(CommentHit.builder()
+                            .commentId(comment.getCommentId())
+                            .parentCommentId(comment.getParentCommentId())
+                            .postId(comment.getPostId())
+                            .postTitle(hit.getPost().getTitle())
+                            .postSlug(hit.getPost().getSlug())
+                            .authorId(comment.getAuthorId())
+                            .authorName(comment.getAuthorName())
+                            .content(comment.getContent())
+                            .likeCount(comment.getLikeCount())
+                            .createdAt(comment.getCreatedAt())
+                            .relevanceScore(score)
+                            .highlightedText(hit.getHighlights())
+                            .build())
+                    .build());
+        }
+        hits.sort(Comparator.comparingDouble(SearchHit::getScore).reversed());
+        if (hits.size() > limit) {
+            hits = new ArrayList<>(hits.subList(0, limit));
+        }
+        SearchTimings.lap(Stage.CONVERT, convertStart);
+        
+        return CombinedSearchResult.builder()
+                .hits(hits)
+                .totalPosts((int) posts.getTotalHits())
+                .totalComments((int) comments.getTotalHits())
+                .searchQuery(query)
+                .searchTimeMs((System.nanoTime() - startTime) / 1_000_000)
+                .didYouMean(didYouMean(query, posts.getTotalHits() + comments.getTotalHits()))
+                .partial(!posts.getMissingShards().isEmpty())
+                .missingShards(posts.getMissingShards().isEmpty() ? null : posts.getMissingShards())
+                .build();
+    }
+    
+    private SearchResult createSearchResult(PostHits hits, SearchRequest request, long startTime) {
+        // Convert hits to SearchResponse
+        long convertStart = System.nanoTime();
+        List<SearchResponse> posts = hits.getHits().stream()
+            .map(hit -> {
+                SearchResponse response = SearchResponse.fromPostSummary(hit.getPost(), hit.getScore());
+                response.setHighlightedText(hit.getHighlights());
+                return response;
+            })
+            .collect(Collectors.toList());
+        SearchTimings.lap(Stage.CONVERT, convertStart);
+        
+        long searchTime = (System.nanoTime() - startTime) / 1_000_000;
+        
+        return SearchResult.builder()
+                .posts(posts)
+                .totalResults((int) hits.getTotalHits())
                 .searchQuery(request.getQuery())
                 .searchTimeMs(searchTime)
                 .sortBy(request.getSortBy())
                 .sortDirection(request.getSortDirection())
+                .nextCursor(hits.getNext() == null ? null : hits.getNext().encode())
+                .facets(hits.getFacets())
+                .didYouMean(didYouMean(request.getQuery(), hits.getTotalHits()))
+                .partial(!hits.getMissingShards().isEmpty())
+                .missingShards(hits.getMissingShards().isEmpty() ? null : hits.getMissingShards())
                 .build();
     }
+    
+    // Only searches that came up (nearly) empty are worth a correction
+    private String didYouMean(String query, long totalHits) {
+        SearchConfig.Spelling spelling = searchConfig.getSpelling();
+        if (!spelling.isEnabled() || totalHits > spelling.getMaxHits()) {
+            return null;
+        }
+        return shardLayout.isSharded() ? shardedSearch.didYouMean(query) : spellChecker.didYouMean(query);
+    }
 }
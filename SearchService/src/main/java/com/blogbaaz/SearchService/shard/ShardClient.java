@@ -0,0 +1,38 @@
+package com.blogbaaz.SearchService.shard;
+
+import com.blogbaaz.SearchService.dtos.Suggestion;
+import com.blogbaaz.SearchService.index.CollectionStats;
+import com.blogbaaz.SearchService.related.RelatedPosts;
+import com.blogbaaz.SearchService.suggest.SpellChecker;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+import java.util.Map;
+
+// Another SearchService instance's shard endpoints; ShardInstances builds one client per instance
+public interface ShardClient {
+
+    String BASE_PATH = "/internal/search/shard";
+
+    @GetMapping(BASE_PATH + "/stats")
+    CollectionStats stats(@RequestParam String keyword);
+
+    @PostMapping(BASE_PATH + "/search")
+    ShardSearchResponse search(@RequestBody ShardSearchRequest request);
+
+    @GetMapping(BASE_PATH + "/suggest")
+    List<Suggestion> suggest(@RequestParam String prefix, @RequestParam int limit);
+
+    @PostMapping(BASE_PATH + "/spelling")
+    Map<String, SpellChecker.TermSpelling> spelling(@RequestBody List<String> terms);
+
+    // Empty when the shard does not hold the post published
+    @GetMapping(BASE_PATH + "/related/source")
+    RelatedPosts.Source relatedSource(@RequestParam String postId);
+
+    @PostMapping(BASE_PATH + "/related")
+    List<ShardSearchResponse.Hit> related(@RequestBody ShardRelatedRequest request);
+}
@@ -0,0 +1,86 @@
+package com.blogbaaz.SearchService.shard;
+
+import com.blogbaaz.SearchService.config.SearchConfig;
+import com.blogbaaz.SearchService.index.ShardLayout;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.openfeign.FeignClientBuilder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The SEARCH-SERVICE instances serving each of the other shards, as
+ * registered in Eureka with their shard in the "shard" metadata entry.
+ * Replicas of a shard are used round-robin. A shard with no registered
+ * instance falls back to its entry in search.shards.urls, if any.
+ */
+@Component
+public class ShardInstances {
+
+    private static final String SERVICE_ID = "SEARCH-SERVICE";
+    private static final String METADATA_KEY = "shard";
+
+    private final DiscoveryClient discoveryClient;
+    private final ApplicationContext applicationContext;
+    private final ShardLayout shardLayout;
+    private final List<String> urls;
+    private final Map<URI, ShardClient> clients = new ConcurrentHashMap<>();
+    private final AtomicInteger nextInstance = new AtomicInteger();
+
+    public ShardInstances(DiscoveryClient discoveryClient, ApplicationContext applicationContext,
+                          ShardLayout shardLayout, SearchConfig searchConfig) {
+        this.discoveryClient = discoveryClient;
+        this.applicationContext = applicationContext;
+        this.shardLayout = shardLayout;
+        this.urls = searchConfig.getShards().getUrls();
+    }
+
+    // A client per other shard that has an instance; shards missing from the map have none
+    Map<Integer, ShardClient> others() {
+        Map<Integer, List<URI>> byShard = new HashMap<>();
+        for (ServiceInstance instance : discoveryClient.getInstances(SERVICE_ID)) {
+            int shard = shardOf(instance.getMetadata().get(METADATA_KEY));
+            if (shard >= 0 && shard != shardLayout.index()) {
+                byShard.computeIfAbsent(shard, s -> new ArrayList<>()).add(instance.getUri());
+            }
+        }
+        for (int shard = 0; shard < Math.min(urls.size(), shardLayout.count()); shard++) {
+            String url = urls.get(shard);
+            if (shard != shardLayout.index() && !byShard.containsKey(shard) && url != null && !url.isBlank()) {
+                byShard.put(shard, List.of(URI.create(url.trim())));
+            }
+        }
+        int turn = nextInstance.getAndIncrement();
+        Map<Integer, ShardClient> picked = new HashMap<>();
+        byShard.forEach((shard, uris) -> picked.put(shard, client(uris.get(Math.floorMod(turn, uris.size())))));
+        return picked;
+    }
+
+    // The shard an instance serves in this layout, or -1 for instances of another layout or none
+    private int shardOf(String label) {
+        if (label == null) {
+            return -1;
+        }
+        for (int shard = 0; shard < shardLayout.count(); shard++) {
+            if (label.equals(ShardLayout.label(shard, shardLayout.count()))) {
+                return shard;
+            }
+        }
+        return -1;
+    }
+
+    private ShardClient client(URI uri) {
+        return clients.computeIfAbsent(uri, u -> new FeignClientBuilder(applicationContext)
+                .forType(ShardClient.class, SERVICE_ID)
+                .url(u.toString())
+                .build());
+    }
+}
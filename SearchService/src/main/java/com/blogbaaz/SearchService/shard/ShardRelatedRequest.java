@@ -0,0 +1,17 @@
+package com.blogbaaz.SearchService.shard;
+
+import com.blogbaaz.SearchService.related.RelatedPosts;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One shard's part of a related-posts lookup: the post, as read from the shard holding it, and how many to return
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShardRelatedRequest {
+
+    private String postId;
+    private RelatedPosts.Source source;
+    private int limit;
+}
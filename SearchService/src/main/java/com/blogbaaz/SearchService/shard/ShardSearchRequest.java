@@ -0,0 +1,67 @@
+package com.blogbaaz.SearchService.shard;
+
+import com.blogbaaz.SearchService.index.CollectionStats;
+import com.blogbaaz.SearchService.index.PostQuery;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One shard's part of a search: the whole search's filters, sort and page size, plus the stats to score with
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class ShardSearchRequest {
+
+    private String keyword;
+    private String authorId;
+    private String category;
+    private String[] tags;
+    private PostQuery.TagMode tagMode;
+    private String[] excludeTags;
+    private boolean publishedOnly;
+    private boolean featuredOnly;
+    private String[] facets;
+    private int facetSize;
+
+    private String sortBy;
+    private String sortDirection;
+    private int limit;
+    // Encoded cursor of the merged page before this one
+    private String searchAfter;
+    // Summed over all shards for relevance ranking; null to score with the shard's own
+    private CollectionStats stats;
+    // Comment hits wanted alongside the posts, 0 for none
+    private int commentLimit;
+
+    static ShardSearchRequest of(PostQuery query) {
+        return ShardSearchRequest.builder()
+                .keyword(query.getKeyword())
+                .authorId(query.getAuthorId())
+                .category(query.getCategory())
+                .tags(query.getTags())
+                .tagMode(query.getTagMode())
+                .excludeTags(query.getExcludeTags())
+                .publishedOnly(query.isPublishedOnly())
+                .featuredOnly(query.isFeaturedOnly())
+                .facets(query.getFacets())
+                .facetSize(query.getFacetSize())
+                .build();
+    }
+
+    PostQuery toPostQuery() {
+        return PostQuery.builder()
+                .keyword(keyword)
+                .authorId(authorId)
+                .category(category)
+                .tags(tags)
+                .tagMode(tagMode == null ? PostQuery.TagMode.ANY : tagMode)
+                .excludeTags(excludeTags)
+                .publishedOnly(publishedOnly)
+                .featuredOnly(featuredOnly)
+                .facets(facets)
+                .facetSize(facetSize)
+                .build();
+    }
+}
@@ -0,0 +1,82 @@
+package com.blogbaaz.SearchService.shard;
+
+import com.blogbaaz.SearchService.dtos.CommentDto;
+import com.blogbaaz.SearchService.dtos.FacetCount;
+import com.blogbaaz.SearchService.dtos.PostSummaryDto;
+import com.blogbaaz.SearchService.index.CommentHits;
+import com.blogbaaz.SearchService.index.PostHits;
+import com.blogbaaz.SearchService.index.ScoredComment;
+import com.blogbaaz.SearchService.index.ScoredPost;
+import com.blogbaaz.SearchService.index.SearchCursor;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// A shard's page of post hits, and of comment hits when asked for, as sent back to the coordinating instance
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShardSearchResponse {
+
+    private List<Hit> hits = new ArrayList<>();
+    private long totalHits;
+    // Where the shard's next page starts, or null when it has no more hits
+    private String nextCursor;
+    private Map<String, List<FacetCount>> facets;
+    private List<Comment> comments = new ArrayList<>();
+    private long totalComments;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Hit {
+        private PostSummaryDto post;
+        private double score;
+        private int tier;
+        private List<String> highlights;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Comment {
+        private CommentDto comment;
+        private PostSummaryDto post;
+        private double score;
+        private List<String> highlights;
+    }
+
+    static ShardSearchResponse of(PostHits posts, CommentHits comments) {
+        List<Hit> hits = new ArrayList<>(posts.getHits().size());
+        for (ScoredPost hit : posts.getHits()) {
+            hits.add(new Hit(hit.getPost(), hit.getScore(), hit.getTier(), hit.getHighlights()));
+        }
+        List<Comment> commentHits = new ArrayList<>(comments.getHits().size());
+        for (ScoredComment hit : comments.getHits()) {
+            commentHits.add(new Comment(hit.getComment(), hit.getPost(), hit.getScore(), hit.getHighlights()));
+        }
+        return new ShardSearchResponse(hits, posts.getTotalHits(),
+                posts.getNext() == null ? null : posts.getNext().encode(), posts.getFacets(),
+                commentHits, comments.getTotalHits());
+    }
+
+    PostHits postHits() {
+        List<ScoredPost> posts = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            posts.add(new ScoredPost(hit.getPost(), hit.getScore(), hit.getHighlights(), hit.getTier()));
+        }
+        return new PostHits(posts, totalHits, nextCursor == null ? null : SearchCursor.decode(nextCursor), facets);
+    }
+
+    CommentHits commentHits() {
+        List<ScoredComment> scored = new ArrayList<>(comments.size());
+        for (Comment hit : comments) {
+            scored.add(new ScoredComment(hit.getComment(), hit.getPost(), hit.getScore(), hit.getHighlights()));
+        }
+        return new CommentHits(scored, totalComments);
+    }
+}
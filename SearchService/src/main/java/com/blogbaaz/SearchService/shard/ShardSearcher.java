@@ -0,0 +1,91 @@
+package com.blogbaaz.SearchService.shard;
+
+import com.blogbaaz.SearchService.dtos.PostSummaryDto;
+import com.blogbaaz.SearchService.dtos.Suggestion;
+import com.blogbaaz.SearchService.index.CollectionStats;
+import com.blogbaaz.SearchService.index.CommentHits;
+import com.blogbaaz.SearchService.index.CommentIndex;
+import com.blogbaaz.SearchService.index.PostHits;
+import com.blogbaaz.SearchService.index.PostIndex;
+import com.blogbaaz.SearchService.index.SearchCursor;
+import com.blogbaaz.SearchService.index.ShardLayout;
+import com.blogbaaz.SearchService.related.RelatedPosts;
+import com.blogbaaz.SearchService.suggest.SpellChecker;
+import com.blogbaaz.SearchService.suggest.Suggester;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This instance's side of a sharded search, answered from its own indexes
+ * for the coordinating instance, which may be this one.
+ */
+@Component
+@RequiredArgsConstructor
+public class ShardSearcher {
+
+    private final PostIndex postIndex;
+    private final CommentIndex commentIndex;
+    private final ShardLayout shardLayout;
+    private final Suggester suggester;
+    private final SpellChecker spellChecker;
+    private final RelatedPosts relatedPosts;
+
+    public CollectionStats stats(String keyword) {
+        requireReady();
+        return postIndex.collectionStats(keyword);
+    }
+
+    // Comments are indexed on every instance, but each only returns those on posts it holds
+    public ShardSearchResponse search(ShardSearchRequest request) {
+        requireReady();
+        SearchCursor after = request.getSearchAfter() == null || request.getSearchAfter().isEmpty()
+                ? null
+                : SearchCursor.decode(request.getSearchAfter());
+        PostHits posts = postIndex.search(request.toPostQuery(), request.getSortBy(), request.getSortDirection(),
+                request.getLimit(), after, request.getStats());
+        CommentHits comments = request.getCommentLimit() > 0 && commentIndex.isReady()
+                ? commentIndex.search(request.getKeyword(), request.getCommentLimit())
+                : CommentHits.EMPTY;
+        return ShardSearchResponse.of(posts, comments);
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        requireReady();
+        return suggester.suggest(prefix, limit);
+    }
+
+    public Map<String, SpellChecker.TermSpelling> spelling(Collection<String> terms) {
+        requireReady();
+        return spellChecker.spellings(terms);
+    }
+
+    public RelatedPosts.Source relatedSource(String postId) {
+        requireReady();
+        return relatedPosts.source(postId);
+    }
+
+    // Published posts held here like the request's post, best first
+    public List<ShardSearchResponse.Hit> related(ShardRelatedRequest request) {
+        requireReady();
+        List<ShardSearchResponse.Hit> hits = new ArrayList<>();
+        for (RelatedPosts.Match match : relatedPosts.related(request.getSource(), request.getPostId(), request.getLimit())) {
+            PostSummaryDto post = postIndex.publishedPost(match.postId());
+            if (post != null) {
+                hits.add(new ShardSearchResponse.Hit(post, match.score(), 0, null));
+            }
+        }
+        return hits;
+    }
+
+    // An empty answer would pass for a shard without matches, so one still loading fails instead
+    private void requireReady() {
+        if (!postIndex.isReady()) {
+            throw new IllegalStateException("Shard " + shardLayout.index() + " has not loaded its index yet");
+        }
+    }
+}
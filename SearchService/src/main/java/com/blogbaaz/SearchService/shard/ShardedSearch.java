@@ -0,0 +1,341 @@
+package com.blogbaaz.SearchService.shard;
+
+import com.blogbaaz.SearchService.clients.RequestDeadline;
+import com.blogbaaz.SearchService.config.SearchConfig;
+import com.blogbaaz.SearchService.dtos.Suggestion;
+import com.blogbaaz.SearchService.index.CollectionStats;
+import com.blogbaaz.SearchService.index.CommentHits;
+import com.blogbaaz.SearchService.index.PostHits;
+import com.blogbaaz.SearchService.index.PostIndex;
+import com.blogbaaz.SearchService.index.PostQuery;
+import com.blogbaaz.SearchService.index.ScoredComment;
+import com.blogbaaz.SearchService.index.ScoredPost;
+import com.blogbaaz.SearchService.index.SearchCursor;
+import com.blogbaaz.SearchService.index.ShardLayout;
+import com.blogbaaz.SearchService.index.ShardMerge;
+import com.blogbaaz.SearchService.related.RelatedPosts;
+import com.blogbaaz.SearchService.suggest.SpellChecker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Runs a search over every shard and merges the pages they return. A
+ * keyword search first gathers each shard's {@link CollectionStats} for the
+ * query's terms, so that every shard expands typos to the same words and
+ * scores with the same term weights, and scores from different shards rank
+ * together. Each round of calls waits
+ * at most search.shards.timeout-ms, within the request's own deadline;
+ * shards that fail or answer too late are left out and listed as missing
+ * rather than holding up the search. Suggestions, spelling corrections and
+ * related posts are gathered from every shard the same way.
+ */
+@Component
+@Slf4j
+public class ShardedSearch {
+
+    // Values asked of each shard per facet, as a share of those kept, so values cut short on one shard still count
+    private static final double FACET_OVERSAMPLE = 1.5;
+    private static final int FACET_EXTRA = 10;
+
+    public record Combined(PostHits posts, CommentHits comments) {
+    }
+
+    private final ShardLayout shardLayout;
+    private final ShardSearcher localShard;
+    private final ShardInstances instances;
+    private final SearchConfig.Shards config;
+    private final boolean fuzzy;
+    private final int maxSuggestions;
+    private final AsyncTaskExecutor executor;
+    // Null when calls run on virtual threads
+    private final ExecutorService pool;
+    private final Counter partialSearches;
+
+    public ShardedSearch(ShardLayout shardLayout, ShardSearcher localShard, ShardInstances instances,
+                         SearchConfig searchConfig, MeterRegistry meterRegistry, Environment environment) {
+        this.shardLayout = shardLayout;
+        this.localShard = localShard;
+        this.instances = instances;
+        this.config = searchConfig.getShards();
+        this.fuzzy = searchConfig.isFuzzySearchEnabled();
+        this.maxSuggestions = searchConfig.getSuggest().getMaxSuggestions();
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor virtualThreads = new SimpleAsyncTaskExecutor("search-shard-call-");
+            virtualThreads.setVirtualThreads(true);
+            this.pool = null;
+            this.executor = virtualThreads;
+        } else {
+            AtomicInteger threadCount = new AtomicInteger();
+            this.pool = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "search-shard-call-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.executor = new TaskExecutorAdapter(pool);
+        }
+        this.partialSearches = meterRegistry.counter("search.shards.partial");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        } else if (executor instanceof SimpleAsyncTaskExecutor virtualThreads) {
+            virtualThreads.close();
+        }
+    }
+
+    // Same contract as PostIndex.search, over every shard's posts
+    public PostHits search(PostQuery query, String sortBy, String sortDir, int limit, SearchCursor after) {
+        ShardSearchRequest request = ShardSearchRequest.of(query).toBuilder()
+                .facetSize(query.getFacets() == null ? query.getFacetSize()
+                        : (int) Math.ceil(query.getFacetSize() * FACET_OVERSAMPLE) + FACET_EXTRA)
+                .sortBy(sortBy)
+                .sortDirection(sortDir)
+                .limit(limit)
+                .searchAfter(after == null ? null : after.encode())
+                .build();
+        return scatter(request, query.getFacetSize()).posts();
+    }
+
+    // Published posts by relevance plus comments on them, as SearchService.searchAll ranks them
+    public Combined searchAll(String keyword, int limit) {
+        ShardSearchRequest request = ShardSearchRequest.of(PostQuery.builder().keyword(keyword).publishedOnly(true).build())
+                .toBuilder()
+                .sortBy(PostIndex.RELEVANCE)
+                .sortDirection("desc")
+                .limit(limit)
+                .commentLimit(limit)
+                .build();
+        return scatter(request, request.getFacetSize());
+    }
+
+    // Heaviest completions over every shard; one found on several shards weighs what it does on all of them
+    public List<Suggestion> suggest(String prefix, int limit) {
+        int wanted = Math.min(limit, maxSuggestions);
+        if (prefix == null || prefix.isBlank() || wanted <= 0) {
+            return List.of();
+        }
+        Map<Integer, ShardClient> remotes = instances.others();
+        List<Integer> missing = new ArrayList<>();
+        Map<Integer, List<Suggestion>> answers = call(reachable(remotes, missing), missing, "suggest", shard -> shard == shardLayout.index()
+                ? localShard.suggest(prefix, wanted)
+                : remotes.get(shard).suggest(prefix, wanted));
+        countPartial(missing);
+
+        Map<String, Suggestion> merged = new LinkedHashMap<>();
+        for (List<Suggestion> suggestions : answers.values()) {
+            for (Suggestion suggestion : suggestions) {
+                merged.merge(suggestion.getType() + ":" + suggestion.getText().toLowerCase(Locale.ROOT), suggestion,
+                        (a, b) -> new Suggestion(a.getText(), a.getType(), a.getWeight() + b.getWeight()));
+            }
+        }
+        return merged.values().stream()
+                .sorted(Comparator.comparingLong(Suggestion::getWeight).reversed())
+                .limit(wanted)
+                .toList();
+    }
+
+    // Corrected against the words of every shard's posts, so a word only one shard uses is not taken for a typo
+    public String didYouMean(String keyword) {
+        Set<String> terms = SpellChecker.terms(keyword);
+        if (terms.isEmpty()) {
+            return null;
+        }
+        List<String> termList = List.copyOf(terms);
+        Map<Integer, ShardClient> remotes = instances.others();
+        List<Integer> missing = new ArrayList<>();
+        Map<Integer, Map<String, SpellChecker.TermSpelling>> answers = call(reachable(remotes, missing), missing, "spelling",
+                shard -> shard == shardLayout.index()
+                        ? localShard.spelling(termList)
+                        : remotes.get(shard).spelling(termList));
+        countPartial(missing);
+        if (answers.isEmpty()) {
+            return null;
+        }
+
+        Map<String, SpellChecker.TermSpelling> spellings = new HashMap<>();
+        for (String term : termList) {
+            List<SpellChecker.TermSpelling> perShard = answers.values().stream()
+                    .map(answer -> answer.get(term))
+                    .filter(Objects::nonNull)
+                    .toList();
+            spellings.put(term, SpellChecker.TermSpelling.merge(perShard));
+        }
+        return SpellChecker.didYouMean(keyword, spellings::get);
+    }
+
+    /**
+     * Posts like the given one from every shard, best first. The post is read
+     * from the shard holding it, and each shard compares its own posts with
+     * it; nothing is related when that shard cannot be reached.
+     */
+    public List<ScoredPost> related(String postId, int limit) {
+        Map<Integer, ShardClient> remotes = instances.others();
+        List<Integer> missing = new ArrayList<>();
+        int owner = shardLayout.shardOf(postId);
+        if (owner != shardLayout.index() && !remotes.containsKey(owner)) {
+            log.warn("Shard {} holding post {} has no instance, no related posts", owner, postId);
+            countPartial(List.of(owner));
+            return List.of();
+        }
+        RelatedPosts.Source source = call(List.of(owner), missing, "related source", shard -> shard == shardLayout.index()
+                ? localShard.relatedSource(postId)
+                : remotes.get(shard).relatedSource(postId)).get(owner);
+        if (source == null) {
+            countPartial(missing);
+            return List.of();
+        }
+
+        ShardRelatedRequest request = new ShardRelatedRequest(postId, source, limit);
+        Map<Integer, List<ShardSearchResponse.Hit>> answers = call(reachable(remotes, missing), missing, "related",
+                shard -> shard == shardLayout.index()
+                        ? localShard.related(request)
+                        : remotes.get(shard).related(request));
+        countPartial(missing);
+        return answers.values().stream()
+                .flatMap(List::stream)
+                .map(hit -> new ScoredPost(hit.getPost(), hit.getScore(), null))
+                .sorted(Comparator.comparingDouble(ScoredPost::getScore).reversed()
+                        .thenComparing(hit -> hit.getPost().getPostId()))
+                .limit(limit)
+                .toList();
+    }
+
+    private Combined scatter(ShardSearchRequest request, int facetSize) {
+        Map<Integer, ShardClient> remotes = instances.others();
+        List<Integer> missing = new ArrayList<>();
+        List<Integer> shards = reachable(remotes, missing);
+
+        boolean keyword = request.getKeyword() != null && !request.getKeyword().isBlank();
+        if (keyword && (fuzzy || PostIndex.RELEVANCE.equals(request.getSortBy()))) {
+            Map<Integer, CollectionStats> stats = call(shards, missing, "stats", shard -> shard == shardLayout.index()
+                    ? localShard.stats(request.getKeyword())
+                    : remotes.get(shard).stats(request.getKeyword()));
+            shards = new ArrayList<>(stats.keySet());
+            request.setStats(CollectionStats.merge(stats.values()));
+        }
+        Map<Integer, ShardSearchResponse> answers = call(shards, missing, "search", shard -> shard == shardLayout.index()
+                ? localShard.search(request)
+                : remotes.get(shard).search(request));
+
+        missing.sort(Comparator.naturalOrder());
+        countPartial(missing);
+        List<PostHits> pages = answers.values().stream().map(ShardSearchResponse::postHits).toList();
+        PostHits posts = ShardMerge.merge(pages, request.getKeyword(), request.getSortBy(), request.getSortDirection(),
+                request.getLimit(), facetSize, List.copyOf(missing));
+        return new Combined(posts, request.getCommentLimit() > 0 ? mergeComments(answers, request.getCommentLimit()) : CommentHits.EMPTY);
+    }
+
+    // This shard and every other one with an instance; the rest are added to missing
+    private List<Integer> reachable(Map<Integer, ShardClient> remotes, List<Integer> missing) {
+        List<Integer> shards = new ArrayList<>();
+        for (int shard = 0; shard < shardLayout.count(); shard++) {
+            (shard == shardLayout.index() || remotes.containsKey(shard) ? shards : missing).add(shard);
+        }
+        return shards;
+    }
+
+    private void countPartial(List<Integer> missing) {
+        if (!missing.isEmpty()) {
+            partialSearches.increment();
+        }
+    }
+
+    // Best score first; ties stay in shard order
+    private static CommentHits mergeComments(Map<Integer, ShardSearchResponse> answers, int limit) {
+        List<ScoredComment> hits = new ArrayList<>();
+        long total = 0;
+        for (ShardSearchResponse answer : answers.values()) {
+            CommentHits comments = answer.commentHits();
+            hits.addAll(comments.getHits());
+            total += comments.getTotalHits();
+        }
+        hits.sort(Comparator.comparingDouble(ScoredComment::getScore).reversed());
+        return new CommentHits(hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits, total);
+    }
+
+    /**
+     * Calls the shards in parallel and returns the answers in shard order.
+     * Shards that fail or have not answered by the round's deadline are
+     * added to missing.
+     */
+    private <T> Map<Integer, T> call(List<Integer> shards, List<Integer> missing, String operation, IntFunction<T> request) {
+        long timeoutNanos = config.getTimeoutMs() * 1_000_000;
+        long remainingMs = RequestDeadline.remainingMillis();
+        long deadline = System.nanoTime() + (remainingMs < 0 ? timeoutNanos : Math.min(timeoutNanos, remainingMs * 1_000_000));
+
+        Map<Integer, CompletableFuture<T>> results = new TreeMap<>();
+        List<Future<?>> attempts = new ArrayList<>(shards.size());
+        for (int shard : shards) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            results.put(shard, result);
+            attempts.add(executor.submit(() -> {
+                // Lets the Feign interceptor pass the remaining budget on to the shard
+                RequestDeadline.set(deadline);
+                try {
+                    result.complete(request.apply(shard));
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    RequestDeadline.clear();
+                }
+            }));
+        }
+        try {
+            CompletableFuture.allOf(results.values().toArray(CompletableFuture[]::new))
+                    .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | ExecutionException ignored) {
+            // Each shard's outcome is checked below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            attempts.forEach(attempt -> attempt.cancel(true));
+        }
+
+        Map<Integer, T> answers = new TreeMap<>();
+        results.forEach((shard, result) -> {
+            if (!result.isDone()) {
+                log.warn("Shard {} {} call missed its deadline, searching without it", shard, operation);
+                missing.add(shard);
+                return;
+            }
+            try {
+                answers.put(shard, result.join());
+            } catch (CompletionException e) {
+                log.warn("Shard {} {} call failed, searching without it: {}", shard, operation, e.getCause().getMessage());
+                missing.add(shard);
+            }
+        });
+        return answers;
+    }
+}
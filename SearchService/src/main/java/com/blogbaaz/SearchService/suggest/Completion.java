@@ -0,0 +1,37 @@
+package com.blogbaaz.SearchService.suggest;
+
+import com.blogbaaz.SearchService.dtos.Suggestion;
+
+import java.util.Comparator;
+
+// A suggestion held in the trie; weight and posts change as posts come and go
+final class Completion {
+
+    // Heaviest first, then alphabetical so equal weights come back in a stable order
+    static final Comparator<Completion> ORDER = (a, b) -> {
+        if (a.weight != b.weight) {
+            return Long.compare(b.weight, a.weight);
+        }
+        int byKey = a.key.compareTo(b.key);
+        return byKey != 0 ? byKey : a.type.compareTo(b.type);
+    };
+
+    final Suggestion.Type type;
+    final String key;
+    final String text;
+    long weight;
+    int posts;
+    // Whether it is in the trie, and the weight it was last ranked at there
+    boolean indexed;
+    long rankedWeight;
+
+    Completion(Suggestion.Type type, String key, String text) {
+        this.type = type;
+        this.key = key;
+        this.text = text;
+    }
+
+    Suggestion toSuggestion() {
+        return new Suggestion(text, type, weight);
+    }
+}
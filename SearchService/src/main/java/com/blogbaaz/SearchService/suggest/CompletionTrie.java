@@ -0,0 +1,221 @@
+package com.blogbaaz.SearchService.suggest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Radix trie of completion keys. Every node keeps the k heaviest completions
+ * anywhere below it, so a lookup is a walk down the prefix with no subtree
+ * scan; changes refresh those lists along the affected paths only. Not
+ * thread-safe, {@link Suggester} guards it.
+ */
+final class CompletionTrie {
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Completion[] NO_COMPLETIONS = new Completion[0];
+
+    private final int k;
+    private final Node root = new Node("");
+
+    CompletionTrie(int k) {
+        this.k = k;
+    }
+
+    // Changes only mark their paths stale; refresh() then re-ranks each stale node once
+    void add(String key, Completion completion) {
+        Node node = walk(key, true);
+        if (node.completions == null) {
+            node.completions = new ArrayList<>(1);
+        }
+        node.completions.add(completion);
+    }
+
+    void remove(String key, Completion completion) {
+        Node node = walk(key, false);
+        if (node != null && node.completions != null
+                && node.completions.remove(completion) && node.completions.isEmpty()) {
+            node.completions = null;
+        }
+    }
+
+    // Called after a completion under key changed weight
+    void reweigh(String key) {
+        walk(key, false);
+    }
+
+    void refresh() {
+        refresh(root);
+    }
+
+    List<Completion> complete(String prefix, int limit) {
+        Node node = root;
+        int pos = 0;
+        while (pos < prefix.length()) {
+            Node child = node.child(prefix.charAt(pos));
+            if (child == null) {
+                return List.of();
+            }
+            int common = commonPrefix(child.label, prefix, pos);
+            if (pos + common == prefix.length()) {
+                node = child;
+                break;
+            }
+            if (common < child.label.length()) {
+                return List.of();
+            }
+            node = child;
+            pos += common;
+        }
+        return Arrays.asList(node.top).subList(0, Math.min(limit, node.top.length));
+    }
+
+    /**
+     * The node for key, creating it if asked, else null when absent. Every
+     * node passed is marked stale, so every ancestor of a stale node is
+     * stale too; marking a path that turns out not to exist is harmless.
+     */
+    private Node walk(String key, boolean create) {
+        Node node = root;
+        node.stale = true;
+        int pos = 0;
+        while (pos < key.length()) {
+            Node child = node.child(key.charAt(pos));
+            if (child == null) {
+                if (!create) {
+                    return null;
+                }
+                child = new Node(key.substring(pos));
+                node.addChild(child);
+                child.stale = true;
+                return child;
+            }
+            int common = commonPrefix(child.label, key, pos);
+            if (common < child.label.length()) {
+                if (!create) {
+                    return null;
+                }
+                // Split the edge where the key leaves it
+                Node middle = new Node(child.label.substring(0, common));
+                node.replaceChild(middle);
+                child.label = child.label.substring(common);
+                middle.children = new Node[]{child};
+                middle.top = child.top;
+                child = middle;
+            }
+            child.stale = true;
+            node = child;
+            pos += common;
+        }
+        return node;
+    }
+
+    // Children first, so each node merges already refreshed lists
+    private void refresh(Node node) {
+        if (!node.stale) {
+            return;
+        }
+        for (Node child : node.children) {
+            refresh(child);
+        }
+        refreshTop(node);
+        node.stale = false;
+    }
+
+    // Bounded insertion into a sorted array: candidates are few and k is small
+    private void refreshTop(Node node) {
+        Completion[] top = new Completion[k];
+        int size = 0;
+        if (node.completions != null) {
+            for (Completion completion : node.completions) {
+                size = offer(top, size, completion);
+            }
+        }
+        for (Node child : node.children) {
+            for (Completion completion : child.top) {
+                // Child lists are sorted, so the rest of this one cannot place either
+                if (size == k && Completion.ORDER.compare(completion, top[k - 1]) >= 0) {
+                    break;
+                }
+                size = offer(top, size, completion);
+            }
+        }
+        node.top = size == k ? top : Arrays.copyOf(top, size);
+    }
+
+    private static int offer(Completion[] top, int size, Completion completion) {
+        // A completion is reachable from several keys (one per word), so skip repeats
+        for (int i = 0; i < size; i++) {
+            if (top[i] == completion) {
+                return size;
+            }
+        }
+        int pos = size;
+        while (pos > 0 && Completion.ORDER.compare(completion, top[pos - 1]) < 0) {
+            pos--;
+        }
+        if (pos == top.length) {
+            return size;
+        }
+        int newSize = Math.min(size + 1, top.length);
+        System.arraycopy(top, pos, top, pos + 1, newSize - pos - 1);
+        top[pos] = completion;
+        return newSize;
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node {
+        String label;
+        // Sorted by the first char of their labels, which are distinct
+        Node[] children = NO_CHILDREN;
+        List<Completion> completions;
+        Completion[] top = NO_COMPLETIONS;
+        boolean stale;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        Node child(char c) {
+            int pos = search(c);
+            return pos >= 0 ? children[pos] : null;
+        }
+
+        void addChild(Node child) {
+            int insertAt = -search(child.label.charAt(0)) - 1;
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, insertAt);
+            grown[insertAt] = child;
+            System.arraycopy(children, insertAt, grown, insertAt + 1, children.length - insertAt);
+            children = grown;
+        }
+
+        void replaceChild(Node child) {
+            children[search(child.label.charAt(0))] = child;
+        }
+
+        private int search(char c) {
+            int low = 0, high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char midChar = children[mid].label.charAt(0);
+                if (midChar < c) {
+                    low = mid + 1;
+                } else if (midChar > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.blogbaaz.SearchService.suggest;
+
+import com.blogbaaz.SearchService.dtos.PostDto;
+import com.blogbaaz.SearchService.index.PostChangedEvent;
+import com.blogbaaz.SearchService.index.PostIndex;
+import com.blogbaaz.SearchService.index.PostIndexRebuiltEvent;
+import com.blogbaaz.SearchService.index.Tokenizer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * "Did you mean" corrections for searches that find little. A word no
+ * published post uses is replaced by the closest word that one does, the
+ * most common on a tie. Kept in step with {@link PostIndex} through its
+ * change events; a rebuild reads the vocabulary from the index, since
+ * restored posts come without their content.
+ */
+@Component
+@Slf4j
+public class SpellChecker {
+
+    // A word in use is only corrected to one this many times as common, as when a post has the same typo
+    private static final int DOMINANCE = 10;
+    private static final Comparator<Candidate> CLOSEST_FIRST = Comparator.comparingInt(Candidate::distance)
+            .thenComparing(Comparator.comparingInt(Candidate::count).reversed());
+
+    // How many posts use a term, and the words in use it could be a typo of, closest first
+    public record TermSpelling(int count, List<Candidate> corrections) {
+
+        static final TermSpelling UNKNOWN = new TermSpelling(0, List.of());
+
+        // Several shards' spellings of one term, counted over all their posts
+        public static TermSpelling merge(Collection<TermSpelling> spellings) {
+            int count = 0;
+            Map<String, Candidate> byWord = new HashMap<>();
+            for (TermSpelling spelling : spellings) {
+                count += spelling.count();
+                for (Candidate candidate : spelling.corrections()) {
+                    byWord.merge(candidate.word(), candidate,
+                            (a, b) -> new Candidate(a.word(), a.distance(), a.count() + b.count()));
+                }
+            }
+            List<Candidate> corrections = new ArrayList<>(byWord.values());
+            corrections.sort(CLOSEST_FIRST);
+            return new TermSpelling(count, corrections);
+        }
+    }
+
+    public record Candidate(String word, int distance, int count) {
+    }
+
+    private final PostIndex postIndex;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private SpellingIndex spelling = new SpellingIndex();
+
+    public SpellChecker(PostIndex postIndex) {
+        this.postIndex = postIndex;
+    }
+
+    /**
+     * The keyword with its misspelled words corrected, or null when it has
+     * none. Operators, quotes and field names stay as typed, as do words
+     * with digits and tag: and category: values.
+     */
+    public String didYouMean(String keyword) {
+        return didYouMean(keyword, this::spelling);
+    }
+
+    // The terms didYouMean looks up, so a sharded search can gather their spellings from every shard first
+    public static Set<String> terms(String keyword) {
+        Set<String> terms = new LinkedHashSet<>();
+        didYouMean(keyword, term -> {
+            terms.add(term);
+            return TermSpelling.UNKNOWN;
+        });
+        return terms;
+    }
+
+    // As didYouMean, with each term's spelling taken from spellings
+    public static String didYouMean(String keyword, Function<String, TermSpelling> spellings) {
+        if (keyword == null || keyword.isBlank()) {
+            return null;
+        }
+        StringBuilder corrected = new StringBuilder(keyword.length());
+        boolean changed = false;
+        boolean inExactValue = false;
+        int at = 0;
+        while (at < keyword.length()) {
+            char c = keyword.charAt(at);
+            if (!Tokenizer.isTokenChar(c)) {
+                // A quoted value of a field ends at its closing quote
+                inExactValue = inExactValue ? c != '"' : c == '"' && at > 0 && endsExactField(keyword, at - 1);
+                corrected.append(c);
+                at++;
+                continue;
+            }
+            int end = at;
+            while (end < keyword.length() && Tokenizer.isTokenChar(keyword.charAt(end))) {
+                end++;
+            }
+            String word = keyword.substring(at, end);
+            boolean kept = inExactValue || "OR".equals(word)
+                    || end < keyword.length() && keyword.charAt(end) == ':'
+                    || at > 0 && endsExactField(keyword, at - 1);
+            String replacement = kept ? null : correct(word, spellings);
+            corrected.append(replacement == null ? word : replacement);
+            changed |= replacement != null;
+            at = end;
+        }
+        return changed ? corrected.toString() : null;
+    }
+
+    // Whether the char at colonAt is the colon after tag or category, whose values are matched exactly
+    private static boolean endsExactField(String keyword, int colonAt) {
+        if (keyword.charAt(colonAt) != ':') {
+            return false;
+        }
+        int start = colonAt;
+        while (start > 0 && Character.isLetter(keyword.charAt(start - 1))) {
+            start--;
+        }
+        String field = keyword.substring(start, colonAt).toLowerCase(Locale.ROOT);
+        return field.equals("tag") || field.equals("category");
+    }
+
+    // Looked up as the index holds it, stemmed; a stopword has no entry but is never misspelled
+    private static String correct(String word, Function<String, TermSpelling> spellings) {
+        List<String> terms = Tokenizer.tokenize(word);
+        if (terms.size() != 1 || word.chars().anyMatch(Character::isDigit)) {
+            return null;
+        }
+        TermSpelling spelling = spellings.apply(terms.get(0));
+        for (Candidate candidate : spelling.corrections()) {
+            if (spelling.count() == 0 || candidate.count() >= (long) DOMINANCE * spelling.count()) {
+                return candidate.word();
+            }
+        }
+        return null;
+    }
+
+    // This instance's spelling of each term
+    public Map<String, TermSpelling> spellings(Collection<String> terms) {
+        Map<String, TermSpelling> spellings = new HashMap<>();
+        for (String term : terms) {
+            spellings.put(term, spelling(term));
+        }
+        return spellings;
+    }
+
+    private TermSpelling spelling(String term) {
+        lock.readLock().lock();
+        try {
+            List<Candidate> corrections = new ArrayList<>();
+            for (SpellingIndex.Correction correction : spelling.lookup(term)) {
+                corrections.add(new Candidate(correction.word(), correction.distance(), correction.count()));
+            }
+            return new TermSpelling(spelling.count(term), corrections);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onPostChanged(PostChangedEvent event) {
+        if (event.isCountersOnly()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            update(spelling, event.getPrevious(), -1);
+            update(spelling, event.getCurrent(), 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Built off to the side, which also drops the deletes of words no longer used
+    @EventListener
+    public void onIndexRebuilt(PostIndexRebuiltEvent event) {
+        SpellingIndex rebuilt = new SpellingIndex();
+        for (Map.Entry<String, Integer> term : postIndex.termFrequencies().entrySet()) {
+            rebuilt.add(term.getKey(), term.getValue());
+        }
+        lock.writeLock().lock();
+        try {
+            spelling = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Spelling corrections rebuilt with {} words", rebuilt.size());
+    }
+
+    // Counts each word once per field, as the index does
+    private static void update(SpellingIndex spelling, PostDto post, int sign) {
+        if (post == null || !PostIndex.isPublished(post)) {
+            return;
+        }
+        for (String text : new String[]{post.getTitle(), post.getExcerpt(), post.getContent()}) {
+            Set<String> words = new HashSet<>(Tokenizer.tokenize(text));
+            for (String word : words) {
+                spelling.add(word, sign);
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.blogbaaz.SearchService.suggest;
+
+import com.blogbaaz.SearchService.index.EditDistance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Words with the number of posts they appear in, looked up by symmetric
+ * deletes: every string a word reduces to by deleting up to
+ * {@link #MAX_EDITS} chars points back at it, so the words near a misspelling
+ * are found by generating the misspelling's own deletes, with no scan of the
+ * vocabulary. Only the first {@link #PREFIX_LENGTH} chars are reduced, which
+ * keeps the deletes per word small; candidates are checked against the whole
+ * word. Words dropping to no posts keep their deletes until the next rebuild.
+ * Not thread-safe; {@link SpellChecker} guards access.
+ */
+final class SpellingIndex {
+
+    static final int MAX_EDITS = 2;
+    static final int PREFIX_LENGTH = 7;
+
+    private final Map<String, Integer> wordIds = new HashMap<>();
+    private final List<String> words = new ArrayList<>();
+    private int[] counts = new int[64];
+
+    // Open addressing on the delete's hash; each slot heads a chain of words through entryWords and entryNext.
+    // Hash collisions only add candidates, which fail the distance check.
+    private long[] slotHashes = new long[1024];
+    // Entry index + 1, 0 for an empty slot
+    private int[] slotHeads = new int[1024];
+    private int slotCount;
+    private int[] entryWords = new int[1024];
+    private int[] entryNext = new int[1024];
+    private int entryCount;
+
+    record Correction(String word, int distance, int count) {
+    }
+
+    int size() {
+        return words.size();
+    }
+
+    int count(String word) {
+        Integer id = wordIds.get(word);
+        return id == null ? 0 : counts[id];
+    }
+
+    // Adds delta to the word's post count, indexing the word the first time it is seen
+    void add(String word, int delta) {
+        Integer id = wordIds.get(word);
+        if (id == null) {
+            if (delta <= 0) {
+                return;
+            }
+            id = words.size();
+            words.add(word);
+            wordIds.put(word, id);
+            if (id == counts.length) {
+                counts = Arrays.copyOf(counts, counts.length * 2);
+            }
+            for (String delete : deletes(word, MAX_EDITS)) {
+                addEntry(hash(delete), id);
+            }
+        }
+        counts[id] = Math.max(0, counts[id] + delta);
+    }
+
+    /**
+     * Words in use within the term's edit budget, other than the term itself,
+     * ordered by distance and then by how many posts use them.
+     */
+    List<Correction> lookup(String term) {
+        int maxEdits = Math.min(MAX_EDITS, EditDistance.maxEdits(term.length()));
+        if (maxEdits == 0) {
+            return List.of();
+        }
+        Set<Integer> seen = new HashSet<>();
+        List<Correction> corrections = new ArrayList<>();
+        for (String delete : deletes(term, maxEdits)) {
+            for (int entry = head(hash(delete)); entry > 0; entry = entryNext[entry - 1]) {
+                int id = entryWords[entry - 1];
+                if (counts[id] == 0 || !seen.add(id)) {
+                    continue;
+                }
+                String word = words.get(id);
+                int distance = EditDistance.distance(term, word, maxEdits);
+                if (distance > 0 && distance <= maxEdits) {
+                    corrections.add(new Correction(word, distance, counts[id]));
+                }
+            }
+        }
+        corrections.sort((a, b) -> a.distance != b.distance
+                ? Integer.compare(a.distance, b.distance)
+                : Integer.compare(b.count, a.count));
+        return corrections;
+    }
+
+    // The word's prefix and each string it reduces to by deleting up to maxEdits chars
+    private static Set<String> deletes(String word, int maxEdits) {
+        String prefix = word.length() > PREFIX_LENGTH ? word.substring(0, PREFIX_LENGTH) : word;
+        Set<String> deletes = new HashSet<>();
+        deletes.add(prefix);
+        List<String> level = List.of(prefix);
+        for (int edit = 0; edit < maxEdits; edit++) {
+            List<String> next = new ArrayList<>();
+            for (String text : level) {
+                for (int i = 0; i < text.length(); i++) {
+                    String delete = text.substring(0, i) + text.substring(i + 1);
+                    if (deletes.add(delete)) {
+                        next.add(delete);
+                    }
+                }
+            }
+            level = next;
+        }
+        return deletes;
+    }
+
+    // 64-bit FNV-1a, so collisions between deletes are rare enough to ignore
+    private static long hash(String text) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private int head(long hash) {
+        int mask = slotHeads.length - 1;
+        for (int slot = (int) (hash ^ hash >>> 32) & mask; slotHeads[slot] != 0; slot = (slot + 1) & mask) {
+            if (slotHashes[slot] == hash) {
+                return slotHeads[slot];
+            }
+        }
+        return 0;
+    }
+
+    private void addEntry(long hash, int id) {
+        if (entryCount == entryWords.length) {
+            entryWords = Arrays.copyOf(entryWords, entryCount * 2);
+            entryNext = Arrays.copyOf(entryNext, entryCount * 2);
+        }
+        if (2 * (slotCount + 1) > slotHeads.length) {
+            rehash(slotHeads.length * 2);
+        }
+        int mask = slotHeads.length - 1;
+        int slot = (int) (hash ^ hash >>> 32) & mask;
+        while (slotHeads[slot] != 0 && slotHashes[slot] != hash) {
+            slot = (slot + 1) & mask;
+        }
+        if (slotHeads[slot] == 0) {
+            slotHashes[slot] = hash;
+            slotCount++;
+        }
+        entryWords[entryCount] = id;
+        entryNext[entryCount] = slotHeads[slot];
+        slotHeads[slot] = ++entryCount;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldHashes = slotHashes;
+        int[] oldHeads = slotHeads;
+        slotHashes = new long[capacity];
+        slotHeads = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldHeads.length; i++) {
+            if (oldHeads[i] != 0) {
+                int slot = (int) (oldHashes[i] ^ oldHashes[i] >>> 32) & mask;
+                while (slotHeads[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slotHashes[slot] = oldHashes[i];
+                slotHeads[slot] = oldHeads[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.blogbaaz.SearchService.suggest;
+
+import com.blogbaaz.SearchService.config.SearchConfig;
+import com.blogbaaz.SearchService.dtos.PostDto;
+import com.blogbaaz.SearchService.dtos.Suggestion;
+import com.blogbaaz.SearchService.index.PostChangedEvent;
+import com.blogbaaz.SearchService.index.PostIndex;
+import com.blogbaaz.SearchService.index.PostIndexRebuiltEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Typeahead over the titles, tags, categories and author names of published
+ * posts. Each completion is weighted by the views and likes of the posts it
+ * comes from and can be reached from the start of any of its words. Kept in
+ * step with {@link PostIndex} through its change events.
+ */
+@Component
+@Slf4j
+public class Suggester {
+
+    // A like says more about a post than a view
+    private static final int LIKE_WEIGHT = 10;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final int maxSuggestions;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Completions completions;
+
+    public Suggester(SearchConfig searchConfig) {
+        this.maxSuggestions = searchConfig.getSuggest().getMaxSuggestions();
+        this.completions = new Completions(maxSuggestions);
+    }
+
+    // Heaviest completions starting with prefix, at most limit and never more than the configured maximum
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<Completion> top = completions.trie.complete(key, Math.min(limit, maxSuggestions));
+            List<Suggestion> suggestions = new ArrayList<>(top.size());
+            for (Completion completion : top) {
+                suggestions.add(completion.toSuggestion());
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onPostChanged(PostChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            completions.update(event.getPrevious(), -1);
+            completions.update(event.getCurrent(), 1);
+            completions.flush();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Built off to the side, which also drops trie nodes left empty by removals
+    @EventListener
+    public void onIndexRebuilt(PostIndexRebuiltEvent event) {
+        Completions rebuilt = new Completions(maxSuggestions);
+        rebuilt.load(event.getPosts());
+        lock.writeLock().lock();
+        try {
+            completions = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Suggestions rebuilt with {} completions", rebuilt.size());
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : WHITESPACE.matcher(text.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    private static long popularity(PostDto post) {
+        // Posts nobody has read yet still count once
+        return 1 + post.getViewCount() + (long) LIKE_WEIGHT * post.getLikeCount();
+    }
+
+    private static final class Completions {
+        final CompletionTrie trie;
+        final Map<Suggestion.Type, Map<String, Completion>> byKey = new EnumMap<>(Suggestion.Type.class);
+        // Touched since the last flush, possibly twice; a post's old and new versions often cancel out
+        final List<Completion> dirty = new ArrayList<>();
+
+        Completions(int k) {
+            this.trie = new CompletionTrie(k);
+            for (Suggestion.Type type : Suggestion.Type.values()) {
+                byKey.put(type, new HashMap<>());
+            }
+        }
+
+        void load(Collection<PostDto> posts) {
+            for (PostDto post : posts) {
+                update(post, 1);
+            }
+            flush();
+        }
+
+        int size() {
+            return byKey.values().stream().mapToInt(Map::size).sum();
+        }
+
+        // Adds (sign 1) or takes back (sign -1) what a post contributes; takes effect on flush
+        void update(PostDto post, int sign) {
+            if (post == null || !PostIndex.isPublished(post)) {
+                return;
+            }
+            long weight = sign * popularity(post);
+            update(Suggestion.Type.TITLE, post.getTitle(), weight, sign);
+            update(Suggestion.Type.CATEGORY, post.getCategory(), weight, sign);
+            update(Suggestion.Type.AUTHOR, post.getAuthorName(), weight, sign);
+            if (post.getTags() != null) {
+                for (String tag : post.getTags()) {
+                    update(Suggestion.Type.TAG, tag, weight, sign);
+                }
+            }
+        }
+
+        private void update(Suggestion.Type type, String text, long weight, int sign) {
+            String key = normalize(text);
+            if (key.isEmpty()) {
+                return;
+            }
+            Completion completion = byKey.get(type).computeIfAbsent(key, k -> new Completion(type, k, text.trim()));
+            completion.weight += weight;
+            completion.posts += sign;
+            dirty.add(completion);
+        }
+
+        void flush() {
+            for (Completion completion : dirty) {
+                List<String> wordKeys = wordKeys(completion.key);
+                if (completion.posts <= 0) {
+                    byKey.get(completion.type).remove(completion.key);
+                    if (completion.indexed) {
+                        wordKeys.forEach(wordKey -> trie.remove(wordKey, completion));
+                        completion.indexed = false;
+                    }
+                } else if (!completion.indexed) {
+                    wordKeys.forEach(wordKey -> trie.add(wordKey, completion));
+                    completion.indexed = true;
+                } else if (completion.weight != completion.rankedWeight) {
+                    wordKeys.forEach(trie::reweigh);
+                }
+                completion.rankedWeight = completion.weight;
+            }
+            dirty.clear();
+            trie.refresh();
+        }
+
+        // The key from the start of each of its words, so "boot" finds "spring boot"
+        private static List<String> wordKeys(String key) {
+            List<String> keys = new ArrayList<>();
+            keys.add(key);
+            for (int i = key.indexOf(' '); i >= 0; i = key.indexOf(' ', i + 1)) {
+                keys.add(key.substring(i + 1));
+            }
+            return keys;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.blogbaaz.SearchService.analysis;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EnglishStemFilterTest {
+
+    private final EnglishStemFilter filter = new EnglishStemFilter();
+
+    @ParameterizedTest
+    @CsvSource({
+            // Plurals
+            "posts, post",
+            "stories, story",
+            "classes, class",
+            "boxes, box",
+            "wishes, wish",
+            "caches, cache",
+            "days, day",
+            // Verb suffixes
+            "posted, post",
+            "posting, post",
+            "running, run",
+            "hoped, hope",
+            "hoping, hope",
+            "studied, study",
+            "agreed, agree",
+            "related, relate",
+            "troubled, trouble",
+            "falling, fall",
+    })
+    void stemsInflections(String word, String stem) {
+        assertThat(stem(word)).isEqualTo(stem);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            // Too short, or left too short
+            "has", "its", "bus", "used", "tied", "sing",
+            // Not plurals, or plurals whose -es would leave a stem unlike the singular's
+            "class", "status", "shoes", "trees", "toes",
+            // No vowel left in the stem
+            "spring", "string",
+            // Derivational suffixes are kept
+            "happiness", "creation",
+            // Not plain ASCII letters
+            "cafés", "posts2", "Posts",
+    })
+    void leavesOtherWordsAlone(String word) {
+        assertThat(stem(word)).isEqualTo(word);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"posts", "running", "studied"})
+    void keepsEveryToken(String word) {
+        Token token = new Token();
+        token.setChars(word);
+
+        assertThat(filter.apply(token)).isTrue();
+    }
+
+    private String stem(String word) {
+        Token token = new Token();
+        token.setChars(word);
+        filter.apply(token);
+        return token.toString();
+    }
+}
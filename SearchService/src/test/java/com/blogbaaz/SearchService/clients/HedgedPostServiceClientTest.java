@@ -0,0 +1,194 @@
+package com.blogbaaz.SearchService.clients;
+
+import com.blogbaaz.SearchService.config.SearchConfig;
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HedgedPostServiceClientTest {
+
+    private PostServiceClient first;
+    private PostServiceClient second;
+    private PostServiceInstances instances;
+    private SearchConfig searchConfig;
+    private SimpleMeterRegistry meterRegistry;
+    private HedgedPostServiceClient client;
+
+    @BeforeEach
+    void setUp() {
+        first = mock(PostServiceClient.class);
+        second = mock(PostServiceClient.class);
+        instances = mock(PostServiceInstances.class);
+        when(instances.next(2)).thenReturn(List.of(first, second));
+        searchConfig = new SearchConfig();
+        searchConfig.getPostService().setInitialHedgeDelayMs(50);
+        searchConfig.getPostService().setTimeoutMs(2000);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.shutdown();
+        }
+    }
+
+    @Test
+    void fastAnswerIsNotHedged() {
+        String answer = start().call("op", answering(Map.of(first, "first", second, "second"), 0, 0));
+
+        assertThat(answer).isEqualTo("first");
+        assertThat(hedges()).isZero();
+    }
+
+    @Test
+    void slowAnswerIsHedgedToTheOtherInstanceAndTheLoserCancelled() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        String answer = start().call("op", target -> {
+            if (target == first) {
+                blockUntilInterrupted(interrupted);
+                return "first";
+            }
+            return "second";
+        });
+
+        assertThat(answer).isEqualTo("second");
+        assertThat(hedges()).isEqualTo(1);
+        assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void singleInstanceIsNotHedgedToItself() {
+        when(instances.next(2)).thenReturn(List.of(first));
+        AtomicInteger attempts = new AtomicInteger();
+
+        String answer = start().call("op", target -> {
+            attempts.incrementAndGet();
+            sleep(200);
+            return "only";
+        });
+
+        assertThat(answer).isEqualTo("only");
+        assertThat(attempts).hasValue(1);
+        assertThat(hedges()).isZero();
+    }
+
+    @Test
+    void fastServerErrorIsRetriedOnTheOtherInstanceAtOnce() {
+        long start = System.nanoTime();
+        String answer = start().call("op", target -> {
+            if (target == first) {
+                throw new IllegalStateException("503");
+            }
+            return "second";
+        });
+
+        assertThat(answer).isEqualTo("second");
+        assertThat(hedges()).isEqualTo(1);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+    }
+
+    @Test
+    void rejectedRequestIsNotRetried() {
+        FeignException.BadRequest badRequest = new FeignException.BadRequest("bad request",
+                Request.create(Request.HttpMethod.GET, "/api/posts", Map.of(), null, StandardCharsets.UTF_8, null),
+                null, Map.of());
+
+        assertThatThrownBy(() -> start().call("op", target -> {
+            throw badRequest;
+        })).isSameAs(badRequest);
+        assertThat(hedges()).isZero();
+    }
+
+    @Test
+    void failureOfEveryAttemptIsThrown() {
+        assertThatThrownBy(() -> start().call("op", target -> {
+            throw new IllegalStateException(target == first ? "first down" : "second down");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(hedges()).isEqualTo(1);
+    }
+
+    @Test
+    void noHedgeWhenDisabled() {
+        searchConfig.getPostService().setHedgeEnabled(false);
+
+        String answer = start().call("op", answering(Map.of(first, "first", second, "second"), 200, 0));
+
+        assertThat(answer).isEqualTo("first");
+        assertThat(hedges()).isZero();
+    }
+
+    @Test
+    void budgetLimitsHedges() {
+        searchConfig.getPostService().setHedgeBudgetPercent(0);
+        HedgedPostServiceClient hedged = start();
+        Function<PostServiceClient, String> slowFirst = answering(Map.of(first, "first", second, "second"), 80, 0);
+
+        for (int i = 0; i < 12; i++) {
+            hedged.call("op", slowFirst);
+        }
+
+        // The burst allowance of ten, and nothing refilled it
+        assertThat(hedges()).isEqualTo(10);
+    }
+
+    @Test
+    void callPastTheDeadlineFails() {
+        searchConfig.getPostService().setTimeoutMs(200);
+
+        assertThatThrownBy(() -> start().call("op", target -> {
+            sleep(2000);
+            return "late";
+        })).hasMessageContaining("missed its deadline");
+    }
+
+    private HedgedPostServiceClient start() {
+        client = new HedgedPostServiceClient(instances, searchConfig, meterRegistry, new MockEnvironment());
+        return client;
+    }
+
+    private double hedges() {
+        return meterRegistry.counter("search.postservice.hedges").count();
+    }
+
+    private Function<PostServiceClient, String> answering(Map<PostServiceClient, String> answers, long firstDelayMs,
+                                                          long secondDelayMs) {
+        return target -> {
+            sleep(target == first ? firstDelayMs : secondDelayMs);
+            return answers.get(target);
+        };
+    }
+
+    private static void blockUntilInterrupted(CountDownLatch interrupted) {
+        try {
+            Thread.sleep(10_000);
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+        }
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.blogbaaz.SearchService.controllers;
+
+import com.blogbaaz.SearchService.clients.HedgedPostServiceClient;
+import com.blogbaaz.SearchService.config.SearchConfig;
+import com.blogbaaz.SearchService.exceptions.GlobalExceptionHandler;
+import com.blogbaaz.SearchService.index.CommentIndex;
+import com.blogbaaz.SearchService.index.PostIndex;
+import com.blogbaaz.SearchService.index.ShardLayout;
+import com.blogbaaz.SearchService.related.RelatedPosts;
+import com.blogbaaz.SearchService.services.impl.SearchServiceImpl;
+import com.blogbaaz.SearchService.shard.ShardedSearch;
+import com.blogbaaz.SearchService.suggest.SpellChecker;
+import com.blogbaaz.SearchService.suggest.Suggester;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Base64;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class SearchControllerTest {
+
+    private PostIndex postIndex;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        postIndex = mock(PostIndex.class);
+        when(postIndex.isReady()).thenReturn(true);
+        SearchServiceImpl searchService = new SearchServiceImpl(mock(HedgedPostServiceClient.class), postIndex,
+                mock(CommentIndex.class), mock(Suggester.class), mock(SpellChecker.class), mock(RelatedPosts.class),
+                mock(ShardLayout.class), mock(ShardedSearch.class), new SearchConfig());
+        mockMvc = MockMvcBuilders.standaloneSetup(new SearchController(searchService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void tamperedCursorIsABadRequest() throws Exception {
+        // Version byte of a real cursor, then a sort field cut short
+        String tampered = Base64.getUrlEncoder().withoutPadding().encodeToString(new byte[]{1, 0, 9, 'c', 'r', 'e'});
+
+        mockMvc.perform(get("/api/search").param("query", "kafka").param("searchAfter", tampered))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid searchAfter cursor"));
+        verify(postIndex, never()).search(any(), anyString(), anyString(), anyInt(), any(), any());
+    }
+
+    @Test
+    void garbageCursorInABodyIsABadRequest() throws Exception {
+        mockMvc.perform(post("/api/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"query\":\"kafka\",\"searchAfter\":\"%%not-a-cursor%%\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
+    }
+}
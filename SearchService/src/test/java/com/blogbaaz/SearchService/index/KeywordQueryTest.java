@@ -0,0 +1,120 @@
+package com.blogbaaz.SearchService.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeywordQueryTest {
+
+    @Test
+    void bareWordsAreEachRequired() {
+        KeywordQuery query = KeywordQuery.parse("kafka broker");
+
+        assertThat(query.required()).containsExactly(
+                List.of(text(KeywordQuery.Field.TEXT, "kafka")),
+                List.of(text(KeywordQuery.Field.TEXT, "broker")));
+        assertThat(query.excluded()).isEmpty();
+    }
+
+    @Test
+    void quotedPhraseKeepsItsWordsInOrder() {
+        KeywordQuery.Atom phrase = single(KeywordQuery.parse("\"brown fox\""));
+
+        assertThat(phrase.isPhrase()).isTrue();
+        assertThat(phrase.terms()).containsExactly("brown", "fox");
+        assertThat(phrase.isFuzzable()).isFalse();
+    }
+
+    @Test
+    void unclosedQuoteRunsToTheEnd() {
+        KeywordQuery.Atom phrase = single(KeywordQuery.parse("\"brown fox"));
+
+        assertThat(phrase.terms()).containsExactly("brown", "fox");
+    }
+
+    @Test
+    void wordSplitByTheTokenizerIsMatchedAsAPhrase() {
+        KeywordQuery.Atom atom = single(KeywordQuery.parse("node.js"));
+
+        assertThat(atom.isPhrase()).isTrue();
+        assertThat(atom.terms()).containsExactly("node", "js");
+    }
+
+    @Test
+    void orJoinsNeighbouringClauses() {
+        KeywordQuery query = KeywordQuery.parse("kafka OR rabbitmq broker");
+
+        assertThat(query.required()).containsExactly(
+                List.of(text(KeywordQuery.Field.TEXT, "kafka"), text(KeywordQuery.Field.TEXT, "rabbitmq")),
+                List.of(text(KeywordQuery.Field.TEXT, "broker")));
+    }
+
+    @Test
+    void explicitlyRequiredClauseTakesNoAlternative() {
+        KeywordQuery query = KeywordQuery.parse("+kafka OR broker");
+
+        assertThat(query.required()).hasSize(2);
+    }
+
+    @Test
+    void leadingOrIsIgnored() {
+        KeywordQuery query = KeywordQuery.parse("OR kafka");
+
+        assertThat(query.required()).containsExactly(List.of(text(KeywordQuery.Field.TEXT, "kafka")));
+    }
+
+    @Test
+    void minusExcludes() {
+        KeywordQuery query = KeywordQuery.parse("kafka -\"event sourcing\" -zookeeper");
+
+        assertThat(query.required()).containsExactly(List.of(text(KeywordQuery.Field.TEXT, "kafka")));
+        assertThat(query.excluded()).extracting(KeywordQuery.Atom::terms)
+                .containsExactly(List.of("event", "sourc"), List.of("zookeeper"));
+    }
+
+    @Test
+    void fieldPrefixesLimitTheClause() {
+        KeywordQuery query = KeywordQuery.parse("title:\"brown fox\" tag:Java category:Backend author:smith");
+
+        assertThat(query.required()).containsExactly(
+                List.of(text(KeywordQuery.Field.TITLE, "brown", "fox")),
+                List.of(KeywordQuery.Atom.exact(KeywordQuery.Field.TAG, "Java")),
+                List.of(KeywordQuery.Atom.exact(KeywordQuery.Field.CATEGORY, "Backend")),
+                List.of(text(KeywordQuery.Field.AUTHOR, "smith")));
+    }
+
+    @Test
+    void unknownPrefixStaysPartOfTheWord() {
+        KeywordQuery query = KeywordQuery.parse("http://example");
+
+        assertThat(query.required()).hasSize(1);
+        assertThat(single(query).field()).isEqualTo(KeywordQuery.Field.TEXT);
+    }
+
+    @Test
+    void blankOrPunctuationOnlyKeywordIsEmpty() {
+        assertThat(KeywordQuery.parse(null).isEmpty()).isTrue();
+        assertThat(KeywordQuery.parse("   ").isEmpty()).isTrue();
+        assertThat(KeywordQuery.parse("+ - \"\"").isEmpty()).isTrue();
+    }
+
+    @Test
+    void scoredAndFuzzyTermsAreDistinct() {
+        KeywordQuery query = KeywordQuery.parse("kafka \"kafka broker\" tag:java kafka");
+
+        assertThat(query.scoredTerms()).containsExactly("kafka", "broker");
+        assertThat(query.fuzzyTerms()).containsExactly("kafka");
+    }
+
+    private static KeywordQuery.Atom text(KeywordQuery.Field field, String... terms) {
+        return KeywordQuery.Atom.text(field, List.of(terms));
+    }
+
+    private static KeywordQuery.Atom single(KeywordQuery query) {
+        assertThat(query.required()).hasSize(1);
+        assertThat(query.required().get(0)).hasSize(1);
+        return query.required().get(0).get(0);
+    }
+}
@@ -0,0 +1,89 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.dtos.PostDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryPlannerTest {
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex();
+        index.add(post("adjacent", "The quick brown fox", "It jumps over the lazy dog", Set.of("animals")));
+        index.add(post("apart", "A brown dog", "and a fox", Set.of("animals")));
+        index.add(post("reversed", "Fox, brown and quick", "Nothing else here", Set.of("nature")));
+        index.add(post("content", "Field notes", "Seen today: a quick brown fox by the river", Set.of("nature")));
+    }
+
+    @Test
+    void phraseMatchesAdjacentWordsInOrder() {
+        assertThat(search("\"brown fox\"")).containsExactlyInAnyOrder("adjacent", "content");
+    }
+
+    @Test
+    void phraseDoesNotMatchAcrossFields() {
+        // "apart" has brown at the end of its title and fox in its content
+        assertThat(search("\"dog and fox\"")).isEmpty();
+    }
+
+    @Test
+    void longerPhraseStartsFromItsRarestWord() {
+        assertThat(search("\"quick brown fox\"")).containsExactlyInAnyOrder("adjacent", "content");
+        assertThat(search("\"the quick brown fox\"")).containsExactlyInAnyOrder("adjacent", "content");
+    }
+
+    @Test
+    void phraseInTitleOnly() {
+        assertThat(search("title:\"brown fox\"")).containsExactly("adjacent");
+    }
+
+    @Test
+    void wordsWithoutQuotesMatchAnywhere() {
+        assertThat(search("brown fox")).containsExactlyInAnyOrder("adjacent", "apart", "reversed", "content");
+    }
+
+    @Test
+    void phraseCombinesWithExclusionsAndAlternatives() {
+        assertThat(search("\"brown fox\" -tag:nature")).containsExactly("adjacent");
+        assertThat(search("\"brown dog\" OR \"fox brown\"")).containsExactlyInAnyOrder("apart", "reversed");
+        assertThat(search("fox -\"brown fox\"")).containsExactlyInAnyOrder("apart", "reversed");
+    }
+
+    @Test
+    void phraseWithUnknownWordMatchesNothing() {
+        assertThat(search("\"brown unicorn\"")).isEmpty();
+    }
+
+    private List<String> search(String keyword) {
+        RoaringBitmap docs = QueryPlanner.execute(index, PostQuery.builder().build(), KeywordQuery.parse(keyword), Map.of());
+        List<String> postIds = new ArrayList<>();
+        docs.forEach((int docId) -> postIds.add(index.postId(docId)));
+        return postIds;
+    }
+
+    static PostDto post(String postId, String title, String content, Set<String> tags) {
+        return PostDto.builder()
+                .postId(postId)
+                .title(title)
+                .content(content)
+                .authorId("author-1")
+                .authorName("Jane Smith")
+                .status("PUBLISHED")
+                .isPublished(true)
+                .tags(tags)
+                .category("Blog")
+                .createdAt(LocalDateTime.of(2024, 1, 1, 0, 0))
+                .build();
+    }
+}
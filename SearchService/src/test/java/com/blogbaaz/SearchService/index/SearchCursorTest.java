@@ -0,0 +1,92 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.dtos.PostDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SearchCursorTest {
+
+    @Test
+    void fieldSortCursorSurvivesEncoding() {
+        PostDto post = PostDto.builder()
+                .postId("post-42")
+                .createdAt(LocalDateTime.of(2024, 3, 15, 10, 30, 5))
+                .build();
+
+        SearchCursor decoded = SearchCursor.decode(SearchCursor.after("createdAt", "desc", post).encode());
+
+        assertThat(decoded.getSortBy()).isEqualTo("createdAt");
+        assertThat(decoded.getSortDirection()).isEqualTo("desc");
+        assertThat(decoded.getPostId()).isEqualTo("post-42");
+        assertThat(decoded.anchor().getCreatedAt()).isEqualTo(post.getCreatedAt());
+        assertThat(decoded.matches("createdAt", "DESC")).isTrue();
+        assertThat(decoded.matches("createdAt", "asc")).isFalse();
+    }
+
+    @Test
+    void unsetSortValueStaysNull() {
+        PostDto post = PostDto.builder().postId("draft").build();
+
+        SearchCursor decoded = SearchCursor.decode(SearchCursor.after("publishedAt", "asc", post).encode());
+
+        assertThat(decoded.getValue()).isNull();
+        assertThat(decoded.anchor().getPublishedAt()).isNull();
+    }
+
+    @Test
+    void numericAndTextSortValuesSurviveEncoding() {
+        PostDto post = PostDto.builder().postId("p").title("Ünïcode – title").viewCount(1234).build();
+
+        assertThat(SearchCursor.decode(SearchCursor.after("viewCount", "desc", post).encode()).anchor().getViewCount())
+                .isEqualTo(1234);
+        assertThat(SearchCursor.decode(SearchCursor.after("title", "asc", post).encode()).anchor().getTitle())
+                .isEqualTo("Ünïcode – title");
+    }
+
+    @Test
+    void relevanceCursorKeepsTierAndScore() {
+        SearchCursor decoded = SearchCursor.decode(SearchCursor.afterScore("desc", "post-7", 2, 3.25f).encode());
+
+        assertThat(decoded.getSortBy()).isEqualTo(PostIndex.RELEVANCE);
+        assertThat(decoded.getPostId()).isEqualTo("post-7");
+        assertThat(decoded.getTier()).isEqualTo(2);
+        assertThat(decoded.getScore()).isEqualTo(3.25f);
+    }
+
+    @Test
+    void encodingIsUrlSafe() {
+        String token = SearchCursor.afterScore("desc", "???>>>~~~", 0, 1f).encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        assertThatThrownBy(() -> SearchCursor.decode("not a cursor")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SearchCursor.decode("")).isInstanceOf(IllegalArgumentException.class);
+        String truncated = SearchCursor.afterScore("desc", "post-7", 0, 1f).encode().substring(0, 6);
+        assertThatThrownBy(() -> SearchCursor.decode(truncated)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void otherVersionIsRejected() {
+        byte[] bytes = Base64.getUrlDecoder().decode(SearchCursor.afterScore("desc", "p", 0, 1f).encode());
+        bytes[0] = 2;
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        assertThatThrownBy(() -> SearchCursor.decode(token)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void valueOfTheWrongTypeIsRejected() {
+        PostDto post = PostDto.builder().postId("p").title("not a number").build();
+        SearchCursor forged = new SearchCursor("viewCount", "desc", "p", post.getTitle(), 0, 0);
+
+        assertThatThrownBy(() -> SearchCursor.decode(forged.encode())).isInstanceOf(IllegalArgumentException.class);
+    }
+}
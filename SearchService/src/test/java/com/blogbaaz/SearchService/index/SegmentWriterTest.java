@@ -0,0 +1,118 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.dtos.PostDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SegmentWriterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void segmentReadsBackWhatTheBufferHeld() throws IOException {
+        IndexBuffer buffer = new IndexBuffer();
+        buffer.add(post("a", "Kafka streams", "Consumers read streams from brokers", Set.of("java", "kafka")));
+        PostDto draft = post("b", "Draft on brokers", "Unfinished", Set.of("kafka"));
+        draft.setStatus("DRAFT");
+        draft.setPublished(false);
+        buffer.add(draft);
+        buffer.add(post("c", "Spring brokers", "Brokers and Spring", Set.of("java")));
+
+        IndexSegment segment = write(List.of(buffer), List.of(new RoaringBitmap()));
+
+        assertThat(segment.maxDoc()).isEqualTo(3);
+        assertThat(segment.postIds()).containsExactly("a", "b", "c");
+        assertThat(segment.liveDocs()).isEqualTo(RoaringBitmap.bitmapOf(0, 1, 2));
+        assertThat(segment.publishedDocs()).isEqualTo(RoaringBitmap.bitmapOf(0, 2));
+        for (int docId = 0; docId < 3; docId++) {
+            PostDto original = buffer.doc(docId);
+            PostDto stored = segment.doc(segment.docId(original.getPostId()));
+            assertThat(stored.getTitle()).isEqualTo(original.getTitle());
+            assertThat(stored.getContent()).isEqualTo(original.getContent());
+            assertThat(stored.getTags()).isEqualTo(original.getTags());
+            assertThat(stored.getCreatedAt()).isEqualTo(original.getCreatedAt());
+            assertThat(segment.summary(docId).getContent()).isNull();
+        }
+        assertThat(segment.terms(IndexField.TITLE)).isEqualTo(buffer.terms(IndexField.TITLE));
+        assertThat(segment.valueDocs(IndexField.TAG, "java")).isEqualTo(RoaringBitmap.bitmapOf(0, 2));
+        assertThat(segment.valueDocs(IndexField.TAG, "python")).isNull();
+        assertThat(segment.postings(IndexField.CONTENT, "nothing")).isNull();
+
+        for (IndexField field : IndexField.values()) {
+            if (!field.isTokenized()) {
+                continue;
+            }
+            assertThat(segment.totalFieldLength(field)).isEqualTo(buffer.totalFieldLength(field));
+            for (String term : buffer.terms(field)) {
+                assertSamePostings(buffer.postings(field, term), segment.postings(field, term));
+            }
+            for (int docId = 0; docId < 3; docId++) {
+                assertThat(segment.fieldLength(field, docId)).isEqualTo(buffer.fieldLength(field, docId));
+            }
+        }
+    }
+
+    @Test
+    void deletedDocsAreLeftOutAndTheRestRenumbered() throws IOException {
+        IndexBuffer first = new IndexBuffer();
+        first.add(post("a", "First", "Alpha", Set.of("one")));
+        first.add(post("b", "Second", "Beta", Set.of("two")));
+        IndexBuffer second = new IndexBuffer();
+        second.add(post("c", "Third", "Gamma", Set.of("one")));
+
+        int[][] docMaps = SegmentWriter.write(List.of(first, second),
+                List.of(RoaringBitmap.bitmapOf(0), new RoaringBitmap()), directory.resolve("merged.seg"));
+        IndexSegment segment = IndexSegment.open(directory.resolve("merged.seg"));
+
+        assertThat(docMaps[0]).containsExactly(-1, 0);
+        assertThat(docMaps[1]).containsExactly(1);
+        assertThat(segment.postIds()).containsExactly("b", "c");
+        assertThat(segment.docId("a")).isNegative();
+        assertThat(segment.valueDocs(IndexField.TAG, "one")).isEqualTo(RoaringBitmap.bitmapOf(1));
+        assertThat(segment.postings(IndexField.CONTENT, "alpha")).isNull();
+        assertThat(segment.doc(1).getContent()).isEqualTo("Gamma");
+    }
+
+    private IndexSegment write(List<IndexBuffer> parts, List<RoaringBitmap> deletes) throws IOException {
+        Path path = directory.resolve("segment.seg");
+        SegmentWriter.write(parts, deletes, path);
+        return IndexSegment.open(path);
+    }
+
+    private static PostDto post(String postId, String title, String content, Set<String> tags) {
+        return PostDto.builder()
+                .postId(postId)
+                .title(title)
+                .content(content)
+                .authorId("author-1")
+                .authorName("Jane Smith")
+                .status("PUBLISHED")
+                .isPublished(true)
+                .tags(tags)
+                .category("Blog")
+                .createdAt(LocalDateTime.of(2024, 1, 1, 0, 0))
+                .build();
+    }
+
+    private static void assertSamePostings(Postings expected, Postings actual) {
+        assertThat(actual).isNotNull();
+        assertThat(actual.size()).isEqualTo(expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.docAt(i)).isEqualTo(expected.docAt(i));
+            assertThat(actual.freqAt(i)).isEqualTo(expected.freqAt(i));
+            for (int occurrence = 0; occurrence < expected.freqAt(i); occurrence++) {
+                assertThat(actual.positionAt(i, occurrence)).isEqualTo(expected.positionAt(i, occurrence));
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.blogbaaz.SearchService.index;
+
+import com.blogbaaz.SearchService.dtos.FacetCount;
+import com.blogbaaz.SearchService.dtos.PostSummaryDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class ShardMergeTest {
+
+    @Test
+    void fieldSortInterleavesShardsAndResumesAfterTheLastHit() {
+        PostHits first = page(List.of(dated("a", 9), dated("c", 5), dated("e", 1)), 3, true);
+        PostHits second = page(List.of(dated("b", 7), dated("d", 5)), 2, false);
+
+        PostHits merged = ShardMerge.merge(List.of(first, second), null, "createdAt", "desc", 3, 10, List.of());
+
+        assertThat(postIds(merged)).containsExactly("a", "b", "c");
+        assertThat(merged.getTotalHits()).isEqualTo(5);
+        assertThat(merged.getNext().getPostId()).isEqualTo("c");
+        assertThat(merged.getNext().matches("createdAt", "desc")).isTrue();
+        assertThat(merged.getNext().anchor().getCreatedAt()).isEqualTo(LocalDateTime.of(2024, 1, 5, 0, 0));
+    }
+
+    @Test
+    void equalSortValuesGoByPostId() {
+        PostHits first = page(List.of(dated("q", 5)), 1, false);
+        PostHits second = page(List.of(dated("p", 5)), 1, false);
+
+        PostHits merged = ShardMerge.merge(List.of(first, second), null, "createdAt", "asc", 10, 10, List.of());
+
+        assertThat(postIds(merged)).containsExactly("p", "q");
+        assertThat(merged.getNext()).isNull();
+    }
+
+    @Test
+    void relevanceRanksTierBeforeScoreAndTiesGoToTheLowerShard() {
+        PostHits first = page(List.of(scored("a", 0, 4.0), scored("c", 0, 2.0)), 2, false);
+        PostHits second = page(List.of(scored("b", 1, 1.0), scored("d", 0, 2.0)), 2, false);
+
+        PostHits merged = ShardMerge.merge(List.of(first, second), "kafka", PostIndex.RELEVANCE, "desc", 3, 10, List.of());
+
+        assertThat(postIds(merged)).containsExactly("b", "a", "c");
+        assertThat(merged.getNext().getPostId()).isEqualTo("c");
+        assertThat(merged.getNext().getTier()).isZero();
+        assertThat(merged.getNext().getScore()).isEqualTo(2.0f);
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        PostHits first = page(List.of(dated("a", 2)), 1, false);
+        PostHits second = page(List.of(dated("b", 1)), 1, false);
+
+        assertThat(ShardMerge.merge(List.of(first, second), null, "createdAt", "desc", 2, 10, List.of()).getNext())
+                .isNull();
+    }
+
+    @Test
+    void facetCountsAreSummedAndCutToSize() {
+        PostHits first = new PostHits(List.of(), 4, null, Map.of("tags", List.of(
+                new FacetCount("java", 3), new FacetCount("kafka", 1))));
+        PostHits second = new PostHits(List.of(), 5, null, Map.of("tags", List.of(
+                new FacetCount("kafka", 3), new FacetCount("spring", 2), new FacetCount("java", 1))));
+
+        PostHits merged = ShardMerge.merge(List.of(first, second), null, "createdAt", "desc", 10, 2, List.of());
+
+        assertThat(merged.getFacets().get("tags")).extracting(FacetCount::getValue, FacetCount::getCount)
+                .containsExactly(tuple("java", 4L), tuple("kafka", 4L));
+    }
+
+    @Test
+    void missingShardsAreReported() {
+        PostHits merged = ShardMerge.merge(List.of(page(List.of(dated("a", 1)), 1, false)), null, "createdAt", "desc",
+                10, 10, List.of(1));
+
+        assertThat(merged.getMissingShards()).containsExactly(1);
+        assertThat(postIds(merged)).containsExactly("a");
+    }
+
+    private static PostHits page(List<ScoredPost> hits, long total, boolean more) {
+        SearchCursor next = more ? SearchCursor.afterScore("desc", hits.get(hits.size() - 1).getPost().getPostId(), 0, 0) : null;
+        return new PostHits(hits, total, next, null);
+    }
+
+    private static ScoredPost dated(String postId, int day) {
+        return new ScoredPost(PostSummaryDto.builder().postId(postId).createdAt(LocalDateTime.of(2024, 1, day, 0, 0)).build(),
+                0, null);
+    }
+
+    private static ScoredPost scored(String postId, int tier, double score) {
+        return new ScoredPost(PostSummaryDto.builder().postId(postId).build(), score, null, tier);
+    }
+
+    private static List<String> postIds(PostHits hits) {
+        return hits.getHits().stream().map(hit -> hit.getPost().getPostId()).toList();
+    }
+}
@@ -0,0 +1,48 @@
+package com.blogbaaz.SearchService.suggest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpellCheckerTest {
+
+    @Test
+    void shardSpellingsAreCountedOverAllPosts() {
+        SpellChecker.TermSpelling first = new SpellChecker.TermSpelling(1, List.of(
+                new SpellChecker.Candidate("kafka", 1, 6), new SpellChecker.Candidate("kafkaesque", 5, 2)));
+        SpellChecker.TermSpelling second = new SpellChecker.TermSpelling(0, List.of(
+                new SpellChecker.Candidate("kafka", 1, 5)));
+
+        SpellChecker.TermSpelling merged = SpellChecker.TermSpelling.merge(List.of(first, second));
+
+        assertThat(merged.count()).isEqualTo(1);
+        assertThat(merged.corrections()).containsExactly(
+                new SpellChecker.Candidate("kafka", 1, 11), new SpellChecker.Candidate("kafkaesque", 5, 2));
+    }
+
+    @Test
+    void typoIsCorrectedOnlyOnceTheMergedCountsOutweighIt() {
+        SpellChecker.TermSpelling first = new SpellChecker.TermSpelling(1, List.of(new SpellChecker.Candidate("kafka", 1, 6)));
+        SpellChecker.TermSpelling second = new SpellChecker.TermSpelling(0, List.of(new SpellChecker.Candidate("kafka", 1, 5)));
+
+        // Neither shard alone has the correction ten times as often as the typo
+        assertThat(SpellChecker.didYouMean("kafak streams", spellings(first))).isNull();
+        assertThat(SpellChecker.didYouMean("kafak streams", spellings(SpellChecker.TermSpelling.merge(List.of(first, second)))))
+                .isEqualTo("kafka streams");
+    }
+
+    @Test
+    void termsAreTheWordsDidYouMeanLooksUp() {
+        assertThat(SpellChecker.terms("kafak tag:jvaa \"exact\" OR strems")).contains("kafak", "exact");
+        assertThat(SpellChecker.terms("kafak tag:jvaa OR")).doesNotContain("jvaa", "or");
+    }
+
+    private static Function<String, SpellChecker.TermSpelling> spellings(SpellChecker.TermSpelling kafak) {
+        Map<String, SpellChecker.TermSpelling> byTerm = Map.of("kafak", kafak);
+        return term -> byTerm.getOrDefault(term, new SpellChecker.TermSpelling(3, List.of()));
+    }
+}